@@ -0,0 +1,91 @@
+/**
+ * Hashing e igualdad de {@code CitaId}, la clave embebida que se usa en cada HashSet de citas
+ * y en cada búsqueda del contexto de persistencia.
+ */
+package com.citas.apicitas.benchmarks;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.citas.apicitas.entities.CitaId;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CitaIdBenchmark {
+
+  @Param({"1000", "100000"})
+  private int tamano;
+
+  private CitaId[] ids;
+
+  private CitaId[] copias;
+
+  private Set<CitaId> set;
+
+  private int siguiente;
+
+  @Setup
+  public void setUp() {
+    ids = new CitaId[tamano];
+    copias = new CitaId[tamano];
+
+    for (int i = 0; i < tamano; i++) {
+      ids[i] = Fixtures.citaId(i);
+      // Instancias distintas con el mismo valor, como las que llegan deserializadas en cada petición.
+      copias[i] = new CitaId(ids[i].getIdProfesional(), ids[i].getIdNumeroCedula(), ids[i].getFechaHora());
+    }
+
+    set = new HashSet<>(Arrays.asList(ids));
+  }
+
+  private int next() {
+    int i = siguiente;
+    siguiente = i + 1 == tamano ? 0 : i + 1;
+    return i;
+  }
+
+  @Benchmark
+  public int hashCodeOf() {
+    return copias[next()].hashCode();
+  }
+
+  @Benchmark
+  public boolean equalsToEqualValue() {
+    int i = next();
+    return ids[i].equals(copias[i]);
+  }
+
+  @Benchmark
+  public boolean hashSetContains() {
+    return set.contains(copias[next()]);
+  }
+
+  @Benchmark
+  public Set<CitaId> hashSetBuild() {
+    Set<CitaId> nuevo = new HashSet<>(tamano * 4 / 3 + 1);
+
+    for (CitaId id : copias) {
+      nuevo.add(id);
+    }
+
+    return nuevo;
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Serialización de una página de citas de GET /api/citas en cada formato que se puede negociar: JSON,
+ * la representación compacta, CBOR, Smile y la compacta en CBOR, con y sin gzip. El tamaño de cada cuerpo,
+ * en bytes sin comprimir y con gzip, se imprime al preparar cada combinación.
+ */
+package com.citas.apicitas.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.citas.apicitas.dto.CitaPage;
+import com.citas.apicitas.dto.CompactCitaPage;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.projections.CitaView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CitaPageFormatBenchmark {
+
+  @Param({"json", "compacta", "cbor", "smile", "compacta-cbor"})
+  private String formato;
+
+  @Param({"50", "500"})
+  private int citas;
+
+  private Object pagina;
+
+  private ObjectWriter writer;
+
+  @Setup
+  public void setUp() throws IOException {
+    CitaPage page = pagina(citas);
+
+    pagina = formato.startsWith("compacta") ? CompactCitaPage.of(page) : page;
+    writer = Jackson2ObjectMapperBuilder.json().factory(factory()).build().writer();
+
+    System.out.printf("%n%s, %d citas: %d bytes, %d bytes con gzip%n", formato, citas, serializar().length,
+        serializarGzip().length);
+  }
+
+  @Benchmark
+  public byte[] serializar() throws IOException {
+    return writer.writeValueAsBytes(pagina);
+  }
+
+  @Benchmark
+  public byte[] serializarGzip() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      writer.writeValue(gzip, pagina);
+    }
+
+    return out.toByteArray();
+  }
+
+  private JsonFactory factory() {
+    return switch (formato) {
+      case "cbor", "compacta-cbor" -> new CBORFactory();
+      case "smile" -> new SmileFactory();
+      default -> new JsonFactory();
+    };
+  }
+
+  /**
+   * Crea una página como la que devuelve {@code CitaService.findPage}, con las citas repartidas
+   * entre 20 doctores y 50 pacientes.
+   */
+  private static CitaPage pagina(int n) {
+    List<CitaView> views = new ArrayList<>(n);
+
+    for (int i = 0; i < n; i++) {
+      CitaId id = Fixtures.citaId(i);
+      views.add(new CitaView(i + 1, id.getFechaHora(), id.getIdProfesional(), id.getIdNumeroCedula(),
+          "Doctor" + id.getIdProfesional(), "Apellido" + id.getIdProfesional(), Doctor.Especialidad.medicina_interna,
+          "Paciente" + id.getIdNumeroCedula(), "Apellido" + id.getIdNumeroCedula()));
+    }
+
+    return new CitaPage(views, "MjAzMC0wMy0wNFQwODowMHwxfDE");
+  }
+}
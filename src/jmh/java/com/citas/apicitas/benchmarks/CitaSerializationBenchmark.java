@@ -0,0 +1,53 @@
+/**
+ * Serialización con Jackson de {@code Set<Cita>} con sus Doctor y Paciente anidados,
+ * tal como la produce GET /api/citas/all.
+ */
+package com.citas.apicitas.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.citas.apicitas.entities.Cita;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CitaSerializationBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int citas;
+
+  private Set<Cita> set;
+
+  private ObjectWriter writer;
+
+  @Setup
+  public void setUp() {
+    set = Fixtures.citas(citas);
+    // Mismos módulos y opciones que el ObjectMapper que configura Spring Boot.
+    writer = Jackson2ObjectMapperBuilder.json().build().writerFor(Set.class);
+  }
+
+  @Benchmark
+  public byte[] serializeToBytes() throws JsonProcessingException {
+    return writer.writeValueAsBytes(set);
+  }
+}
@@ -0,0 +1,170 @@
+/**
+ * Altas, modificaciones y bajas de citas a través de {@code CitaService}, con la aplicación completa
+ * arrancada sobre H2 en memoria. Cada operación se mide por separado; la preparación (insertar la cita
+ * que se va a modificar o eliminar) y la limpieza quedan fuera de la medición.
+ */
+package com.citas.apicitas.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.citas.apicitas.ApiCitasApplication;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+import com.citas.apicitas.services.CitaService;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CitaServiceBenchmark {
+
+  private static final int DOCTORES = 20;
+
+  private static final int PACIENTES = 50;
+
+  /**
+   * Aplicación compartida por todos los benchmarks de la clase.
+   */
+  @State(Scope.Benchmark)
+  public static class Aplicacion {
+
+    private ConfigurableApplicationContext context;
+
+    private CitaService citaService;
+
+    private CitaRepository citaRepository;
+
+    private final List<Doctor> doctores = new ArrayList<>();
+
+    private final List<Paciente> pacientes = new ArrayList<>();
+
+    private final AtomicInteger franjas = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void start() {
+      context = new SpringApplicationBuilder(ApiCitasApplication.class)
+        .web(WebApplicationType.NONE)
+        .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.driver-class-name=",
+            "--spring.jpa.properties.hibernate.generate_statistics=false",
+            "--logging.level.root=WARN");
+
+      citaService = context.getBean(CitaService.class);
+      citaRepository = context.getBean(CitaRepository.class);
+
+      for (long d = 1; d <= DOCTORES; d++) {
+        doctores.add(context.getBean(DoctorRepository.class).save(Fixtures.doctor(d)));
+      }
+
+      for (long p = 1; p <= PACIENTES; p++) {
+        pacientes.add(context.getBean(PacienteRepository.class).save(Fixtures.paciente(p)));
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+      context.close();
+    }
+
+    /**
+     * Devuelve una franja que no se ha usado nunca, para que ninguna operación choque con otra.
+     */
+    CitaId nuevaFranja() {
+      return Fixtures.citaId(franjas.getAndIncrement());
+    }
+
+    Cita cita(CitaId id) {
+      return new Cita(id, doctores.get((int) id.getIdProfesional() - 1), pacientes.get((int) id.getIdNumeroCedula() - 1));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Alta {
+
+    private CitaId id;
+
+    @Setup(Level.Invocation)
+    public void prepare(Aplicacion app) {
+      id = app.nuevaFranja();
+    }
+
+    @TearDown(Level.Invocation)
+    public void cleanUp(Aplicacion app) {
+      app.citaRepository.findByClave(id).ifPresent(app.citaRepository::delete);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Modificacion {
+
+    private CitaId id;
+
+    private CitaId nuevoId;
+
+    @Setup(Level.Invocation)
+    public void prepare(Aplicacion app) {
+      id = app.nuevaFranja();
+      nuevoId = app.nuevaFranja();
+      app.citaRepository.save(app.cita(id));
+    }
+
+    @TearDown(Level.Invocation)
+    public void cleanUp(Aplicacion app) {
+      app.citaRepository.findByClave(nuevoId).ifPresent(app.citaRepository::delete);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Baja {
+
+    private CitaId id;
+
+    @Setup(Level.Invocation)
+    public void prepare(Aplicacion app) {
+      id = app.nuevaFranja();
+      app.citaRepository.save(app.cita(id));
+    }
+  }
+
+  @Benchmark
+  public Cita addCita(Aplicacion app, Alta alta) {
+    return app.citaService.addCita(alta.id, app.cita(alta.id));
+  }
+
+  @Benchmark
+  public Cita modifyCita(Aplicacion app, Modificacion modificacion) {
+    return app.citaService.modifyCita(modificacion.id, modificacion.nuevoId);
+  }
+
+  @Benchmark
+  public void deleteCita(Aplicacion app, Baja baja) {
+    app.citaService.deleteCita(baja.id);
+  }
+}
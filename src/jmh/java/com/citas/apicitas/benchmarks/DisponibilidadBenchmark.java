@@ -0,0 +1,102 @@
+/**
+ * Cálculo de los horarios libres de 30 días a través de {@code DisponibilidadService}, con la aplicación
+ * completa arrancada sobre H2 en memoria: para un doctor y para los 50 doctores de una especialidad, cada uno
+ * con una cita cada hora y media de la jornada. Incluye la consulta de las citas ocupadas del rango.
+ */
+package com.citas.apicitas.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.citas.apicitas.ApiCitasApplication;
+import com.citas.apicitas.dto.Disponibilidad;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+import com.citas.apicitas.services.DisponibilidadService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DisponibilidadBenchmark {
+
+  private static final int DOCTORES = 50;
+
+  private static final LocalDate DESDE = Fixtures.INICIO.toLocalDate();
+
+  private static final LocalDate HASTA = DESDE.plusDays(29);
+
+  private ConfigurableApplicationContext context;
+
+  private DisponibilidadService disponibilidadService;
+
+  @Setup(Level.Trial)
+  public void start() {
+    context = new SpringApplicationBuilder(ApiCitasApplication.class)
+      .web(WebApplicationType.NONE)
+      .run("--spring.datasource.url=jdbc:h2:mem:disponibilidad;DB_CLOSE_DELAY=-1",
+          "--spring.datasource.username=sa",
+          "--spring.datasource.password=",
+          "--spring.datasource.driver-class-name=",
+          "--spring.jpa.properties.hibernate.generate_statistics=false",
+          "--logging.level.root=WARN");
+
+    disponibilidadService = context.getBean(DisponibilidadService.class);
+
+    List<Cita> citas = new ArrayList<>();
+
+    for (long d = 1; d <= DOCTORES; d++) {
+      Doctor doctor = context.getBean(DoctorRepository.class).save(Fixtures.doctor(d));
+      Paciente paciente = context.getBean(PacienteRepository.class).save(Fixtures.paciente(d));
+
+      for (LocalDate dia = DESDE; !dia.isAfter(HASTA); dia = dia.plusDays(1)) {
+        for (LocalDateTime hora = dia.atTime(8, 0); hora.getHour() < 17; hora = hora.plusMinutes(90)) {
+          citas.add(new Cita(new CitaId(d, d, hora), doctor, paciente));
+        }
+      }
+    }
+
+    context.getBean(CitaRepository.class).saveAll(citas);
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  @Benchmark
+  public Disponibilidad unDoctor() {
+    return disponibilidadService.findByDoctor(1L, DESDE, HASTA);
+  }
+
+  @Benchmark
+  public List<Disponibilidad> especialidad() {
+    return disponibilidadService.findByEspecialidad(Doctor.Especialidad.medicina_interna, DESDE, HASTA);
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Datos de prueba compartidos por los benchmarks.
+ */
+package com.citas.apicitas.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+
+final class Fixtures {
+
+  static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+  private Fixtures() {
+  }
+
+  static Doctor doctor(long id) {
+    return new Doctor(id, "Doctor" + id, "Apellido" + id, "doctor" + id + "@eps.co",
+        Doctor.Especialidad.medicina_interna, new HashSet<>());
+  }
+
+  static Paciente paciente(long id) {
+    return new Paciente(id, "Paciente" + id, "Apellido" + id, "310000000" + id, INICIO.minusYears(40), new HashSet<>());
+  }
+
+  static CitaId citaId(int i) {
+    return new CitaId(1 + i % 20, 1 + i % 50, INICIO.plusMinutes(30L * i));
+  }
+
+  /**
+   * Crea {@code n} citas repartidas entre 20 doctores y 50 pacientes, con las entidades anidadas compartidas
+   * como las devolvería el contexto de persistencia.
+   */
+  static Set<Cita> citas(int n) {
+    Doctor[] doctores = new Doctor[20];
+    Paciente[] pacientes = new Paciente[50];
+    Set<Cita> citas = new LinkedHashSet<>();
+
+    for (int i = 0; i < n; i++) {
+      CitaId id = citaId(i);
+      Doctor doctor = doctores[i % 20] != null ? doctores[i % 20] : (doctores[i % 20] = doctor(id.getIdProfesional()));
+      Paciente paciente = pacientes[i % 50] != null ? pacientes[i % 50]
+          : (pacientes[i % 50] = paciente(id.getIdNumeroCedula()));
+      citas.add(new Cita(id, doctor, paciente));
+    }
+
+    return citas;
+  }
+}
@@ -0,0 +1,74 @@
+/**
+ * Búsqueda de pacientes por prefijo en el índice en memoria, con nombres y apellidos frecuentes repetidos
+ * entre muchos pacientes y teléfonos distintos. Cada búsqueda pide una página de 20 resultados.
+ */
+package com.citas.apicitas.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.citas.apicitas.dto.SearchPage;
+import com.citas.apicitas.projections.PacienteSummary;
+import com.citas.apicitas.search.SearchIndex;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SearchIndexBenchmark {
+
+  private static final String[] NOMBRES = {"María", "José", "Luis", "Ana", "Carlos", "Juan", "Laura", "Andrés",
+      "Sofía", "Jorge", "Camila", "Diego", "Valentina", "Santiago", "Paula", "Andrea", "Felipe", "Daniela",
+      "Sebastián", "Natalia"};
+
+  private static final String[] APELLIDOS = {"García", "Rodríguez", "Martínez", "López", "González", "Pérez",
+      "Sánchez", "Ramírez", "Torres", "Flórez", "Rivera", "Gómez", "Díaz", "Reyes", "Moreno", "Jiménez",
+      "Muñoz", "Rojas", "Ortiz", "Castro", "Vargas", "Herrera", "Medina", "Aguilar", "Castillo", "Suárez"};
+
+  @Param({"100000", "1000000"})
+  private int pacientes;
+
+  @Param({"ma", "gonzalez", "maria gonz", "3104", "3104567"})
+  private String consulta;
+
+  private SearchIndex<PacienteSummary> index;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    index = new SearchIndex<>(3);
+
+    for (long id = 1; id <= pacientes; id++) {
+      String nombre = NOMBRES[random.nextInt(NOMBRES.length)];
+      String apellido = APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+      String telefono = "3" + (100_000_000 + random.nextInt(900_000_000));
+      PacienteSummary paciente = new PacienteSummary(id, nombre, apellido, telefono, Fixtures.INICIO.minusYears(30));
+
+      index.indexar(id, paciente, null, nombre, apellido, telefono);
+    }
+  }
+
+  @Benchmark
+  public SearchPage<PacienteSummary> primeraPagina() {
+    return index.buscar(consulta, null, null, 20);
+  }
+
+  @Benchmark
+  public SearchPage<PacienteSummary> paginaIntermedia() {
+    return index.buscar(consulta, null, (long) pacientes / 2, 20);
+  }
+}
@@ -0,0 +1,189 @@
+/**
+ * Tiempo de arranque de la aplicación empaquetada con el perfil de Maven "arranque" (target/arranque) y el perfil
+ * de Spring "produccion": desde que se lanza la JVM hasta que /actuator/health/readiness responde 200, con y sin
+ * la configuración generada por Spring AOT y con y sin archivo CDS. El archivo CDS de cada modo se genera al
+ * preparar el benchmark con una ejecución de entrenamiento (citas.arranque.salir-al-arrancar=true).
+ *
+ * Se ejecuta con mvn verify -Parranque,jmh -Djmh.args="StartupBenchmark". Usa H2 en memoria con las migraciones
+ * de src/test/resources y sin calentamiento, de modo que mide solo el arranque; la salida de cada ejecución queda
+ * en target/arranque/startup-*.log.
+ */
+package com.citas.apicitas.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+  private static final Path DIRECTORIO = Paths.get("target", "arranque");
+
+  private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(3);
+
+  @Param({"jit", "aot", "jit-cds", "aot-cds"})
+  private String modo;
+
+  private Path archivoCds;
+
+  private Process proceso;
+
+  private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, InterruptedException {
+    if (!modo.endsWith("cds")) {
+      return;
+    }
+
+    archivoCds = DIRECTORIO.resolve("startup-" + modo + ".jsa").toAbsolutePath();
+    Files.deleteIfExists(archivoCds);
+
+    Process entrenamiento = lanzar(List.of("-XX:ArchiveClassesAtExit=" + archivoCds),
+        List.of("--citas.arranque.salir-al-arrancar=true"), "entrenamiento");
+
+    if (!entrenamiento.waitFor(ESPERA_MAXIMA.toSeconds(), TimeUnit.SECONDS) || entrenamiento.exitValue() != 0
+        || !Files.exists(archivoCds)) {
+      entrenamiento.destroyForcibly();
+      throw new IllegalStateException("CDS training run failed, see " + log("entrenamiento"));
+    }
+  }
+
+  @Benchmark
+  public int arrancar() throws IOException, InterruptedException {
+    int puerto = puertoLibre();
+    List<String> jvm = archivoCds == null ? List.of() : List.of("-XX:SharedArchiveFile=" + archivoCds);
+
+    proceso = lanzar(jvm, List.of("--server.port=" + puerto), "arranque");
+
+    HttpRequest readiness = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/actuator/health/readiness"))
+      .timeout(Duration.ofSeconds(1))
+      .build();
+    long limite = System.nanoTime() + ESPERA_MAXIMA.toNanos();
+
+    while (System.nanoTime() < limite) {
+      if (!proceso.isAlive()) {
+        throw new IllegalStateException("Application exited during startup, see " + log("arranque"));
+      }
+
+      try {
+        int estado = client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode();
+
+        if (estado == 200) {
+          return estado;
+        }
+      } catch (IOException e) {
+        // El servidor todavía no escucha
+      }
+
+      Thread.sleep(10);
+    }
+
+    throw new IllegalStateException("Application not ready after " + ESPERA_MAXIMA + ", see " + log("arranque"));
+  }
+
+  @TearDown(Level.Invocation)
+  public void detener() throws InterruptedException {
+    if (proceso != null) {
+      proceso.destroy();
+
+      if (!proceso.waitFor(30, TimeUnit.SECONDS)) {
+        proceso.destroyForcibly().waitFor();
+      }
+    }
+  }
+
+  /**
+   * Lanza la aplicación de target/arranque con H2 en memoria, el perfil "produccion" y el modo del benchmark.
+   */
+  private Process lanzar(List<String> opcionesJvm, List<String> argumentos, String nombre) throws IOException {
+    List<String> comando = new ArrayList<>();
+
+    comando.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    comando.addAll(opcionesJvm);
+
+    if (modo.startsWith("aot")) {
+      comando.add("-Dspring.aot.enabled=true");
+    }
+
+    comando.addAll(List.of("-cp", aplicacion() + File.pathSeparator + h2(), "com.citas.apicitas.ApiCitasApplication",
+        "--spring.profiles.active=produccion",
+        "--spring.datasource.url=jdbc:h2:mem:arranque;DB_CLOSE_DELAY=-1",
+        "--spring.datasource.driver-class-name=org.h2.Driver",
+        "--spring.datasource.username=sa",
+        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "--spring.flyway.locations=filesystem:src/test/resources/db/migration/h2",
+        "--citas.arranque.calentamiento.habilitado=false"));
+    comando.addAll(argumentos);
+
+    return new ProcessBuilder(comando)
+      .redirectErrorStream(true)
+      .redirectOutput(log(nombre).toFile())
+      .start();
+  }
+
+  private Path log(String nombre) {
+    return DIRECTORIO.resolve("startup-" + modo + "-" + nombre + ".log");
+  }
+
+  /**
+   * Jar de la aplicación generado por el perfil "arranque", que lleva sus dependencias de lib/ en el manifiesto.
+   */
+  private static String aplicacion() throws IOException {
+    try (Stream<Path> ficheros = Files.list(DIRECTORIO)) {
+      return ficheros.filter(fichero -> fichero.getFileName().toString().endsWith("-arranque.jar"))
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("Run with the Maven profile \"arranque\" (mvn verify -Parranque,jmh)"))
+        .toString();
+    }
+  }
+
+  /**
+   * Controlador de H2, que está en el classpath de pruebas del benchmark pero no entre las dependencias de la
+   * aplicación.
+   */
+  private static String h2() {
+    return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+      .filter(entrada -> Paths.get(entrada).getFileName().toString().startsWith("h2-"))
+      .findFirst()
+      .orElseThrow(() -> new IllegalStateException("H2 driver not found in the classpath"));
+  }
+
+  private static int puertoLibre() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -1,18 +1,34 @@
 /**
  * La clase principal de la aplicación que inicia la ejecución de la API de Citas.
- * Utiliza la anotación {@link org.springframework.boot.autoconfigure.SpringBootApplication}
- * para indicar que es una clase de aplicación de Spring Boot.
+ * Su configuración equivale a la de {@link org.springframework.boot.autoconfigure.SpringBootApplication},
+ * pero excluye del escaneo el paquete {@code com.citas.apicitas.reactive} y la configuración automática
+ * de R2DBC, que pertenecen a la variante WebFlux + R2DBC de la API ({@link ReactiveCitasApplication}).
  */
-@SpringBootApplication
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = R2dbcAutoConfiguration.class)
+@ComponentScan(excludeFilters = {
+    @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+    @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+    @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.citas\\.apicitas\\.reactive\\..*")
+})
 public class ApiCitasApplication {
 
     /**
      * Método principal que inicia la aplicación Spring Boot.
+     * Si el perfil {@code reactivo} está activo (por ejemplo con {@code --spring.profiles.active=reactivo}),
+     * arranca la variante WebFlux + R2DBC en lugar de la de Spring MVC + JPA.
      *
      * @param args Argumentos de línea de comandos que se pueden proporcionar al iniciar la aplicación.
      */
     public static void main(String[] args) {
-        SpringApplication.run(ApiCitasApplication.class, args);
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+
+        if (environment.acceptsProfiles(Profiles.of(ReactiveCitasApplication.PERFIL))) {
+            ReactiveCitasApplication.main(args);
+        } else {
+            SpringApplication.run(ApiCitasApplication.class, args);
+        }
     }
 
 }
@@ -0,0 +1,99 @@
+package com.citas.apicitas.caching;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * ETag y cabeceras de caché HTTP de los datos de referencia (doctores y pacientes).
+ *
+ * <p>El ETag de una entidad se deriva de sus columnas {@code version} y {@code ultima_modificacion}, por lo que
+ * es el mismo en todas las instancias. El de un listado es la versión de su tabla en {@code version_datos}, que
+ * se incrementa en la misma transacción que cada escritura: todas las instancias ven el mismo ETag y lo cambian
+ * a la vez, y una petición condicional que coincide se responde con 304 leyendo solo esa fila por su clave, sin
+ * cargar el listado.</p>
+ */
+@Component
+public class ReferenceDataVersions {
+
+  /**
+   * Tabla de los listados de doctores.
+   */
+  public static final String DOCTOR = "doctor";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final CacheControl cacheControl;
+
+  /**
+   * Crea el registro de versiones.
+   *
+   * @param jdbcTemplate   Acceso a la tabla {@code version_datos}.
+   * @param maxAgeSegundos Segundos que un cliente puede reutilizar una respuesta antes de revalidarla.
+   */
+  public ReferenceDataVersions(JdbcTemplate jdbcTemplate,
+                               @Value("${citas.cache-http.max-age-segundos:60}") long maxAgeSegundos) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSegundos)).mustRevalidate();
+  }
+
+  /**
+   * Devuelve el ETag actual de los listados de una tabla. Debe obtenerse antes de leer el listado: si una
+   * escritura se confirma entre ambas lecturas, el ETag es anterior a los datos y la siguiente petición
+   * condicional recibe el listado completo, nunca un 304 con datos antiguos.
+   *
+   * @param tabla Nombre de la tabla.
+   * @return ETag fuerte, entre comillas.
+   */
+  public String etag(String tabla) {
+    Long version = jdbcTemplate.queryForObject("select version from version_datos where tabla = ?", Long.class, tabla);
+
+    return "\"" + tabla + "-" + version + "\"";
+  }
+
+  /**
+   * Devuelve el ETag de una entidad a partir de su versión y de su última modificación.
+   *
+   * @param version            Versión de la entidad.
+   * @param ultimaModificacion Fecha y hora de la última modificación.
+   * @return ETag fuerte, entre comillas.
+   */
+  public String etag(Long version, LocalDateTime ultimaModificacion) {
+    return "\"" + version + "-" + ultimaModificacion.toInstant(ZoneOffset.UTC).toEpochMilli() + "\"";
+  }
+
+  /**
+   * Registra que una tabla ha cambiado. Si hay una transacción en curso, la versión se incrementa en ella y el
+   * ETag de sus listados cambia al confirmarse junto con los datos; si no, se debe llamar después de confirmar
+   * la escritura.
+   *
+   * @param tabla Nombre de la tabla modificada.
+   */
+  public void modificada(String tabla) {
+    jdbcTemplate.update("update version_datos set version = version + 1 where tabla = ?", tabla);
+  }
+
+  /**
+   * Construye las cabeceras {@code ETag}, {@code Cache-Control} y {@code Vary} de una respuesta de datos de referencia.
+   *
+   * @param etag ETag de la respuesta.
+   * @return Cabeceras de la respuesta.
+   */
+  public HttpHeaders headers(String etag) {
+    HttpHeaders headers = new HttpHeaders();
+
+    headers.setETag(etag);
+    headers.setCacheControl(cacheControl);
+    // El mismo recurso se puede negociar como JSON, CBOR o Smile.
+    headers.setVary(List.of(HttpHeaders.ACCEPT));
+
+    return headers;
+  }
+}
@@ -0,0 +1,42 @@
+package com.citas.apicitas.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Formatos binarios que se pueden negociar con la cabecera {@code Accept}: CBOR ({@code application/cbor})
+ * y Smile ({@code application/x-jackson-smile}). Sus convertidores se crean con el mismo constructor de
+ * {@code ObjectMapper} que el de JSON, de modo que las fechas y demás opciones se serializan igual en los
+ * tres formatos; los que registra Spring MVC por defecto no aplican la configuración de Spring Boot.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+  /**
+   * Convertidor de CBOR.
+   *
+   * @param builder Constructor de {@code ObjectMapper} configurado por Spring Boot.
+   * @return Convertidor que reemplaza al de Spring MVC por defecto.
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  /**
+   * Convertidor de Smile.
+   *
+   * @param builder Constructor de {@code ObjectMapper} configurado por Spring Boot.
+   * @return Convertidor que reemplaza al de Spring MVC por defecto.
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+}
@@ -0,0 +1,117 @@
+package com.citas.apicitas.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} que limita con un semáforo el número de conexiones en uso a la vez.
+ * Cada conexión obtenida retiene un permiso hasta que se cierra. Los hilos que no consiguen permiso
+ * esperan como mucho {@code esperaMillis} y después fallan con {@link SQLTransientConnectionException}.
+ *
+ * <p>Con hilos virtuales, esperar en el semáforo libera el hilo portador, mientras que esperar dentro
+ * del pool o del driver puede bloquearlo; por eso la admisión se hace antes de llegar al pool.</p>
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+  private final Semaphore permisos;
+
+  private final long esperaMillis;
+
+  /**
+   * Crea el envoltorio sobre el {@link DataSource} real.
+   *
+   * @param target        DataSource real, normalmente el pool de Hikari.
+   * @param maxConexiones Número máximo de conexiones en uso simultáneo.
+   * @param esperaMillis  Tiempo máximo de espera de un permiso, en milisegundos.
+   */
+  public ConnectionLimitingDataSource(DataSource target, int maxConexiones, long esperaMillis) {
+    super(target);
+    this.permisos = new Semaphore(maxConexiones);
+    this.esperaMillis = esperaMillis;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    adquirir();
+
+    try {
+      return liberarAlCerrar(obtainTargetDataSource().getConnection());
+    } catch (SQLException | RuntimeException ex) {
+      permisos.release();
+      throw ex;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    adquirir();
+
+    try {
+      return liberarAlCerrar(obtainTargetDataSource().getConnection(username, password));
+    } catch (SQLException | RuntimeException ex) {
+      permisos.release();
+      throw ex;
+    }
+  }
+
+  /**
+   * Devuelve el número de permisos disponibles, útil para métricas.
+   *
+   * @return Permisos libres en este momento.
+   */
+  public int getPermisosDisponibles() {
+    return permisos.availablePermits();
+  }
+
+  private void adquirir() throws SQLException {
+    try {
+      if (!permisos.tryAcquire(esperaMillis, TimeUnit.MILLISECONDS)) {
+        throw new SQLTransientConnectionException("Connection limit reached, waited " + esperaMillis + " ms");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a connection", ex);
+    }
+  }
+
+  private Connection liberarAlCerrar(Connection connection) {
+    AtomicBoolean liberada = new AtomicBoolean();
+
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+        (proxy, method, args) -> {
+          if ("close".equals(method.getName()) && liberada.compareAndSet(false, true)) {
+            try {
+              return method.invoke(connection, args);
+            } catch (InvocationTargetException ex) {
+              throw ex.getTargetException();
+            } finally {
+              permisos.release();
+            }
+          }
+
+          if ("unwrap".equals(method.getName()) || "isWrapperFor".equals(method.getName())) {
+            Class<?> iface = (Class<?>) args[0];
+
+            if (iface.isInstance(proxy)) {
+              return "unwrap".equals(method.getName()) ? proxy : true;
+            }
+          }
+
+          try {
+            return method.invoke(connection, args);
+          } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+          }
+        });
+  }
+}
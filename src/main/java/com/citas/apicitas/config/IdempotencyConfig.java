@@ -0,0 +1,75 @@
+package com.citas.apicitas.config;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.citas.apicitas.idempotency.IdempotencyFilter;
+import com.citas.apicitas.idempotency.IdempotencyStore;
+import com.citas.apicitas.idempotency.InMemoryIdempotencyStore;
+import com.citas.apicitas.idempotency.JdbcIdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Soporte de la cabecera {@code Idempotency-Key} en las peticiones POST y PUT de /api.
+ * Las respuestas se guardan en memoria ({@code citas.idempotencia.almacen=memoria}, por defecto) o,
+ * cuando hay varios nodos detrás del mismo balanceador, en la tabla {@code idempotencia}
+ * ({@code citas.idempotencia.almacen=jdbc}).
+ */
+@Configuration
+public class IdempotencyConfig {
+
+  /**
+   * Almacén en memoria, acotado por número de claves.
+   *
+   * @param ttlMinutos  Minutos que se conserva cada respuesta.
+   * @param maxEntradas Número máximo de claves guardadas.
+   * @return Almacén de idempotencia local al nodo.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "citas.idempotencia.almacen", havingValue = "memoria", matchIfMissing = true)
+  public IdempotencyStore inMemoryIdempotencyStore(@Value("${citas.idempotencia.ttl-minutos:1440}") long ttlMinutos,
+                                                   @Value("${citas.idempotencia.tamano-maximo:100000}") long maxEntradas) {
+    return new InMemoryIdempotencyStore(Duration.ofMinutes(ttlMinutos), maxEntradas);
+  }
+
+  /**
+   * Almacén en base de datos, compartido por todos los nodos.
+   *
+   * @param jdbcTemplate Acceso a la base de datos.
+   * @param ttlMinutos   Minutos que se conserva cada respuesta.
+   * @param reservaSeg   Segundos que se conserva una petición en curso sin respuesta.
+   * @return Almacén de idempotencia respaldado por la tabla {@code idempotencia}.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "citas.idempotencia.almacen", havingValue = "jdbc")
+  public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                               @Value("${citas.idempotencia.ttl-minutos:1440}") long ttlMinutos,
+                                               @Value("${citas.idempotencia.reserva-segundos:60}") long reservaSeg) {
+    return new JdbcIdempotencyStore(jdbcTemplate, Duration.ofMinutes(ttlMinutos), Duration.ofSeconds(reservaSeg),
+        Clock.systemUTC());
+  }
+
+  /**
+   * Registra el filtro de idempotencia sobre la API.
+   *
+   * @param store        Almacén de las respuestas.
+   * @param objectMapper Serializador de los mensajes de error.
+   * @return Registro del filtro para /api/*.
+   */
+  @Bean
+  public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper) {
+    FilterRegistrationBean<IdempotencyFilter> registration =
+        new FilterRegistrationBean<>(new IdempotencyFilter(store, objectMapper));
+
+    registration.addUrlPatterns("/api/*");
+
+    return registration;
+  }
+}
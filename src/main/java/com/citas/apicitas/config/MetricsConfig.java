@@ -0,0 +1,77 @@
+package com.citas.apicitas.config;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.citas.apicitas.metrics.RequestMetricsInterceptor;
+import com.citas.apicitas.metrics.ServiceMetricsAspect;
+import com.citas.apicitas.metrics.StatementCounter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Instrumentación de los caminos críticos, publicada en /actuator/prometheus junto con las métricas
+ * que Spring Boot ya registra (latencia HTTP por endpoint, pool de Hikari y estadísticas de Hibernate).
+ * Todo lo que se añade aquí son contadores e histogramas de cubetas fijas, baratos de mantener activos
+ * bajo carga.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+  private final MeterRegistry registry;
+
+  public MetricsConfig(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Histograma de latencia por método de servicio ({@code citas.servicio}).
+   *
+   * @return Aspecto que mide los métodos públicos de los servicios.
+   */
+  @Bean
+  public ServiceMetricsAspect serviceMetricsAspect() {
+    return new ServiceMetricsAspect(registry);
+  }
+
+  /**
+   * Registra en Hibernate el contador de sentencias por petición.
+   *
+   * @return Personalizador de las propiedades de Hibernate.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer statementCounterCustomizer() {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+  }
+
+  /**
+   * Publica los permisos libres del limitador de conexiones cuando el modo de hilos virtuales está activo.
+   *
+   * @param dataSources DataSources de la aplicación.
+   * @return Binder de la métrica {@code citas.db.permisos.disponibles}.
+   */
+  @Bean
+  public MeterBinder connectionLimiterMetrics(ObjectProvider<DataSource> dataSources) {
+    return meterRegistry -> dataSources.forEach(dataSource -> {
+      if (dataSource instanceof ConnectionLimitingDataSource limitador) {
+        Gauge.builder("citas.db.permisos.disponibles", limitador, ConnectionLimitingDataSource::getPermisosDisponibles)
+          .description("Free permits of the connection limiter in virtual-thread mode")
+          .register(meterRegistry);
+      }
+    });
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry interceptors) {
+    interceptors.addInterceptor(new RequestMetricsInterceptor(registry)).addPathPatterns("/api/**");
+  }
+}
@@ -0,0 +1,164 @@
+package com.citas.apicitas.config;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.citas.apicitas.ratelimit.AdaptiveConcurrencyLimiter;
+import com.citas.apicitas.ratelimit.ConcurrencyLimitInterceptor;
+import com.citas.apicitas.ratelimit.RateLimitInterceptor;
+import com.citas.apicitas.ratelimit.RouteBudget;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Protección de la API frente a clientes que abusan de ella y frente a la sobrecarga de la base de datos.
+ * Los dos mecanismos se activan por separado:
+ * <ul>
+ *   <li>{@code citas.limites.tasa.habilitada=true}: límite de peticiones por cliente y grupo de rutas (429).</li>
+ *   <li>{@code citas.limites.concurrencia.habilitada=true}: límite adaptativo de peticiones simultáneas (503).</li>
+ * </ul>
+ * El límite por cliente se comprueba antes, de modo que un cliente que lo supera no consume permisos del
+ * límite de concurrencia.
+ */
+@Configuration
+public class RateLimitConfig {
+
+  /**
+   * Límite de peticiones por cliente.
+   */
+  @Configuration
+  @ConditionalOnProperty(name = "citas.limites.tasa.habilitada", havingValue = "true")
+  static class RateLimiting implements WebMvcConfigurer {
+
+    @Value("${citas.limites.tasa.cabecera-clave:X-API-Key}")
+    private String cabeceraClave;
+
+    @Value("${citas.limites.tasa.claves:}")
+    private List<String> claves;
+
+    @Value("${citas.limites.tasa.max-clientes:100000}")
+    private long maxClientes;
+
+    @Value("${citas.limites.tasa.listados.capacidad:20}")
+    private long listadosCapacidad;
+
+    @Value("${citas.limites.tasa.listados.por-segundo:5}")
+    private double listadosPorSegundo;
+
+    @Value("${citas.limites.tasa.listados.rutas:}")
+    private List<String> listadosRutas;
+
+    @Value("${citas.limites.tasa.importaciones.capacidad:2}")
+    private long importacionesCapacidad;
+
+    @Value("${citas.limites.tasa.importaciones.por-segundo:0.2}")
+    private double importacionesPorSegundo;
+
+    @Value("${citas.limites.tasa.importaciones.rutas:}")
+    private List<String> importacionesRutas;
+
+    @Value("${citas.limites.tasa.reservas.capacidad:50}")
+    private long reservasCapacidad;
+
+    @Value("${citas.limites.tasa.reservas.por-segundo:20}")
+    private double reservasPorSegundo;
+
+    @Value("${citas.limites.tasa.reservas.rutas:}")
+    private List<String> reservasRutas;
+
+    @Value("${citas.limites.tasa.general.capacidad:100}")
+    private long generalCapacidad;
+
+    @Value("${citas.limites.tasa.general.por-segundo:50}")
+    private double generalPorSegundo;
+
+    private final MeterRegistry registry;
+
+    private final ApplicationAvailability availability;
+
+    RateLimiting(MeterRegistry registry, ApplicationAvailability availability) {
+      this.registry = registry;
+      this.availability = availability;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+      List<RouteBudget> presupuestos = List.of(
+          new RouteBudget("listados", listadosCapacidad, listadosPorSegundo, normalizar(listadosRutas)),
+          new RouteBudget("importaciones", importacionesCapacidad, importacionesPorSegundo, normalizar(importacionesRutas)),
+          new RouteBudget("reservas", reservasCapacidad, reservasPorSegundo, normalizar(reservasRutas)),
+          new RouteBudget("general", generalCapacidad, generalPorSegundo, Set.of()));
+
+      interceptors.addInterceptor(new RateLimitInterceptor(presupuestos, cabeceraClave, normalizar(claves), maxClientes,
+          registry, availability))
+        .addPathPatterns("/api/**")
+        .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    private static Set<String> normalizar(List<String> valores) {
+      Set<String> normalizadas = new HashSet<>();
+
+      valores.stream().map(String::trim).filter(valor -> !valor.isEmpty()).forEach(normalizadas::add);
+
+      return normalizadas;
+    }
+  }
+
+  /**
+   * Límite adaptativo de concurrencia.
+   */
+  @Configuration
+  @ConditionalOnProperty(name = "citas.limites.concurrencia.habilitada", havingValue = "true")
+  static class ConcurrencyLimiting implements WebMvcConfigurer {
+
+    private final MeterRegistry registry;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    ConcurrencyLimiting(MeterRegistry registry,
+                        @Value("${citas.limites.concurrencia.inicial:${spring.datasource.hikari.maximum-pool-size:10}}") int inicial,
+                        @Value("${citas.limites.concurrencia.minimo:4}") int minimo,
+                        @Value("${citas.limites.concurrencia.maximo:200}") int maximo,
+                        @Value("${citas.limites.concurrencia.tolerancia:2.0}") double tolerancia) {
+      this.registry = registry;
+      this.limiter = new AdaptiveConcurrencyLimiter(inicial, minimo, maximo, tolerancia);
+    }
+
+    /**
+     * Limitador compartido por todas las peticiones de la API.
+     *
+     * @return Limitador, con las métricas {@code citas.limites.concurrencia} y {@code citas.limites.en-curso}.
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter() {
+      Gauge.builder("citas.limites.concurrencia", limiter, AdaptiveConcurrencyLimiter::getLimite)
+        .description("Current adaptive concurrency limit")
+        .register(registry);
+      Gauge.builder("citas.limites.en-curso", limiter, AdaptiveConcurrencyLimiter::getEnCurso)
+        .description("Requests currently admitted by the concurrency limiter")
+        .register(registry);
+
+      return limiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+      // La suscripción a eventos es una conexión larga que no usa la base de datos mientras espera.
+      interceptors.addInterceptor(new ConcurrencyLimitInterceptor(limiter, registry))
+        .addPathPatterns("/api/**")
+        .excludePathPatterns("/api/citas/eventos")
+        .order(Ordered.HIGHEST_PRECEDENCE + 1);
+    }
+  }
+}
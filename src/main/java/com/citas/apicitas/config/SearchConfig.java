@@ -0,0 +1,40 @@
+package com.citas.apicitas.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.citas.apicitas.projections.DoctorSummary;
+import com.citas.apicitas.projections.PacienteSummary;
+import com.citas.apicitas.search.SearchIndex;
+
+/**
+ * Índices en memoria de las búsquedas de pacientes ({@code GET /api/pacientes/buscar}) y de doctores
+ * ({@code GET /api/doctores/buscar}). Cada servicio los carga al arrancar y los mantiene al día con sus
+ * altas, modificaciones y eliminaciones.
+ */
+@Configuration
+public class SearchConfig {
+
+  /**
+   * Índice de pacientes por nombre, apellido y teléfono.
+   *
+   * @param longitudPrefijo Longitud máxima de los prefijos con lista propia.
+   * @return Índice vacío.
+   */
+  @Bean
+  public SearchIndex<PacienteSummary> pacienteSearchIndex(@Value("${citas.busqueda.longitud-prefijo:3}") int longitudPrefijo) {
+    return new SearchIndex<>(longitudPrefijo);
+  }
+
+  /**
+   * Índice de doctores por nombre, apellido y correo, filtrable por especialidad.
+   *
+   * @param longitudPrefijo Longitud máxima de los prefijos con lista propia.
+   * @return Índice vacío.
+   */
+  @Bean
+  public SearchIndex<DoctorSummary> doctorSearchIndex(@Value("${citas.busqueda.longitud-prefijo:3}") int longitudPrefijo) {
+    return new SearchIndex<>(longitudPrefijo);
+  }
+}
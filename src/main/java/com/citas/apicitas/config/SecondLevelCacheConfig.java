@@ -0,0 +1,46 @@
+package com.citas.apicitas.config;
+
+import java.net.URI;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Configuración del gestor JCache usado por la caché de segundo nivel de Hibernate.
+ * Cada contexto de aplicación obtiene su propio gestor (con la configuración de regiones de
+ * {@code application.conf}), de modo que varios contextos en la misma JVM, como los reinicios de
+ * devtools o las pruebas, no comparten regiones con datos de otra base de datos.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+  /**
+   * Crea el gestor de caché de Caffeine para este contexto.
+   *
+   * @return Gestor JCache que se cierra junto con el contexto.
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager() {
+    return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+      .getCacheManager(URI.create("urn:api-citas:" + UUID.randomUUID()), getClass().getClassLoader());
+  }
+
+  /**
+   * Entrega el gestor de caché a Hibernate en lugar de dejar que use el gestor por defecto de la JVM.
+   *
+   * @param hibernateCacheManager Gestor de caché de este contexto.
+   * @return Personalizador de las propiedades de Hibernate.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+    return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+}
@@ -0,0 +1,101 @@
+package com.citas.apicitas.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.citas.apicitas.outbox.OutboxRelay;
+import com.citas.apicitas.startup.WarmupRunner;
+import com.citas.apicitas.writebehind.CitaWriteBehind;
+
+/**
+ * Arranque de las instancias que el autoescalado crea en los picos de reservas (perfil {@code produccion}).
+ * <ul>
+ *   <li>Con {@code spring.main.lazy-initialization=true} los beans se crean la primera vez que se usan, salvo los
+ *   que arrancan trabajo en segundo plano (lector de eventos, escritura diferida), que no esperan a una petición.</li>
+ *   <li>{@code citas.arranque.calentamiento.habilitado=true}: la instancia no se declara lista hasta que
+ *   {@link WarmupRunner} ha calentado los endpoints más usados.</li>
+ *   <li>{@code citas.arranque.salir-al-arrancar=true}: la aplicación termina en cuanto está lista. Es la ejecución
+ *   de entrenamiento con la que se genera el archivo CDS ({@code -XX:ArchiveClassesAtExit}).</li>
+ * </ul>
+ * Las dos propiedades se leen al arrancar y no con {@code @ConditionalOnProperty}: con Spring AOT las condiciones
+ * se evalúan al compilar, y la ejecución de entrenamiento usa la misma compilación que la de producción.
+ * Registra además, para la imagen nativa, los recursos que se leen sin pasar por Spring.
+ */
+@Configuration
+@ImportRuntimeHints(StartupConfig.RecursosHints.class)
+public class StartupConfig {
+
+  /**
+   * Beans que se crean al arrancar aunque la inicialización perezosa esté activada.
+   *
+   * @return Filtro de exclusión de la inicialización perezosa.
+   */
+  @Bean
+  public static LazyInitializationExcludeFilter backgroundWorkersLazyInitializationExcludeFilter() {
+    return LazyInitializationExcludeFilter.forBeanTypes(OutboxRelay.class, CitaWriteBehind.class);
+  }
+
+  /**
+   * Calentamiento de los endpoints antes de aceptar tráfico.
+   *
+   * @param context      Contexto de la aplicación.
+   * @param habilitado   Si se calienta la aplicación; si no, el calentamiento no envía ninguna petición.
+   * @param rutas        Rutas a las que se envían las peticiones.
+   * @param peticiones   Número total de peticiones.
+   * @param concurrencia Número de peticiones simultáneas; por defecto, el tamaño del pool de Hikari.
+   * @param segundos     Tiempo máximo del calentamiento.
+   * @return Calentamiento, que se ejecuta antes de publicar {@code ApplicationReadyEvent}.
+   */
+  @Bean
+  public WarmupRunner warmupRunner(ApplicationContext context,
+                                   @Value("${citas.arranque.calentamiento.habilitado:false}") boolean habilitado,
+                                   @Value("${citas.arranque.calentamiento.rutas:/api/citas}") List<String> rutas,
+                                   @Value("${citas.arranque.calentamiento.peticiones:2000}") int peticiones,
+                                   @Value("${citas.arranque.calentamiento.concurrencia:${spring.datasource.hikari.maximum-pool-size:10}}") int concurrencia,
+                                   @Value("${citas.arranque.calentamiento.tiempo-maximo-segundos:30}") long segundos) {
+    return new WarmupRunner(context, rutas, habilitado ? peticiones : 0, concurrencia, Duration.ofSeconds(segundos));
+  }
+
+  /**
+   * Termina la aplicación en cuanto está lista, con código de salida 0, si así se indica.
+   *
+   * @param context Contexto de la aplicación.
+   * @param salir   Si la aplicación termina al arrancar.
+   * @return Listener de {@code ApplicationReadyEvent}.
+   */
+  @Bean
+  public ApplicationListener<ApplicationReadyEvent> salirAlArrancar(ApplicationContext context,
+      @Value("${citas.arranque.salir-al-arrancar:false}") boolean salir) {
+    return event -> {
+      if (salir) {
+        System.exit(SpringApplication.exit(context));
+      }
+    };
+  }
+
+  /**
+   * Recursos del classpath que necesita la imagen nativa: la configuración de las regiones de la caché de
+   * segundo nivel ({@code application.conf}, leída por Caffeine) y las migraciones de cada motor.
+   */
+  static class RecursosHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+      hints.resources()
+        .registerPattern("application.conf")
+        .registerPattern("db/migration/*/*.sql");
+    }
+  }
+}
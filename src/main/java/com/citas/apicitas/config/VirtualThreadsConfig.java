@@ -0,0 +1,72 @@
+package com.citas.apicitas.config;
+
+import java.util.concurrent.Executors;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Modo de ejecución con hilos virtuales (Java 21), activado con {@code citas.hilos-virtuales.habilitados=true}.
+ * Tomcat atiende cada petición en un hilo virtual en lugar de su pool acotado de hilos de plataforma, y las
+ * respuestas asíncronas (por ejemplo, el streaming NDJSON de citas) también se ejecutan en hilos virtuales.
+ *
+ * <p>Como el número de peticiones concurrentes deja de estar limitado por el pool de Tomcat, el acceso a
+ * MySQL se acota con {@link ConnectionLimitingDataSource}: los hilos virtuales que exceden el límite esperan
+ * en un semáforo, sin ocupar hilos portadores, en lugar de acumularse sobre el pool de Hikari.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "citas.hilos-virtuales.habilitados", havingValue = "true")
+public class VirtualThreadsConfig {
+
+  /**
+   * Sustituye el ejecutor de Tomcat por uno que crea un hilo virtual por petición.
+   *
+   * @return Personalizador del conector de Tomcat.
+   */
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  /**
+   * Ejecutor de tareas de la aplicación, usado por Spring MVC para las respuestas asíncronas.
+   *
+   * @return Ejecutor que crea un hilo virtual por tarea.
+   */
+  @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  /**
+   * Envuelve el {@link DataSource} para limitar cuántos hilos pueden obtener o esperar una conexión a la vez.
+   *
+   * @param maxConexiones Número máximo de conexiones en uso simultáneo; por defecto, el tamaño del pool de Hikari.
+   * @param esperaMillis  Tiempo máximo de espera de un permiso antes de fallar.
+   * @return Post-procesador que envuelve los beans {@link DataSource}.
+   */
+  @Bean
+  public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+      @Value("${citas.hilos-virtuales.max-conexiones-concurrentes:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConexiones,
+      @Value("${citas.hilos-virtuales.espera-conexion-ms:${spring.datasource.hikari.connection-timeout:30000}}") long esperaMillis) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+          return new ConnectionLimitingDataSource(dataSource, maxConexiones, esperaMillis);
+        }
+
+        return bean;
+      }
+    };
+  }
+}
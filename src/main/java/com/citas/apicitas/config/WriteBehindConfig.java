@@ -0,0 +1,82 @@
+package com.citas.apicitas.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.citas.apicitas.outbox.OutboxWriter;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.rollup.CitaRollup;
+import com.citas.apicitas.services.DoctorService;
+import com.citas.apicitas.services.PacienteService;
+import com.citas.apicitas.services.SlotLocks;
+import com.citas.apicitas.writebehind.CitaWriteBehind;
+import com.citas.apicitas.writebehind.WriteAheadLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Modo de reserva con escritura diferida, activado con {@code citas.escritura-diferida.habilitada=true}.
+ * POST /api/citas responde 202 (ACCEPTED) en cuanto la cita está en el registro de escritura anticipada
+ * del directorio {@code citas.escritura-diferida.directorio}, y las citas se insertan después en lotes.
+ *
+ * <p>El registro es local al nodo: con varias instancias, cada una debe tener su propio directorio en un
+ * disco persistente, y la exclusión de franjas pendientes solo se aplica dentro de cada instancia.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "citas.escritura-diferida.habilitada", havingValue = "true")
+public class WriteBehindConfig {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Registro de escritura anticipada de las citas aceptadas.
+   *
+   * @param directorio   Directorio de los segmentos y el checkpoint.
+   * @param tamanoMb     Tamaño a partir del cual se empieza un segmento nuevo.
+   * @param esperaMs     Tiempo máximo que una reserva espera a que su entrada sea durable.
+   * @param objectMapper Serializador de las entradas.
+   * @return Registro sin abrir; lo abre {@link CitaWriteBehind#iniciar()}.
+   */
+  @Bean
+  public WriteAheadLog citasWriteAheadLog(@Value("${citas.escritura-diferida.directorio:wal}") Path directorio,
+                                          @Value("${citas.escritura-diferida.tamano-segmento-mb:64}") long tamanoMb,
+                                          @Value("${citas.escritura-diferida.espera-maxima-ms:5000}") long esperaMs,
+                                          ObjectMapper objectMapper) {
+    return new WriteAheadLog(directorio, objectMapper, tamanoMb * 1024 * 1024, Duration.ofMillis(esperaMs));
+  }
+
+  /**
+   * Reserva de citas con escritura diferida.
+   *
+   * @param wal                 Registro de las citas aceptadas.
+   * @param citaRepository      Repositorio en el que se insertan las citas.
+   * @param doctorService       Comprobación del doctor de cada reserva.
+   * @param pacienteService     Comprobación del paciente de cada reserva.
+   * @param slotLocks           Bloqueos de las franjas.
+   * @param transactionTemplate Transacción de cada lote.
+   * @param outboxWriter        Registro del evento de cada cita insertada.
+   * @param citaRollup          Contadores de citas por día y doctor.
+   * @param registry            Registro de las métricas de citas pendientes y descartadas.
+   * @param tamanoLote          Número máximo de citas por lote.
+   * @return Servicio de reservas, que recupera el registro al iniciarse y lo vacía al detenerse.
+   */
+  @Bean(initMethod = "iniciar", destroyMethod = "detener")
+  public CitaWriteBehind citaWriteBehind(WriteAheadLog wal, CitaRepository citaRepository, DoctorService doctorService,
+                                         PacienteService pacienteService, SlotLocks slotLocks,
+                                         TransactionTemplate transactionTemplate, OutboxWriter outboxWriter,
+                                         CitaRollup citaRollup, MeterRegistry registry,
+                                         @Value("${citas.escritura-diferida.tamano-lote:500}") int tamanoLote) {
+    return new CitaWriteBehind(wal, citaRepository, doctorService, pacienteService, slotLocks, transactionTemplate,
+        entityManager, outboxWriter, citaRollup, registry, tamanoLote);
+  }
+}
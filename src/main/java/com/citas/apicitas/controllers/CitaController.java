@@ -1,20 +1,39 @@
 package com.citas.apicitas.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.dto.CitaPage;
+import com.citas.apicitas.dto.CompactCitaPage;
+import com.citas.apicitas.dto.Estadisticas;
 import com.citas.apicitas.entities.Cita;
 import com.citas.apicitas.entities.CitaId;
-import com.citas.apicitas.entities.Doctor;
-import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.exception.BadRequestException;
+import com.citas.apicitas.outbox.OutboxRelay;
+import com.citas.apicitas.projections.CitaView;
 import com.citas.apicitas.services.CitaService;
-import com.citas.apicitas.services.DoctorService;
-import com.citas.apicitas.services.PacienteService;
+import com.citas.apicitas.services.EstadisticasService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 /**
  * Controlador para gestionar las operaciones relacionadas con las citas médicas.
@@ -27,23 +46,99 @@ public class CitaController {
   private CitaService citaService;
 
   @Autowired
-  private DoctorService doctorService;
+  private ObjectMapper objectMapper;
 
   @Autowired
-  private PacienteService pacienteService;
+  private OutboxRelay outboxRelay;
+
+  @Autowired
+  private EstadisticasService estadisticasService;
 
   /**
-   * Obtiene todas las citas médicas.
+   * Obtiene una página de citas médicas mediante paginación por clave.
    *
-   * @return ResponseEntity con el conjunto de citas médicas y estado HTTP 200 (OK).
+   * @param cursor Cursor opaco devuelto por la página anterior; se omite para la primera página.
+   * @param size   Número de citas por página.
+   * @return ResponseEntity con la página de citas médicas y estado HTTP 200 (OK).
    */
   @GetMapping("")
-  public ResponseEntity<Set<Cita>> getCitas() {
-    Set<Cita> citas = citaService.findAll();
+  public ResponseEntity<CitaPage> getCitas(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int size) {
+    CitaPage citas = citaService.findPage(cursor, size);
 
     return new ResponseEntity<>(citas, HttpStatus.OK);
   }
 
+  /**
+   * Obtiene una página de citas médicas en la representación compacta ({@value CompactCitaPage#MEDIA_TYPE}):
+   * cada cita referencia a su doctor y su paciente por identificador, y los datos de ambos se envían una sola vez.
+   *
+   * @param cursor Cursor opaco devuelto por la página anterior; se omite para la primera página.
+   * @param size   Número de citas por página.
+   * @return ResponseEntity con la página compacta de citas médicas y estado HTTP 200 (OK).
+   */
+  @GetMapping(value = "", produces = CompactCitaPage.MEDIA_TYPE)
+  public ResponseEntity<CompactCitaPage> getCitasCompactas(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int size) {
+    CitaPage citas = citaService.findPage(cursor, size);
+
+    return new ResponseEntity<>(CompactCitaPage.of(citas), HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene todas las citas médicas en formato NDJSON (una cita JSON por línea).
+   * Las citas se escriben a medida que se leen de la base de datos, sin cargarlas todas en memoria.
+   *
+   * @return ResponseEntity con el cuerpo en streaming y estado HTTP 200 (OK).
+   */
+  @GetMapping(value = "", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> streamCitas() {
+    ObjectWriter writer = objectMapper.writerFor(CitaView.class)
+      .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+      .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    StreamingResponseBody body = out -> citaService.streamAll(cita -> {
+      try {
+        writer.writeValue(out, cita);
+        out.write('\n');
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    });
+
+    return new ResponseEntity<>(body, HttpStatus.OK);
+  }
+
+  /**
+   * Suscribe al cliente a los eventos de cambio de citas, doctores y pacientes como Server-Sent Events.
+   * Cada evento lleva su posición en el campo {@code id}; al reconectarse, el cliente la reenvía en la
+   * cabecera {@code Last-Event-ID} (o en {@code desde}) y recibe solo los eventos posteriores.
+   *
+   * @param desde       Posición del último evento recibido; 0 para recibir todos los eventos conservados.
+   * @param lastEventId Posición del último evento recibido, enviada por el cliente al reconectarse.
+   * @return ResponseEntity con el flujo de eventos y estado HTTP 200 (OK).
+   * @throws BadRequestException Si la posición no es un número no negativo.
+   */
+  @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> getEventos(@RequestParam(required = false) Long desde,
+                                               @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    Long posicion = desde;
+
+    try {
+      if (posicion == null && lastEventId != null && !lastEventId.isBlank()) {
+        posicion = Long.parseLong(lastEventId.trim());
+      }
+    } catch (NumberFormatException ex) {
+      throw new BadRequestException("Invalid Last-Event-ID: " + lastEventId);
+    }
+
+    if (posicion != null && posicion < 0) {
+      throw new BadRequestException("Invalid event position: " + posicion);
+    }
+
+    return new ResponseEntity<>(outboxRelay.suscribir(posicion), HttpStatus.OK);
+  }
+
   /**
    * Obtiene una cita médica específica mediante parámetros de consulta.
    *
@@ -63,26 +158,118 @@ public class CitaController {
     return new ResponseEntity<>(cita, HttpStatus.OK);
   }
 
+  /**
+   * Obtiene el número de citas de un rango de fechas agrupado por doctor, especialidad, día o semana.
+   * Se calcula con los contadores de citas por día y doctor, sin leer las citas.
+   *
+   * @param agrupar Criterio de agrupación: doctor, especialidad, dia o semana.
+   * @param desde   Primer día del rango (formato ISO, por ejemplo 2024-01-08).
+   * @param hasta   Último día del rango, inclusive.
+   * @return ResponseEntity con las citas de cada grupo y estado HTTP 200 (OK).
+   */
+  @GetMapping("/estadisticas")
+  public ResponseEntity<Estadisticas> getEstadisticas(@RequestParam Estadisticas.Agrupacion agrupar,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+    Estadisticas estadisticas = estadisticasService.contar(agrupar, desde, hasta);
+    return new ResponseEntity<>(estadisticas, HttpStatus.OK);
+  }
+
+  /**
+   * Recalcula los contadores de citas por día y doctor a partir de las citas almacenadas, por ejemplo
+   * después de cargar citas directamente en la base de datos.
+   *
+   * @return ResponseEntity con el estado HTTP 204 (No Content).
+   */
+  @PostMapping("/estadisticas/reconstruir")
+  public ResponseEntity<Void> reconstruirEstadisticas() {
+    estadisticasService.reconstruir();
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+
+  /**
+   * Obtiene una cita médica específica por su identificador numérico.
+   *
+   * @param id Identificador de la cita médica.
+   * @return ResponseEntity con la cita médica solicitada y estado HTTP 200 (OK).
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<Cita> getCita(@PathVariable Long id) {
+    Cita cita = citaService.findById(id);
+
+    return new ResponseEntity<>(cita, HttpStatus.OK);
+  }
+
   /**
    * Agrega una nueva cita médica.
    *
+   * Con la escritura diferida habilitada, la cita se acepta en cuanto queda en el registro de escritura
+   * anticipada y se inserta después; la respuesta es entonces 202 (ACCEPTED) y la cabecera Location apunta
+   * a /api/citas/one-cita, que devuelve 404 hasta que la cita se inserta.
+   *
    * @param citaId Identificador de la cita médica.
-   * @return ResponseEntity con el ID de la cita médica agregada y estado HTTP 201 (CREATED).
+   * @return ResponseEntity con el ID de la cita médica agregada, la URL de la cita (/api/citas/{id}) en la
+   * cabecera Location y estado HTTP 201 (CREATED); o, con la escritura diferida, el ID de la cita aceptada,
+   * la URL /api/citas/one-cita en la cabecera Location y estado HTTP 202 (ACCEPTED).
    */
   @PostMapping("")
   public ResponseEntity<CitaId> addCita(@RequestBody CitaId citaId) {
-    Doctor doctor = doctorService.findById(citaId.getIdProfesional());
-    Paciente paciente = pacienteService.findById(citaId.getIdNumeroCedula());
-
     Cita newCita = new Cita();
 
-    newCita.setId(citaId);
-    newCita.setDoctor(doctor);
-    newCita.setPaciente(paciente);
+    newCita.setClave(citaId);
 
     Cita addedCita = citaService.addCita(citaId, newCita);
 
-    return new ResponseEntity<>(addedCita.getId(), HttpStatus.CREATED);
+    if (addedCita.getId() == null) {
+      CitaId accepted = addedCita.getClave();
+
+      HttpHeaders headers = new HttpHeaders();
+      headers.setLocation(ServletUriComponentsBuilder.fromCurrentRequest()
+        .path("/one-cita")
+        .queryParam("idPaciente", accepted.getIdNumeroCedula())
+        .queryParam("idDoctor", accepted.getIdProfesional())
+        .queryParam("fecha_hora", accepted.getFechaHora())
+        .build()
+        .toUri());
+
+      return new ResponseEntity<>(accepted, headers, HttpStatus.ACCEPTED);
+    }
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setLocation(ServletUriComponentsBuilder.fromCurrentRequest()
+      .path("/{id}")
+      .buildAndExpand(addedCita.getId())
+      .toUri());
+
+    return new ResponseEntity<>(addedCita.getClave(), headers, HttpStatus.CREATED);
+  }
+
+  /**
+   * Agrega varias citas médicas enviadas como un arreglo JSON.
+   *
+   * @param citaIds Identificadores de las citas médicas a agregar.
+   * @return ResponseEntity con el resultado de cada cita y estado HTTP 200 (OK).
+   */
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BatchResult> addCitas(@RequestBody List<CitaId> citaIds) {
+    BatchResult result = citaService.addCitas(citaIds);
+
+    return new ResponseEntity<>(result, HttpStatus.OK);
+  }
+
+  /**
+   * Agrega varias citas médicas enviadas como NDJSON (un identificador JSON por línea).
+   * Las citas se leen del cuerpo a medida que se agregan, por bloques, sin cargar antes el lote completo.
+   *
+   * @param body Cuerpo de la petición en formato NDJSON.
+   * @return ResponseEntity con el resultado de cada cita y estado HTTP 200 (OK).
+   * @throws IOException Si el cuerpo no puede leerse.
+   */
+  @PostMapping(value = "/batch", consumes = "application/x-ndjson")
+  public ResponseEntity<BatchResult> addCitasNdjson(InputStream body) throws IOException {
+    try (MappingIterator<CitaId> citaIds = objectMapper.readerFor(CitaId.class).readValues(body)) {
+      return new ResponseEntity<>(citaService.addCitas(citaIds), HttpStatus.OK);
+    }
   }
 
   /**
@@ -105,6 +292,20 @@ public class CitaController {
     return new ResponseEntity<>(modifyCita, HttpStatus.OK);
   }
 
+  /**
+   * Modifica una cita médica existente por su identificador numérico.
+   *
+   * @param id     Identificador de la cita médica existente.
+   * @param citaId Identificador de la nueva cita médica.
+   * @return ResponseEntity con la cita médica modificada y estado HTTP 200 (OK).
+   */
+  @PutMapping("/{id}")
+  public ResponseEntity<Cita> modifyCita(@PathVariable Long id, @RequestBody CitaId citaId) {
+    Cita modifyCita = citaService.modifyCita(id, citaId);
+
+    return new ResponseEntity<>(modifyCita, HttpStatus.OK);
+  }
+
   /**
    * Elimina una cita médica.
    *
@@ -117,4 +318,17 @@ public class CitaController {
 
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
+
+  /**
+   * Elimina una cita médica por su identificador numérico.
+   *
+   * @param id Identificador de la cita médica a eliminar.
+   * @return ResponseEntity con estado HTTP 204 (NO CONTENT) indicando que la cita se eliminó con éxito.
+   */
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> deleteCita(@PathVariable Long id) {
+    citaService.deleteCita(id);
+
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
 }
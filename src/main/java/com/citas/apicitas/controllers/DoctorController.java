@@ -1,11 +1,30 @@
 package com.citas.apicitas.controllers;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import com.citas.apicitas.caching.ReferenceDataVersions;
+import com.citas.apicitas.dto.Disponibilidad;
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.dto.CitaPage;
+import com.citas.apicitas.dto.CompactCitaPage;
+import com.citas.apicitas.dto.SearchPage;
 import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.projections.DoctorSummary;
+import com.citas.apicitas.services.CitaService;
+import com.citas.apicitas.services.DisponibilidadService;
 import com.citas.apicitas.services.DoctorService;
+import java.time.LocalDate;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 /**
@@ -18,39 +37,188 @@ public class DoctorController {
   @Autowired
   private DoctorService doctorService;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private DisponibilidadService disponibilidadService;
+
+  @Autowired
+  private CitaService citaService;
+
+  @Autowired
+  private ReferenceDataVersions referenceDataVersions;
+
   /**
    * Obtiene la lista de todos los doctores.
+   * Si la cabecera {@code If-None-Match} coincide con el ETag actual del listado, responde 304
+   * sin cargar el listado.
    *
-   * @return ResponseEntity con la lista de doctores y el estado HTTP 200 (OK).
+   * @param request Petición, para evaluar la cabecera {@code If-None-Match}.
+   * @return ResponseEntity con la lista de resúmenes de doctores y el estado HTTP 200 (OK),
+   *         o el estado HTTP 304 (Not Modified) sin cuerpo.
    */
   @GetMapping("")
-  public ResponseEntity<Set<Doctor>> getDoctors() {
-    Set<Doctor> doctors = doctorService.findAll();
-    return new ResponseEntity<>(doctors, HttpStatus.OK);
+  public ResponseEntity<List<DoctorSummary>> getDoctors(WebRequest request) {
+    String etag = referenceDataVersions.etag(ReferenceDataVersions.DOCTOR);
+    HttpHeaders headers = referenceDataVersions.headers(etag);
+
+    if (request.checkNotModified(etag)) {
+      return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    List<DoctorSummary> doctors = doctorService.findAllSummaries();
+    return new ResponseEntity<>(doctors, headers, HttpStatus.OK);
+  }
+
+  /**
+   * Busca doctores por prefijo de su nombre, apellido o correo, paginados por identificador.
+   *
+   * @param q            Texto de la búsqueda; cada palabra debe ser prefijo de alguna palabra del doctor.
+   * @param especialidad Especialidad de los doctores; se omite para buscar en todas.
+   * @param cursor       Identificador del último doctor de la página anterior; se omite para la primera página.
+   * @param size         Número de doctores por página.
+   * @return ResponseEntity con la página de resúmenes de doctores y el estado HTTP 200 (OK).
+   */
+  @GetMapping("/buscar")
+  public ResponseEntity<SearchPage<DoctorSummary>> buscarDoctores(@RequestParam String q,
+                                                                  @RequestParam(required = false) Doctor.Especialidad especialidad,
+                                                                  @RequestParam(required = false) Long cursor,
+                                                                  @RequestParam(defaultValue = "20") int size) {
+    SearchPage<DoctorSummary> page = doctorService.buscar(q, especialidad, cursor, size);
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  /**
+   * Vuelve a cargar el índice de búsqueda de doctores desde la base de datos, por ejemplo después de cargar
+   * doctores directamente en ella. Las búsquedas se siguen atendiendo durante la carga.
+   *
+   * @return ResponseEntity con el estado HTTP 204 (No Content).
+   */
+  @PostMapping("/buscar/reconstruir")
+  public ResponseEntity<Void> reconstruirIndiceDoctores() {
+    doctorService.reconstruirIndice();
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
   /**
    * Obtiene un doctor específico por su identificador.
+   * El doctor se lee de la caché de segundo nivel cuando está en ella; si la cabecera
+   * {@code If-None-Match} coincide con su ETag, responde 304 sin serializarlo.
    *
-   * @param id Identificador único del doctor.
-   * @return ResponseEntity con el doctor encontrado y el estado HTTP 200 (OK).
+   * @param id      Identificador único del doctor.
+   * @param request Petición, para evaluar la cabecera {@code If-None-Match}.
+   * @return ResponseEntity con el doctor encontrado y el estado HTTP 200 (OK),
+   *         o el estado HTTP 304 (Not Modified) sin cuerpo.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<Doctor> getDoctor(@PathVariable Long id) {
+  public ResponseEntity<Doctor> getDoctor(@PathVariable Long id, WebRequest request) {
     Doctor doctor = doctorService.findById(id);
-    return new ResponseEntity<>(doctor, HttpStatus.OK);
+    String etag = referenceDataVersions.etag(doctor.getVersion(), doctor.getUltimaModificacion());
+    HttpHeaders headers = referenceDataVersions.headers(etag);
+
+    if (request.checkNotModified(etag)) {
+      return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    return new ResponseEntity<>(doctor, headers, HttpStatus.OK);
   }
 
   /**
    * Obtiene la lista de doctores por especialidad.
+   * Comparte el ETag del listado de doctores, por lo que una petición condicional que coincide
+   * se responde con 304 sin cargar el listado.
    *
    * @param especialidad Especialidad de los doctores a buscar.
-   * @return ResponseEntity con la lista de doctores y el estado HTTP 200 (OK).
+   * @param request      Petición, para evaluar la cabecera {@code If-None-Match}.
+   * @return ResponseEntity con la lista de doctores y el estado HTTP 200 (OK),
+   *         o el estado HTTP 304 (Not Modified) sin cuerpo.
    */
   @GetMapping("/especialidad/{especialidad}")
-  public ResponseEntity<Set<Doctor>> getDoctorsByEspecialidad(@PathVariable Doctor.Especialidad especialidad) {
+  public ResponseEntity<Set<Doctor>> getDoctorsByEspecialidad(@PathVariable Doctor.Especialidad especialidad,
+                                                              WebRequest request) {
+    String etag = referenceDataVersions.etag(ReferenceDataVersions.DOCTOR);
+    HttpHeaders headers = referenceDataVersions.headers(etag);
+
+    if (request.checkNotModified(etag)) {
+      return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
     Set<Doctor> doctors = doctorService.findAllByEspecialidad(especialidad);
-    return new ResponseEntity<>(doctors, HttpStatus.OK);
+    return new ResponseEntity<>(doctors, headers, HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene los horarios libres de un doctor en un rango de fechas.
+   *
+   * @param id    Identificador único del doctor.
+   * @param desde Primer día del rango (formato ISO, por ejemplo 2024-01-08).
+   * @param hasta Último día del rango, inclusive.
+   * @return ResponseEntity con los horarios libres del doctor y el estado HTTP 200 (OK).
+   */
+  @GetMapping("/{id}/disponibilidad")
+  public ResponseEntity<Disponibilidad> getDisponibilidad(@PathVariable Long id,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+    Disponibilidad disponibilidad = disponibilidadService.findByDoctor(id, desde, hasta);
+    return new ResponseEntity<>(disponibilidad, HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene las citas de un doctor en un rango de fechas, paginadas por clave.
+   *
+   * @param id     Identificador único del doctor.
+   * @param desde  Primer día del rango (formato ISO, por ejemplo 2024-01-08).
+   * @param hasta  Último día del rango, inclusive.
+   * @param cursor Cursor devuelto en la página anterior; se omite para la primera página.
+   * @param size   Número de citas por página.
+   * @return ResponseEntity con la página de citas y el estado HTTP 200 (OK).
+   */
+  @GetMapping("/{id}/citas")
+  public ResponseEntity<CitaPage> getCitas(@PathVariable Long id,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int size) {
+    CitaPage page = citaService.findByDoctor(id, desde, hasta, cursor, size);
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene las citas de un doctor en un rango de fechas en la representación compacta
+   * ({@value CompactCitaPage#MEDIA_TYPE}), con los datos de cada paciente una sola vez.
+   *
+   * @param id     Identificador único del doctor.
+   * @param desde  Primer día del rango (formato ISO, por ejemplo 2024-01-08).
+   * @param hasta  Último día del rango, inclusive.
+   * @param cursor Cursor devuelto en la página anterior; se omite para la primera página.
+   * @param size   Número de citas por página.
+   * @return ResponseEntity con la página compacta de citas y el estado HTTP 200 (OK).
+   */
+  @GetMapping(value = "/{id}/citas", produces = CompactCitaPage.MEDIA_TYPE)
+  public ResponseEntity<CompactCitaPage> getCitasCompactas(@PathVariable Long id,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int size) {
+    CitaPage page = citaService.findByDoctor(id, desde, hasta, cursor, size);
+    return new ResponseEntity<>(CompactCitaPage.of(page), HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene los horarios libres de todos los doctores de una especialidad en un rango de fechas.
+   *
+   * @param especialidad Especialidad de los doctores.
+   * @param desde        Primer día del rango (formato ISO, por ejemplo 2024-01-08).
+   * @param hasta        Último día del rango, inclusive.
+   * @return ResponseEntity con los horarios libres de cada doctor y el estado HTTP 200 (OK).
+   */
+  @GetMapping("/especialidad/{especialidad}/disponibilidad")
+  public ResponseEntity<List<Disponibilidad>> getDisponibilidadByEspecialidad(@PathVariable Doctor.Especialidad especialidad,
+                                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+    List<Disponibilidad> disponibilidades = disponibilidadService.findByEspecialidad(especialidad, desde, hasta);
+    return new ResponseEntity<>(disponibilidades, HttpStatus.OK);
   }
 
   /**
@@ -65,6 +233,33 @@ public class DoctorController {
     return new ResponseEntity<>(newDoctor, HttpStatus.CREATED);
   }
 
+  /**
+   * Agrega varios doctores enviados como un arreglo JSON.
+   *
+   * @param doctors Lista de doctores que se van a agregar.
+   * @return ResponseEntity con el resultado de cada elemento y el estado HTTP 200 (OK).
+   */
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BatchResult> addDoctors(@RequestBody List<Doctor> doctors) {
+    BatchResult result = doctorService.addDoctors(doctors);
+    return new ResponseEntity<>(result, HttpStatus.OK);
+  }
+
+  /**
+   * Agrega varios doctores enviados como NDJSON (un objeto JSON por línea).
+   * Los doctores se leen del cuerpo a medida que se agregan, por bloques, sin cargar antes el lote completo.
+   *
+   * @param body Cuerpo de la petición en formato NDJSON.
+   * @return ResponseEntity con el resultado de cada elemento y el estado HTTP 200 (OK).
+   * @throws IOException Si el cuerpo no puede leerse.
+   */
+  @PostMapping(value = "/batch", consumes = "application/x-ndjson")
+  public ResponseEntity<BatchResult> addDoctorsNdjson(InputStream body) throws IOException {
+    try (MappingIterator<Doctor> doctors = objectMapper.readerFor(Doctor.class).readValues(body)) {
+      return new ResponseEntity<>(doctorService.addDoctors(doctors), HttpStatus.OK);
+    }
+  }
+
   /**
    * Modifica un doctor existente por su identificador.
    *
@@ -1,11 +1,27 @@
 package com.citas.apicitas.controllers;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import com.citas.apicitas.caching.ReferenceDataVersions;
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.dto.CitaPage;
+import com.citas.apicitas.dto.CompactCitaPage;
+import com.citas.apicitas.dto.SearchPage;
 import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.projections.PacienteSummary;
+import com.citas.apicitas.services.CitaService;
 import com.citas.apicitas.services.PacienteService;
-import java.util.Set;
+import java.time.LocalDate;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 /**
@@ -18,27 +34,115 @@ public class PacienteController {
   @Autowired
   private PacienteService pacienteService;
 
+  @Autowired
+  private CitaService citaService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private ReferenceDataVersions referenceDataVersions;
+
   /**
    * Obtiene todos los pacientes.
    *
-   * @return ResponseEntity con el conjunto de pacientes y el estado HTTP OK.
+   * @return ResponseEntity con la lista de resúmenes de pacientes y el estado HTTP OK.
    */
   @GetMapping("")
-  public ResponseEntity<Set<Paciente>> getPacientes() {
-    Set<Paciente> pacientes = pacienteService.findAll();
+  public ResponseEntity<List<PacienteSummary>> getPacientes() {
+    List<PacienteSummary> pacientes = pacienteService.findAllSummaries();
     return new ResponseEntity<>(pacientes, HttpStatus.OK);
   }
 
+  /**
+   * Busca pacientes por prefijo de su nombre, apellido o teléfono, paginados por número de cédula.
+   *
+   * @param q      Texto de la búsqueda; cada palabra debe ser prefijo de alguna palabra del paciente.
+   * @param cursor Cédula del último paciente de la página anterior; se omite para la primera página.
+   * @param size   Número de pacientes por página.
+   * @return ResponseEntity con la página de resúmenes de pacientes y el estado HTTP OK.
+   */
+  @GetMapping("/buscar")
+  public ResponseEntity<SearchPage<PacienteSummary>> buscarPacientes(@RequestParam String q,
+                                                                     @RequestParam(required = false) Long cursor,
+                                                                     @RequestParam(defaultValue = "20") int size) {
+    SearchPage<PacienteSummary> page = pacienteService.buscar(q, cursor, size);
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  /**
+   * Vuelve a cargar el índice de búsqueda de pacientes desde la base de datos, por ejemplo después de cargar
+   * pacientes directamente en ella. Las búsquedas se siguen atendiendo durante la carga.
+   *
+   * @return ResponseEntity con el estado HTTP 204 (No Content).
+   */
+  @PostMapping("/buscar/reconstruir")
+  public ResponseEntity<Void> reconstruirIndicePacientes() {
+    pacienteService.reconstruirIndice();
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+
   /**
    * Obtiene un paciente por su identificador.
+   * El paciente se lee de la caché de segundo nivel cuando está en ella; si la cabecera
+   * {@code If-None-Match} coincide con su ETag, responde 304 sin serializarlo.
    *
-   * @param id Identificador del paciente.
-   * @return ResponseEntity con el paciente y el estado HTTP OK.
+   * @param id      Identificador del paciente.
+   * @param request Petición, para evaluar la cabecera {@code If-None-Match}.
+   * @return ResponseEntity con el paciente y el estado HTTP OK, o el estado HTTP 304 (Not Modified) sin cuerpo.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<Paciente> getPaciente(@PathVariable Long id) {
+  public ResponseEntity<Paciente> getPaciente(@PathVariable Long id, WebRequest request) {
     Paciente paciente = pacienteService.findById(id);
-    return new ResponseEntity<>(paciente, HttpStatus.OK);
+    String etag = referenceDataVersions.etag(paciente.getVersion(), paciente.getUltimaModificacion());
+    HttpHeaders headers = referenceDataVersions.headers(etag);
+
+    if (request.checkNotModified(etag)) {
+      return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    return new ResponseEntity<>(paciente, headers, HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene las citas de un paciente en un rango de fechas, paginadas por clave.
+   *
+   * @param id     Identificador del paciente.
+   * @param desde  Primer día del rango (formato ISO, por ejemplo 2024-01-08).
+   * @param hasta  Último día del rango, inclusive.
+   * @param cursor Cursor devuelto en la página anterior; se omite para la primera página.
+   * @param size   Número de citas por página.
+   * @return ResponseEntity con la página de citas y el estado HTTP OK.
+   */
+  @GetMapping("/{id}/citas")
+  public ResponseEntity<CitaPage> getCitas(@PathVariable Long id,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int size) {
+    CitaPage page = citaService.findByPaciente(id, desde, hasta, cursor, size);
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene las citas de un paciente en un rango de fechas en la representación compacta
+   * ({@value CompactCitaPage#MEDIA_TYPE}), con los datos de cada doctor una sola vez.
+   *
+   * @param id     Identificador del paciente.
+   * @param desde  Primer día del rango (formato ISO, por ejemplo 2024-01-08).
+   * @param hasta  Último día del rango, inclusive.
+   * @param cursor Cursor devuelto en la página anterior; se omite para la primera página.
+   * @param size   Número de citas por página.
+   * @return ResponseEntity con la página compacta de citas y el estado HTTP OK.
+   */
+  @GetMapping(value = "/{id}/citas", produces = CompactCitaPage.MEDIA_TYPE)
+  public ResponseEntity<CompactCitaPage> getCitasCompactas(@PathVariable Long id,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int size) {
+    CitaPage page = citaService.findByPaciente(id, desde, hasta, cursor, size);
+    return new ResponseEntity<>(CompactCitaPage.of(page), HttpStatus.OK);
   }
 
   /**
@@ -53,6 +157,33 @@ public class PacienteController {
     return new ResponseEntity<>(newPaciente, HttpStatus.CREATED);
   }
 
+  /**
+   * Agrega varios pacientes enviados como un arreglo JSON.
+   *
+   * @param pacientes Lista de pacientes que se van a agregar.
+   * @return ResponseEntity con el resultado de cada elemento y el estado HTTP 200 (OK).
+   */
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BatchResult> addPacientes(@RequestBody List<Paciente> pacientes) {
+    BatchResult result = pacienteService.addPacientes(pacientes);
+    return new ResponseEntity<>(result, HttpStatus.OK);
+  }
+
+  /**
+   * Agrega varios pacientes enviados como NDJSON (un objeto JSON por línea).
+   * Los pacientes se leen del cuerpo a medida que se agregan, por bloques, sin cargar antes el lote completo.
+   *
+   * @param body Cuerpo de la petición en formato NDJSON.
+   * @return ResponseEntity con el resultado de cada elemento y el estado HTTP 200 (OK).
+   * @throws IOException Si el cuerpo no puede leerse.
+   */
+  @PostMapping(value = "/batch", consumes = "application/x-ndjson")
+  public ResponseEntity<BatchResult> addPacientesNdjson(InputStream body) throws IOException {
+    try (MappingIterator<Paciente> pacientes = objectMapper.readerFor(Paciente.class).readValues(body)) {
+      return new ResponseEntity<>(pacienteService.addPacientes(pacientes), HttpStatus.OK);
+    }
+  }
+
   /**
    * Modifica un paciente existente por su identificador.
    *
@@ -0,0 +1,29 @@
+package com.citas.apicitas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un elemento dentro de una importación masiva.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+
+  /**
+   * Posición del elemento en la petición, empezando en cero.
+   */
+  private int indice;
+
+  /**
+   * Código de estado HTTP equivalente al resultado del elemento (201, 400, 404 o 409).
+   */
+  private int statusCode;
+
+  /**
+   * Mensaje descriptivo del error, o {@code null} si el elemento se creó correctamente.
+   */
+  private String message;
+}
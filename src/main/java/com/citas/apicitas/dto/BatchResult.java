@@ -0,0 +1,31 @@
+package com.citas.apicitas.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen de una importación masiva con el resultado de cada elemento.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResult {
+
+  /**
+   * Número de elementos creados.
+   */
+  private int creados;
+
+  /**
+   * Número de elementos rechazados.
+   */
+  private int rechazados;
+
+  /**
+   * Resultado de cada elemento, en el mismo orden de la petición.
+   */
+  private List<BatchItemResult> resultados;
+}
@@ -0,0 +1,55 @@
+package com.citas.apicitas.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.exception.BadRequestException;
+
+/**
+ * Codifica y decodifica el cursor opaco usado en la paginación por clave de las citas.
+ * El cursor contiene la última {@link CitaId} entregada al cliente.
+ */
+public final class CitaCursor {
+
+  private static final String SEPARADOR = "|";
+
+  private CitaCursor() {
+  }
+
+  /**
+   * Genera el cursor correspondiente a la última cita de una página.
+   *
+   * @param id Identificador de la última cita entregada.
+   * @return Cursor opaco codificado en Base64 URL-safe.
+   */
+  public static String encode(CitaId id) {
+    String raw = id.getFechaHora() + SEPARADOR + id.getIdProfesional() + SEPARADOR + id.getIdNumeroCedula();
+
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Recupera la {@link CitaId} contenida en un cursor.
+   *
+   * @param cursor Cursor opaco recibido del cliente.
+   * @return Identificador de la última cita de la página anterior.
+   * @throws BadRequestException Si el cursor no es válido.
+   */
+  public static CitaId decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] partes = raw.split("\\|");
+
+      if (partes.length != 3) {
+        throw new BadRequestException("Invalid cursor: " + cursor);
+      }
+
+      return new CitaId(Long.parseLong(partes[1]), Long.parseLong(partes[2]), LocalDateTime.parse(partes[0]));
+    } catch (IllegalArgumentException | DateTimeParseException ex) {
+      throw new BadRequestException("Invalid cursor: " + cursor);
+    }
+  }
+}
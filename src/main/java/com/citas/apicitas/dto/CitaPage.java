@@ -0,0 +1,29 @@
+package com.citas.apicitas.dto;
+
+import java.util.List;
+
+import com.citas.apicitas.projections.CitaView;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de citas obtenida mediante paginación por clave (keyset).
+ * Incluye el cursor opaco que el cliente debe enviar para obtener la página siguiente.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CitaPage {
+
+  /**
+   * Citas de la página, ordenadas por fecha y hora, profesional y número de cédula.
+   */
+  private List<CitaView> citas;
+
+  /**
+   * Cursor opaco para solicitar la página siguiente, o {@code null} si no hay más citas.
+   */
+  private String siguiente;
+}
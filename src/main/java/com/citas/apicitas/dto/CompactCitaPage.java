@@ -0,0 +1,102 @@
+package com.citas.apicitas.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.projections.CitaView;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Representación normalizada de una {@link CitaPage}: cada cita lleva solo los identificadores de su doctor
+ * y su paciente, y los datos de cada doctor y paciente aparecen una única vez en la página.
+ * Se entrega con el tipo {@link #MEDIA_TYPE}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompactCitaPage {
+
+  /**
+   * Tipo de contenido de la representación compacta de las páginas de citas.
+   */
+  public static final String MEDIA_TYPE = "application/vnd.citas.compacta+json";
+
+  /**
+   * Citas de la página, en el mismo orden que en {@link CitaPage}.
+   */
+  private List<CitaRef> citas;
+
+  /**
+   * Doctores de las citas de la página, por identificador del profesional.
+   */
+  private Map<Long, DoctorRef> doctores;
+
+  /**
+   * Pacientes de las citas de la página, por número de cédula.
+   */
+  private Map<Long, PacienteRef> pacientes;
+
+  /**
+   * Cursor opaco para solicitar la página siguiente, o {@code null} si no hay más citas.
+   */
+  private String siguiente;
+
+  /**
+   * Normaliza una página de citas.
+   *
+   * @param page Página con una proyección completa por cita.
+   * @return La misma página con doctores y pacientes sin repetir.
+   */
+  public static CompactCitaPage of(CitaPage page) {
+    List<CitaRef> citas = new ArrayList<>(page.getCitas().size());
+    Map<Long, DoctorRef> doctores = new LinkedHashMap<>();
+    Map<Long, PacienteRef> pacientes = new LinkedHashMap<>();
+
+    for (CitaView cita : page.getCitas()) {
+      citas.add(new CitaRef(cita.id(), cita.fechaHora(), cita.idProfesional(), cita.idNumeroCedula()));
+      doctores.computeIfAbsent(cita.idProfesional(),
+          id -> new DoctorRef(cita.doctorNombre(), cita.doctorApellido(), cita.especialidad()));
+      pacientes.computeIfAbsent(cita.idNumeroCedula(),
+          id -> new PacienteRef(cita.pacienteNombre(), cita.pacienteApellido()));
+    }
+
+    return new CompactCitaPage(citas, doctores, pacientes, page.getSiguiente());
+  }
+
+  /**
+   * Cita con referencias a su doctor y su paciente.
+   *
+   * @param id             Identificador sustituto de la cita.
+   * @param fechaHora      Fecha y hora de la cita.
+   * @param idProfesional  Clave del doctor en {@link #doctores}.
+   * @param idNumeroCedula Clave del paciente en {@link #pacientes}.
+   */
+  public record CitaRef(long id, LocalDateTime fechaHora, long idProfesional, long idNumeroCedula) {
+  }
+
+  /**
+   * Datos básicos de un doctor.
+   *
+   * @param nombre       Nombre del doctor.
+   * @param apellido     Apellido del doctor.
+   * @param especialidad Especialidad del doctor.
+   */
+  public record DoctorRef(String nombre, String apellido, Doctor.Especialidad especialidad) {
+  }
+
+  /**
+   * Datos básicos de un paciente.
+   *
+   * @param nombre   Nombre del paciente.
+   * @param apellido Apellido del paciente.
+   */
+  public record PacienteRef(String nombre, String apellido) {
+  }
+}
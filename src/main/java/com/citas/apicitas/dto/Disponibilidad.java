@@ -0,0 +1,32 @@
+package com.citas.apicitas.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Horarios libres de un doctor dentro de un rango de fechas.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Disponibilidad {
+
+  /**
+   * Identificador del profesional médico.
+   */
+  private long idProfesional;
+
+  /**
+   * Duración en minutos de cada horario.
+   */
+  private int duracionMinutos;
+
+  /**
+   * Fecha y hora de inicio de cada horario libre, en orden cronológico.
+   */
+  private List<LocalDateTime> horariosLibres;
+}
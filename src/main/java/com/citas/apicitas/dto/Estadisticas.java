@@ -0,0 +1,58 @@
+package com.citas.apicitas.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Número de citas de un rango de fechas, agrupado por doctor, especialidad, día o semana.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Estadisticas {
+
+  /**
+   * Criterio de agrupación de las citas.
+   */
+  public enum Agrupacion {
+    doctor, especialidad, dia, semana
+  }
+
+  /**
+   * Criterio con el que se agruparon las citas.
+   */
+  private Agrupacion agrupacion;
+
+  /**
+   * Primer día del rango.
+   */
+  private LocalDate desde;
+
+  /**
+   * Último día del rango, inclusive.
+   */
+  private LocalDate hasta;
+
+  /**
+   * Número total de citas del rango.
+   */
+  private long total;
+
+  /**
+   * Grupos con alguna cita, ordenados por su clave.
+   */
+  private List<Grupo> grupos;
+
+  /**
+   * Citas de un grupo.
+   *
+   * @param clave Identificador del doctor, nombre de la especialidad, día o lunes de la semana (formato ISO).
+   * @param citas Número de citas del grupo.
+   */
+  public record Grupo(String clave, long citas) {
+  }
+}
@@ -0,0 +1,29 @@
+package com.citas.apicitas.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de resultados de una búsqueda de doctores o pacientes, ordenados por identificador.
+ * Incluye el cursor que el cliente debe enviar para obtener la página siguiente.
+ *
+ * @param <T> Tipo de los resultados.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchPage<T> {
+
+  /**
+   * Resultados de la página.
+   */
+  private List<T> resultados;
+
+  /**
+   * Identificador del último resultado, para solicitar la página siguiente, o {@code null} si no hay más.
+   */
+  private Long siguiente;
+}
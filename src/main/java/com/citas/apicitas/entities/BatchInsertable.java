@@ -0,0 +1,15 @@
+package com.citas.apicitas.entities;
+
+/**
+ * Entidad que se puede insertar en bloques con {@code BatchInserter}.
+ * Si el bloque falla, Hibernate ya ha asignado a sus entidades la versión y, en su caso, el identificador
+ * generado; antes de reintentar cada una por separado hay que devolverla al estado de una entidad nueva,
+ * o {@code persist} la trataría como separada del contexto de persistencia.
+ */
+public interface BatchInsertable {
+
+  /**
+   * Devuelve la entidad al estado de una entidad nueva, sin el estado asignado al persistirla.
+   */
+  void reiniciar();
+}
@@ -1,39 +1,106 @@
 /**
  * La clase {@code Cita} representa la entidad de citas médicas en el sistema.
  * Cada cita está asociada a un médico (Doctor) y un paciente (Paciente),
- * identificada por la combinación de sus respectivas IDs (CitaId).
+ * identificada hacia el exterior por la combinación de sus respectivas IDs y la fecha y hora (CitaId)
+ * y almacenada con un identificador sustituto numérico.
+ * En JSON la clave natural conserva el nombre {@code id} que tenía cuando era la clave primaria, y el
+ * identificador sustituto se expone como {@code idCita}.
+ * Un doctor solo puede tener una cita por fecha y hora, lo que garantiza la restricción única
+ * sobre (id_profesional, fecha_hora).
+ * Los índices sobre (id_numero_cedula, fecha_hora) y (fecha_hora) sirven las consultas por rango
+ * de un paciente y de un día; el esquema se crea con las migraciones de Flyway.
  *
  * @author TuNombre
  * @version 1.0
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "cita")
-public class Cita {
-  
+@Table(uniqueConstraints = @UniqueConstraint(name = Cita.UK_FRANJA,
+    columnNames = {"id_profesional", "fecha_hora"}),
+    indexes = {
+        @Index(name = "idx_cita_paciente_fecha_hora", columnList = "id_numero_cedula, fecha_hora"),
+        @Index(name = "idx_cita_fecha_hora", columnList = "fecha_hora")
+    })
+public class Cita implements BatchInsertable {
+
+  /**
+   * Restricción única que impide dos citas del mismo doctor en la misma fecha y hora.
+   */
+  public static final String UK_FRANJA = "uk_cita_profesional_fecha_hora";
+
+  /**
+   * Clave foránea de la cita hacia su doctor.
+   */
+  public static final String FK_DOCTOR = "FKjbx6rwju8n5en4bt2axbj8m06";
+
+  /**
+   * Clave foránea de la cita hacia su paciente.
+   */
+  public static final String FK_PACIENTE = "FK2wjwx5l6hm7bldrrqtdv8jfb8";
+
+  /**
+   * Identificador sustituto de la cita, asignado desde la secuencia "cita_seq" en bloques de 50
+   * para no renunciar a las inserciones por lotes.
+   */
+  @Id
+  @JsonProperty("idCita")
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cita_seq")
+  @SequenceGenerator(name = "cita_seq", sequenceName = "cita_seq", allocationSize = 50)
+  private Long id;
+
+  /**
+   * La clave natural {@code clave} identifica la cita hacia el exterior,
+   * compuesta por las IDs del médico y del paciente y la fecha y hora.
+   * Sus columnas son las que se escriben; al reprogramar una cita se actualizan en la misma fila.
+   */
+  @Embedded
+  @JsonProperty("id")
+  private CitaId clave;
+
   /**
-   * La clave primaria compuesta {@code id} representa la identificación única de la cita,
-   * compuesta por la combinación de las IDs del médico y del paciente.
+   * Versión para el bloqueo optimista: cada actualización la incrementa y falla si otra
+   * transacción modificó la cita entretanto.
    */
-  @EmbeddedId
-  private CitaId id;
+  @Version
+  @JsonIgnore
+  private Long version;
 
   /**
    * El médico asociado a esta cita.
-   * La relación está mapeada mediante la propiedad "idProfesional" de la clave primaria compuesta.
+   * Se lee de la columna "id_profesional" de la clave natural.
    */
-  @MapsId("idProfesional")
   @ManyToOne
-  @JoinColumn(name = "id_profesional")
+  @JoinColumn(name = "id_profesional", insertable = false, updatable = false, foreignKey = @ForeignKey(name = FK_DOCTOR))
   private Doctor doctor;
 
   /**
    * El paciente asociado a esta cita.
-   * La relación está mapeada mediante la propiedad "idNumeroCedula" de la clave primaria compuesta.
+   * Se lee de la columna "id_numero_cedula" de la clave natural.
    */
-  @MapsId("idNumeroCedula")
   @ManyToOne
-  @JoinColumn(name = "id_numero_cedula")
+  @JoinColumn(name = "id_numero_cedula", insertable = false, updatable = false, foreignKey = @ForeignKey(name = FK_PACIENTE))
   private Paciente paciente;
+
+  /**
+   * Crea una cita nueva, sin identificador sustituto ni versión asignados.
+   *
+   * @param clave    Clave natural de la cita.
+   * @param doctor   El médico de la cita.
+   * @param paciente El paciente de la cita.
+   */
+  public Cita(CitaId clave, Doctor doctor, Paciente paciente) {
+    this.clave = clave;
+    this.doctor = doctor;
+    this.paciente = paciente;
+  }
+
+  /**
+   * Olvida el identificador sustituto y la versión asignados al persistirla en un bloque que falló.
+   */
+  @Override
+  public void reiniciar() {
+    this.id = null;
+    this.version = null;
+  }
 }
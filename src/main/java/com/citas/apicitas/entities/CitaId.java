@@ -1,6 +1,6 @@
 /**
- * Clase que representa la clave compuesta (ID) para la entidad Cita.
- * Esta clave incorpora los identificadores del profesional, el número de cédula
+ * Clase que representa la clave natural compuesta (ID) de la entidad Cita, con la que los clientes
+ * identifican cada cita. Esta clave incorpora los identificadores del profesional, el número de cédula
  * y la fecha y hora de la cita.
  */
 package com.citas.apicitas.entities;
@@ -8,6 +8,7 @@ package com.citas.apicitas.entities;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import lombok.*;
 
@@ -20,15 +21,18 @@ public class CitaId implements Serializable {
     /**
      * Identificador del profesional asociado a la cita.
      */
+    @Column(name = "id_profesional")
     private long idProfesional;
 
     /**
      * Número de cédula asociado a la cita.
      */
+    @Column(name = "id_numero_cedula")
     private long idNumeroCedula;
 
     /**
      * Fecha y hora de la cita.
      */
+    @Column(name = "fecha_hora")
     private LocalDateTime fechaHora;
 }
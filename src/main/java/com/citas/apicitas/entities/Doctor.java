@@ -2,15 +2,19 @@
  * La clase {@code Doctor} representa a un profesional médico en el sistema.
  * Contiene información como el identificador único, nombre, apellido, correo,
  * especialidad y las citas asociadas a este doctor.
+ * Se guarda en la caché de segundo nivel de Hibernate (región "doctor"), ya que cambia con poca frecuencia.
+ * Implementa {@link Persistable} para que guardar un doctor nuevo, cuyo identificador asigna el cliente,
+ * sea un INSERT directo en lugar de un merge precedido de una consulta.
  *
  * @author Tu Nombre
  * @version 1.0
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "doctor")
-public class Doctor {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctor")
+public class Doctor implements Persistable<Long>, BatchInsertable {
 
     /**
      * Identificador único del profesional médico.
@@ -47,12 +51,94 @@ public class Doctor {
     /**
      * Conjunto de citas asociadas a este doctor.
      * Utiliza la anotación {@code JsonIgnore} para evitar la serialización
-     * de las citas al convertir el objeto a formato JSON.
+     * de las citas al convertir el objeto a formato JSON. Se excluye de
+     * {@code equals}, {@code hashCode} y {@code toString} para no inicializar la colección perezosa.
      */
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "doctor")
     private Set<Cita> citas = new HashSet<>();
 
+    /**
+     * Versión del doctor; Hibernate la incrementa en cada actualización. Junto con la fecha
+     * de la última modificación forma el ETag de {@code GET /api/doctores/{id}}.
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Fecha y hora de la última inserción o actualización, con precisión de milisegundos.
+     */
+    @JsonIgnore
+    @Column(name = "ultima_modificacion")
+    private LocalDateTime ultimaModificacion;
+
+    /**
+     * Indica si el doctor aún no se ha guardado; pasa a false al cargarlo o persistirlo.
+     */
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean nuevo = true;
+
+    /**
+     * Crea un doctor nuevo.
+     *
+     * @param idProfesional Identificador único del profesional médico.
+     * @param nombre        Nombre del doctor.
+     * @param apellido      Apellido del doctor.
+     * @param correo        Correo electrónico del doctor.
+     * @param especialidad  Especialidad del doctor.
+     * @param citas         Citas asociadas al doctor.
+     */
+    public Doctor(long idProfesional, String nombre, String apellido, String correo, Especialidad especialidad,
+                  Set<Cita> citas) {
+        this.idProfesional = idProfesional;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.correo = correo;
+        this.especialidad = especialidad;
+        this.citas = citas;
+    }
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return idProfesional;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarGuardado() {
+        nuevo = false;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void marcarModificado() {
+        ultimaModificacion = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Vuelve a marcarlo como nuevo y olvida la versión asignada al persistirlo en un bloque que falló.
+     */
+    @Override
+    public void reiniciar() {
+        version = null;
+        nuevo = true;
+    }
+
     /**
      * Enumeración que representa las posibles especialidades de un doctor.
      * Actualmente incluye las especialidades "medicina_interna" y "medicina_general".
@@ -5,24 +5,33 @@
 package com.citas.apicitas.entities;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.HashSet;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
+
 import jakarta.persistence.*;
 import lombok.*;
 
 /**
  * Clase que representa la entidad Paciente en el sistema de citas médicas.
  * Cada instancia de esta clase corresponde a un paciente con información asociada.
+ * Se guarda en la caché de segundo nivel de Hibernate (región "paciente").
+ * Implementa {@link Persistable} para que guardar un paciente nuevo, cuyo identificador asigna el cliente,
+ * sea un INSERT directo en lugar de un merge precedido de una consulta.
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "paciente")
-public class Paciente {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "paciente")
+public class Paciente implements Persistable<Long>, BatchInsertable {
 
   /**
    * Identificador único del paciente, utilizado como número de cédula.
@@ -58,8 +67,90 @@ public class Paciente {
   /**
    * Conjunto de citas asociadas al paciente.
    * La anotación @JsonIgnore evita la serialización infinita al representar las citas.
+   * Se excluye de equals, hashCode y toString para no inicializar la colección perezosa.
    */
   @JsonIgnore
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
   @OneToMany(mappedBy = "paciente")
   private Set<Cita> citas = new HashSet<>();
+
+  /**
+   * Versión del paciente; Hibernate la incrementa en cada actualización. Junto con la fecha
+   * de la última modificación forma el ETag de {@code GET /api/pacientes/{id}}.
+   */
+  @Version
+  @JsonIgnore
+  private Long version;
+
+  /**
+   * Fecha y hora de la última inserción o actualización, con precisión de milisegundos.
+   */
+  @JsonIgnore
+  @Column(name = "ultima_modificacion")
+  private LocalDateTime ultimaModificacion;
+
+  /**
+   * Indica si el paciente aún no se ha guardado; pasa a false al cargarlo o persistirlo.
+   */
+  @Transient
+  @JsonIgnore
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private boolean nuevo = true;
+
+  /**
+   * Crea un paciente nuevo.
+   *
+   * @param idNumeroCedula  Número de cédula del paciente.
+   * @param nombre          Nombre del paciente.
+   * @param apellido        Apellido del paciente.
+   * @param telefono        Número de teléfono de contacto del paciente.
+   * @param fechaNacimiento Fecha de nacimiento del paciente.
+   * @param citas           Citas asociadas al paciente.
+   */
+  public Paciente(long idNumeroCedula, String nombre, String apellido, String telefono, LocalDateTime fechaNacimiento,
+                  Set<Cita> citas) {
+    this.idNumeroCedula = idNumeroCedula;
+    this.nombre = nombre;
+    this.apellido = apellido;
+    this.telefono = telefono;
+    this.fechaNacimiento = fechaNacimiento;
+    this.citas = citas;
+  }
+
+  @Override
+  @JsonIgnore
+  public Long getId() {
+    return idNumeroCedula;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isNew() {
+    return nuevo;
+  }
+
+  @PostLoad
+  @PostPersist
+  void marcarGuardado() {
+    nuevo = false;
+  }
+
+  @PrePersist
+  @PreUpdate
+  void marcarModificado() {
+    ultimaModificacion = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+  }
+
+  /**
+   * Vuelve a marcarlo como nuevo y olvida la versión asignada al persistirlo en un bloque que falló.
+   */
+  @Override
+  public void reiniciar() {
+    version = null;
+    nuevo = true;
+  }
 }
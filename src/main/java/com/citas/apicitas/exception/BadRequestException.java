@@ -0,0 +1,17 @@
+/**
+ * Excepción personalizada para indicar que la solicitud contiene parámetros no válidos.
+ * Esta excepción se lanza, por ejemplo, cuando un cursor de paginación no puede decodificarse.
+ */
+package com.citas.apicitas.exception;
+
+public class BadRequestException extends RuntimeException {
+
+    /**
+     * Constructor que recibe un mensaje para describir la excepción.
+     *
+     * @param msg Mensaje descriptivo de la excepción.
+     */
+    public BadRequestException(String msg) {
+        super(msg);
+    }
+}
@@ -19,6 +19,65 @@ public class ControllerExceptionHandler {
     return message;
   }
 
+  /**
+   * Maneja la excepción de solicitud no válida (BadRequestException).
+   *
+   * @param ex      La excepción de solicitud no válida.
+   * @param request La solicitud web asociada.
+   * @return Un objeto ErrorMessage con detalles sobre el error.
+   */
+  @ExceptionHandler(BadRequestException.class)
+  @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+  public ErrorMessage badRequestException(BadRequestException ex, WebRequest request){
+    ErrorMessage message = new ErrorMessage(HttpStatus.BAD_REQUEST.value(), new Date(), ex.getMessage(), request.getDescription(false));
+    return message;
+  }
+
+  /**
+   * Maneja la excepción de límite de peticiones superado (TooManyRequestsException).
+   *
+   * @param ex      La excepción de límite de peticiones.
+   * @param request La solicitud web asociada.
+   * @return Un ResponseEntity con el ErrorMessage, la cabecera Retry-After y estado HTTP 429.
+   */
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<ErrorMessage> tooManyRequestsException(TooManyRequestsException ex, WebRequest request){
+    return rechazo(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), ex.getRetryAfterSeconds(), request);
+  }
+
+  /**
+   * Maneja la excepción de servicio sobrecargado (ServiceUnavailableException).
+   *
+   * @param ex      La excepción de servicio sobrecargado.
+   * @param request La solicitud web asociada.
+   * @return Un ResponseEntity con el ErrorMessage, la cabecera Retry-After y estado HTTP 503.
+   */
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<ErrorMessage> serviceUnavailableException(ServiceUnavailableException ex, WebRequest request){
+    return rechazo(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex.getRetryAfterSeconds(), request);
+  }
+
+  /**
+   * Maneja la excepción de resultado desconocido (UnknownOutcomeException).
+   *
+   * @param ex      La excepción de resultado desconocido.
+   * @param request La solicitud web asociada.
+   * @return Un objeto ErrorMessage con detalles sobre el error.
+   */
+  @ExceptionHandler(UnknownOutcomeException.class)
+  @ResponseStatus(value = HttpStatus.GATEWAY_TIMEOUT)
+  public ErrorMessage unknownOutcomeException(UnknownOutcomeException ex, WebRequest request){
+    ErrorMessage message = new ErrorMessage(HttpStatus.GATEWAY_TIMEOUT.value(), new Date(), ex.getMessage(), request.getDescription(false));
+    return message;
+  }
+
+  private ResponseEntity<ErrorMessage> rechazo(HttpStatus status, String mensaje, long retryAfterSeconds, WebRequest request){
+    ErrorMessage message = new ErrorMessage(status.value(), new Date(), mensaje, request.getDescription(false));
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    return new ResponseEntity<>(message, headers, status);
+  }
+
   /**
    * Maneja excepciones generales (Exception) que no están específicamente manejadas por otros métodos.
    *
@@ -46,4 +105,19 @@ public class ControllerExceptionHandler {
     ErrorMessage message = new ErrorMessage(HttpStatus.CONFLICT.value(), new Date(), ex.getMessage(), request.getDescription(false));
     return message;
   }
+
+  /**
+   * Maneja la excepción de bloqueo optimista (OptimisticLockingFailureException), lanzada cuando
+   * otra transacción modificó el mismo recurso entre su lectura y su actualización.
+   *
+   * @param ex      La excepción de bloqueo optimista.
+   * @param request La solicitud web asociada.
+   * @return Un objeto ErrorMessage con detalles sobre el error.
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  @ResponseStatus(value = HttpStatus.CONFLICT)
+  public ErrorMessage optimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request){
+    ErrorMessage message = new ErrorMessage(HttpStatus.CONFLICT.value(), new Date(), ex.getMessage(), request.getDescription(false));
+    return message;
+  }
 }
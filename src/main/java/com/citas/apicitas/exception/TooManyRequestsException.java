@@ -0,0 +1,28 @@
+/**
+ * Excepción personalizada para indicar que el cliente superó el número de peticiones permitido en una ruta.
+ * Se traduce en un 429 con la cabecera Retry-After.
+ */
+package com.citas.apicitas.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * Segundos que el cliente debe esperar antes de reintentar.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor que recibe un mensaje y el tiempo de espera recomendado.
+     *
+     * @param msg               Mensaje descriptivo de la excepción.
+     * @param retryAfterSeconds Segundos que el cliente debe esperar antes de reintentar.
+     */
+    public TooManyRequestsException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
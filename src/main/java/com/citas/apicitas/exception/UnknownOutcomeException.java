@@ -0,0 +1,18 @@
+/**
+ * Excepción personalizada para indicar que no se sabe si la operación tuvo efecto: se agotó la espera cuando
+ * ya podía haberse completado. Se traduce en un 504; el cliente debe consultar el recurso antes de reintentar.
+ */
+package com.citas.apicitas.exception;
+
+public class UnknownOutcomeException extends RuntimeException {
+
+    /**
+     * Constructor que recibe un mensaje y la causa.
+     *
+     * @param msg   Mensaje descriptivo de la excepción.
+     * @param cause Error por el que no se conoce el resultado.
+     */
+    public UnknownOutcomeException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
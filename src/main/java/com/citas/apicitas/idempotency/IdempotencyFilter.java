@@ -0,0 +1,213 @@
+package com.citas.apicitas.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.citas.apicitas.exception.ErrorMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Hace idempotentes las peticiones POST y PUT que llevan la cabecera {@code Idempotency-Key}.
+ *
+ * <p>La primera petición con una clave se ejecuta normalmente y su respuesta (salvo los errores 5xx y los
+ * 429, que pueden reintentarse) se guarda en el {@link IdempotencyStore}. Los reintentos con la misma clave y la
+ * misma petición reciben la respuesta guardada, con la cabecera {@code Idempotent-Replayed: true}, sin
+ * llegar a los controladores ni a la base de datos. Una clave reutilizada con otra petición se rechaza
+ * con 422 y un reintento que llega mientras la original sigue en curso, con 409.</p>
+ *
+ * <p>Las peticiones sin la cabecera no se ven afectadas.</p>
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  /**
+   * Cabecera con la clave de idempotencia elegida por el cliente.
+   */
+  public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+  /**
+   * Cabecera que marca las respuestas repetidas desde el almacén.
+   */
+  public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+  private static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+  private final IdempotencyStore store;
+
+  private final ObjectMapper objectMapper;
+
+  public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper) {
+    this.store = store;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String method = request.getMethod();
+
+    return !("POST".equals(method) || "PUT".equals(method)) || request.getHeader(IDEMPOTENCY_KEY) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String clave = request.getHeader(IDEMPOTENCY_KEY);
+
+    if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+      error(request, response, HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key");
+      return;
+    }
+
+    byte[] cuerpo = request.getInputStream().readAllBytes();
+    String huella = huella(request, cuerpo);
+    StoredResponse previa = store.reservar(clave, huella);
+
+    if (previa != null) {
+      if (!previa.huella().equals(huella)) {
+        error(request, response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key already used for a different request");
+      } else if (previa.isEnCurso()) {
+        error(request, response, HttpStatus.CONFLICT, "A request with the same Idempotency-Key is in progress");
+      } else {
+        repetir(previa, response);
+      }
+
+      return;
+    }
+
+    ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+    boolean guardada = false;
+
+    try {
+      chain.doFilter(new CachedBodyRequest(request, cuerpo), respuesta);
+
+      if (respuesta.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()
+          && respuesta.getStatus() != HttpStatus.TOO_MANY_REQUESTS.value()) {
+        store.guardar(clave, new StoredResponse(huella, respuesta.getStatus(), respuesta.getContentType(),
+            respuesta.getHeader(HttpHeaders.LOCATION), respuesta.getContentAsByteArray()));
+        guardada = true;
+      }
+    } finally {
+      if (!guardada) {
+        store.liberar(clave);
+      }
+
+      respuesta.copyBodyToResponse();
+    }
+  }
+
+  private void repetir(StoredResponse previa, HttpServletResponse response) throws IOException {
+    response.setStatus(previa.status());
+    response.setHeader(IDEMPOTENT_REPLAYED, "true");
+
+    if (previa.contentType() != null) {
+      response.setContentType(previa.contentType());
+    }
+
+    if (previa.location() != null) {
+      response.setHeader(HttpHeaders.LOCATION, previa.location());
+    }
+
+    if (previa.body() != null) {
+      response.setContentLength(previa.body().length);
+      response.getOutputStream().write(previa.body());
+    }
+  }
+
+  private void error(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String mensaje)
+      throws IOException {
+    ErrorMessage message = new ErrorMessage(status.value(), new Date(), mensaje, "uri=" + request.getRequestURI());
+
+    response.setStatus(status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), message);
+  }
+
+  private static String huella(HttpServletRequest request, byte[] cuerpo) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      String linea = request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString() + "\n";
+
+      digest.update(linea.getBytes(StandardCharsets.UTF_8));
+      digest.update(cuerpo);
+
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /**
+   * Petición cuyo cuerpo ya se leyó para calcular la huella y se vuelve a ofrecer desde memoria.
+   */
+  private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] cuerpo;
+
+    CachedBodyRequest(HttpServletRequest request, byte[] cuerpo) {
+      super(request);
+      this.cuerpo = cuerpo;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream in = new ByteArrayInputStream(cuerpo);
+
+      return new ServletInputStream() {
+
+        @Override
+        public int read() {
+          return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+          return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      String encoding = getCharacterEncoding();
+      Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+
+      return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+  }
+}
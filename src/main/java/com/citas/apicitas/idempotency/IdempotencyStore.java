@@ -0,0 +1,34 @@
+package com.citas.apicitas.idempotency;
+
+/**
+ * Almacén de las respuestas de las peticiones con cabecera {@code Idempotency-Key}.
+ * Cada clave se reserva al empezar la petición y guarda la respuesta al terminar, de modo que un
+ * reintento obtiene la respuesta original sin volver a ejecutar la operación.
+ */
+public interface IdempotencyStore {
+
+  /**
+   * Reserva una clave para una petición nueva.
+   *
+   * @param clave  Clave de idempotencia enviada por el cliente.
+   * @param huella Huella de la petición.
+   * @return null si la clave quedó reservada para esta petición; si no, el registro existente,
+   *     con la respuesta guardada o la marca de que la petición original sigue en curso.
+   */
+  StoredResponse reservar(String clave, String huella);
+
+  /**
+   * Guarda la respuesta de una petición cuya clave estaba reservada.
+   *
+   * @param clave     Clave de idempotencia.
+   * @param respuesta Respuesta a devolver en los reintentos.
+   */
+  void guardar(String clave, StoredResponse respuesta);
+
+  /**
+   * Libera una clave reservada sin guardar respuesta, para que la petición pueda reintentarse.
+   *
+   * @param clave Clave de idempotencia.
+   */
+  void liberar(String clave);
+}
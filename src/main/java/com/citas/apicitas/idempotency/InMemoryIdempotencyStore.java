@@ -0,0 +1,43 @@
+package com.citas.apicitas.idempotency;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Almacén de idempotencia en memoria, acotado por número de claves y con caducidad desde la última escritura.
+ * Solo deduplica los reintentos que llegan al mismo nodo.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+  private final Cache<String, StoredResponse> respuestas;
+
+  /**
+   * Crea el almacén.
+   *
+   * @param ttl         Tiempo que se conserva cada respuesta.
+   * @param maxEntradas Número máximo de claves guardadas.
+   */
+  public InMemoryIdempotencyStore(Duration ttl, long maxEntradas) {
+    this.respuestas = Caffeine.newBuilder()
+      .expireAfterWrite(ttl)
+      .maximumSize(maxEntradas)
+      .build();
+  }
+
+  @Override
+  public StoredResponse reservar(String clave, String huella) {
+    return respuestas.asMap().putIfAbsent(clave, StoredResponse.enCurso(huella));
+  }
+
+  @Override
+  public void guardar(String clave, StoredResponse respuesta) {
+    respuestas.put(clave, respuesta);
+  }
+
+  @Override
+  public void liberar(String clave) {
+    respuestas.asMap().computeIfPresent(clave, (k, actual) -> actual.isEnCurso() ? null : actual);
+  }
+}
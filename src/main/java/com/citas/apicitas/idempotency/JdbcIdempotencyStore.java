@@ -0,0 +1,93 @@
+package com.citas.apicitas.idempotency;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Almacén de idempotencia en la tabla {@code idempotencia}, compartido por todos los nodos.
+ * La reserva es un INSERT sobre la clave primaria, por lo que solo una petición por clave puede ganarla.
+ * Una reserva en curso caduca pronto, para que la clave de un nodo caído no quede bloqueada hasta que caduque
+ * la respuesta; la caducidad completa se aplica al guardar la respuesta. Las filas caducadas se borran al
+ * reservar su clave y, como mucho una vez por minuto, en bloque.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+  private static final long PURGA_CADA_MS = 60_000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final Duration ttl;
+
+  private final Duration reserva;
+
+  private final Clock clock;
+
+  private final AtomicLong ultimaPurga = new AtomicLong();
+
+  /**
+   * Crea el almacén.
+   *
+   * @param jdbcTemplate Acceso a la base de datos.
+   * @param ttl          Tiempo que se conserva cada respuesta.
+   * @param reserva      Tiempo que se conserva una reserva sin respuesta; debe superar la duración máxima de
+   *                     una petición.
+   * @param clock        Reloj con el que se calcula la caducidad.
+   */
+  public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, Duration ttl, Duration reserva, Clock clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.ttl = ttl;
+    this.reserva = reserva;
+    this.clock = clock;
+  }
+
+  @Override
+  public StoredResponse reservar(String clave, String huella) {
+    Instant ahora = clock.instant();
+    purgar(ahora);
+
+    jdbcTemplate.update("delete from idempotencia where clave = ? and expira < ?", clave, Timestamp.from(ahora));
+
+    try {
+      jdbcTemplate.update("insert into idempotencia (clave, huella, estado, expira) values (?, ?, 0, ?)",
+          clave, huella, Timestamp.from(ahora.plus(reserva)));
+
+      return null;
+    } catch (DuplicateKeyException ex) {
+      List<StoredResponse> existentes = jdbcTemplate.query(
+          "select huella, estado, tipo_contenido, ubicacion, cuerpo from idempotencia where clave = ?",
+          (rs, fila) -> new StoredResponse(rs.getString("huella"), rs.getInt("estado"), rs.getString("tipo_contenido"),
+              rs.getString("ubicacion"), rs.getBytes("cuerpo")),
+          clave);
+
+      // Si la fila desapareció entretanto (liberada o caducada), se trata como en curso: el cliente reintentará.
+      return existentes.isEmpty() ? StoredResponse.enCurso(huella) : existentes.get(0);
+    }
+  }
+
+  @Override
+  public void guardar(String clave, StoredResponse respuesta) {
+    jdbcTemplate.update("update idempotencia set estado = ?, tipo_contenido = ?, ubicacion = ?, cuerpo = ?, expira = ?"
+        + " where clave = ?", respuesta.status(), respuesta.contentType(), respuesta.location(), respuesta.body(),
+        Timestamp.from(clock.instant().plus(ttl)), clave);
+  }
+
+  @Override
+  public void liberar(String clave) {
+    jdbcTemplate.update("delete from idempotencia where clave = ? and estado = 0", clave);
+  }
+
+  private void purgar(Instant ahora) {
+    long anterior = ultimaPurga.get();
+
+    if (ahora.toEpochMilli() - anterior >= PURGA_CADA_MS && ultimaPurga.compareAndSet(anterior, ahora.toEpochMilli())) {
+      jdbcTemplate.update("delete from idempotencia where expira < ?", Timestamp.from(ahora));
+    }
+  }
+}
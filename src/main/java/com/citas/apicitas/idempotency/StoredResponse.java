@@ -0,0 +1,32 @@
+package com.citas.apicitas.idempotency;
+
+/**
+ * Respuesta guardada para una clave de idempotencia, o la marca de una petición aún en curso.
+ *
+ * @param huella      Huella de la petición original (método, URL y cuerpo).
+ * @param status      Código de estado HTTP de la respuesta, o 0 si la petición sigue en curso.
+ * @param contentType Tipo de contenido de la respuesta.
+ * @param location    Cabecera Location de la respuesta, si la tenía.
+ * @param body        Cuerpo de la respuesta.
+ */
+public record StoredResponse(String huella, int status, String contentType, String location, byte[] body) {
+
+  /**
+   * Crea la marca de una petición que se está procesando.
+   *
+   * @param huella Huella de la petición.
+   * @return Registro sin respuesta.
+   */
+  public static StoredResponse enCurso(String huella) {
+    return new StoredResponse(huella, 0, null, null, null);
+  }
+
+  /**
+   * Indica si la petición original todavía no ha terminado.
+   *
+   * @return true si no hay respuesta guardada.
+   */
+  public boolean isEnCurso() {
+    return status == 0;
+  }
+}
@@ -0,0 +1,82 @@
+package com.citas.apicitas.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Registra en {@code citas.db.sentencias} el número de sentencias SQL que ejecuta cada petición,
+ * etiquetado con el método HTTP y el patrón de la ruta (no la URI concreta, para acotar las series).
+ * En las respuestas asíncronas solo se cuentan las sentencias ejecutadas en el hilo de la petición; los
+ * despachos asíncronos y de error no registran una segunda muestra. Cada serie se registra una sola vez y se
+ * reutiliza en las peticiones siguientes.
+ */
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+  private final MeterRegistry registry;
+
+  /**
+   * Serie de cada método y patrón de ruta.
+   */
+  private final Map<String, DistributionSummary> porRuta = new ConcurrentHashMap<>();
+
+  public RequestMetricsInterceptor(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST) {
+      return true;
+    }
+
+    StatementCounter.start();
+
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    record(request);
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+      Exception ex) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST) {
+      return;
+    }
+
+    record(request);
+  }
+
+  private void record(HttpServletRequest request) {
+    int sentencias = StatementCounter.stop();
+
+    if (sentencias < 0) {
+      return;
+    }
+
+    Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String metodo = request.getMethod();
+    String uri = patron != null ? patron.toString() : "UNKNOWN";
+
+    porRuta.computeIfAbsent(metodo + " " + uri, k -> DistributionSummary.builder("citas.db.sentencias")
+        .description("SQL statements (database round trips) per request")
+        .baseUnit("statements")
+        .tag("method", metodo)
+        .tag("uri", uri)
+        .publishPercentileHistogram()
+        .register(registry))
+      .record(sentencias);
+  }
+}
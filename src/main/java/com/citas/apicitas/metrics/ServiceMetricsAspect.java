@@ -0,0 +1,63 @@
+package com.citas.apicitas.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mide la latencia de los métodos públicos de los servicios ({@code *ServiceImpl}) en el temporizador
+ * {@code citas.servicio}, etiquetado con la clase, el método y la excepción lanzada, si la hay.
+ * Los temporizadores de las llamadas correctas se guardan por método para no buscarlos en el registro
+ * en cada llamada.
+ */
+@Aspect
+public class ServiceMetricsAspect {
+
+  private static final String METRICA = "citas.servicio";
+
+  private final MeterRegistry registry;
+
+  private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+  public ServiceMetricsAspect(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Around("execution(public * com.citas.apicitas.services.*ServiceImpl.*(..))")
+  public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    long inicio = System.nanoTime();
+    Object resultado;
+
+    try {
+      resultado = joinPoint.proceed();
+    } catch (Throwable ex) {
+      timer(method, ex.getClass().getSimpleName()).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+      throw ex;
+    }
+
+    timers.computeIfAbsent(method, m -> timer(m, "none")).record(System.nanoTime() - inicio,
+        TimeUnit.NANOSECONDS);
+
+    return resultado;
+  }
+
+  private Timer timer(Method method, String exception) {
+    return Timer.builder(METRICA)
+      .description("Latency of service methods")
+      .tag("class", method.getDeclaringClass().getSimpleName())
+      .tag("method", method.getName())
+      .tag("exception", exception)
+      .publishPercentileHistogram()
+      .register(registry);
+  }
+}
@@ -0,0 +1,43 @@
+package com.citas.apicitas.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo de la petición en curso.
+ * Cada sentencia preparada es un viaje de ida y vuelta a la base de datos (un lote JDBC cuenta como uno).
+ * El recuento solo está activo entre {@link #start()} y {@link #stop()}; fuera de una petición no hace nada.
+ */
+public class StatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<int[]> CONTADOR = new ThreadLocal<>();
+
+  /**
+   * Empieza a contar las sentencias del hilo actual.
+   */
+  public static void start() {
+    CONTADOR.set(new int[1]);
+  }
+
+  /**
+   * Deja de contar las sentencias del hilo actual.
+   *
+   * @return Número de sentencias preparadas desde {@link #start()}, o -1 si no se estaba contando.
+   */
+  public static int stop() {
+    int[] contador = CONTADOR.get();
+    CONTADOR.remove();
+
+    return contador == null ? -1 : contador[0];
+  }
+
+  @Override
+  public String inspect(String sql) {
+    int[] contador = CONTADOR.get();
+
+    if (contador != null) {
+      contador[0]++;
+    }
+
+    return sql;
+  }
+}
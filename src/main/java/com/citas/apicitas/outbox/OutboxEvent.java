@@ -0,0 +1,43 @@
+package com.citas.apicitas.outbox;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * Evento de cambio de una cita, un doctor o un paciente, tal como se guarda en la tabla {@code evento} y se
+ * publica en GET /api/citas/eventos.
+ *
+ * @param id    Posición del evento, consecutiva y en orden de confirmación; los consumidores la usan para
+ *              reanudar la suscripción.
+ * @param tipo  Tipo del evento, por ejemplo {@value #CITA_CREADA}.
+ * @param clave Identificador de la entidad modificada, o {@code null} si la operación no lo conocía
+ *              (una cita eliminada por su clave natural, o una cita aceptada que nunca llegó a insertarse).
+ * @param datos Estado nuevo de la entidad en JSON, o {@code null} en las eliminaciones por identificador.
+ * @param fecha Instante en que se confirmó el cambio.
+ */
+public record OutboxEvent(long id, String tipo, String clave, @JsonRawValue String datos, Instant fecha) {
+
+  public static final String CITA_CREADA = "cita.creada";
+
+  public static final String CITA_MODIFICADA = "cita.modificada";
+
+  public static final String CITA_ELIMINADA = "cita.eliminada";
+
+  /**
+   * Cita aceptada por la escritura diferida (202) que la base de datos rechazó al insertarla.
+   */
+  public static final String CITA_DESCARTADA = "cita.descartada";
+
+  public static final String DOCTOR_CREADO = "doctor.creado";
+
+  public static final String DOCTOR_MODIFICADO = "doctor.modificado";
+
+  public static final String DOCTOR_ELIMINADO = "doctor.eliminado";
+
+  public static final String PACIENTE_CREADO = "paciente.creado";
+
+  public static final String PACIENTE_MODIFICADO = "paciente.modificado";
+
+  public static final String PACIENTE_ELIMINADO = "paciente.eliminado";
+}
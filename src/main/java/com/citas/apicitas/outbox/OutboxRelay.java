@@ -0,0 +1,389 @@
+package com.citas.apicitas.outbox;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publica los eventos de la tabla {@code evento} a los suscriptores de GET /api/citas/eventos.
+ *
+ * <p>Un hilo lee los eventos nuevos cada {@code citas.eventos.intervalo-ms} o en cuanto {@link OutboxWriter}
+ * confirma una transacción en esta instancia, y los guarda en un buffer de los más recientes. Como la tabla es
+ * compartida, cada instancia publica también los cambios de las demás. Los identificadores se asignan al
+ * insertar, antes de confirmar, así que no sirven de posición: una transacción lenta confirmaría un
+ * identificador que los lectores ya han dejado atrás. Por eso el lector asigna a los eventos confirmados que aún
+ * no la tienen una posición consecutiva, con el contador de {@code evento_posicion} bloqueado para que dos
+ * instancias no asignen la misma, y publica por posición: los eventos salen en orden de confirmación y ninguno
+ * se salta.</p>
+ *
+ * <p>Los componentes que mantienen estado en memoria derivado de la base de datos, como los índices de
+ * búsqueda, reciben además cada evento nuevo con {@link #escuchar}, de modo que ven también los cambios hechos
+ * en otras instancias.</p>
+ *
+ * <p>Cada suscriptor tiene su propio hilo virtual y su posición: los eventos se le envían desde el buffer o,
+ * si se ha quedado atrás o se reanuda desde una posición antigua, desde la tabla. Así un cliente lento no
+ * retrasa a los demás.</p>
+ */
+@Component
+public class OutboxRelay {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+  private static final String SELECT = "select posicion, tipo, clave, datos, fecha from evento";
+
+  private static final String SIN_POSICION = "select id from evento where posicion is null order by id limit ?";
+
+  private static final long PURGA_CADA_MS = 3_600_000;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Value("${citas.eventos.intervalo-ms:500}")
+  private long intervaloMs;
+
+  @Value("${citas.eventos.tamano-lote:500}")
+  private int tamanoLote;
+
+  @Value("${citas.eventos.tamano-buffer:10000}")
+  private int tamanoBuffer;
+
+  @Value("${citas.eventos.latido-ms:15000}")
+  private long latidoMs;
+
+  @Value("${citas.eventos.duracion-conexion-ms:1800000}")
+  private long duracionConexionMs;
+
+  @Value("${citas.eventos.retencion-horas:168}")
+  private long retencionHoras;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * Señal de que hay eventos nuevos que publicar.
+   */
+  private final Condition nuevos = lock.newCondition();
+
+  /**
+   * Señal para que el lector consulte la tabla sin esperar al siguiente intervalo.
+   */
+  private final Condition pendientes = lock.newCondition();
+
+  private final NavigableMap<Long, OutboxEvent> recientes = new ConcurrentSkipListMap<>();
+
+  private final Set<SseEmitter> suscriptores = ConcurrentHashMap.newKeySet();
+
+  private final List<Consumer<OutboxEvent>> oyentes = new CopyOnWriteArrayList<>();
+
+  /**
+   * Última posición leída; las anteriores ya se han publicado.
+   */
+  private volatile long horizonte;
+
+  private boolean notificado;
+
+  private long ultimaPurga;
+
+  private Thread lector;
+
+  private volatile boolean activo;
+
+  @PostConstruct
+  void iniciar() {
+    horizonte = jdbcTemplate.queryForObject("select coalesce(max(posicion), 0) from evento", Long.class);
+    activo = true;
+    lector = Thread.ofPlatform().name("citas-eventos").daemon().start(this::leer);
+  }
+
+  @PreDestroy
+  void detener() {
+    activo = false;
+    lector.interrupt();
+    suscriptores.forEach(SseEmitter::complete);
+    avisar();
+  }
+
+  /**
+   * Despierta al lector tras confirmar una transacción con eventos.
+   */
+  public void notificar() {
+    lock.lock();
+    try {
+      notificado = true;
+      pendientes.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Abre una suscripción que envía los eventos posteriores a la posición indicada y después los nuevos,
+   * hasta que el cliente se desconecta o transcurre {@code citas.eventos.duracion-conexion-ms}. Cada evento
+   * lleva su identificador en el campo {@code id}, que el cliente reenvía en {@code Last-Event-ID} al
+   * reconectarse.
+   *
+   * @param desde Identificador del último evento recibido, o {@code null} para recibir solo los nuevos.
+   * @return Emisor de Server-Sent Events.
+   */
+  public SseEmitter suscribir(Long desde) {
+    SseEmitter emitter = new SseEmitter(duracionConexionMs);
+    long inicio = desde == null ? horizonte : desde;
+
+    emitter.onCompletion(() -> cerrar(emitter));
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(ex -> cerrar(emitter));
+    suscriptores.add(emitter);
+
+    Thread.ofVirtual().name("citas-eventos-suscriptor").start(() -> enviar(emitter, inicio));
+
+    return emitter;
+  }
+
+  /**
+   * Registra una acción que recibe cada evento nuevo de la tabla, de esta instancia o de otra, una sola vez y
+   * en orden de posición, desde el hilo lector. Un error de la acción se registra y no detiene la lectura.
+   *
+   * @param oyente Acción aplicada a cada evento.
+   */
+  public void escuchar(Consumer<OutboxEvent> oyente) {
+    oyentes.add(oyente);
+  }
+
+  private void cerrar(SseEmitter emitter) {
+    suscriptores.remove(emitter);
+    avisar();
+  }
+
+  private void enviar(SseEmitter emitter, long desde) {
+    long ultimo = desde;
+
+    try {
+      while (activo && suscriptores.contains(emitter)) {
+        List<OutboxEvent> eventos = siguientes(ultimo);
+
+        if (eventos.isEmpty()) {
+          if (!esperar(ultimo)) {
+            emitter.send(SseEmitter.event().comment("latido"));
+          }
+
+          continue;
+        }
+
+        for (OutboxEvent evento : eventos) {
+          emitter.send(SseEmitter.event()
+            .id(Long.toString(evento.id()))
+            .name(evento.tipo())
+            .data(evento, MediaType.APPLICATION_JSON));
+          ultimo = evento.id();
+        }
+      }
+    } catch (IOException | IllegalStateException ex) {
+      // El cliente se desconectó o el emisor ya se completó.
+      suscriptores.remove(emitter);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      emitter.complete();
+    } catch (RuntimeException ex) {
+      log.warn("Event subscription failed", ex);
+      emitter.completeWithError(ex);
+    }
+  }
+
+  /**
+   * Devuelve los eventos publicables posteriores a {@code ultimo}, del buffer si lo cubre o de la tabla.
+   */
+  private List<OutboxEvent> siguientes(long ultimo) {
+    long hasta = horizonte;
+
+    if (ultimo >= hasta) {
+      return List.of();
+    }
+
+    Long primero = recientes.isEmpty() ? null : recientes.firstKey();
+
+    if (primero != null && ultimo >= primero - 1) {
+      List<OutboxEvent> eventos = new ArrayList<>();
+
+      for (OutboxEvent evento : recientes.subMap(ultimo, false, hasta, true).values()) {
+        eventos.add(evento);
+
+        if (eventos.size() == tamanoLote) {
+          break;
+        }
+      }
+
+      return eventos;
+    }
+
+    return jdbcTemplate.query(SELECT + " where posicion > ? and posicion <= ? order by posicion limit ?",
+        OutboxRelay::evento, ultimo, hasta, tamanoLote);
+  }
+
+  /**
+   * Espera a que haya eventos posteriores a {@code ultimo} o a que cierre alguna suscripción.
+   *
+   * @return false si pasó el intervalo de latido sin novedades.
+   */
+  private boolean esperar(long ultimo) throws InterruptedException {
+    lock.lock();
+    try {
+      return horizonte > ultimo || nuevos.await(latidoMs, TimeUnit.MILLISECONDS);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void avisar() {
+    lock.lock();
+    try {
+      nuevos.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void leer() {
+    while (activo) {
+      try {
+        lock.lock();
+        try {
+          if (!notificado) {
+            pendientes.await(intervaloMs, TimeUnit.MILLISECONDS);
+          }
+
+          notificado = false;
+        } finally {
+          lock.unlock();
+        }
+
+        boolean mas;
+
+        do {
+          long anterior = horizonte;
+          mas = avanzar();
+
+          if (horizonte > anterior) {
+            avisar();
+          }
+        } while (mas);
+
+        purgar();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException ex) {
+        log.warn("Could not read outbox events", ex);
+      }
+    }
+  }
+
+  /**
+   * Numera los eventos confirmados pendientes y lee el siguiente bloque de eventos numerados.
+   *
+   * @return true si se numeró o se leyó un bloque completo y puede haber más.
+   */
+  private boolean avanzar() {
+    int numerados = numerar();
+    List<OutboxEvent> eventos = jdbcTemplate.query(SELECT + " where posicion > ? order by posicion limit ?",
+        OutboxRelay::evento, horizonte, tamanoLote);
+
+    for (OutboxEvent evento : eventos) {
+      recientes.put(evento.id(), evento);
+      entregar(evento);
+    }
+
+    while (recientes.size() > tamanoBuffer) {
+      recientes.pollFirstEntry();
+    }
+
+    if (!eventos.isEmpty()) {
+      horizonte = eventos.get(eventos.size() - 1).id();
+    }
+
+    return numerados == tamanoLote || eventos.size() == tamanoLote;
+  }
+
+  /**
+   * Asigna posición a los eventos confirmados que todavía no la tienen, en orden de identificador. El contador
+   * se bloquea antes de buscarlos, de modo que una instancia ve siempre las posiciones que otra acaba de asignar.
+   *
+   * @return Número de eventos numerados.
+   */
+  private int numerar() {
+    if (jdbcTemplate.queryForList(SIN_POSICION, Long.class, 1).isEmpty()) {
+      return 0;
+    }
+
+    Integer numerados = transactionTemplate.execute(estado -> {
+      long ultima = jdbcTemplate.queryForObject("select ultima from evento_posicion where id = 1 for update",
+          Long.class);
+      List<Long> ids = jdbcTemplate.queryForList(SIN_POSICION, Long.class, tamanoLote);
+      List<Object[]> filas = new ArrayList<>(ids.size());
+
+      for (Long id : ids) {
+        filas.add(new Object[] {++ultima, id});
+      }
+
+      jdbcTemplate.batchUpdate("update evento set posicion = ? where id = ?", filas);
+      jdbcTemplate.update("update evento_posicion set ultima = ? where id = 1", ultima);
+
+      return ids.size();
+    });
+
+    return numerados == null ? 0 : numerados;
+  }
+
+  private void entregar(OutboxEvent evento) {
+    for (Consumer<OutboxEvent> oyente : oyentes) {
+      try {
+        oyente.accept(evento);
+      } catch (RuntimeException ex) {
+        log.warn("Outbox listener failed on event {} ({})", evento.id(), evento.tipo(), ex);
+      }
+    }
+  }
+
+  private void purgar() {
+    long ahora = System.currentTimeMillis();
+
+    if (ahora - ultimaPurga >= PURGA_CADA_MS) {
+      ultimaPurga = ahora;
+      jdbcTemplate.update("delete from evento where fecha < ?",
+          Timestamp.from(Instant.ofEpochMilli(ahora).minus(Duration.ofHours(retencionHoras))));
+    }
+  }
+
+  private static OutboxEvent evento(ResultSet rs, int fila) throws SQLException {
+    return new OutboxEvent(rs.getLong("posicion"), rs.getString("tipo"), rs.getString("clave"), rs.getString("datos"),
+        rs.getTimestamp("fecha").toInstant());
+  }
+}
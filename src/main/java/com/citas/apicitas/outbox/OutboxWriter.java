@@ -0,0 +1,134 @@
+package com.citas.apicitas.outbox;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryInfo;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Registra los eventos de cambio en la tabla {@code evento} dentro de la misma transacción que el cambio.
+ *
+ * <p>Los eventos de una transacción se acumulan y se insertan en un solo lote justo antes de confirmarla,
+ * cuando las entidades nuevas ya tienen su identificador asignado; si la transacción se deshace, se descartan
+ * con ella. Antes de insertarlos se vuelcan los cambios pendientes del contexto de persistencia, de modo que
+ * la inserción de los eventos es la última sentencia de la transacción y las esperas de bloqueos ocurren antes.
+ * Tras la confirmación se avisa a {@link OutboxRelay} para que los publique sin esperar al sondeo.</p>
+ */
+@Component
+public class OutboxWriter {
+
+  private static final String INSERT = "insert into evento (tipo, clave, datos, fecha) values (?, ?, ?, ?)";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private OutboxRelay relay;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private final Clock clock = Clock.systemUTC();
+
+  /**
+   * Registra un evento en la transacción en curso. La clave y los datos se obtienen al confirmar.
+   *
+   * @param tipo  Tipo del evento.
+   * @param clave Identificador de la entidad modificada; puede devolver {@code null}.
+   * @param datos Estado nuevo de la entidad, que se serializa a JSON; puede devolver {@code null}.
+   * @throws IllegalStateException Si no hay una transacción en curso.
+   */
+  public void registrar(String tipo, Supplier<?> clave, Supplier<?> datos) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()
+        || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Outbox events must be registered inside a transaction");
+    }
+
+    eventosDeLaTransaccion().add(new Pendiente(tipo, clave, datos));
+  }
+
+  private List<Pendiente> eventosDeLaTransaccion() {
+    for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+      if (sincronizacion instanceof Registro registro) {
+        return registro.eventos;
+      }
+    }
+
+    Registro registro = new Registro();
+    TransactionSynchronizationManager.registerSynchronization(registro);
+
+    return registro.eventos;
+  }
+
+  private record Pendiente(String tipo, Supplier<?> clave, Supplier<?> datos) {
+  }
+
+  private class Registro implements TransactionSynchronization {
+
+    private final List<Pendiente> eventos = new ArrayList<>();
+
+    /**
+     * Después de las demás sincronizaciones, que pueden escribir en la base de datos al confirmar.
+     */
+    @Override
+    public int getOrder() {
+      return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      try {
+        entityManager.flush();
+      } catch (RuntimeException ex) {
+        // Fuera de doCommit el gestor de transacciones no traduce la excepción: se traduce aquí, como haría él.
+        throw entityManagerFactory instanceof EntityManagerFactoryInfo info && info.getJpaDialect() != null
+            ? DataAccessUtils.translateIfNecessary(ex, info.getJpaDialect()) : ex;
+      }
+
+      Timestamp fecha = Timestamp.from(clock.instant());
+      List<Object[]> filas = new ArrayList<>(eventos.size());
+
+      for (Pendiente evento : eventos) {
+        Object clave = evento.clave().get();
+        Object datos = evento.datos().get();
+
+        try {
+          filas.add(new Object[] {evento.tipo(), clave == null ? null : clave.toString(),
+              datos == null ? null : objectMapper.writeValueAsString(datos), fecha});
+        } catch (JsonProcessingException ex) {
+          throw new IllegalStateException("Could not serialize " + evento.tipo() + " event", ex);
+        }
+      }
+
+      jdbcTemplate.batchUpdate(INSERT, filas);
+    }
+
+    @Override
+    public void afterCommit() {
+      relay.notificar();
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.citas.apicitas.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección mínima de una cita reservada: el profesional y el horario que ocupa.
+ * Se usa para calcular la disponibilidad sin cargar citas, doctores ni pacientes.
+ *
+ * @param idProfesional Identificador del profesional de la cita.
+ * @param fechaHora     Fecha y hora de la cita.
+ */
+public record CitaSlot(long idProfesional, LocalDateTime fechaHora) {
+}
@@ -0,0 +1,35 @@
+package com.citas.apicitas.projections;
+
+import java.time.LocalDateTime;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+
+/**
+ * Proyección plana de solo lectura de una {@link Cita} con los datos básicos de su doctor y paciente.
+ * Se obtiene con un único join en la consulta, sin cargar las entidades asociadas.
+ *
+ * @param id               Identificador sustituto de la cita.
+ * @param fechaHora        Fecha y hora de la cita.
+ * @param idProfesional    Identificador del profesional asociado a la cita.
+ * @param idNumeroCedula   Número de cédula del paciente asociado a la cita.
+ * @param doctorNombre     Nombre del doctor.
+ * @param doctorApellido   Apellido del doctor.
+ * @param especialidad     Especialidad del doctor.
+ * @param pacienteNombre   Nombre del paciente.
+ * @param pacienteApellido Apellido del paciente.
+ */
+public record CitaView(long id, LocalDateTime fechaHora, long idProfesional, long idNumeroCedula,
+                       String doctorNombre, String doctorApellido, Doctor.Especialidad especialidad,
+                       String pacienteNombre, String pacienteApellido) {
+
+  /**
+   * Reconstruye la clave compuesta de la cita representada.
+   *
+   * @return La {@link CitaId} de la cita.
+   */
+  public CitaId toId() {
+    return new CitaId(idProfesional, idNumeroCedula, fechaHora);
+  }
+}
@@ -0,0 +1,28 @@
+package com.citas.apicitas.projections;
+
+import com.citas.apicitas.entities.Doctor;
+
+/**
+ * Proyección de solo lectura de un {@link Doctor} para los endpoints de listado.
+ * Se construye directamente desde la consulta, sin hidratar ni gestionar la entidad.
+ *
+ * @param idProfesional Identificador único del profesional médico.
+ * @param nombre        Nombre del doctor.
+ * @param apellido      Apellido del doctor.
+ * @param correo        Correo electrónico del doctor.
+ * @param especialidad  Especialidad del doctor.
+ */
+public record DoctorSummary(long idProfesional, String nombre, String apellido, String correo,
+                            Doctor.Especialidad especialidad) {
+
+  /**
+   * Crea el resumen de un doctor ya cargado.
+   *
+   * @param doctor Doctor.
+   * @return Resumen con los mismos datos.
+   */
+  public static DoctorSummary of(Doctor doctor) {
+    return new DoctorSummary(doctor.getIdProfesional(), doctor.getNombre(), doctor.getApellido(),
+        doctor.getCorreo(), doctor.getEspecialidad());
+  }
+}
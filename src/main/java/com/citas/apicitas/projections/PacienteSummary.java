@@ -0,0 +1,30 @@
+package com.citas.apicitas.projections;
+
+import java.time.LocalDateTime;
+
+import com.citas.apicitas.entities.Paciente;
+
+/**
+ * Proyección de solo lectura de un {@link Paciente} para los endpoints de listado.
+ * Se construye directamente desde la consulta, sin hidratar ni gestionar la entidad.
+ *
+ * @param idNumeroCedula  Número de cédula del paciente.
+ * @param nombre          Nombre del paciente.
+ * @param apellido        Apellido del paciente.
+ * @param telefono        Número de teléfono de contacto del paciente.
+ * @param fechaNacimiento Fecha de nacimiento del paciente.
+ */
+public record PacienteSummary(long idNumeroCedula, String nombre, String apellido, String telefono,
+                              LocalDateTime fechaNacimiento) {
+
+  /**
+   * Crea el resumen de un paciente ya cargado.
+   *
+   * @param paciente Paciente.
+   * @return Resumen con los mismos datos.
+   */
+  public static PacienteSummary of(Paciente paciente) {
+    return new PacienteSummary(paciente.getIdNumeroCedula(), paciente.getNombre(), paciente.getApellido(),
+        paciente.getTelefono(), paciente.getFechaNacimiento());
+  }
+}
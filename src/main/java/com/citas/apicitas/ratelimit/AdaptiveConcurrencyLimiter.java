@@ -0,0 +1,122 @@
+package com.citas.apicitas.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite adaptativo de peticiones concurrentes, basado en el gradiente de la latencia (como Gradient2 de
+ * Netflix concurrency-limits).
+ *
+ * <p>Se mantienen dos medias móviles de la latencia de las peticiones: una corta, que sigue la carga actual, y
+ * una larga, que estima la latencia sin congestión. Mientras la corta no supera {@code tolerancia} veces la
+ * larga, el límite crece; cuando la base de datos se ralentiza y las peticiones empiezan a hacer cola en el pool
+ * de conexiones, la latencia corta sube, el gradiente {@code larga * tolerancia / corta} baja de 1 y el límite
+ * se reduce en proporción. Las peticiones que exceden el límite se rechazan de inmediato en lugar de esperar
+ * una conexión.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final double ALFA_CORTA = 0.1;
+
+  private static final double ALFA_LARGA = 1.0 / 600;
+
+  private static final double SUAVIZADO = 0.2;
+
+  private final AtomicInteger enCurso = new AtomicInteger();
+
+  private final int minimo;
+
+  private final int maximo;
+
+  private final double tolerancia;
+
+  private volatile int limite;
+
+  private double corta;
+
+  private double larga;
+
+  /**
+   * Crea el limitador.
+   *
+   * @param inicial    Límite inicial.
+   * @param minimo     Límite mínimo.
+   * @param maximo     Límite máximo.
+   * @param tolerancia Cuántas veces puede crecer la latencia sobre la de referencia antes de reducir el límite.
+   */
+  public AdaptiveConcurrencyLimiter(int inicial, int minimo, int maximo, double tolerancia) {
+    this.limite = inicial;
+    this.minimo = minimo;
+    this.maximo = maximo;
+    this.tolerancia = tolerancia;
+  }
+
+  /**
+   * Intenta admitir una petición.
+   *
+   * @return true si la petición cabe en el límite actual; en ese caso hay que llamar a {@link #release}.
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      int actual = enCurso.get();
+
+      if (actual >= limite) {
+        return false;
+      }
+
+      if (enCurso.compareAndSet(actual, actual + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Libera una petición admitida y, si se indica su latencia, ajusta el límite.
+   *
+   * @param latenciaNanos Latencia de la petición, o un valor negativo si no debe usarse como muestra
+   *                      (por ejemplo, una respuesta en streaming).
+   */
+  public void release(long latenciaNanos) {
+    int actual = enCurso.getAndDecrement();
+
+    if (latenciaNanos >= 0) {
+      muestra(latenciaNanos, actual);
+    }
+  }
+
+  public int getLimite() {
+    return limite;
+  }
+
+  public int getEnCurso() {
+    return enCurso.get();
+  }
+
+  private synchronized void muestra(long latenciaNanos, int enVuelo) {
+    if (larga == 0) {
+      corta = latenciaNanos;
+      larga = latenciaNanos;
+      return;
+    }
+
+    corta += ALFA_CORTA * (latenciaNanos - corta);
+    larga += ALFA_LARGA * (latenciaNanos - larga);
+
+    // Tras una carga prolongada la media larga queda inflada; cuando la latencia vuelve a la normalidad se
+    // acerca a la corta más deprisa para que el límite se recupere antes.
+    if (larga > 2 * corta) {
+      larga *= 0.95;
+    }
+
+    double gradiente = Math.max(0.5, Math.min(1.0, tolerancia * larga / corta));
+
+    // Con poca carga la latencia no dice nada del límite: solo se reduce.
+    if (gradiente == 1.0 && enVuelo < limite / 2) {
+      return;
+    }
+
+    double nuevo = limite * gradiente + Math.sqrt(limite);
+    int siguiente = (int) Math.round(limite * (1 - SUAVIZADO) + nuevo * SUAVIZADO);
+
+    limite = Math.max(minimo, Math.min(maximo, siguiente));
+  }
+}
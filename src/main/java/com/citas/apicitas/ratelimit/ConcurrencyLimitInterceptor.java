@@ -0,0 +1,72 @@
+package com.citas.apicitas.ratelimit;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.citas.apicitas.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Control de admisión de la API con un {@link AdaptiveConcurrencyLimiter}: cuando la latencia sube, el límite
+ * de peticiones simultáneas baja y las que lo exceden se responden con 503 y Retry-After a través de
+ * {@code ControllerExceptionHandler}, sin ocupar una conexión a la base de datos.
+ *
+ * <p>Las respuestas asíncronas (streaming NDJSON) mantienen su permiso hasta terminar, pero su duración no se
+ * usa como muestra de latencia.</p>
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+  private static final String INICIO = ConcurrencyLimitInterceptor.class.getName() + ".inicio";
+
+  private static final String ASINCRONA = ConcurrencyLimitInterceptor.class.getName() + ".asincrona";
+
+  private final AdaptiveConcurrencyLimiter limiter;
+
+  private final Counter rechazadas;
+
+  public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter, MeterRegistry registry) {
+    this.limiter = limiter;
+    this.rechazadas = Counter.builder("citas.limites.sobrecarga")
+      .description("Requests shed by the adaptive concurrency limiter")
+      .register(registry);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST) {
+      return true;
+    }
+
+    if (!limiter.tryAcquire()) {
+      rechazadas.increment();
+      throw new ServiceUnavailableException("Server overloaded, concurrency limit " + limiter.getLimite() + " reached", 1);
+    }
+
+    request.setAttribute(INICIO, System.nanoTime());
+
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    request.setAttribute(ASINCRONA, Boolean.TRUE);
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+      Exception ex) {
+    Object inicio = request.getAttribute(INICIO);
+
+    if (inicio == null || request.isAsyncStarted()) {
+      return;
+    }
+
+    request.removeAttribute(INICIO);
+    limiter.release(request.getAttribute(ASINCRONA) != null ? -1 : System.nanoTime() - (Long) inicio);
+  }
+}
@@ -0,0 +1,144 @@
+package com.citas.apicitas.ratelimit;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.citas.apicitas.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limita las peticiones de cada cliente con un {@link TokenBucket} por cliente y grupo de rutas, de modo que los
+ * listados, que son las peticiones más caras, tienen un presupuesto menor que las reservas. El cliente se
+ * identifica por su clave de API (cabecera configurable) si es una de las claves configuradas o, si no, por su
+ * dirección IP: una clave desconocida no da un presupuesto nuevo, así que cambiar de clave en cada petición no
+ * evita el límite. Detrás de un proxy la IP es la del cliente solo si {@code server.forward-headers-strategy}
+ * está configurado.
+ *
+ * <p>Los cubos se guardan en una caché acotada que descarta los de los clientes inactivos. Las peticiones
+ * rechazadas se responden con 429 y Retry-After a través de {@code ControllerExceptionHandler}.</p>
+ *
+ * <p>Mientras la instancia no acepta tráfico (estado de disponibilidad {@code REFUSING_TRAFFIC}, antes de
+ * declararse lista) no se limitan las peticiones desde la propia máquina: son las del calentamiento de
+ * {@code WarmupRunner}, que si no se agotaría enseguida el cubo de la dirección local.</p>
+ */
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+  private final String cabeceraClave;
+
+  private final Set<String> claves;
+
+  private final Map<String, RouteBudget> porRuta = new HashMap<>();
+
+  private final RouteBudget general;
+
+  private final Cache<String, TokenBucket> cubos;
+
+  /**
+   * Contador de peticiones rechazadas de cada grupo de rutas.
+   */
+  private final Map<String, Counter> rechazadas = new HashMap<>();
+
+  private final ApplicationAvailability availability;
+
+  /**
+   * Crea el limitador.
+   *
+   * @param presupuestos  Presupuestos por grupo de rutas; el que no tiene rutas se aplica al resto.
+   * @param cabeceraClave Cabecera con la clave de API del cliente.
+   * @param claves        Claves de API que tienen presupuesto propio.
+   * @param maxClientes   Número máximo de cubos en memoria.
+   * @param registry      Registro de la métrica {@code citas.limites.rechazadas}.
+   * @param availability  Estado de disponibilidad de la aplicación, para no limitar el calentamiento.
+   */
+  public RateLimitInterceptor(List<RouteBudget> presupuestos, String cabeceraClave, Set<String> claves,
+                              long maxClientes, MeterRegistry registry, ApplicationAvailability availability) {
+    RouteBudget resto = null;
+
+    for (RouteBudget presupuesto : presupuestos) {
+      if (presupuesto.rutas().isEmpty()) {
+        resto = presupuesto;
+      }
+
+      presupuesto.rutas().forEach(ruta -> porRuta.put(ruta, presupuesto));
+      rechazadas.put(presupuesto.nombre(), Counter.builder("citas.limites.rechazadas")
+        .description("Requests rejected by the per-client rate limiter")
+        .tag("grupo", presupuesto.nombre())
+        .register(registry));
+    }
+
+    this.general = resto;
+    this.cabeceraClave = cabeceraClave;
+    this.claves = Set.copyOf(claves);
+    this.availability = availability;
+    this.cubos = Caffeine.newBuilder()
+      .expireAfterAccess(Duration.ofMinutes(10))
+      .maximumSize(maxClientes)
+      .build();
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST || calentamiento(request)) {
+      return true;
+    }
+
+    Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    RouteBudget presupuesto = porRuta.getOrDefault(request.getMethod() + " " + patron, general);
+
+    if (presupuesto == null) {
+      return true;
+    }
+
+    long ahora = System.nanoTime();
+    String clave = cliente(request);
+    TokenBucket cubo = cubos.get(presupuesto.nombre() + "|" + clave,
+        k -> new TokenBucket(presupuesto.capacidad(), presupuesto.porSegundo(), ahora));
+    long espera = cubo.tryAcquire(ahora);
+
+    if (espera > 0) {
+      rechazadas.get(presupuesto.nombre()).increment();
+
+      throw new TooManyRequestsException("Rate limit exceeded for " + presupuesto.nombre(),
+          Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999)));
+    }
+
+    return true;
+  }
+
+  private boolean calentamiento(HttpServletRequest request) {
+    if (availability.getReadinessState() != ReadinessState.REFUSING_TRAFFIC) {
+      return false;
+    }
+
+    try {
+      // La dirección remota es siempre una IP literal: no se resuelve por DNS.
+      return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+    } catch (UnknownHostException ex) {
+      return false;
+    }
+  }
+
+  private String cliente(HttpServletRequest request) {
+    String apiKey = request.getHeader(cabeceraClave);
+
+    return apiKey != null && claves.contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+  }
+}
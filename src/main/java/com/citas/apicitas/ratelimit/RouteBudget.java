@@ -0,0 +1,15 @@
+package com.citas.apicitas.ratelimit;
+
+import java.util.Set;
+
+/**
+ * Presupuesto de peticiones por cliente de un grupo de rutas.
+ *
+ * @param nombre     Nombre del grupo, por ejemplo {@code listados}.
+ * @param capacidad  Ráfaga máxima de peticiones por cliente.
+ * @param porSegundo Peticiones por segundo sostenidas por cliente.
+ * @param rutas      Rutas del grupo como {@code "MÉTODO patrón"}, con el patrón de la anotación del controlador
+ *                   (por ejemplo {@code "GET /api/citas"}); un grupo sin rutas se aplica al resto.
+ */
+public record RouteBudget(String nombre, long capacidad, double porSegundo, Set<String> rutas) {
+}
@@ -0,0 +1,58 @@
+package com.citas.apicitas.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cubo de fichas sin bloqueos. Admite ráfagas de hasta {@code capacidad} peticiones y, a partir de ahí,
+ * {@code porSegundo} peticiones por segundo.
+ *
+ * <p>Se implementa con el algoritmo GCRA: en lugar de un contador de fichas que hay que recargar, guarda en un
+ * único {@link AtomicLong} el instante teórico en que el cubo volverá a estar lleno, y cada petición lo adelanta
+ * un intervalo con una operación compare-and-set.</p>
+ */
+public class TokenBucket {
+
+  private final long intervaloNanos;
+
+  private final long rafagaNanos;
+
+  /**
+   * Instante teórico (en la escala de {@link System#nanoTime()}) en que el cubo vuelve a estar lleno.
+   */
+  private final AtomicLong lleno;
+
+  /**
+   * Crea un cubo lleno.
+   *
+   * @param capacidad  Número máximo de peticiones seguidas.
+   * @param porSegundo Peticiones por segundo que se reponen.
+   * @param ahora      Instante actual, en nanosegundos.
+   */
+  public TokenBucket(long capacidad, double porSegundo, long ahora) {
+    this.intervaloNanos = Math.max(1, (long) (1_000_000_000L / porSegundo));
+    this.rafagaNanos = capacidad * intervaloNanos;
+    this.lleno = new AtomicLong(ahora);
+  }
+
+  /**
+   * Intenta consumir una ficha.
+   *
+   * @param ahora Instante actual, en nanosegundos.
+   * @return 0 si se concede la ficha; si no, los nanosegundos hasta que haya una disponible.
+   */
+  public long tryAcquire(long ahora) {
+    while (true) {
+      long actual = lleno.get();
+      long siguiente = (actual - ahora > 0 ? actual : ahora) + intervaloNanos;
+      long exceso = siguiente - ahora - rafagaNanos;
+
+      if (exceso > 0) {
+        return exceso;
+      }
+
+      if (lleno.compareAndSet(actual, siguiente)) {
+        return 0;
+      }
+    }
+  }
+}
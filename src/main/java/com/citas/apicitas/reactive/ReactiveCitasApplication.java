@@ -0,0 +1,39 @@
+package com.citas.apicitas.reactive;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Variante no bloqueante de la API de Citas: los mismos endpoints de /api/citas, /api/doctores y /api/pacientes
+ * servidos con WebFlux (Netty) y R2DBC en lugar de Spring MVC (Tomcat) y JPA. Solo escanea el paquete
+ * {@code com.citas.apicitas.reactive}; las entidades, proyecciones y DTO de la variante JPA se reutilizan
+ * como tipos de las respuestas, de modo que el JSON es el mismo.
+ *
+ * Puede compartir la base de datos con la variante JPA: sus escrituras actualizan en la misma transacción los
+ * contadores de {@code cita_diaria} y la versión de los listados en {@code version_datos}, e insertan sus eventos
+ * en {@code evento}, que publican las instancias JPA.
+ *
+ * Se activa con el perfil {@value #PERFIL} (application-reactivo.properties), que fija la URL de R2DBC y la
+ * de JDBC con la que Flyway sigue aplicando las migraciones.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+public class ReactiveCitasApplication {
+
+  /**
+   * Perfil que selecciona esta variante.
+   */
+  public static final String PERFIL = "reactivo";
+
+  /**
+   * Inicia la variante reactiva con el perfil {@value #PERFIL} activo.
+   *
+   * @param args Argumentos de línea de comandos.
+   */
+  public static void main(String[] args) {
+    new SpringApplicationBuilder(ReactiveCitasApplication.class)
+      .profiles(PERFIL)
+      .run(args);
+  }
+}
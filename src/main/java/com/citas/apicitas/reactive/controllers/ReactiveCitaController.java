@@ -0,0 +1,161 @@
+package com.citas.apicitas.reactive.controllers;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.citas.apicitas.dto.CitaPage;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.projections.CitaView;
+import com.citas.apicitas.reactive.services.ReactiveCitaService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador WebFlux de las citas médicas, con el mismo contrato que
+ * {@link com.citas.apicitas.controllers.CitaController}.
+ */
+@RestController
+@RequestMapping("/api/citas")
+public class ReactiveCitaController {
+
+  @Autowired
+  private ReactiveCitaService citaService;
+
+  /**
+   * Obtiene una página de citas médicas mediante paginación por clave.
+   *
+   * @param cursor Cursor opaco devuelto por la página anterior; se omite para la primera página.
+   * @param size   Número de citas por página.
+   * @return ResponseEntity con la página de citas médicas y estado HTTP 200 (OK).
+   */
+  @GetMapping("")
+  public Mono<ResponseEntity<CitaPage>> getCitas(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "50") int size) {
+    return citaService.findPage(cursor, size)
+      .map(citas -> new ResponseEntity<>(citas, HttpStatus.OK));
+  }
+
+  /**
+   * Obtiene todas las citas médicas en formato NDJSON (una cita JSON por línea).
+   * Cada cita se escribe en cuanto se lee y las filas se piden a la base de datos según las consume
+   * la conexión con el cliente (contrapresión), sin cargarlas todas en memoria.
+   *
+   * @return ResponseEntity con el flujo de citas y estado HTTP 200 (OK).
+   */
+  @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<Flux<CitaView>> streamCitas() {
+    return new ResponseEntity<>(citaService.streamAll(), HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene una cita médica específica mediante parámetros de consulta.
+   *
+   * @param idPaciente ID del paciente.
+   * @param idDoctor   ID del doctor.
+   * @param fecha_hora Fecha y hora de la cita.
+   * @return ResponseEntity con la cita médica solicitada y estado HTTP 200 (OK).
+   */
+  @GetMapping("/one-cita")
+  public Mono<ResponseEntity<Cita>> getCita(@RequestParam Long idPaciente,
+                                            @RequestParam Long idDoctor, @RequestParam LocalDateTime fecha_hora) {
+    return citaService.findById(new CitaId(idDoctor, idPaciente, fecha_hora))
+      .map(cita -> new ResponseEntity<>(cita, HttpStatus.OK));
+  }
+
+  /**
+   * Obtiene una cita médica específica por su identificador numérico.
+   *
+   * @param id Identificador de la cita médica.
+   * @return ResponseEntity con la cita médica solicitada y estado HTTP 200 (OK).
+   */
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<Cita>> getCita(@PathVariable Long id) {
+    return citaService.findById(id)
+      .map(cita -> new ResponseEntity<>(cita, HttpStatus.OK));
+  }
+
+  /**
+   * Agrega una nueva cita médica.
+   *
+   * @param citaId  Identificador de la cita médica.
+   * @param request Petición, de la que se toma la URL base de la cabecera Location.
+   * @return ResponseEntity con el ID de la cita médica agregada, la URL de la cita
+   * (/api/citas/{id}) en la cabecera Location y estado HTTP 201 (CREATED).
+   */
+  @PostMapping("")
+  public Mono<ResponseEntity<CitaId>> addCita(@RequestBody CitaId citaId, ServerHttpRequest request) {
+    return citaService.addCita(citaId)
+      .map(id -> {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(UriComponentsBuilder.fromUri(request.getURI())
+          .path("/{id}")
+          .buildAndExpand(id)
+          .toUri());
+
+        return new ResponseEntity<>(citaId, headers, HttpStatus.CREATED);
+      });
+  }
+
+  /**
+   * Modifica una cita médica existente.
+   *
+   * @param citaId     Identificador de la nueva cita médica.
+   * @param idPaciente ID del paciente de la cita médica existente.
+   * @param idDoctor   ID del doctor de la cita médica existente.
+   * @param fecha_hora Fecha y hora de la cita médica existente.
+   * @return ResponseEntity con la cita médica modificada y estado HTTP 200 (OK).
+   */
+  @PutMapping("")
+  public Mono<ResponseEntity<Cita>> modifyCita(@RequestBody CitaId citaId, @RequestParam Long idPaciente,
+                                               @RequestParam Long idDoctor, @RequestParam LocalDateTime fecha_hora) {
+    return citaService.modifyCita(new CitaId(idDoctor, idPaciente, fecha_hora), citaId)
+      .map(cita -> new ResponseEntity<>(cita, HttpStatus.OK));
+  }
+
+  /**
+   * Modifica una cita médica existente por su identificador numérico.
+   *
+   * @param id     Identificador de la cita médica existente.
+   * @param citaId Identificador de la nueva cita médica.
+   * @return ResponseEntity con la cita médica modificada y estado HTTP 200 (OK).
+   */
+  @PutMapping("/{id}")
+  public Mono<ResponseEntity<Cita>> modifyCita(@PathVariable Long id, @RequestBody CitaId citaId) {
+    return citaService.modifyCita(id, citaId)
+      .map(cita -> new ResponseEntity<>(cita, HttpStatus.OK));
+  }
+
+  /**
+   * Elimina una cita médica.
+   *
+   * @param id Identificador de la cita médica a eliminar.
+   * @return ResponseEntity con estado HTTP 204 (NO CONTENT) indicando que la cita se eliminó con éxito.
+   */
+  @DeleteMapping("")
+  public Mono<ResponseEntity<Void>> deleteCita(@RequestBody CitaId id) {
+    return citaService.deleteCita(id)
+      .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+  }
+
+  /**
+   * Elimina una cita médica por su identificador numérico.
+   *
+   * @param id Identificador de la cita médica a eliminar.
+   * @return ResponseEntity con estado HTTP 204 (NO CONTENT) indicando que la cita se eliminó con éxito.
+   */
+  @DeleteMapping("/{id}")
+  public Mono<ResponseEntity<Void>> deleteCita(@PathVariable Long id) {
+    return citaService.deleteCita(id)
+      .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+  }
+}
@@ -0,0 +1,98 @@
+package com.citas.apicitas.reactive.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.projections.DoctorSummary;
+import com.citas.apicitas.reactive.services.ReactiveDoctorService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador WebFlux de los doctores, con el mismo contrato que
+ * {@link com.citas.apicitas.controllers.DoctorController}. Las listas se devuelven como arreglo JSON o,
+ * con {@code Accept: application/x-ndjson}, como un doctor por línea escrito a medida que se lee.
+ */
+@RestController
+@RequestMapping("/api/doctores")
+public class ReactiveDoctorController {
+
+  @Autowired
+  private ReactiveDoctorService doctorService;
+
+  /**
+   * Obtiene el resumen de todos los doctores.
+   *
+   * @return ResponseEntity con el flujo de doctores y estado HTTP 200 (OK).
+   */
+  @GetMapping(value = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<Flux<DoctorSummary>> getDoctors() {
+    return new ResponseEntity<>(doctorService.findAllSummaries(), HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene un doctor por su identificador.
+   *
+   * @param id Identificador del doctor.
+   * @return ResponseEntity con el doctor y estado HTTP 200 (OK).
+   */
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<Doctor>> getDoctor(@PathVariable Long id) {
+    return doctorService.findById(id)
+      .map(doctor -> new ResponseEntity<>(doctor, HttpStatus.OK));
+  }
+
+  /**
+   * Obtiene los doctores de una especialidad.
+   *
+   * @param especialidad Especialidad de los doctores.
+   * @return ResponseEntity con el flujo de doctores y estado HTTP 200 (OK).
+   */
+  @GetMapping(value = "/especialidad/{especialidad}",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<Flux<Doctor>> getDoctorsByEspecialidad(@PathVariable Doctor.Especialidad especialidad) {
+    return new ResponseEntity<>(doctorService.findAllByEspecialidad(especialidad), HttpStatus.OK);
+  }
+
+  /**
+   * Agrega un nuevo doctor.
+   *
+   * @param doctor Doctor a agregar.
+   * @return ResponseEntity con el doctor agregado y estado HTTP 201 (CREATED).
+   */
+  @PostMapping("")
+  public Mono<ResponseEntity<Doctor>> addDoctor(@RequestBody Doctor doctor) {
+    return doctorService.addDoctor(doctor)
+      .map(newDoctor -> new ResponseEntity<>(newDoctor, HttpStatus.CREATED));
+  }
+
+  /**
+   * Modifica un doctor existente.
+   *
+   * @param id     Identificador del doctor.
+   * @param doctor Nuevos datos del doctor.
+   * @return ResponseEntity con el doctor modificado y estado HTTP 200 (OK).
+   */
+  @PutMapping("/{id}")
+  public Mono<ResponseEntity<Doctor>> modifyDoctor(@PathVariable Long id, @RequestBody Doctor doctor) {
+    return doctorService.modifyDoctor(id, doctor)
+      .map(modifiedDoctor -> new ResponseEntity<>(modifiedDoctor, HttpStatus.OK));
+  }
+
+  /**
+   * Elimina un doctor.
+   *
+   * @param id Identificador del doctor.
+   * @return ResponseEntity con estado HTTP 204 (NO CONTENT).
+   */
+  @DeleteMapping("/{id}")
+  public Mono<ResponseEntity<Void>> deleteDoctor(@PathVariable Long id) {
+    return doctorService.deleteDoctor(id)
+      .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+  }
+}
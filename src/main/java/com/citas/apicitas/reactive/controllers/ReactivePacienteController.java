@@ -0,0 +1,86 @@
+package com.citas.apicitas.reactive.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.projections.PacienteSummary;
+import com.citas.apicitas.reactive.services.ReactivePacienteService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador WebFlux de los pacientes, con el mismo contrato que
+ * {@link com.citas.apicitas.controllers.PacienteController}. La lista se devuelve como arreglo JSON o,
+ * con {@code Accept: application/x-ndjson}, como un paciente por línea escrito a medida que se lee.
+ */
+@RestController
+@RequestMapping("/api/pacientes")
+public class ReactivePacienteController {
+
+  @Autowired
+  private ReactivePacienteService pacienteService;
+
+  /**
+   * Obtiene el resumen de todos los pacientes.
+   *
+   * @return ResponseEntity con el flujo de pacientes y estado HTTP 200 (OK).
+   */
+  @GetMapping(value = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<Flux<PacienteSummary>> getPacientes() {
+    return new ResponseEntity<>(pacienteService.findAllSummaries(), HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene un paciente por su número de cédula.
+   *
+   * @param id Número de cédula del paciente.
+   * @return ResponseEntity con el paciente y estado HTTP 200 (OK).
+   */
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<Paciente>> getPaciente(@PathVariable Long id) {
+    return pacienteService.findById(id)
+      .map(paciente -> new ResponseEntity<>(paciente, HttpStatus.OK));
+  }
+
+  /**
+   * Agrega un nuevo paciente.
+   *
+   * @param paciente Paciente a agregar.
+   * @return ResponseEntity con el paciente agregado y estado HTTP 201 (CREATED).
+   */
+  @PostMapping("")
+  public Mono<ResponseEntity<Paciente>> addPaciente(@RequestBody Paciente paciente) {
+    return pacienteService.addPaciente(paciente)
+      .map(newPaciente -> new ResponseEntity<>(newPaciente, HttpStatus.CREATED));
+  }
+
+  /**
+   * Modifica un paciente existente.
+   *
+   * @param id       Número de cédula del paciente.
+   * @param paciente Nuevos datos del paciente.
+   * @return ResponseEntity con el paciente modificado y estado HTTP 200 (OK).
+   */
+  @PutMapping("/{id}")
+  public Mono<ResponseEntity<Paciente>> modifyPaciente(@PathVariable Long id, @RequestBody Paciente paciente) {
+    return pacienteService.modifyPaciente(id, paciente)
+      .map(modifyPaciente -> new ResponseEntity<>(modifyPaciente, HttpStatus.OK));
+  }
+
+  /**
+   * Elimina un paciente.
+   *
+   * @param id Número de cédula del paciente.
+   * @return ResponseEntity con estado HTTP 204 (NO CONTENT).
+   */
+  @DeleteMapping("/{id}")
+  public Mono<ResponseEntity<Void>> deletePaciente(@PathVariable Long id) {
+    return pacienteService.deletePaciente(id)
+      .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+  }
+}
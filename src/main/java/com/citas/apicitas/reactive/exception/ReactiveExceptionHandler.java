@@ -0,0 +1,70 @@
+package com.citas.apicitas.reactive.exception;
+
+import java.util.Date;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.citas.apicitas.exception.BadRequestException;
+import com.citas.apicitas.exception.ErrorMessage;
+import com.citas.apicitas.exception.ResourceNotFoundException;
+
+/**
+ * Traducción de excepciones a {@link ErrorMessage} en la variante WebFlux, con los mismos estados que
+ * {@link com.citas.apicitas.exception.ControllerExceptionHandler}.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+  @ExceptionHandler(ResourceNotFoundException.class)
+  @ResponseStatus(value = HttpStatus.NOT_FOUND)
+  public ErrorMessage resourceNotFoundException(ResourceNotFoundException ex, ServerHttpRequest request) {
+    return message(HttpStatus.NOT_FOUND, ex, request);
+  }
+
+  @ExceptionHandler(BadRequestException.class)
+  @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+  public ErrorMessage badRequestException(BadRequestException ex, ServerHttpRequest request) {
+    return message(HttpStatus.BAD_REQUEST, ex, request);
+  }
+
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  @ResponseStatus(value = HttpStatus.CONFLICT)
+  public ErrorMessage constraintViolationException(DataIntegrityViolationException ex, ServerHttpRequest request) {
+    return message(HttpStatus.CONFLICT, ex, request);
+  }
+
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  @ResponseStatus(value = HttpStatus.CONFLICT)
+  public ErrorMessage optimisticLockingFailureException(OptimisticLockingFailureException ex, ServerHttpRequest request) {
+    return message(HttpStatus.CONFLICT, ex, request);
+  }
+
+  /**
+   * Errores de WebFlux con su propio estado (parámetros que faltan o no se pueden convertir, tipo de contenido
+   * no aceptado...), que conservan ese estado.
+   */
+  @ExceptionHandler(ResponseStatusException.class)
+  public ResponseEntity<ErrorMessage> responseStatusException(ResponseStatusException ex, ServerHttpRequest request) {
+    ErrorMessage message = new ErrorMessage(ex.getStatusCode().value(), new Date(), ex.getReason(),
+        "uri=" + request.getPath());
+    return new ResponseEntity<>(message, ex.getStatusCode());
+  }
+
+  @ExceptionHandler(Exception.class)
+  @ResponseStatus(value = HttpStatus.INTERNAL_SERVER_ERROR)
+  public ErrorMessage globalExceptionHandler(Exception ex, ServerHttpRequest request) {
+    return message(HttpStatus.INTERNAL_SERVER_ERROR, ex, request);
+  }
+
+  private static ErrorMessage message(HttpStatus status, Exception ex, ServerHttpRequest request) {
+    return new ErrorMessage(status.value(), new Date(), ex.getMessage(), "uri=" + request.getPath());
+  }
+}
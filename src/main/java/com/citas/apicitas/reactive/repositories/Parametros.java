@@ -0,0 +1,18 @@
+package com.citas.apicitas.reactive.repositories;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Enlace de parámetros que pueden ser nulos: {@link DatabaseClient.GenericExecuteSpec#bind(String, Object)}
+ * no acepta {@code null} y hay que indicar el tipo del valor nulo.
+ */
+final class Parametros {
+
+  private Parametros() {
+  }
+
+  static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec sql, String nombre, Object valor,
+                                                Class<?> tipo) {
+    return valor == null ? sql.bindNull(nombre, tipo) : sql.bind(nombre, valor);
+  }
+}
@@ -0,0 +1,92 @@
+package com.citas.apicitas.reactive.repositories;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.citas.apicitas.entities.CitaId;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Actualización no bloqueante de la tabla {@code cita_diaria}, con las mismas sentencias que
+ * {@link com.citas.apicitas.rollup.CitaRollup}. Cada método debe ejecutarse en la transacción del cambio de la
+ * cita; los dos contadores de una reprogramación se actualizan en orden de clave, como allí.
+ */
+@Repository
+public class ReactiveCitaDiariaRepository {
+
+  private static final Comparator<CitaId> POR_CONTADOR = Comparator
+      .comparing((CitaId clave) -> clave.getFechaHora().toLocalDate())
+      .thenComparingLong(CitaId::getIdProfesional);
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  /**
+   * Cuenta una cita nueva.
+   *
+   * @param clave Clave natural de la cita.
+   * @return Un {@code Mono} que termina al actualizarse el contador.
+   */
+  public Mono<Void> creada(CitaId clave) {
+    return sumar(clave, 1);
+  }
+
+  /**
+   * Mueve una cita reprogramada de su día y doctor anteriores a los nuevos.
+   *
+   * @param anterior Clave natural de la cita antes del cambio.
+   * @param nueva    Clave natural de la cita después del cambio.
+   * @return Un {@code Mono} que termina al actualizarse los contadores.
+   */
+  public Mono<Void> reprogramada(CitaId anterior, CitaId nueva) {
+    int orden = POR_CONTADOR.compare(anterior, nueva);
+
+    if (orden == 0) {
+      return Mono.empty();
+    }
+
+    return orden < 0 ? sumar(anterior, -1).then(sumar(nueva, 1)) : sumar(nueva, 1).then(sumar(anterior, -1));
+  }
+
+  /**
+   * Descuenta una cita eliminada.
+   *
+   * @param clave Clave natural de la cita.
+   * @return Un {@code Mono} que termina al actualizarse el contador.
+   */
+  public Mono<Void> eliminada(CitaId clave) {
+    return sumar(clave, -1);
+  }
+
+  private Mono<Void> sumar(CitaId clave, int delta) {
+    LocalDate fecha = clave.getFechaHora().toLocalDate();
+
+    return actualizar(fecha, clave.getIdProfesional(), delta)
+      .filter(filas -> filas == 0)
+      .flatMap(filas -> databaseClient.sql("insert into cita_diaria (fecha, id_profesional, total)"
+          + " values (:fecha, :idProfesional, :delta)")
+        .bind("fecha", fecha)
+        .bind("idProfesional", clave.getIdProfesional())
+        .bind("delta", delta)
+        .then()
+        // Otra transacción creó el contador entretanto.
+        .onErrorResume(DuplicateKeyException.class, ex -> actualizar(fecha, clave.getIdProfesional(), delta).then()))
+      .then();
+  }
+
+  private Mono<Long> actualizar(LocalDate fecha, long idProfesional, int delta) {
+    return databaseClient.sql("update cita_diaria set total = total + :delta"
+        + " where fecha = :fecha and id_profesional = :idProfesional")
+      .bind("delta", delta)
+      .bind("fecha", fecha)
+      .bind("idProfesional", idProfesional)
+      .fetch()
+      .rowsUpdated();
+  }
+}
@@ -0,0 +1,75 @@
+package com.citas.apicitas.reactive.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Identificadores sustitutos de las citas tomados de cita_seq con el mismo esquema que el optimizador
+ * "pooled" de Hibernate ({@code allocationSize = 50}): cada valor V que se obtiene de la secuencia reserva
+ * los identificadores V-49..V, que se reparten en memoria. Así las dos variantes de la API pueden escribir
+ * sobre la misma base de datos sin repetir identificadores.
+ *
+ * En H2 cita_seq es una secuencia; en MySQL es una tabla de una fila (como la crea Hibernate), que se
+ * avanza con una actualización condicionada al valor leído y se reintenta si otro nodo se adelantó.
+ */
+@Component
+public class ReactiveCitaIdGenerator {
+
+  private static final long INCREMENTO = 50;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private ConnectionFactory connectionFactory;
+
+  private long siguiente = 1;
+
+  private long limite = 0;
+
+  /**
+   * Siguiente identificador libre. Solo consulta la base de datos cuando se agota el bloque reservado.
+   *
+   * @return El identificador.
+   */
+  public Mono<Long> nextId() {
+    synchronized (this) {
+      if (siguiente <= limite) {
+        return Mono.just(siguiente++);
+      }
+    }
+
+    return nextValue().map(valor -> {
+      synchronized (this) {
+        // Si otra petición reservó un bloque a la vez, el resto del suyo se descarta: nunca se repiten valores.
+        siguiente = Math.max(1, valor - INCREMENTO + 1);
+        limite = valor;
+        return siguiente++;
+      }
+    });
+  }
+
+  private Mono<Long> nextValue() {
+    if ("H2".equalsIgnoreCase(connectionFactory.getMetadata().getName())) {
+      return databaseClient.sql("select next value for cita_seq")
+        .map(fila -> fila.get(0, Long.class))
+        .one();
+    }
+
+    return databaseClient.sql("select next_val from cita_seq")
+      .map(fila -> fila.get(0, Long.class))
+      .one()
+      .flatMap(valor -> databaseClient.sql("update cita_seq set next_val = :nuevo where next_val = :actual")
+        .bind("nuevo", valor + INCREMENTO)
+        .bind("actual", valor)
+        .fetch()
+        .rowsUpdated()
+        .filter(filas -> filas == 1)
+        .map(filas -> valor))
+      .repeatWhenEmpty(intentos -> intentos);
+  }
+}
@@ -0,0 +1,242 @@
+package com.citas.apicitas.reactive.repositories;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.projections.CitaView;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Acceso no bloqueante a la tabla cita con R2DBC. Las consultas son las mismas que las del repositorio JPA
+ * (paginación por clave sobre (fecha_hora, id_profesional, id_numero_cedula) y proyecciones {@link CitaView}),
+ * escritas en SQL.
+ */
+@Repository
+public class ReactiveCitaRepository {
+
+  private static final String CITA_VIEW_SELECT = "select c.id, c.fecha_hora, c.id_profesional, c.id_numero_cedula,"
+      + " d.nombre as doctor_nombre, d.apellido as doctor_apellido, d.especialidad,"
+      + " p.nombre as paciente_nombre, p.apellido as paciente_apellido"
+      + " from cita c join doctor d on d.id_profesional = c.id_profesional"
+      + " join paciente p on p.id_numero_cedula = c.id_numero_cedula";
+
+  private static final String ORDEN = " order by c.fecha_hora, c.id_profesional, c.id_numero_cedula";
+
+  private static final String CITA_SELECT = "select c.id, c.version, c.fecha_hora, c.id_profesional,"
+      + " c.id_numero_cedula, d.nombre as doctor_nombre, d.apellido as doctor_apellido, d.correo as doctor_correo,"
+      + " d.especialidad, p.nombre as paciente_nombre, p.apellido as paciente_apellido,"
+      + " p.telefono as paciente_telefono, p.fecha_nacimiento as paciente_fecha_nacimiento"
+      + " from cita c join doctor d on d.id_profesional = c.id_profesional"
+      + " join paciente p on p.id_numero_cedula = c.id_numero_cedula";
+
+  private static final String CLAVE = "id_profesional = :idProfesional and id_numero_cedula = :idNumeroCedula"
+      + " and fecha_hora = :fechaHora";
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  /**
+   * Primera página de citas ordenadas por (fecha_hora, id_profesional, id_numero_cedula).
+   *
+   * @param limite Número máximo de citas.
+   * @return Flujo con las citas de la página.
+   */
+  public Flux<CitaView> findFirstPage(int limite) {
+    return databaseClient.sql(CITA_VIEW_SELECT + ORDEN + " limit :limite")
+      .bind("limite", limite)
+      .map(ReactiveCitaRepository::citaView)
+      .all();
+  }
+
+  /**
+   * Página de citas posteriores a la última cita de la página anterior.
+   *
+   * @param last   Clave de la última cita de la página anterior.
+   * @param limite Número máximo de citas.
+   * @return Flujo con las citas de la página.
+   */
+  public Flux<CitaView> findPageAfter(CitaId last, int limite) {
+    return databaseClient.sql(CITA_VIEW_SELECT
+        + " where c.fecha_hora > :fechaHora"
+        + " or (c.fecha_hora = :fechaHora and (c.id_profesional > :idProfesional"
+        + " or (c.id_profesional = :idProfesional and c.id_numero_cedula > :idNumeroCedula)))"
+        + ORDEN + " limit :limite")
+      .bind("fechaHora", last.getFechaHora())
+      .bind("idProfesional", last.getIdProfesional())
+      .bind("idNumeroCedula", last.getIdNumeroCedula())
+      .bind("limite", limite)
+      .map(ReactiveCitaRepository::citaView)
+      .all();
+  }
+
+  /**
+   * Todas las citas, en el orden de la paginación. Las filas se leen a medida que el suscriptor las pide,
+   * de modo que un cliente lento frena la lectura en lugar de acumular filas en memoria.
+   *
+   * @return Flujo con todas las citas.
+   */
+  public Flux<CitaView> streamAll() {
+    return databaseClient.sql(CITA_VIEW_SELECT + ORDEN)
+      .map(ReactiveCitaRepository::citaView)
+      .all();
+  }
+
+  /**
+   * Busca una cita, con su doctor y su paciente, por su identificador sustituto.
+   *
+   * @param id Identificador de la cita.
+   * @return La cita, o un {@code Mono} vacío si no existe.
+   */
+  public Mono<Cita> findById(long id) {
+    return databaseClient.sql(CITA_SELECT + " where c.id = :id")
+      .bind("id", id)
+      .map(ReactiveCitaRepository::cita)
+      .one();
+  }
+
+  /**
+   * Busca una cita, con su doctor y su paciente, por su clave natural.
+   *
+   * @param clave Clave de la cita.
+   * @return La cita, o un {@code Mono} vacío si no existe.
+   */
+  public Mono<Cita> findByClave(CitaId clave) {
+    return clave(databaseClient.sql(CITA_SELECT + " where c.id_profesional = :idProfesional"
+        + " and c.id_numero_cedula = :idNumeroCedula and c.fecha_hora = :fechaHora"), clave)
+      .map(ReactiveCitaRepository::cita)
+      .one();
+  }
+
+  /**
+   * Lee la clave natural de una cita y bloquea su fila hasta el final de la transacción, para que una
+   * reprogramación concurrente no la cambie antes de actualizar sus contadores.
+   *
+   * @param id Identificador sustituto de la cita.
+   * @return La clave de la cita, o un {@code Mono} vacío si no existe.
+   */
+  public Mono<CitaId> findClaveForUpdate(long id) {
+    return databaseClient.sql("select id_profesional, id_numero_cedula, fecha_hora from cita where id = :id for update")
+      .bind("id", id)
+      .map(fila -> new CitaId(fila.get("id_profesional", Long.class), fila.get("id_numero_cedula", Long.class),
+          fila.get("fecha_hora", LocalDateTime.class)))
+      .one();
+  }
+
+  /**
+   * Inserta una cita con la versión 0.
+   *
+   * @param id    Identificador sustituto de la cita.
+   * @param clave Clave de la cita.
+   * @return Un {@code Mono} que termina al confirmarse la inserción.
+   */
+  public Mono<Void> insert(long id, CitaId clave) {
+    return clave(databaseClient.sql("insert into cita (id, version, id_profesional, id_numero_cedula, fecha_hora)"
+        + " values (:id, 0, :idProfesional, :idNumeroCedula, :fechaHora)"), clave)
+      .bind("id", id)
+      .then();
+  }
+
+  /**
+   * Cambia la clave de una cita e incrementa su versión.
+   *
+   * @param id    Identificador sustituto de la cita.
+   * @param nueva Nueva clave de la cita.
+   * @return Número de filas actualizadas (0 si la cita no existe).
+   */
+  public Mono<Long> update(long id, CitaId nueva) {
+    return clave(databaseClient.sql("update cita set id_profesional = :idProfesional,"
+        + " id_numero_cedula = :idNumeroCedula, fecha_hora = :fechaHora, version = version + 1 where id = :id"), nueva)
+      .bind("id", id)
+      .fetch()
+      .rowsUpdated();
+  }
+
+  /**
+   * Cambia la clave de una cita, buscada por su clave actual, e incrementa su versión.
+   *
+   * @param actual Clave actual de la cita.
+   * @param nueva  Nueva clave de la cita.
+   * @return Número de filas actualizadas (0 si la cita no existe).
+   */
+  public Mono<Long> updateByClave(CitaId actual, CitaId nueva) {
+    return clave(databaseClient.sql("update cita set id_profesional = :nuevoIdProfesional,"
+        + " id_numero_cedula = :nuevoIdNumeroCedula, fecha_hora = :nuevaFechaHora, version = version + 1"
+        + " where " + CLAVE), actual)
+      .bind("nuevoIdProfesional", nueva.getIdProfesional())
+      .bind("nuevoIdNumeroCedula", nueva.getIdNumeroCedula())
+      .bind("nuevaFechaHora", nueva.getFechaHora())
+      .fetch()
+      .rowsUpdated();
+  }
+
+  /**
+   * Elimina una cita por su identificador sustituto.
+   *
+   * @param id Identificador de la cita.
+   * @return Número de filas eliminadas (0 si la cita no existe).
+   */
+  public Mono<Long> removeById(long id) {
+    return databaseClient.sql("delete from cita where id = :id")
+      .bind("id", id)
+      .fetch()
+      .rowsUpdated();
+  }
+
+  /**
+   * Elimina una cita por su clave natural.
+   *
+   * @param clave Clave de la cita.
+   * @return Número de filas eliminadas (0 si la cita no existe).
+   */
+  public Mono<Long> removeByClave(CitaId clave) {
+    return clave(databaseClient.sql("delete from cita where " + CLAVE), clave)
+      .fetch()
+      .rowsUpdated();
+  }
+
+  private static DatabaseClient.GenericExecuteSpec clave(DatabaseClient.GenericExecuteSpec sql, CitaId clave) {
+    return sql.bind("idProfesional", clave.getIdProfesional())
+      .bind("idNumeroCedula", clave.getIdNumeroCedula())
+      .bind("fechaHora", clave.getFechaHora());
+  }
+
+  private static CitaView citaView(Readable fila) {
+    String especialidad = fila.get("especialidad", String.class);
+
+    return new CitaView(fila.get("id", Long.class), fila.get("fecha_hora", LocalDateTime.class),
+        fila.get("id_profesional", Long.class), fila.get("id_numero_cedula", Long.class),
+        fila.get("doctor_nombre", String.class), fila.get("doctor_apellido", String.class),
+        especialidad == null ? null : Doctor.Especialidad.valueOf(especialidad),
+        fila.get("paciente_nombre", String.class), fila.get("paciente_apellido", String.class));
+  }
+
+  private static Cita cita(Readable fila) {
+    CitaId clave = new CitaId(fila.get("id_profesional", Long.class), fila.get("id_numero_cedula", Long.class),
+        fila.get("fecha_hora", LocalDateTime.class));
+    String especialidad = fila.get("especialidad", String.class);
+
+    Doctor doctor = new Doctor(clave.getIdProfesional(), fila.get("doctor_nombre", String.class),
+        fila.get("doctor_apellido", String.class), fila.get("doctor_correo", String.class),
+        especialidad == null ? null : Doctor.Especialidad.valueOf(especialidad), new HashSet<>());
+    Paciente paciente = new Paciente(clave.getIdNumeroCedula(), fila.get("paciente_nombre", String.class),
+        fila.get("paciente_apellido", String.class), fila.get("paciente_telefono", String.class),
+        fila.get("paciente_fecha_nacimiento", LocalDateTime.class), new HashSet<>());
+
+    Cita cita = new Cita(clave, doctor, paciente);
+    cita.setId(fila.get("id", Long.class));
+    cita.setVersion(fila.get("version", Long.class));
+
+    return cita;
+  }
+}
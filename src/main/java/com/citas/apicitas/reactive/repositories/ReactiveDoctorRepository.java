@@ -0,0 +1,145 @@
+package com.citas.apicitas.reactive.repositories;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.projections.DoctorSummary;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Acceso no bloqueante a la tabla doctor con R2DBC. Cada método es una única sentencia SQL;
+ * las filas se convierten en las mismas clases que devuelve el repositorio JPA.
+ */
+@Repository
+public class ReactiveDoctorRepository {
+
+  private static final String DOCTOR_SELECT = "select id_profesional, nombre, apellido, correo, especialidad,"
+      + " version, ultima_modificacion from doctor";
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  /**
+   * Resumen de todos los doctores, ordenados por identificador, a medida que se leen.
+   *
+   * @return Flujo con el resumen de cada doctor.
+   */
+  public Flux<DoctorSummary> findAllSummaries() {
+    return databaseClient.sql("select id_profesional, nombre, apellido, correo, especialidad from doctor"
+        + " order by id_profesional")
+      .map(fila -> new DoctorSummary(fila.get("id_profesional", Long.class), fila.get("nombre", String.class),
+          fila.get("apellido", String.class), fila.get("correo", String.class), especialidad(fila)))
+      .all();
+  }
+
+  /**
+   * Busca un doctor por su identificador.
+   *
+   * @param id Identificador del doctor.
+   * @return El doctor, o un {@code Mono} vacío si no existe.
+   */
+  public Mono<Doctor> findById(long id) {
+    return databaseClient.sql(DOCTOR_SELECT + " where id_profesional = :id")
+      .bind("id", id)
+      .map(ReactiveDoctorRepository::doctor)
+      .one();
+  }
+
+  /**
+   * Doctores de una especialidad, ordenados por identificador.
+   *
+   * @param especialidad Especialidad de los doctores.
+   * @return Flujo con los doctores.
+   */
+  public Flux<Doctor> findAllByEspecialidad(Doctor.Especialidad especialidad) {
+    return databaseClient.sql(DOCTOR_SELECT + " where especialidad = :especialidad order by id_profesional")
+      .bind("especialidad", especialidad.name())
+      .map(ReactiveDoctorRepository::doctor)
+      .all();
+  }
+
+  /**
+   * Inserta un doctor con la versión 0.
+   *
+   * @param doctor Doctor a insertar.
+   * @return El doctor insertado, con su versión y fecha de modificación.
+   */
+  public Mono<Doctor> insert(Doctor doctor) {
+    LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    DatabaseClient.GenericExecuteSpec sql = databaseClient.sql("insert into doctor (id_profesional, nombre, apellido,"
+        + " correo, especialidad, version, ultima_modificacion)"
+        + " values (:id, :nombre, :apellido, :correo, :especialidad, 0, :ahora)")
+      .bind("id", doctor.getIdProfesional())
+      .bind("ahora", ahora);
+
+    doctor.setVersion(0L);
+    doctor.setUltimaModificacion(ahora);
+
+    return datos(sql, doctor).then().thenReturn(doctor);
+  }
+
+  /**
+   * Actualiza los datos de un doctor e incrementa su versión.
+   *
+   * @param id     Identificador del doctor.
+   * @param doctor Nuevos datos del doctor.
+   * @return Número de filas actualizadas (0 si el doctor no existe).
+   */
+  public Mono<Long> update(long id, Doctor doctor) {
+    DatabaseClient.GenericExecuteSpec sql = databaseClient.sql("update doctor set nombre = :nombre,"
+        + " apellido = :apellido, correo = :correo, especialidad = :especialidad, version = version + 1,"
+        + " ultima_modificacion = :ahora where id_profesional = :id")
+      .bind("id", id)
+      .bind("ahora", LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+    return datos(sql, doctor).fetch().rowsUpdated();
+  }
+
+  /**
+   * Elimina un doctor por su identificador.
+   *
+   * @param id Identificador del doctor.
+   * @return Número de filas eliminadas (0 si el doctor no existe).
+   */
+  public Mono<Long> removeById(long id) {
+    return databaseClient.sql("delete from doctor where id_profesional = :id")
+      .bind("id", id)
+      .fetch()
+      .rowsUpdated();
+  }
+
+  private static DatabaseClient.GenericExecuteSpec datos(DatabaseClient.GenericExecuteSpec sql, Doctor doctor) {
+    sql = Parametros.bind(sql, "nombre", doctor.getNombre(), String.class);
+    sql = Parametros.bind(sql, "apellido", doctor.getApellido(), String.class);
+    sql = Parametros.bind(sql, "correo", doctor.getCorreo(), String.class);
+
+    return Parametros.bind(sql, "especialidad",
+        doctor.getEspecialidad() == null ? null : doctor.getEspecialidad().name(), String.class);
+  }
+
+  private static Doctor doctor(Readable fila) {
+    Doctor doctor = new Doctor(fila.get("id_profesional", Long.class), fila.get("nombre", String.class),
+        fila.get("apellido", String.class), fila.get("correo", String.class), especialidad(fila), new HashSet<>());
+
+    doctor.setVersion(fila.get("version", Long.class));
+    doctor.setUltimaModificacion(fila.get("ultima_modificacion", LocalDateTime.class));
+
+    return doctor;
+  }
+
+  private static Doctor.Especialidad especialidad(Readable fila) {
+    String especialidad = fila.get("especialidad", String.class);
+
+    return especialidad == null ? null : Doctor.Especialidad.valueOf(especialidad);
+  }
+}
@@ -0,0 +1,54 @@
+package com.citas.apicitas.reactive.repositories;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Inserción no bloqueante de los eventos de cambio en la tabla {@code evento}, con el mismo formato que
+ * {@link com.citas.apicitas.outbox.OutboxWriter}. Debe ser la última sentencia de la transacción del cambio.
+ * Los eventos se insertan sin posición: la asigna y los publica {@link com.citas.apicitas.outbox.OutboxRelay}
+ * en las instancias de la variante JPA que comparten la base de datos.
+ */
+@Repository
+public class ReactiveEventoRepository {
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  /**
+   * Inserta un evento.
+   *
+   * @param tipo  Tipo del evento.
+   * @param clave Identificador de la entidad modificada; puede ser {@code null}.
+   * @param datos Estado nuevo de la entidad, que se serializa a JSON; puede ser {@code null}.
+   * @return Un {@code Mono} que termina al insertarse el evento.
+   */
+  public Mono<Void> insert(String tipo, Object clave, Object datos) {
+    return Mono.defer(() -> {
+      DatabaseClient.GenericExecuteSpec sql = databaseClient.sql("insert into evento (tipo, clave, datos, fecha)"
+          + " values (:tipo, :clave, :datos, :fecha)")
+        .bind("tipo", tipo)
+        .bind("fecha", LocalDateTime.now());
+
+      try {
+        sql = Parametros.bind(sql, "clave", clave == null ? null : clave.toString(), String.class);
+        sql = Parametros.bind(sql, "datos", datos == null ? null : objectMapper.writeValueAsString(datos), String.class);
+      } catch (JsonProcessingException ex) {
+        return Mono.error(new IllegalStateException("Could not serialize " + tipo + " event", ex));
+      }
+
+      return sql.then();
+    });
+  }
+}
@@ -0,0 +1,125 @@
+package com.citas.apicitas.reactive.repositories;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.projections.PacienteSummary;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Acceso no bloqueante a la tabla paciente con R2DBC. Cada método es una única sentencia SQL;
+ * las filas se convierten en las mismas clases que devuelve el repositorio JPA.
+ */
+@Repository
+public class ReactivePacienteRepository {
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  /**
+   * Resumen de todos los pacientes, ordenados por número de cédula, a medida que se leen.
+   *
+   * @return Flujo con el resumen de cada paciente.
+   */
+  public Flux<PacienteSummary> findAllSummaries() {
+    return databaseClient.sql("select id_numero_cedula, nombre, apellido, telefono, fecha_nacimiento from paciente"
+        + " order by id_numero_cedula")
+      .map(fila -> new PacienteSummary(fila.get("id_numero_cedula", Long.class), fila.get("nombre", String.class),
+          fila.get("apellido", String.class), fila.get("telefono", String.class),
+          fila.get("fecha_nacimiento", LocalDateTime.class)))
+      .all();
+  }
+
+  /**
+   * Busca un paciente por su número de cédula.
+   *
+   * @param id Número de cédula del paciente.
+   * @return El paciente, o un {@code Mono} vacío si no existe.
+   */
+  public Mono<Paciente> findById(long id) {
+    return databaseClient.sql("select id_numero_cedula, nombre, apellido, telefono, fecha_nacimiento, version,"
+        + " ultima_modificacion from paciente where id_numero_cedula = :id")
+      .bind("id", id)
+      .map(ReactivePacienteRepository::paciente)
+      .one();
+  }
+
+  /**
+   * Inserta un paciente con la versión 0.
+   *
+   * @param paciente Paciente a insertar.
+   * @return El paciente insertado, con su versión y fecha de modificación.
+   */
+  public Mono<Paciente> insert(Paciente paciente) {
+    LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    DatabaseClient.GenericExecuteSpec sql = databaseClient.sql("insert into paciente (id_numero_cedula, nombre,"
+        + " apellido, telefono, fecha_nacimiento, version, ultima_modificacion)"
+        + " values (:id, :nombre, :apellido, :telefono, :fechaNacimiento, 0, :ahora)")
+      .bind("id", paciente.getIdNumeroCedula())
+      .bind("ahora", ahora);
+
+    paciente.setVersion(0L);
+    paciente.setUltimaModificacion(ahora);
+
+    return datos(sql, paciente).then().thenReturn(paciente);
+  }
+
+  /**
+   * Actualiza los datos de un paciente e incrementa su versión.
+   *
+   * @param id       Número de cédula del paciente.
+   * @param paciente Nuevos datos del paciente.
+   * @return Número de filas actualizadas (0 si el paciente no existe).
+   */
+  public Mono<Long> update(long id, Paciente paciente) {
+    DatabaseClient.GenericExecuteSpec sql = databaseClient.sql("update paciente set nombre = :nombre,"
+        + " apellido = :apellido, telefono = :telefono, fecha_nacimiento = :fechaNacimiento,"
+        + " version = version + 1, ultima_modificacion = :ahora where id_numero_cedula = :id")
+      .bind("id", id)
+      .bind("ahora", LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+    return datos(sql, paciente).fetch().rowsUpdated();
+  }
+
+  /**
+   * Elimina un paciente por su número de cédula.
+   *
+   * @param id Número de cédula del paciente.
+   * @return Número de filas eliminadas (0 si el paciente no existe).
+   */
+  public Mono<Long> removeById(long id) {
+    return databaseClient.sql("delete from paciente where id_numero_cedula = :id")
+      .bind("id", id)
+      .fetch()
+      .rowsUpdated();
+  }
+
+  private static DatabaseClient.GenericExecuteSpec datos(DatabaseClient.GenericExecuteSpec sql, Paciente paciente) {
+    sql = Parametros.bind(sql, "nombre", paciente.getNombre(), String.class);
+    sql = Parametros.bind(sql, "apellido", paciente.getApellido(), String.class);
+    sql = Parametros.bind(sql, "telefono", paciente.getTelefono(), String.class);
+
+    return Parametros.bind(sql, "fechaNacimiento", paciente.getFechaNacimiento(), LocalDateTime.class);
+  }
+
+  private static Paciente paciente(Readable fila) {
+    Paciente paciente = new Paciente(fila.get("id_numero_cedula", Long.class), fila.get("nombre", String.class),
+        fila.get("apellido", String.class), fila.get("telefono", String.class),
+        fila.get("fecha_nacimiento", LocalDateTime.class), new HashSet<>());
+
+    paciente.setVersion(fila.get("version", Long.class));
+    paciente.setUltimaModificacion(fila.get("ultima_modificacion", LocalDateTime.class));
+
+    return paciente;
+  }
+}
@@ -0,0 +1,31 @@
+package com.citas.apicitas.reactive.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Versión de los listados de datos de referencia en la tabla {@code version_datos}, que forma el ETag de
+ * {@link com.citas.apicitas.caching.ReferenceDataVersions}. Se incrementa en la transacción de cada escritura,
+ * para que las instancias de la variante JPA cambien el ETag de sus listados a la vez.
+ */
+@Repository
+public class ReactiveVersionDatosRepository {
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  /**
+   * Registra que una tabla ha cambiado.
+   *
+   * @param tabla Nombre de la tabla modificada.
+   * @return Un {@code Mono} que termina al incrementarse la versión.
+   */
+  public Mono<Void> modificada(String tabla) {
+    return databaseClient.sql("update version_datos set version = version + 1 where tabla = :tabla")
+      .bind("tabla", tabla)
+      .then();
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * La interfaz ReactiveCitaService es la versión no bloqueante de {@link com.citas.apicitas.services.CitaService}
+ * para los endpoints de /api/citas: las mismas operaciones, con resultados {@code Mono} y {@code Flux}.
+ */
+package com.citas.apicitas.reactive.services;
+
+import com.citas.apicitas.dto.CitaPage;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.projections.CitaView;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCitaService {
+
+  /**
+   * Recupera una página de citas mediante paginación por clave.
+   *
+   * @param cursor Cursor opaco devuelto por la página anterior, o null para la primera página.
+   * @param size   Número de citas solicitado; se limita al tamaño máximo de página.
+   * @return La página de citas y el cursor de la siguiente.
+   */
+  Mono<CitaPage> findPage(String cursor, int size);
+
+  /**
+   * Recupera todas las citas a medida que el suscriptor las pide.
+   *
+   * @return Flujo con todas las citas, en el orden de la paginación.
+   */
+  Flux<CitaView> streamAll();
+
+  /**
+   * Busca una cita por su clave natural.
+   *
+   * @param id Clave de la cita.
+   * @return La cita, o un error con ResourceNotFoundException si no existe.
+   */
+  Mono<Cita> findById(CitaId id);
+
+  /**
+   * Busca una cita por su identificador sustituto.
+   *
+   * @param id Identificador sustituto de la cita.
+   * @return La cita, o un error con ResourceNotFoundException si no existe.
+   */
+  Mono<Cita> findById(Long id);
+
+  /**
+   * Agrega una nueva cita.
+   *
+   * @param id Clave de la cita.
+   * @return El identificador sustituto de la cita agregada.
+   */
+  Mono<Long> addCita(CitaId id);
+
+  /**
+   * Modifica una cita buscada por su clave natural.
+   *
+   * @param id      Clave actual de la cita.
+   * @param newCita Nueva clave de la cita.
+   * @return La cita modificada.
+   */
+  Mono<Cita> modifyCita(CitaId id, CitaId newCita);
+
+  /**
+   * Modifica una cita buscada por su identificador sustituto.
+   *
+   * @param id      Identificador sustituto de la cita.
+   * @param newCita Nueva clave de la cita.
+   * @return La cita modificada.
+   */
+  Mono<Cita> modifyCita(Long id, CitaId newCita);
+
+  /**
+   * Elimina una cita por su clave natural.
+   *
+   * @param id Clave de la cita.
+   * @return Un {@code Mono} que termina cuando la cita se ha eliminado.
+   */
+  Mono<Void> deleteCita(CitaId id);
+
+  /**
+   * Elimina una cita por su identificador sustituto.
+   *
+   * @param id Identificador sustituto de la cita.
+   * @return Un {@code Mono} que termina cuando la cita se ha eliminado.
+   */
+  Mono<Void> deleteCita(Long id);
+}
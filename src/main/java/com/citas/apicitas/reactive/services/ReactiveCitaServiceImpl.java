@@ -0,0 +1,172 @@
+package com.citas.apicitas.reactive.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.citas.apicitas.dto.CitaCursor;
+import com.citas.apicitas.dto.CitaPage;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.exception.ResourceNotFoundException;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.projections.CitaView;
+import com.citas.apicitas.reactive.repositories.ReactiveCitaDiariaRepository;
+import com.citas.apicitas.reactive.repositories.ReactiveCitaIdGenerator;
+import com.citas.apicitas.reactive.repositories.ReactiveCitaRepository;
+import com.citas.apicitas.reactive.repositories.ReactiveEventoRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementación no bloqueante de {@link ReactiveCitaService} con R2DBC.
+ * Como en {@link com.citas.apicitas.services.CitaServiceImpl}, las escrituras no consultan antes el doctor,
+ * el paciente ni la franja: las claves foráneas y la restricción única de la tabla cita las rechazan, y la
+ * violación se traduce en un 404 o un 409. No hay bloqueo por franja en memoria; las reservas concurrentes
+ * de la misma franja las resuelve la restricción única.
+ *
+ * <p>Cada escritura actualiza en su misma transacción los contadores de {@code cita_diaria} y termina
+ * insertando su evento, como hacen {@code CitaRollup} y {@code OutboxWriter}, de modo que ambas variantes pueden
+ * compartir la base de datos. Las franjas pendientes de la escritura diferida de otra instancia no se ven desde
+ * aquí, igual que entre dos instancias JPA: si esta variante ocupa una, la restricción única rechaza después la
+ * cita pendiente, que se descarta con su evento.</p>
+ */
+@Service
+public class ReactiveCitaServiceImpl implements ReactiveCitaService {
+
+  @Autowired
+  private ReactiveCitaRepository citaRepository;
+
+  @Autowired
+  private ReactiveCitaIdGenerator citaIdGenerator;
+
+  @Autowired
+  private ReactiveCitaDiariaRepository citaDiariaRepository;
+
+  @Autowired
+  private ReactiveEventoRepository eventoRepository;
+
+  @Autowired
+  private TransactionalOperator transactionalOperator;
+
+  @Value("${citas.paginacion.tamano-maximo:500}")
+  private int maxPageSize;
+
+  @Override
+  public Mono<CitaPage> findPage(String cursor, int size) {
+    int limite = Math.max(1, Math.min(size, maxPageSize));
+
+    return Mono.defer(() -> cursor == null || cursor.isBlank()
+          ? citaRepository.findFirstPage(limite).collectList()
+          : citaRepository.findPageAfter(CitaCursor.decode(cursor), limite).collectList())
+      .map(citas -> toPage(citas, limite));
+  }
+
+  private static CitaPage toPage(List<CitaView> citas, int limite) {
+    String siguiente = citas.size() < limite ? null : CitaCursor.encode(citas.get(citas.size() - 1).toId());
+
+    return new CitaPage(citas, siguiente);
+  }
+
+  @Override
+  public Flux<CitaView> streamAll() {
+    return citaRepository.streamAll();
+  }
+
+  @Override
+  public Mono<Cita> findById(CitaId id) {
+    return citaRepository.findByClave(id)
+      .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Cita not found with id: " + id)));
+  }
+
+  @Override
+  public Mono<Cita> findById(Long id) {
+    return citaRepository.findById(id)
+      .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Cita not found with id: " + id)));
+  }
+
+  @Override
+  public Mono<Long> addCita(CitaId id) {
+    return citaIdGenerator.nextId()
+      .flatMap(nuevo -> citaRepository.insert(nuevo, id)
+        .then(citaDiariaRepository.creada(id))
+        .then(eventoRepository.insert(OutboxEvent.CITA_CREADA, nuevo, id))
+        .thenReturn(nuevo)
+        .as(transactionalOperator::transactional))
+      .onErrorMap(DataIntegrityViolationException.class, ex -> traducirViolacion(ex, id));
+  }
+
+  @Override
+  public Mono<Cita> modifyCita(CitaId id, CitaId newCita) {
+    return citaRepository.updateByClave(id, newCita)
+      .onErrorMap(DataIntegrityViolationException.class, ex -> traducirViolacion(ex, newCita))
+      .flatMap(filas -> filas == 0
+          ? Mono.error(new ResourceNotFoundException("Cita not found with id: " + id))
+          : citaDiariaRepository.reprogramada(id, newCita).then(findById(newCita)))
+      .flatMap(cita -> eventoRepository.insert(OutboxEvent.CITA_MODIFICADA, cita.getId(), cita.getClave())
+        .thenReturn(cita))
+      .as(transactionalOperator::transactional);
+  }
+
+  /**
+   * Reprograma la cita leyendo antes su clave con la fila bloqueada, para mover la cita entre los contadores
+   * de sus días y doctores.
+   */
+  @Override
+  public Mono<Cita> modifyCita(Long id, CitaId newCita) {
+    return citaRepository.findClaveForUpdate(id)
+      .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Cita not found with id: " + id)))
+      .flatMap(anterior -> citaRepository.update(id, newCita)
+        .onErrorMap(DataIntegrityViolationException.class, ex -> traducirViolacion(ex, newCita))
+        .then(citaDiariaRepository.reprogramada(anterior, newCita)))
+      .then(findById(id))
+      .flatMap(cita -> eventoRepository.insert(OutboxEvent.CITA_MODIFICADA, cita.getId(), cita.getClave())
+        .thenReturn(cita))
+      .as(transactionalOperator::transactional);
+  }
+
+  @Override
+  public Mono<Void> deleteCita(CitaId id) {
+    return citaRepository.removeByClave(id)
+      .flatMap(filas -> filas == 0
+          ? Mono.error(new ResourceNotFoundException("Cita not found with id: " + id))
+          : citaDiariaRepository.eliminada(id).then(eventoRepository.insert(OutboxEvent.CITA_ELIMINADA, null, id)))
+      .as(transactionalOperator::transactional);
+  }
+
+  /**
+   * Elimina la cita leyendo antes su clave con la fila bloqueada, para descontarla de su contador.
+   */
+  @Override
+  public Mono<Void> deleteCita(Long id) {
+    return citaRepository.findClaveForUpdate(id)
+      .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Cita not found with id: " + id)))
+      .flatMap(clave -> citaRepository.removeById(id)
+        .then(citaDiariaRepository.eliminada(clave))
+        .then(eventoRepository.insert(OutboxEvent.CITA_ELIMINADA, id, null)))
+      .as(transactionalOperator::transactional);
+  }
+
+  /**
+   * Traduce la violación de una restricción de la tabla cita, identificada por su nombre en el mensaje
+   * del controlador R2DBC, en la excepción que espera el cliente.
+   */
+  private static RuntimeException traducirViolacion(DataIntegrityViolationException ex, CitaId id) {
+    String restriccion = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase();
+
+    if (restriccion.contains(Cita.FK_DOCTOR.toLowerCase())) {
+      return new ResourceNotFoundException("Doctor not found with id: " + id.getIdProfesional());
+    }
+
+    if (restriccion.contains(Cita.FK_PACIENTE.toLowerCase())) {
+      return new ResourceNotFoundException("Paciente not found with id: " + id.getIdNumeroCedula());
+    }
+
+    return new DataIntegrityViolationException("Slot already booked for doctor: " + id.getIdProfesional(), ex);
+  }
+}
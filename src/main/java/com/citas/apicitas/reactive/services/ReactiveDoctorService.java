@@ -0,0 +1,62 @@
+/**
+ * The {@code ReactiveDoctorService} interface is the non-blocking counterpart of
+ * {@link com.citas.apicitas.services.DoctorService}: the same operations, returning {@code Mono} and {@code Flux}.
+ */
+package com.citas.apicitas.reactive.services;
+
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.projections.DoctorSummary;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveDoctorService {
+
+  /**
+   * Streams a read-only summary of every Doctor.
+   *
+   * @return a flux of DoctorSummary projections ordered by id
+   */
+  Flux<DoctorSummary> findAllSummaries();
+
+  /**
+   * Retrieves a Doctor instance by its unique identifier.
+   *
+   * @param id the unique identifier of the Doctor
+   * @return the Doctor instance, or an error with ResourceNotFoundException if not found
+   */
+  Mono<Doctor> findById(Long id);
+
+  /**
+   * Streams all Doctor instances with the specified specialty.
+   *
+   * @param especialidad the specialty to filter by
+   * @return a flux of Doctor instances ordered by id
+   */
+  Flux<Doctor> findAllByEspecialidad(Doctor.Especialidad especialidad);
+
+  /**
+   * Adds a new Doctor instance.
+   *
+   * @param doctor the Doctor instance to be added
+   * @return the added Doctor instance, or an error with DataIntegrityViolationException if the id is taken
+   */
+  Mono<Doctor> addDoctor(Doctor doctor);
+
+  /**
+   * Modifies an existing Doctor instance.
+   *
+   * @param id        the unique identifier of the Doctor to be modified
+   * @param newDoctor the Doctor instance with the new properties
+   * @return the modified Doctor instance
+   */
+  Mono<Doctor> modifyDoctor(Long id, Doctor newDoctor);
+
+  /**
+   * Deletes a Doctor instance by its unique identifier.
+   *
+   * @param id the unique identifier of the Doctor to be deleted
+   * @return a Mono that completes once the Doctor is deleted
+   */
+  Mono<Void> deleteDoctor(Long id);
+}
@@ -0,0 +1,95 @@
+package com.citas.apicitas.reactive.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.citas.apicitas.caching.ReferenceDataVersions;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.exception.ResourceNotFoundException;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.projections.DoctorSummary;
+import com.citas.apicitas.reactive.repositories.ReactiveDoctorRepository;
+import com.citas.apicitas.reactive.repositories.ReactiveEventoRepository;
+import com.citas.apicitas.reactive.repositories.ReactiveVersionDatosRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementación no bloqueante de {@link ReactiveDoctorService} con R2DBC.
+ * Cada operación hace las mismas sentencias que {@link com.citas.apicitas.services.DoctorServiceImpl},
+ * sin ocupar un hilo mientras espera a la base de datos, incluidas, en la misma transacción que cada escritura,
+ * la versión de los listados en {@code version_datos} y la inserción del evento.
+ */
+@Service
+public class ReactiveDoctorServiceImpl implements ReactiveDoctorService {
+
+  @Autowired
+  private ReactiveDoctorRepository doctorRepository;
+
+  @Autowired
+  private ReactiveVersionDatosRepository versionDatosRepository;
+
+  @Autowired
+  private ReactiveEventoRepository eventoRepository;
+
+  @Autowired
+  private TransactionalOperator transactionalOperator;
+
+  @Override
+  public Flux<DoctorSummary> findAllSummaries() {
+    return doctorRepository.findAllSummaries();
+  }
+
+  @Override
+  public Mono<Doctor> findById(Long id) {
+    return doctorRepository.findById(id)
+      .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Doctor not found with id: " + id)));
+  }
+
+  @Override
+  public Flux<Doctor> findAllByEspecialidad(Doctor.Especialidad especialidad) {
+    return doctorRepository.findAllByEspecialidad(especialidad);
+  }
+
+  /**
+   * Inserta el doctor sin consultar antes si existe: la clave primaria rechaza los duplicados.
+   */
+  @Override
+  public Mono<Doctor> addDoctor(Doctor doctor) {
+    return doctorRepository.insert(doctor)
+      .flatMap(nuevo -> versionDatosRepository.modificada(ReferenceDataVersions.DOCTOR)
+        .then(eventoRepository.insert(OutboxEvent.DOCTOR_CREADO, nuevo.getIdProfesional(), nuevo))
+        .thenReturn(nuevo))
+      .as(transactionalOperator::transactional)
+      .onErrorMap(DataIntegrityViolationException.class,
+          ex -> new DataIntegrityViolationException("Primary key already exists", ex));
+  }
+
+  /**
+   * Actualiza el doctor con un único UPDATE y lo vuelve a leer para devolver su nueva versión.
+   */
+  @Override
+  public Mono<Doctor> modifyDoctor(Long id, Doctor newDoctor) {
+    return doctorRepository.update(id, newDoctor)
+      .flatMap(filas -> filas == 0
+          ? Mono.error(new ResourceNotFoundException("Doctor not found with id: " + id))
+          : findById(id))
+      .flatMap(doctor -> versionDatosRepository.modificada(ReferenceDataVersions.DOCTOR)
+        .then(eventoRepository.insert(OutboxEvent.DOCTOR_MODIFICADO, id, doctor))
+        .thenReturn(doctor))
+      .as(transactionalOperator::transactional);
+  }
+
+  @Override
+  public Mono<Void> deleteDoctor(Long id) {
+    return doctorRepository.removeById(id)
+      .flatMap(filas -> filas == 0
+          ? Mono.error(new ResourceNotFoundException("Doctor not found with id: " + id))
+          : versionDatosRepository.modificada(ReferenceDataVersions.DOCTOR)
+            .then(eventoRepository.insert(OutboxEvent.DOCTOR_ELIMINADO, id, null)))
+      .as(transactionalOperator::transactional);
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * La interfaz ReactivePacienteService es la versión no bloqueante de
+ * {@link com.citas.apicitas.services.PacienteService}: las mismas operaciones, con resultados {@code Mono} y {@code Flux}.
+ */
+package com.citas.apicitas.reactive.services;
+
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.projections.PacienteSummary;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePacienteService {
+
+  /**
+   * Recupera el resumen de todos los pacientes a medida que se leen.
+   *
+   * @return Flujo con el resumen de cada paciente, ordenados por número de cédula.
+   */
+  Flux<PacienteSummary> findAllSummaries();
+
+  /**
+   * Busca un paciente por su número de cédula.
+   *
+   * @param id Número de cédula del paciente.
+   * @return El paciente, o un error con ResourceNotFoundException si no existe.
+   */
+  Mono<Paciente> findById(Long id);
+
+  /**
+   * Agrega un nuevo paciente.
+   *
+   * @param paciente El paciente a agregar.
+   * @return El paciente agregado, o un error con DataIntegrityViolationException si la cédula ya existe.
+   */
+  Mono<Paciente> addPaciente(Paciente paciente);
+
+  /**
+   * Modifica la información de un paciente existente.
+   *
+   * @param id          Número de cédula del paciente.
+   * @param newPaciente El paciente con la nueva información.
+   * @return El paciente modificado.
+   */
+  Mono<Paciente> modifyPaciente(Long id, Paciente newPaciente);
+
+  /**
+   * Elimina un paciente por su número de cédula.
+   *
+   * @param id Número de cédula del paciente.
+   * @return Un {@code Mono} que termina cuando el paciente se ha eliminado.
+   */
+  Mono<Void> deletePaciente(Long id);
+}
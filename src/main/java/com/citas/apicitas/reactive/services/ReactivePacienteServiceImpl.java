@@ -0,0 +1,79 @@
+package com.citas.apicitas.reactive.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.exception.ResourceNotFoundException;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.projections.PacienteSummary;
+import com.citas.apicitas.reactive.repositories.ReactiveEventoRepository;
+import com.citas.apicitas.reactive.repositories.ReactivePacienteRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementación no bloqueante de {@link ReactivePacienteService} con R2DBC.
+ * Cada escritura inserta su evento en la misma transacción, como {@link com.citas.apicitas.services.PacienteServiceImpl}.
+ */
+@Service
+public class ReactivePacienteServiceImpl implements ReactivePacienteService {
+
+  @Autowired
+  private ReactivePacienteRepository pacienteRepository;
+
+  @Autowired
+  private ReactiveEventoRepository eventoRepository;
+
+  @Autowired
+  private TransactionalOperator transactionalOperator;
+
+  @Override
+  public Flux<PacienteSummary> findAllSummaries() {
+    return pacienteRepository.findAllSummaries();
+  }
+
+  @Override
+  public Mono<Paciente> findById(Long id) {
+    return pacienteRepository.findById(id)
+      .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Paciente not found with id: " + id)));
+  }
+
+  /**
+   * Inserta el paciente sin consultar antes si existe: la clave primaria rechaza los duplicados.
+   */
+  @Override
+  public Mono<Paciente> addPaciente(Paciente paciente) {
+    return pacienteRepository.insert(paciente)
+      .flatMap(nuevo -> eventoRepository.insert(OutboxEvent.PACIENTE_CREADO, nuevo.getIdNumeroCedula(), nuevo)
+        .thenReturn(nuevo))
+      .as(transactionalOperator::transactional)
+      .onErrorMap(DataIntegrityViolationException.class,
+          ex -> new DataIntegrityViolationException("Primary key already exists", ex));
+  }
+
+  /**
+   * Actualiza el paciente con un único UPDATE y lo vuelve a leer para devolver su nueva versión.
+   */
+  @Override
+  public Mono<Paciente> modifyPaciente(Long id, Paciente newPaciente) {
+    return pacienteRepository.update(id, newPaciente)
+      .flatMap(filas -> filas == 0
+          ? Mono.error(new ResourceNotFoundException("Paciente not found with id: " + id))
+          : findById(id))
+      .flatMap(nuevo -> eventoRepository.insert(OutboxEvent.PACIENTE_MODIFICADO, id, nuevo).thenReturn(nuevo))
+      .as(transactionalOperator::transactional);
+  }
+
+  @Override
+  public Mono<Void> deletePaciente(Long id) {
+    return pacienteRepository.removeById(id)
+      .flatMap(filas -> filas == 0
+          ? Mono.error(new ResourceNotFoundException("Paciente not found with id: " + id))
+          : eventoRepository.insert(OutboxEvent.PACIENTE_ELIMINADO, id, null))
+      .as(transactionalOperator::transactional);
+  }
+}
@@ -3,22 +3,207 @@
  * Extiende la interfaz CrudRepository de Spring Data.
  *
  * @param <Cita>   El tipo de entidad Cita que se gestionará en el repositorio.
- * @param <CitaId> El tipo de identificador de la entidad Cita.
+ * @param <Long>   El tipo del identificador sustituto de la entidad Cita.
  */
-public interface CitaRepository extends CrudRepository<Cita, CitaId> {
+public interface CitaRepository extends CrudRepository<Cita, Long> {
+
+    /**
+     * Consulta base que construye una {@link CitaView} por fila uniendo cita, doctor y paciente.
+     */
+    String CITA_VIEW_SELECT = "select new com.citas.apicitas.projections.CitaView("
+        + "c.id, c.clave.fechaHora, c.clave.idProfesional, c.clave.idNumeroCedula,"
+        + " d.nombre, d.apellido, d.especialidad, p.nombre, p.apellido)"
+        + " from cita c join c.doctor d join c.paciente p";
 
     /**
      * Recupera todas las citas almacenadas en el repositorio.
      *
      * @return Un conjunto (Set) de todas las citas en el repositorio.
      */
+    @EntityGraph(attributePaths = {"doctor", "paciente"})
     Set<Cita> findAll();
 
     /**
-     * Recupera una cita específica por su identificador único.
+     * Recupera una cita específica por su identificador sustituto, junto con su doctor y su paciente.
+     *
+     * @param id El identificador sustituto de la cita que se desea recuperar.
+     * @return Un Optional que contiene la cita si se encuentra, o vacío si no se encuentra.
+     */
+    @EntityGraph(attributePaths = {"doctor", "paciente"})
+    Optional<Cita> findById(Long id);
+
+    /**
+     * Recupera una cita específica por su clave natural.
      *
-     * @param id El identificador único de la cita que se desea recuperar.
+     * @param clave La clave natural de la cita que se desea recuperar.
      * @return Un Optional que contiene la cita si se encuentra, o vacío si no se encuentra.
      */
-    Optional<Cita> findById(CitaId id);
+    @EntityGraph(attributePaths = {"doctor", "paciente"})
+    Optional<Cita> findByClave(CitaId clave);
+
+    /**
+     * Recupera la primera página de citas ordenadas por la clave de paginación
+     * (fechaHora, idProfesional, idNumeroCedula) como proyecciones de solo lectura,
+     * uniendo doctor y paciente en una sola consulta.
+     *
+     * @param pageable Límite de resultados de la página; no se ejecuta consulta de conteo.
+     * @return Lista con las primeras citas en el orden de paginación.
+     */
+    @Query(CITA_VIEW_SELECT
+        + " order by c.clave.fechaHora, c.clave.idProfesional, c.clave.idNumeroCedula")
+    List<CitaView> findFirstPage(Pageable pageable);
+
+    /**
+     * Recupera la página de citas que sigue a la clave indicada (paginación por clave o keyset).
+     * Evita el uso de OFFSET, por lo que el coste de cada página no crece con el historial de citas,
+     * y devuelve proyecciones con el doctor y el paciente obtenidos en la misma consulta.
+     *
+     * @param fechaHora      Fecha y hora de la última cita entregada.
+     * @param idProfesional  Identificador del profesional de la última cita entregada.
+     * @param idNumeroCedula Número de cédula de la última cita entregada.
+     * @param pageable       Límite de resultados de la página; no se ejecuta consulta de conteo.
+     * @return Lista con las citas posteriores a la clave indicada en el orden de paginación.
+     */
+    @Query(CITA_VIEW_SELECT
+        + " where c.clave.fechaHora > :fechaHora"
+        + " or (c.clave.fechaHora = :fechaHora and (c.clave.idProfesional > :idProfesional"
+        + " or (c.clave.idProfesional = :idProfesional and c.clave.idNumeroCedula > :idNumeroCedula)))"
+        + " order by c.clave.fechaHora, c.clave.idProfesional, c.clave.idNumeroCedula")
+    List<CitaView> findPageAfter(@Param("fechaHora") LocalDateTime fechaHora, @Param("idProfesional") long idProfesional,
+                                 @Param("idNumeroCedula") long idNumeroCedula, Pageable pageable);
+
+    /**
+     * Recorre todas las citas como un flujo de proyecciones respaldado por un cursor de base de datos.
+     * Las filas se obtienen en bloques del tamaño de fetch indicado y no se registran en el contexto
+     * de persistencia, por lo que debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @return Un Stream con todas las citas en el orden de paginación.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(CITA_VIEW_SELECT
+        + " order by c.clave.fechaHora, c.clave.idProfesional, c.clave.idNumeroCedula")
+    Stream<CitaView> streamAll();
+
+    /**
+     * Recupera los horarios ocupados de varios profesionales dentro de un rango de fechas
+     * con una sola consulta por rango, sin cargar las entidades de las citas.
+     *
+     * @param idsProfesionales Identificadores de los profesionales.
+     * @param desde            Inicio del rango (inclusive).
+     * @param hasta            Fin del rango (exclusive).
+     * @return Lista con el profesional y la fecha y hora de cada cita del rango.
+     */
+    @Query("select new com.citas.apicitas.projections.CitaSlot(c.clave.idProfesional, c.clave.fechaHora) from cita c"
+        + " where c.clave.idProfesional in :idsProfesionales and c.clave.fechaHora >= :desde and c.clave.fechaHora < :hasta")
+    List<CitaSlot> findSlotsBetween(@Param("idsProfesionales") Collection<Long> idsProfesionales,
+                                    @Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Recupera las citas de un paciente dentro de un rango de fechas, ordenadas por fecha y hora.
+     * Usa el índice (id_numero_cedula, fecha_hora), por lo que no recorre la tabla.
+     *
+     * @param idNumeroCedula Número de cédula del paciente.
+     * @param desde          Inicio del rango (inclusive).
+     * @param hasta          Fin del rango (exclusive).
+     * @return Lista con las citas del paciente en el rango.
+     */
+    @Query(CITA_VIEW_SELECT
+        + " where c.clave.idNumeroCedula = :idNumeroCedula and c.clave.fechaHora >= :desde and c.clave.fechaHora < :hasta"
+        + " order by c.clave.fechaHora")
+    List<CitaView> findByPacienteBetween(@Param("idNumeroCedula") long idNumeroCedula,
+                                         @Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Recupera todas las citas dentro de un rango de fechas, por ejemplo las de un día,
+     * ordenadas por fecha y hora. Usa el índice (fecha_hora), por lo que no recorre la tabla.
+     *
+     * @param desde Inicio del rango (inclusive).
+     * @param hasta Fin del rango (exclusive).
+     * @return Lista con las citas del rango.
+     */
+    @Query(CITA_VIEW_SELECT
+        + " where c.clave.fechaHora >= :desde and c.clave.fechaHora < :hasta"
+        + " order by c.clave.fechaHora, c.clave.idProfesional, c.clave.idNumeroCedula")
+    List<CitaView> findAllBetween(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Recupera una página de la agenda de un paciente: sus citas desde la clave indicada (exclusive)
+     * hasta una fecha, ordenadas por fecha y hora y profesional. La condición redundante sobre
+     * {@code fechaHora >= :fechaHora} acota el recorrido del índice (id_numero_cedula, fecha_hora).
+     *
+     * @param idNumeroCedula Número de cédula del paciente.
+     * @param fechaHora      Fecha y hora de la última cita entregada, o el inicio del rango en la primera página.
+     * @param idProfesional  Profesional de la última cita entregada, o {@link Long#MIN_VALUE} en la primera página.
+     * @param hasta          Fin del rango (exclusive).
+     * @param pageable       Límite de resultados de la página; no se ejecuta consulta de conteo.
+     * @return Lista con las citas de la página.
+     */
+    @Query(CITA_VIEW_SELECT
+        + " where c.clave.idNumeroCedula = :idNumeroCedula and c.clave.fechaHora >= :fechaHora and c.clave.fechaHora < :hasta"
+        + " and (c.clave.fechaHora > :fechaHora or c.clave.idProfesional > :idProfesional)"
+        + " order by c.clave.fechaHora, c.clave.idProfesional")
+    List<CitaView> findPacienteAgenda(@Param("idNumeroCedula") long idNumeroCedula,
+                                      @Param("fechaHora") LocalDateTime fechaHora,
+                                      @Param("idProfesional") long idProfesional,
+                                      @Param("hasta") LocalDateTime hasta, Pageable pageable);
+
+    /**
+     * Recupera una página de la agenda de un doctor: sus citas desde la clave indicada (exclusive)
+     * hasta una fecha, ordenadas por fecha y hora y paciente. Usa el índice de la restricción única
+     * (id_profesional, fecha_hora).
+     *
+     * @param idProfesional  Identificador del doctor.
+     * @param fechaHora      Fecha y hora de la última cita entregada, o el inicio del rango en la primera página.
+     * @param idNumeroCedula Paciente de la última cita entregada, o {@link Long#MIN_VALUE} en la primera página.
+     * @param hasta          Fin del rango (exclusive).
+     * @param pageable       Límite de resultados de la página; no se ejecuta consulta de conteo.
+     * @return Lista con las citas de la página.
+     */
+    @Query(CITA_VIEW_SELECT
+        + " where c.clave.idProfesional = :idProfesional and c.clave.fechaHora >= :fechaHora and c.clave.fechaHora < :hasta"
+        + " and (c.clave.fechaHora > :fechaHora or c.clave.idNumeroCedula > :idNumeroCedula)"
+        + " order by c.clave.fechaHora, c.clave.idNumeroCedula")
+    List<CitaView> findDoctorAgenda(@Param("idProfesional") long idProfesional,
+                                    @Param("fechaHora") LocalDateTime fechaHora,
+                                    @Param("idNumeroCedula") long idNumeroCedula,
+                                    @Param("hasta") LocalDateTime hasta, Pageable pageable);
+
+    /**
+     * Indica si el profesional ya tiene una cita, con cualquier paciente, en la fecha y hora indicada.
+     *
+     * @param idProfesional Identificador del profesional.
+     * @param fechaHora     Fecha y hora de la franja.
+     * @return true si la franja ya está ocupada.
+     */
+    boolean existsByClaveIdProfesionalAndClaveFechaHora(long idProfesional, LocalDateTime fechaHora);
+
+    /**
+     * Indica si existe la cita con la clave natural indicada: el mismo profesional, paciente, fecha y hora.
+     *
+     * @param clave La clave natural de la cita.
+     * @return true si la cita existe.
+     */
+    boolean existsByClave(CitaId clave);
+
+    /**
+     * Elimina la cita indicada por su identificador sustituto con una sola sentencia {@code DELETE}.
+     *
+     * @param id Identificador sustituto de la cita.
+     * @return Número de filas eliminadas, 0 si la cita no existe.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from cita c where c.id = :id")
+    int removeById(@Param("id") Long id);
+
+    /**
+     * Elimina la cita indicada por su clave natural con una sola sentencia {@code DELETE}.
+     *
+     * @param clave Clave natural de la cita.
+     * @return Número de filas eliminadas, 0 si la cita no existe.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from cita c where c.clave = :clave")
+    int removeByClave(@Param("clave") CitaId clave);
 }
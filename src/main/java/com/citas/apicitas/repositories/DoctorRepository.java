@@ -4,11 +4,22 @@
  */
 package com.citas.apicitas.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.projections.DoctorSummary;
+
+import jakarta.persistence.QueryHint;
 
 public interface DoctorRepository extends CrudRepository<Doctor, Long> {
 
@@ -19,12 +30,49 @@ public interface DoctorRepository extends CrudRepository<Doctor, Long> {
    */
   Set<Doctor> findAll();
 
+  /**
+   * Retrieves all doctors as read-only {@code DoctorSummary} projections, ordered by id.
+   * The rows are mapped directly to records, so no managed {@code Doctor} entities are created.
+   *
+   * @return a {@code List} containing a summary of every doctor in the database.
+   */
+  @Query("select new com.citas.apicitas.projections.DoctorSummary(d.idProfesional, d.nombre, d.apellido, d.correo, d.especialidad)"
+      + " from doctor d order by d.idProfesional")
+  List<DoctorSummary> findAllSummaries();
+
+  /**
+   * Retrieves which of the given ids belong to existing doctors, using a single {@code IN} query.
+   *
+   * @param ids The candidate doctor ids.
+   * @return a {@code Set} with the ids that exist in the database.
+   */
+  @Query("select d.idProfesional from doctor d where d.idProfesional in :ids")
+  Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
   /**
    * Retrieves all doctors from the database with a specific specialization.
+   * The result is stored in the Hibernate query cache (region "doctor-especialidad") and is
+   * invalidated automatically whenever the {@code doctor} table is written through Hibernate.
    *
    * @param especialidad The {@code Especialidad} (specialization) of the doctors to be retrieved.
    * @return a {@code Set} containing all doctors with the specified specialization.
    */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "doctor-especialidad")
+  })
   Set<Doctor> findAllByEspecialidad(Doctor.Especialidad especialidad);
 
+  /**
+   * Deletes the doctor with the given id with a single {@code DELETE} statement, without loading it first.
+   * Hibernate evicts the "doctor" cache region after the bulk delete.
+   *
+   * @param id The id of the doctor to delete.
+   * @return the number of deleted rows, 0 if the doctor does not exist.
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from doctor d where d.idProfesional = :id")
+  int removeById(@Param("id") long id);
+
 }
@@ -13,4 +13,36 @@ public interface PacienteRepository extends CrudRepository<Paciente, Long> {
      * @return Conjunto de pacientes.
      */
     Set<Paciente> findAll();
+
+    /**
+     * Recupera todos los pacientes como proyecciones de solo lectura, ordenados por número de cédula.
+     * Las filas se asignan directamente a registros, sin crear entidades gestionadas.
+     *
+     * @return Lista con el resumen de cada paciente.
+     */
+    @Query("select new com.citas.apicitas.projections.PacienteSummary(p.idNumeroCedula, p.nombre, p.apellido,"
+        + " p.telefono, p.fechaNacimiento) from paciente p order by p.idNumeroCedula")
+    List<PacienteSummary> findAllSummaries();
+
+    /**
+     * Recupera cuáles de los identificadores indicados corresponden a pacientes existentes,
+     * con una sola consulta {@code IN}.
+     *
+     * @param ids Identificadores candidatos.
+     * @return Conjunto con los identificadores que existen.
+     */
+    @Query("select p.idNumeroCedula from paciente p where p.idNumeroCedula in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Elimina el paciente indicado con una sola sentencia {@code DELETE}, sin cargarlo antes.
+     * Hibernate desaloja la región "paciente" de la caché tras el borrado masivo.
+     *
+     * @param id Número de cédula del paciente.
+     * @return Número de filas eliminadas, 0 si el paciente no existe.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from paciente p where p.idNumeroCedula = :id")
+    int removeById(@Param("id") long id);
 }
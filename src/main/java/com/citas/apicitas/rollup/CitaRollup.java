@@ -0,0 +1,175 @@
+package com.citas.apicitas.rollup;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.citas.apicitas.entities.CitaId;
+
+/**
+ * Mantiene la tabla {@code cita_diaria}, con el número de citas de cada doctor en cada día, dentro de la misma
+ * transacción que el cambio de la cita.
+ *
+ * <p>Los cambios de una transacción se acumulan por día y doctor y se aplican justo antes de confirmarla, en
+ * orden de clave, para que dos transacciones que tocan los mismos contadores no se bloqueen mutuamente; si la
+ * transacción se deshace, se descartan con ella. Como {@code OutboxWriter}, escribe con JDBC, fuera del contexto
+ * de persistencia de Hibernate.</p>
+ */
+@Component
+public class CitaRollup {
+
+  private static final String UPDATE = "update cita_diaria set total = total + ? where fecha = ? and id_profesional = ?";
+
+  private static final String INSERT = "insert into cita_diaria (fecha, id_profesional, total) values (?, ?, ?)";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  /**
+   * Cuenta una cita nueva.
+   *
+   * @param clave Clave natural de la cita.
+   * @throws IllegalStateException Si no hay una transacción en curso.
+   */
+  public void creada(CitaId clave) {
+    sumar(clave, 1);
+  }
+
+  /**
+   * Mueve una cita reprogramada de su día y doctor anteriores a los nuevos.
+   *
+   * @param anterior Clave natural de la cita antes del cambio.
+   * @param nueva    Clave natural de la cita después del cambio.
+   * @throws IllegalStateException Si no hay una transacción en curso.
+   */
+  public void reprogramada(CitaId anterior, CitaId nueva) {
+    sumar(anterior, -1);
+    sumar(nueva, 1);
+  }
+
+  /**
+   * Descuenta una cita eliminada.
+   *
+   * @param clave Clave natural de la cita.
+   * @throws IllegalStateException Si no hay una transacción en curso.
+   */
+  public void eliminada(CitaId clave) {
+    sumar(clave, -1);
+  }
+
+  /**
+   * Descuenta una cita que se va a eliminar por su identificador sustituto. Debe llamarse antes de eliminarla:
+   * lee su doctor y su fecha y bloquea la fila hasta el final de la transacción, para que una reprogramación
+   * concurrente no cambie el contador que hay que descontar. Si la cita no existe, no hace nada.
+   *
+   * @param id Identificador sustituto de la cita.
+   * @throws IllegalStateException Si no hay una transacción en curso.
+   */
+  public void eliminada(Long id) {
+    List<Dia> dias = jdbcTemplate.query("select fecha_hora, id_profesional from cita where id = ? for update",
+        (rs, fila) -> new Dia(rs.getTimestamp(1).toLocalDateTime().toLocalDate(), rs.getLong(2)), id);
+
+    dias.forEach(dia -> sumar(dia, -1));
+  }
+
+  /**
+   * Recalcula todos los contadores a partir de la tabla {@code cita}. Debe llamarse dentro de una transacción.
+   *
+   * @return Número de contadores resultantes.
+   */
+  public int reconstruir() {
+    jdbcTemplate.update("delete from cita_diaria");
+
+    return jdbcTemplate.update("insert into cita_diaria (fecha, id_profesional, total)"
+        + " select cast(fecha_hora as date), id_profesional, count(*) from cita"
+        + " group by cast(fecha_hora as date), id_profesional");
+  }
+
+  private void sumar(CitaId clave, int delta) {
+    sumar(new Dia(clave.getFechaHora().toLocalDate(), clave.getIdProfesional()), delta);
+  }
+
+  private void sumar(Dia dia, int delta) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()
+        || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Rollup changes must be registered inside a transaction");
+    }
+
+    cambiosDeLaTransaccion().merge(dia, delta, Integer::sum);
+  }
+
+  private Map<Dia, Integer> cambiosDeLaTransaccion() {
+    for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+      if (sincronizacion instanceof Registro registro) {
+        return registro.cambios;
+      }
+    }
+
+    Registro registro = new Registro();
+    TransactionSynchronizationManager.registerSynchronization(registro);
+
+    return registro.cambios;
+  }
+
+  private void aplicar(Dia dia, int delta) {
+    Date fecha = Date.valueOf(dia.fecha());
+
+    if (jdbcTemplate.update(UPDATE, delta, fecha, dia.idProfesional()) > 0) {
+      return;
+    }
+
+    try {
+      jdbcTemplate.update(INSERT, fecha, dia.idProfesional(), delta);
+    } catch (DuplicateKeyException ex) {
+      // Otra transacción creó el contador entretanto.
+      jdbcTemplate.update(UPDATE, delta, fecha, dia.idProfesional());
+    }
+  }
+
+  /**
+   * Contador de un doctor en un día.
+   *
+   * @param fecha         Día de las citas.
+   * @param idProfesional Identificador del doctor.
+   */
+  private record Dia(LocalDate fecha, long idProfesional) implements Comparable<Dia> {
+
+    @Override
+    public int compareTo(Dia otro) {
+      int porFecha = fecha.compareTo(otro.fecha);
+      return porFecha != 0 ? porFecha : Long.compare(idProfesional, otro.idProfesional);
+    }
+  }
+
+  private class Registro implements TransactionSynchronization {
+
+    private final Map<Dia, Integer> cambios = new TreeMap<>();
+
+    /**
+     * Antes que los eventos de {@code OutboxWriter}, que deben ser la última escritura de la transacción.
+     */
+    @Override
+    public int getOrder() {
+      return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      cambios.forEach((dia, delta) -> {
+        if (delta != 0) {
+          aplicar(dia, delta);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,390 @@
+package com.citas.apicitas.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.citas.apicitas.dto.SearchPage;
+
+/**
+ * Índice invertido en memoria para buscar por prefijo sobre campos de texto (nombre, apellido, teléfono...).
+ *
+ * <p>Los campos se separan en términos en minúsculas y sin tildes. Cada término se guarda en un diccionario
+ * ordenado con la lista de identificadores que lo contienen, y sus prefijos de hasta {@code longitudPrefijo}
+ * caracteres tienen además su propia lista. Una búsqueda exige que cada término de la consulta sea prefijo de
+ * algún término del documento: cada uno se resuelve con una lista (la de su prefijo, la del único término del
+ * diccionario que empieza por él o, si hay varios, la de sus primeros caracteres), las listas se intersecan
+ * saltando de una a otra y cada candidato se comprueba sobre el documento. Las listas están ordenadas por
+ * identificador, de modo que una página se obtiene desde el cursor sin recorrer el resto de resultados.</p>
+ *
+ * <p>Junto a los términos se guarda el valor que se devuelve en los resultados, así que una búsqueda no
+ * consulta la base de datos. El índice no lee la base de datos por sí mismo: quien lo mantiene le aplica las
+ * escrituras de esta instancia, al confirmarse su transacción, y las de las demás instancias, que recibe como
+ * eventos de {@code OutboxRelay}. {@link #reconstruir} lo vuelve a cargar por completo sin dejar de atender
+ * búsquedas, al arrancar o para corregir los cambios que se hayan perdido.</p>
+ *
+ * @param <T> Tipo de los valores devueltos en los resultados.
+ */
+public class SearchIndex<T> implements SearchIndexWriter<T> {
+
+  private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+  private final int longitudPrefijo;
+
+  private final ConcurrentMap<String, NavigableSet<Long>> prefijos = new ConcurrentHashMap<>();
+
+  private final ConcurrentSkipListMap<String, NavigableSet<Long>> terminos = new ConcurrentSkipListMap<>();
+
+  private final ConcurrentMap<Long, Documento<T>> documentos = new ConcurrentHashMap<>();
+
+  /**
+   * Bloqueo que impide dos reconstrucciones a la vez.
+   */
+  private final Object reconstruccion = new Object();
+
+  /**
+   * Documentos cambiados durante la reconstrucción en curso, o {@code null} si no hay ninguna.
+   */
+  private Set<Long> cambiados;
+
+  /**
+   * Crea un índice vacío.
+   *
+   * @param longitudPrefijo Longitud máxima de los prefijos con lista propia; los términos de la consulta más
+   *                        largos se resuelven con el diccionario de términos.
+   */
+  public SearchIndex(int longitudPrefijo) {
+    this.longitudPrefijo = longitudPrefijo;
+  }
+
+  /**
+   * Añade o reemplaza un documento. Si hay una transacción en curso, se aplica al confirmarla.
+   *
+   * @param id        Identificador del documento.
+   * @param valor     Valor que se devuelve en los resultados.
+   * @param categoria Categoría por la que se puede filtrar, o {@code null}.
+   * @param campos    Textos por los que se busca el documento; los nulos se ignoran.
+   */
+  @Override
+  public void indexar(long id, T valor, String categoria, String... campos) {
+    Documento<T> documento = new Documento<>(valor, categoria, terminos(campos));
+
+    despuesDeConfirmar(() -> cambiar(id, documento));
+  }
+
+  /**
+   * Elimina un documento. Si hay una transacción en curso, se aplica al confirmarla.
+   *
+   * @param id Identificador del documento.
+   */
+  public void eliminar(long id) {
+    despuesDeConfirmar(() -> cambiar(id, null));
+  }
+
+  /**
+   * Vuelve a cargar todos los documentos. El índice sigue atendiendo búsquedas y aplicando cambios mientras
+   * tanto: un documento cambiado durante la carga conserva ese cambio en lugar del que trae la carga, que puede
+   * haberse leído antes, y al terminar se eliminan los documentos que no estaban en la carga ni han cambiado.
+   * Los cambios deben seguir llegando en orden durante la carga, para que el último de cada documento prevalezca.
+   *
+   * @param cargar Acción que pasa a la carga todos los documentos, leídos después de llamar a este método.
+   */
+  public void reconstruir(Consumer<SearchIndexWriter<T>> cargar) {
+    synchronized (reconstruccion) {
+      Set<Long> cargados = new HashSet<>();
+
+      synchronized (this) {
+        cambiados = new HashSet<>();
+      }
+
+      try {
+        cargar.accept((id, valor, categoria, campos) -> {
+          Documento<T> documento = new Documento<>(valor, categoria, terminos(campos));
+
+          synchronized (this) {
+            cargados.add(id);
+
+            if (!cambiados.contains(id)) {
+              aplicar(id, documento);
+            }
+          }
+        });
+
+        synchronized (this) {
+          for (Long id : List.copyOf(documentos.keySet())) {
+            if (!cargados.contains(id) && !cambiados.contains(id)) {
+              aplicar(id, null);
+            }
+          }
+        }
+      } finally {
+        synchronized (this) {
+          cambiados = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Busca los documentos que contienen todos los términos de la consulta como prefijo de alguno de sus términos.
+   *
+   * @param consulta  Texto de la consulta.
+   * @param categoria Categoría de los documentos, o {@code null} para no filtrar.
+   * @param cursor    Identificador del último resultado de la página anterior, o {@code null}.
+   * @param size      Número máximo de resultados.
+   * @return Página de resultados ordenados por identificador.
+   * @throws IllegalArgumentException Si la consulta no contiene letras ni dígitos.
+   */
+  public SearchPage<T> buscar(String consulta, String categoria, Long cursor, int size) {
+    Set<String> buscados = terminos(consulta);
+
+    if (buscados.isEmpty()) {
+      throw new IllegalArgumentException("Search query must contain letters or digits");
+    }
+
+    List<NavigableSet<Long>> listas = new ArrayList<>(buscados.size());
+
+    for (String buscado : buscados) {
+      NavigableSet<Long> lista = lista(buscado);
+
+      if (lista == null) {
+        return new SearchPage<>(List.of(), null);
+      }
+
+      listas.add(lista);
+    }
+
+    List<T> resultados = new ArrayList<>(size);
+    long desde = cursor == null ? Long.MIN_VALUE : cursor;
+    Long ultimo = null;
+    Long candidato;
+
+    while ((candidato = interseccion(listas, desde)) != null) {
+      desde = candidato;
+      Documento<T> documento = documentos.get(candidato);
+
+      if (documento == null || !documento.coincide(buscados, categoria)) {
+        continue;
+      }
+
+      if (resultados.size() == size) {
+        return new SearchPage<>(resultados, ultimo);
+      }
+
+      resultados.add(documento.valor());
+      ultimo = candidato;
+    }
+
+    return new SearchPage<>(resultados, null);
+  }
+
+  /**
+   * Devuelve el número de documentos indexados.
+   *
+   * @return Número de documentos.
+   */
+  public int size() {
+    return documentos.size();
+  }
+
+  /**
+   * Separa un texto en términos normalizados: minúsculas, sin tildes y sin signos de puntuación.
+   * Si todos los términos de un campo son numéricos (un teléfono con espacios o guiones), se añaden también
+   * sus dígitos seguidos.
+   *
+   * @param textos Textos a separar; los nulos se ignoran.
+   * @return Términos distintos de los textos.
+   */
+  static Set<String> terminos(String... textos) {
+    Set<String> terminos = new HashSet<>();
+
+    for (String texto : textos) {
+      if (texto == null) {
+        continue;
+      }
+
+      String normalizado = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+          .toLowerCase(Locale.ROOT);
+      List<String> partes = Arrays.stream(SEPARADORES.split(normalizado)).filter(parte -> !parte.isEmpty()).toList();
+
+      terminos.addAll(partes);
+
+      if (partes.size() > 1 && partes.stream().allMatch(parte -> parte.chars().allMatch(Character::isDigit))) {
+        terminos.add(String.join("", partes));
+      }
+    }
+
+    return terminos;
+  }
+
+  /**
+   * Devuelve una lista ordenada que contiene, al menos, los documentos con algún término que empieza por
+   * {@code buscado}: la de su prefijo si es corto, la del único término del diccionario que empieza por él o,
+   * si hay varios, la de sus primeros {@code longitudPrefijo} caracteres, que se filtra después.
+   */
+  private NavigableSet<Long> lista(String buscado) {
+    if (buscado.length() <= longitudPrefijo) {
+      return prefijos.get(buscado);
+    }
+
+    NavigableMap<String, NavigableSet<Long>> rango =
+        terminos.subMap(buscado, true, buscado + Character.MAX_VALUE, false);
+    Map.Entry<String, NavigableSet<Long>> primero = rango.firstEntry();
+
+    if (primero == null) {
+      return null;
+    }
+
+    if (rango.higherKey(primero.getKey()) == null) {
+      return primero.getValue();
+    }
+
+    return prefijos.get(buscado.substring(0, longitudPrefijo));
+  }
+
+  /**
+   * Busca el menor identificador mayor que {@code desde} presente en todas las listas, saltando en cada una al
+   * candidato de las demás.
+   */
+  private static Long interseccion(List<NavigableSet<Long>> listas, long desde) {
+    Long candidato = listas.get(0).higher(desde);
+
+    while (candidato != null) {
+      Long mayor = candidato;
+
+      for (NavigableSet<Long> lista : listas) {
+        Long siguiente = lista.ceiling(mayor);
+
+        if (siguiente == null) {
+          return null;
+        }
+
+        mayor = siguiente;
+      }
+
+      if (mayor.equals(candidato)) {
+        return candidato;
+      }
+
+      candidato = listas.get(0).ceiling(mayor);
+    }
+
+    return null;
+  }
+
+  private synchronized void cambiar(long id, Documento<T> documento) {
+    if (cambiados != null) {
+      cambiados.add(id);
+    }
+
+    aplicar(id, documento);
+  }
+
+  private synchronized void aplicar(long id, Documento<T> documento) {
+    Documento<T> anterior = documento == null ? documentos.remove(id) : documentos.put(id, documento);
+    Set<String> antes = anterior == null ? Set.of() : anterior.terminos();
+    Set<String> despues = documento == null ? Set.of() : documento.terminos();
+
+    for (String termino : antes) {
+      if (!despues.contains(termino)) {
+        quitar(terminos, termino, id);
+      }
+    }
+
+    for (String termino : despues) {
+      if (!antes.contains(termino)) {
+        terminos.computeIfAbsent(termino, t -> new ConcurrentSkipListSet<>()).add(id);
+      }
+    }
+
+    Set<String> prefijosAntes = prefijos(antes);
+    Set<String> prefijosDespues = prefijos(despues);
+
+    for (String prefijo : prefijosAntes) {
+      if (!prefijosDespues.contains(prefijo)) {
+        quitar(prefijos, prefijo, id);
+      }
+    }
+
+    for (String prefijo : prefijosDespues) {
+      if (!prefijosAntes.contains(prefijo)) {
+        prefijos.computeIfAbsent(prefijo, p -> new ConcurrentSkipListSet<>()).add(id);
+      }
+    }
+  }
+
+  private Set<String> prefijos(Set<String> terminos) {
+    Set<String> prefijos = new HashSet<>();
+
+    for (String termino : terminos) {
+      for (int i = 1; i <= Math.min(termino.length(), longitudPrefijo); i++) {
+        prefijos.add(termino.substring(0, i));
+      }
+    }
+
+    return prefijos;
+  }
+
+  private static void quitar(ConcurrentMap<String, NavigableSet<Long>> listas, String clave, long id) {
+    NavigableSet<Long> ids = listas.get(clave);
+
+    if (ids != null && ids.remove(id) && ids.isEmpty()) {
+      listas.remove(clave, ids);
+    }
+  }
+
+  private static void despuesDeConfirmar(Runnable cambio) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          cambio.run();
+        }
+      });
+    } else {
+      cambio.run();
+    }
+  }
+
+  /**
+   * Documento indexado.
+   *
+   * @param valor     Valor que se devuelve en los resultados.
+   * @param categoria Categoría del documento, o {@code null}.
+   * @param terminos  Términos normalizados de sus campos.
+   */
+  private record Documento<T>(T valor, String categoria, Set<String> terminos) {
+
+    boolean coincide(Set<String> buscados, String categoria) {
+      if (categoria != null && !categoria.equals(this.categoria)) {
+        return false;
+      }
+
+      for (String buscado : buscados) {
+        if (!terminos.contains(buscado) && terminos.stream().noneMatch(termino -> termino.startsWith(buscado))) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+}
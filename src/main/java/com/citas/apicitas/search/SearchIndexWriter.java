@@ -0,0 +1,21 @@
+package com.citas.apicitas.search;
+
+/**
+ * Destino de los documentos de un índice de búsqueda: el propio {@link SearchIndex} o la carga completa de
+ * {@link SearchIndex#reconstruir}.
+ *
+ * @param <T> Tipo de los valores devueltos en los resultados.
+ */
+@FunctionalInterface
+public interface SearchIndexWriter<T> {
+
+  /**
+   * Añade o reemplaza un documento.
+   *
+   * @param id        Identificador del documento.
+   * @param valor     Valor que se devuelve en los resultados.
+   * @param categoria Categoría por la que se puede filtrar, o {@code null}.
+   * @param campos    Textos por los que se busca el documento; los nulos se ignoran.
+   */
+  void indexar(long id, T valor, String categoria, String... campos);
+}
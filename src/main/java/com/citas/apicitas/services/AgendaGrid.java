@@ -0,0 +1,143 @@
+package com.citas.apicitas.services;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rejilla de horarios de un rango de fechas representada como mapa de bits.
+ * Cada bit corresponde a un horario de {@code duracionMinutos} dentro de la jornada laboral
+ * de un día; el índice es {@code día * horariosPorDia + horarioDelDia}.
+ *
+ * <p>La máscara de horarios laborables se calcula una vez por rango y se comparte entre
+ * todos los doctores; para cada doctor solo se mantiene el mapa de bits de horarios ocupados.</p>
+ */
+final class AgendaGrid {
+
+  private final LocalDate desde;
+
+  private final int dias;
+
+  private final LocalTime horaInicio;
+
+  private final int duracionMinutos;
+
+  private final int horariosPorDia;
+
+  private final BitSet laborables;
+
+  /**
+   * Construye la rejilla de horarios laborables del rango.
+   *
+   * @param desde           Primer día del rango.
+   * @param hasta           Último día del rango (inclusive).
+   * @param horaInicio      Hora de inicio de la jornada.
+   * @param horaFin         Hora de fin de la jornada; el último horario termina como máximo a esta hora.
+   * @param duracionMinutos Duración de cada horario en minutos.
+   * @param diasLaborales   Días de la semana en los que se atiende.
+   * @param noAntesDe       Momento a partir del cual los horarios se consideran reservables.
+   */
+  AgendaGrid(LocalDate desde, LocalDate hasta, LocalTime horaInicio, LocalTime horaFin, int duracionMinutos,
+             Set<DayOfWeek> diasLaborales, LocalDateTime noAntesDe) {
+    this.desde = desde;
+    this.dias = (int) ChronoUnit.DAYS.between(desde, hasta) + 1;
+    this.horaInicio = horaInicio;
+    this.duracionMinutos = duracionMinutos;
+    this.horariosPorDia = (int) (Duration.between(horaInicio, horaFin).toMinutes() / duracionMinutos);
+    this.laborables = new BitSet(dias * horariosPorDia);
+
+    for (int dia = 0; dia < dias; dia++) {
+      LocalDate fecha = desde.plusDays(dia);
+
+      if (!diasLaborales.contains(fecha.getDayOfWeek()) || fecha.isBefore(noAntesDe.toLocalDate())) {
+        continue;
+      }
+
+      int primero = 0;
+
+      if (fecha.equals(noAntesDe.toLocalDate())) {
+        long segundos = Duration.between(horaInicio, noAntesDe.toLocalTime()).getSeconds();
+        primero = (int) Math.min(horariosPorDia, Math.max(0, Math.ceilDiv(segundos, duracionMinutos * 60L)));
+      }
+
+      laborables.set(dia * horariosPorDia + primero, (dia + 1) * horariosPorDia);
+    }
+  }
+
+  /**
+   * Crea un mapa de bits vacío de horarios ocupados para un doctor.
+   *
+   * @return Mapa de bits sin horarios ocupados.
+   */
+  BitSet nuevaAgenda() {
+    return new BitSet(dias * horariosPorDia);
+  }
+
+  /**
+   * Marca como ocupado el horario que contiene la fecha y hora indicada.
+   * Las citas fuera de la jornada o del rango se ignoran.
+   *
+   * @param ocupados  Mapa de bits de horarios ocupados del doctor.
+   * @param fechaHora Fecha y hora de la cita.
+   */
+  void ocupar(BitSet ocupados, LocalDateTime fechaHora) {
+    int index = indexOf(fechaHora);
+
+    if (index >= 0) {
+      ocupados.set(index);
+    }
+  }
+
+  /**
+   * Calcula los horarios libres de un doctor: laborables y no ocupados.
+   *
+   * @param ocupados Mapa de bits de horarios ocupados del doctor.
+   * @return Fecha y hora de inicio de cada horario libre, en orden cronológico.
+   */
+  List<LocalDateTime> libres(BitSet ocupados) {
+    BitSet libres = (BitSet) laborables.clone();
+    libres.andNot(ocupados);
+
+    List<LocalDateTime> horarios = new ArrayList<>(libres.cardinality());
+
+    for (int i = libres.nextSetBit(0); i >= 0; i = libres.nextSetBit(i + 1)) {
+      horarios.add(inicio(i));
+    }
+
+    return horarios;
+  }
+
+  /**
+   * Devuelve la duración de cada horario en minutos.
+   *
+   * @return Duración del horario.
+   */
+  int getDuracionMinutos() {
+    return duracionMinutos;
+  }
+
+  private LocalDateTime inicio(int index) {
+    return desde.plusDays(index / horariosPorDia)
+      .atTime(horaInicio)
+      .plusMinutes((long) (index % horariosPorDia) * duracionMinutos);
+  }
+
+  private int indexOf(LocalDateTime fechaHora) {
+    long dia = ChronoUnit.DAYS.between(desde, fechaHora.toLocalDate());
+    long segundos = Duration.between(horaInicio, fechaHora.toLocalTime()).getSeconds();
+    long duracion = duracionMinutos * 60L;
+
+    if (dia < 0 || dia >= dias || segundos < 0 || segundos >= horariosPorDia * duracion) {
+      return -1;
+    }
+
+    return (int) (dia * horariosPorDia + segundos / duracion);
+  }
+}
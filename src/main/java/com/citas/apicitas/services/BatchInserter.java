@@ -0,0 +1,182 @@
+package com.citas.apicitas.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.citas.apicitas.dto.BatchItemResult;
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.entities.BatchInsertable;
+import com.citas.apicitas.exception.BadRequestException;
+import com.citas.apicitas.exception.ResourceNotFoundException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Inserta entidades nuevas en bloques aprovechando el batching JDBC de Hibernate
+ * ({@code hibernate.jdbc.batch_size}). Cada bloque se confirma en su propia transacción y
+ * el contexto de persistencia se vacía tras cada uno, de modo que la memoria no crece con la importación.
+ *
+ * <p>Si un bloque falla (por ejemplo, por una restricción única violada por una escritura concurrente),
+ * sus elementos se devuelven al estado de entidades nuevas ({@link BatchInsertable#reiniciar()}) y se reintentan
+ * uno a uno para atribuir el error al elemento concreto.</p>
+ *
+ * <p>Las importaciones NDJSON se leen del cuerpo de la petición a medida que se importan, en bloques de
+ * {@code citas.importacion.tamano-bloque} elementos ({@link #importar}), sin cargar antes el lote completo.</p>
+ */
+@Component
+public class BatchInserter {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+  private int batchSize;
+
+  @Value("${citas.importacion.tamano-maximo:10000}")
+  private int maxBatchSize;
+
+  @Value("${citas.importacion.tamano-bloque:1000}")
+  private int tamanoBloque;
+
+  /**
+   * Importa los elementos de un flujo en bloques de {@code citas.importacion.tamano-bloque}, leyendo cada bloque
+   * solo cuando se ha importado el anterior, y compone el resultado de todos con los índices de la petición.
+   * Como cada bloque se confirma por separado, si el flujo supera el tamaño máximo los bloques anteriores ya
+   * quedan importados; los elementos posteriores al límite no se leen.
+   *
+   * @param elementos      Elementos de la petición, en su orden original.
+   * @param importarBloque Importación de un bloque, que devuelve el resultado de sus elementos.
+   * @param <T>            Tipo de los elementos.
+   * @return Resumen de la importación con el resultado de cada elemento.
+   * @throws BadRequestException Si el flujo tiene más de {@code citas.importacion.tamano-maximo} elementos.
+   */
+  public <T> BatchResult importar(Iterator<T> elementos, Function<List<T>, BatchResult> importarBloque) {
+    List<BatchItemResult> resultados = new ArrayList<>();
+    int creados = 0;
+
+    while (elementos.hasNext()) {
+      List<T> bloque = new ArrayList<>(tamanoBloque);
+
+      while (bloque.size() < tamanoBloque && elementos.hasNext()) {
+        if (resultados.size() + bloque.size() == maxBatchSize) {
+          throw new BadRequestException("Batch exceeds " + maxBatchSize + " items");
+        }
+
+        bloque.add(elementos.next());
+      }
+
+      BatchResult resultado = importarBloque.apply(bloque);
+      int desplazamiento = resultados.size();
+
+      for (BatchItemResult item : resultado.getResultados()) {
+        item.setIndice(item.getIndice() + desplazamiento);
+        resultados.add(item);
+      }
+
+      creados += resultado.getCreados();
+    }
+
+    return new BatchResult(creados, resultados.size() - creados, resultados);
+  }
+
+  /**
+   * Inserta con {@code persist}, sin consultar antes su existencia, las entidades que no fueron rechazadas
+   * durante la validación, y compone el resultado de cada elemento de la petición.
+   * Cada entidad se prepara dentro de la transacción de su bloque antes de persistirla, por ejemplo para asignar
+   * referencias a otras entidades con {@link EntityManager#getReference(Class, Object)} sin cargarlas.
+   *
+   * @param entities   Entidades de la petición, en su orden original.
+   * @param rechazados Resultado de los elementos rechazados en la validación, indexado por posición.
+   * @param preparar   Acción aplicada a cada entidad antes de persistirla.
+   * @param traducir   Traduce el error de una entidad que no se pudo insertar en la excepción que devolvería el
+   *                   alta individual: {@link ResourceNotFoundException} se informa como 404 y cualquier otra
+   *                   como 409, con su mensaje.
+   * @param <T>        Tipo de las entidades.
+   * @return Resumen de la importación con el resultado de cada elemento.
+   */
+  public <T extends BatchInsertable> BatchResult insertAll(List<T> entities, Map<Integer, BatchItemResult> rechazados,
+                                                           Consumer<T> preparar,
+                                                           BiFunction<T, RuntimeException, RuntimeException> traducir) {
+    List<Integer> posiciones = new ArrayList<>(entities.size());
+
+    for (int i = 0; i < entities.size(); i++) {
+      if (!rechazados.containsKey(i)) {
+        posiciones.add(i);
+      }
+    }
+
+    BatchItemResult[] resultados = new BatchItemResult[entities.size()];
+    rechazados.forEach((indice, resultado) -> resultados[indice] = resultado);
+
+    for (int inicio = 0; inicio < posiciones.size(); inicio += batchSize) {
+      List<Integer> bloque = posiciones.subList(inicio, Math.min(inicio + batchSize, posiciones.size()));
+
+      try {
+        persist(bloque.stream().map(entities::get).toList(), preparar);
+        bloque.forEach(i -> resultados[i] = new BatchItemResult(i, HttpStatus.CREATED.value(), null));
+      } catch (DataAccessException | PersistenceException | TransactionException ex) {
+        entityManager.clear();
+
+        for (Integer i : bloque) {
+          T entity = entities.get(i);
+
+          try {
+            entity.reiniciar();
+            persist(List.of(entity), preparar);
+            resultados[i] = new BatchItemResult(i, HttpStatus.CREATED.value(), null);
+          } catch (DataAccessException | PersistenceException | TransactionException itemEx) {
+            entityManager.clear();
+
+            RuntimeException traducida = traducir.apply(entity, itemEx);
+            int estado = traducida instanceof ResourceNotFoundException
+                ? HttpStatus.NOT_FOUND.value()
+                : HttpStatus.CONFLICT.value();
+
+            resultados[i] = new BatchItemResult(i, estado, traducida.getMessage());
+          }
+        }
+      }
+    }
+
+    int creados = 0;
+
+    for (BatchItemResult resultado : resultados) {
+      if (resultado.getStatusCode() == HttpStatus.CREATED.value()) {
+        creados++;
+      }
+    }
+
+    return new BatchResult(creados, entities.size() - creados, Arrays.asList(resultados));
+  }
+
+  private <T> void persist(List<T> bloque, Consumer<T> preparar) {
+    transactionTemplate.executeWithoutResult(status -> {
+      for (T entity : bloque) {
+        preparar.accept(entity);
+        entityManager.persist(entity);
+      }
+
+      entityManager.flush();
+      entityManager.clear();
+    });
+  }
+}
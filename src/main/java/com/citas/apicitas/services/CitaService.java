@@ -3,10 +3,17 @@
  */
 package com.citas.apicitas.services;
 
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.dto.CitaPage;
 import com.citas.apicitas.entities.Cita;
 import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.projections.CitaView;
 
 public interface CitaService {
 
@@ -17,6 +24,46 @@ public interface CitaService {
    */
   Set<Cita> findAll();
 
+  /**
+   * Recupera una página de citas mediante paginación por clave.
+   *
+   * @param cursor Cursor opaco devuelto por la página anterior, o null para la primera página.
+   * @param size   Número de citas solicitado; se limita al tamaño máximo de página.
+   * @return La página de citas junto con el cursor de la página siguiente.
+   */
+  CitaPage findPage(String cursor, int size);
+
+  /**
+   * Recupera una página de la agenda de un paciente dentro de un rango de días.
+   *
+   * @param idNumeroCedula Número de cédula del paciente.
+   * @param desde          Primer día del rango.
+   * @param hasta          Último día del rango (inclusive).
+   * @param cursor         Cursor opaco devuelto por la página anterior, o null para la primera página.
+   * @param size           Número de citas solicitado; se limita al tamaño máximo de página.
+   * @return La página de citas junto con el cursor de la página siguiente.
+   */
+  CitaPage findByPaciente(long idNumeroCedula, LocalDate desde, LocalDate hasta, String cursor, int size);
+
+  /**
+   * Recupera una página de la agenda de un doctor dentro de un rango de días.
+   *
+   * @param idProfesional Identificador del doctor.
+   * @param desde         Primer día del rango.
+   * @param hasta         Último día del rango (inclusive).
+   * @param cursor        Cursor opaco devuelto por la página anterior, o null para la primera página.
+   * @param size          Número de citas solicitado; se limita al tamaño máximo de página.
+   * @return La página de citas junto con el cursor de la página siguiente.
+   */
+  CitaPage findByDoctor(long idProfesional, LocalDate desde, LocalDate hasta, String cursor, int size);
+
+  /**
+   * Recorre todas las citas sin materializarlas en memoria, entregándolas una a una al consumidor.
+   *
+   * @param consumer Función que recibe cada cita a medida que se lee de la base de datos.
+   */
+  void streamAll(Consumer<CitaView> consumer);
+
   /**
    * Busca una cita por su identificador único.
    *
@@ -25,15 +72,41 @@ public interface CitaService {
    */
   Cita findById(CitaId id);
 
+  /**
+   * Busca una cita por su identificador sustituto.
+   *
+   * @param id El identificador sustituto de la cita a buscar.
+   * @return La cita correspondiente al identificador proporcionado.
+   */
+  Cita findById(Long id);
+
   /**
    * Agrega una nueva cita al sistema.
+   * Con la escritura diferida habilitada, la cita queda aceptada y se inserta más tarde.
    *
    * @param id   El identificador único de la nueva cita.
    * @param cita La cita a agregar al sistema.
-   * @return La cita recién agregada.
+   * @return La cita recién agregada; sin identificador numérico si todavía no se ha insertado.
    */
   Cita addCita(CitaId id, Cita cita);
 
+  /**
+   * Agrega varias citas al sistema usando inserciones por lotes.
+   * Los doctores, pacientes y franjas ocupadas se validan con consultas por conjunto.
+   *
+   * @param ids Identificadores de las citas a agregar.
+   * @return Resultado de cada elemento, en el orden de la petición.
+   */
+  BatchResult addCitas(List<CitaId> ids);
+
+  /**
+   * Agrega las citas de un flujo en bloques, leyendo cada bloque cuando se ha importado el anterior.
+   *
+   * @param ids Identificadores de las citas a agregar.
+   * @return Resultado de cada elemento, en el orden de la petición.
+   */
+  BatchResult addCitas(Iterator<CitaId> ids);
+
   /**
    * Modifica una cita existente en el sistema.
    *
@@ -43,6 +116,15 @@ public interface CitaService {
    */
   Cita modifyCita(CitaId id, CitaId newCita);
 
+  /**
+   * Modifica una cita existente, identificada por su identificador sustituto.
+   *
+   * @param id      El identificador sustituto de la cita a modificar.
+   * @param newCita El nuevo identificador único de la cita.
+   * @return La cita modificada.
+   */
+  Cita modifyCita(Long id, CitaId newCita);
+
   /**
    * Elimina una cita del sistema.
    *
@@ -50,4 +132,11 @@ public interface CitaService {
    */
   void deleteCita(CitaId id);
 
+  /**
+   * Elimina una cita del sistema, identificada por su identificador sustituto.
+   *
+   * @param id El identificador sustituto de la cita a eliminar.
+   */
+  void deleteCita(Long id);
+
 }
@@ -1,21 +1,54 @@
 package com.citas.apicitas.services;
 
-import java.util.Optional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.citas.apicitas.dto.BatchItemResult;
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.dto.CitaCursor;
+import com.citas.apicitas.dto.CitaPage;
 import com.citas.apicitas.entities.Cita;
 import com.citas.apicitas.entities.CitaId;
 import com.citas.apicitas.entities.Doctor;
 import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.exception.BadRequestException;
 import com.citas.apicitas.exception.ResourceNotFoundException;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.outbox.OutboxWriter;
+import com.citas.apicitas.projections.CitaSlot;
+import com.citas.apicitas.projections.CitaView;
 import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.rollup.CitaRollup;
+import com.citas.apicitas.writebehind.CitaWriteBehind;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 /**
  * Implementación de la interfaz {@link CitaService} que proporciona operaciones CRUD para la entidad {@link Cita}.
+ * Cada alta, modificación o eliminación registra su evento con {@link OutboxWriter} y actualiza los contadores
+ * de {@link CitaRollup} en la misma transacción.
  */
 @Service
 public class CitaServiceImpl implements CitaService {
@@ -29,6 +62,33 @@ public class CitaServiceImpl implements CitaService {
   @Autowired
   private PacienteService pacienteService;
 
+  @Autowired
+  private SlotLocks slotLocks;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private BatchInserter batchInserter;
+
+  @Autowired
+  private OutboxWriter outboxWriter;
+
+  @Autowired
+  private CitaRollup citaRollup;
+
+  @Autowired(required = false)
+  private CitaWriteBehind citaWriteBehind;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${citas.paginacion.tamano-maximo:500}")
+  private int maxPageSize;
+
+  @Value("${citas.importacion.tamano-maximo:10000}")
+  private int maxBatchSize;
+
   /**
    * Obtiene todas las citas disponibles.
    *
@@ -39,6 +99,130 @@ public class CitaServiceImpl implements CitaService {
     return citaRepository.findAll();
   }
 
+  /**
+   * Obtiene una página de citas a partir del cursor de la página anterior.
+   * Se ejecuta en una transacción de solo lectura, en la que Spring fija el modo de flush
+   * de Hibernate en MANUAL, y devuelve proyecciones sin entidades gestionadas.
+   *
+   * @param cursor Cursor opaco de la página anterior, o null para la primera página.
+   * @param size   Número de citas solicitado, acotado entre 1 y el tamaño máximo configurado.
+   * @return Página de citas con el cursor de la página siguiente.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public CitaPage findPage(String cursor, int size) {
+    PageRequest limit = pageRequest(size);
+    List<CitaView> citas;
+
+    if (cursor == null || cursor.isBlank()) {
+      citas = citaRepository.findFirstPage(limit);
+    } else {
+      CitaId last = CitaCursor.decode(cursor);
+      citas = citaRepository.findPageAfter(last.getFechaHora(), last.getIdProfesional(), last.getIdNumeroCedula(), limit);
+    }
+
+    return toPage(citas, limit);
+  }
+
+  /**
+   * Obtiene una página de la agenda de un paciente con una consulta por rango sobre el índice
+   * (id_numero_cedula, fecha_hora). La existencia del paciente solo se comprueba cuando la primera
+   * página está vacía, de modo que el caso habitual se resuelve con una sola consulta.
+   *
+   * @param idNumeroCedula Número de cédula del paciente.
+   * @param desde          Primer día del rango.
+   * @param hasta          Último día del rango (inclusive).
+   * @param cursor         Cursor de la página anterior, o null para la primera página.
+   * @param size           Número de citas solicitado, acotado entre 1 y el tamaño máximo configurado.
+   * @return Página de citas con el cursor de la página siguiente.
+   * @throws BadRequestException       Si el rango de fechas no es válido.
+   * @throws ResourceNotFoundException Si no existe el paciente.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public CitaPage findByPaciente(long idNumeroCedula, LocalDate desde, LocalDate hasta, String cursor, int size) {
+    validarRango(desde, hasta);
+
+    PageRequest limit = pageRequest(size);
+    CitaId last = cursor == null || cursor.isBlank() ? null : CitaCursor.decode(cursor);
+    List<CitaView> citas = last == null
+        ? citaRepository.findPacienteAgenda(idNumeroCedula, desde.atStartOfDay(), Long.MIN_VALUE,
+            hasta.plusDays(1).atStartOfDay(), limit)
+        : citaRepository.findPacienteAgenda(idNumeroCedula, last.getFechaHora(), last.getIdProfesional(),
+            hasta.plusDays(1).atStartOfDay(), limit);
+
+    if (citas.isEmpty() && last == null && pacienteService.findExistingIds(Set.of(idNumeroCedula)).isEmpty()) {
+      throw new ResourceNotFoundException("Paciente not found with id: " + idNumeroCedula);
+    }
+
+    return toPage(citas, limit);
+  }
+
+  /**
+   * Obtiene una página de la agenda de un doctor con una consulta por rango sobre el índice de la
+   * restricción única (id_profesional, fecha_hora). La existencia del doctor solo se comprueba cuando
+   * la primera página está vacía.
+   *
+   * @param idProfesional Identificador del doctor.
+   * @param desde         Primer día del rango.
+   * @param hasta         Último día del rango (inclusive).
+   * @param cursor        Cursor de la página anterior, o null para la primera página.
+   * @param size          Número de citas solicitado, acotado entre 1 y el tamaño máximo configurado.
+   * @return Página de citas con el cursor de la página siguiente.
+   * @throws BadRequestException       Si el rango de fechas no es válido.
+   * @throws ResourceNotFoundException Si no existe el doctor.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public CitaPage findByDoctor(long idProfesional, LocalDate desde, LocalDate hasta, String cursor, int size) {
+    validarRango(desde, hasta);
+
+    PageRequest limit = pageRequest(size);
+    CitaId last = cursor == null || cursor.isBlank() ? null : CitaCursor.decode(cursor);
+    List<CitaView> citas = last == null
+        ? citaRepository.findDoctorAgenda(idProfesional, desde.atStartOfDay(), Long.MIN_VALUE,
+            hasta.plusDays(1).atStartOfDay(), limit)
+        : citaRepository.findDoctorAgenda(idProfesional, last.getFechaHora(), last.getIdNumeroCedula(),
+            hasta.plusDays(1).atStartOfDay(), limit);
+
+    if (citas.isEmpty() && last == null && doctorService.findExistingIds(Set.of(idProfesional)).isEmpty()) {
+      throw new ResourceNotFoundException("Doctor not found with id: " + idProfesional);
+    }
+
+    return toPage(citas, limit);
+  }
+
+  private PageRequest pageRequest(int size) {
+    return PageRequest.ofSize(Math.max(1, Math.min(size, maxPageSize)));
+  }
+
+  private CitaPage toPage(List<CitaView> citas, PageRequest limit) {
+    String siguiente = citas.size() < limit.getPageSize() ? null : CitaCursor.encode(citas.get(citas.size() - 1).toId());
+
+    return new CitaPage(citas, siguiente);
+  }
+
+  private void validarRango(LocalDate desde, LocalDate hasta) {
+    if (desde == null || hasta == null || hasta.isBefore(desde)) {
+      throw new BadRequestException("Invalid date range: " + desde + " - " + hasta);
+    }
+  }
+
+  /**
+   * Recorre todas las citas dentro de una transacción de solo lectura.
+   * Las filas se leen como proyecciones que no se registran en el contexto de persistencia,
+   * de modo que la memoria usada no crece con el número de filas.
+   *
+   * @param consumer Función que recibe cada cita.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void streamAll(Consumer<CitaView> consumer) {
+    try (Stream<CitaView> citas = citaRepository.streamAll()) {
+      citas.forEach(consumer);
+    }
+  }
+
   /**
    * Busca una cita por su identificador único.
    *
@@ -48,6 +232,21 @@ public class CitaServiceImpl implements CitaService {
    */
   @Override
   public Cita findById(CitaId id) {
+    Cita cita = citaRepository.findByClave(id)
+      .orElseThrow(() -> new ResourceNotFoundException("Cita not found with id: " + id));
+
+    return cita;
+  }
+
+  /**
+   * Busca una cita por su identificador sustituto.
+   *
+   * @param id Identificador sustituto de la cita.
+   * @return La cita correspondiente al identificador proporcionado.
+   * @throws ResourceNotFoundException Si no se encuentra la cita con el identificador dado.
+   */
+  @Override
+  public Cita findById(Long id) {
     Cita cita = citaRepository.findById(id)
       .orElseThrow(() -> new ResourceNotFoundException("Cita not found with id: " + id));
 
@@ -56,61 +255,264 @@ public class CitaServiceImpl implements CitaService {
 
   /**
    * Agrega una nueva cita al repositorio.
+   * La cita se inserta sin consultar antes el doctor, el paciente ni la franja: las claves foráneas y la
+   * restricción única (id_profesional, fecha_hora) de la tabla rechazan la inserción, y la violación se
+   * traduce en un 404 o un 409. La inserción se confirma mientras se mantiene el bloqueo de la franja
+   * (idProfesional, fechaHora), de modo que las peticiones concurrentes para el mismo doctor y horario
+   * se serializan en esta instancia en lugar de esperar en los bloqueos de la base de datos.
+   *
+   * Con la escritura diferida habilitada, la cita solo se añade al registro de escritura anticipada y se
+   * inserta después: se devuelve sin identificador numérico.
    *
    * @param id   Identificador único de la cita.
    * @param cita La cita a agregar.
-   * @return La cita agregada.
-   * @throws DataIntegrityViolationException Si ya existe una cita con el mismo identificador único.
+   * @return La cita agregada, o la cita aceptada sin identificador numérico si la escritura es diferida.
+   * @throws ResourceNotFoundException      Si no existe el doctor o el paciente.
+   * @throws DataIntegrityViolationException Si el doctor ya tiene una cita en esa fecha y hora.
+   * @throws com.citas.apicitas.exception.UnknownOutcomeException Si con escritura diferida no se sabe si la
+   *                                        cita quedó aceptada.
    */
   @Override
   public Cita addCita(CitaId id, Cita cita) {
-    Optional<Cita> citaExist = citaRepository.findById(id);
+    if (citaWriteBehind != null) {
+      cita.setClave(citaWriteBehind.reservar(id));
 
-    if (citaExist.isPresent()) {
-      throw new DataIntegrityViolationException("Primary key already exists");
-    } else {
-      return citaRepository.save(cita);
+      return cita;
+    }
+
+    try {
+      return slotLocks.withLock(id.getIdProfesional(), id.getFechaHora(), () -> transactionTemplate.execute(status -> {
+        cita.setDoctor(entityManager.getReference(Doctor.class, id.getIdProfesional()));
+        cita.setPaciente(entityManager.getReference(Paciente.class, id.getIdNumeroCedula()));
+
+        Cita saved = citaRepository.save(cita);
+        outboxWriter.registrar(OutboxEvent.CITA_CREADA, saved::getId, saved::getClave);
+        citaRollup.creada(id);
+
+        return saved;
+      }));
+    } catch (DataIntegrityViolationException ex) {
+      throw traducirViolacion(ex, id);
+    }
+  }
+
+  /**
+   * Traduce la violación de una restricción de la tabla cita en la excepción que espera el cliente:
+   * una clave foránea incumplida significa que el doctor o el paciente no existe.
+   */
+  private static RuntimeException traducirViolacion(DataIntegrityViolationException ex, CitaId id) {
+    String restriccion = nombreRestriccion(ex);
+
+    if (restriccion.contains(Cita.FK_DOCTOR.toLowerCase())) {
+      return new ResourceNotFoundException("Doctor not found with id: " + id.getIdProfesional());
+    }
+
+    if (restriccion.contains(Cita.FK_PACIENTE.toLowerCase())) {
+      return new ResourceNotFoundException("Paciente not found with id: " + id.getIdNumeroCedula());
+    }
+
+    return new DataIntegrityViolationException("Slot already booked for doctor: " + id.getIdProfesional(), ex);
+  }
+
+  private static String nombreRestriccion(DataIntegrityViolationException ex) {
+    for (Throwable causa = ex; causa != null; causa = causa.getCause()) {
+      if (causa instanceof ConstraintViolationException violacion && violacion.getConstraintName() != null) {
+        return violacion.getConstraintName().toLowerCase();
+      }
     }
+
+    return String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase();
+  }
+
+  /**
+   * Agrega varias citas con inserciones por lotes.
+   * Doctores y pacientes se validan con una consulta {@code IN} cada uno y las franjas ocupadas con una
+   * única consulta por rango, en lugar de tres consultas por cita. Las citas se insertan con referencias
+   * a doctor y paciente, sin cargarlos.
+   *
+   * @param ids Identificadores de las citas a agregar.
+   * @return Resultado de cada elemento, en el orden de la petición.
+   * @throws BadRequestException Si el lote supera el tamaño máximo permitido.
+   */
+  @Override
+  public BatchResult addCitas(List<CitaId> ids) {
+    if (ids.size() > maxBatchSize) {
+      throw new BadRequestException("Batch exceeds " + maxBatchSize + " items");
+    }
+
+    List<CitaId> validos = ids.stream().filter(id -> id != null && id.getFechaHora() != null).toList();
+    Set<Long> idsDoctores = new HashSet<>();
+    Set<Long> idsPacientes = new HashSet<>();
+
+    validos.forEach(id -> {
+      idsDoctores.add(id.getIdProfesional());
+      idsPacientes.add(id.getIdNumeroCedula());
+    });
+
+    Set<Long> doctores = doctorService.findExistingIds(idsDoctores);
+    Set<Long> pacientes = pacienteService.findExistingIds(idsPacientes);
+    Set<CitaSlot> ocupadas = new HashSet<>();
+
+    if (!doctores.isEmpty()) {
+      LocalDateTime desde = validos.stream().map(CitaId::getFechaHora).min(LocalDateTime::compareTo).get();
+      LocalDateTime hasta = validos.stream().map(CitaId::getFechaHora).max(LocalDateTime::compareTo).get();
+
+      ocupadas.addAll(citaRepository.findSlotsBetween(doctores, desde, hasta.plusNanos(1)));
+    }
+
+    Map<Integer, BatchItemResult> rechazados = new HashMap<>();
+    List<Cita> citas = new ArrayList<>(ids.size());
+
+    for (int i = 0; i < ids.size(); i++) {
+      CitaId id = ids.get(i);
+      citas.add(null);
+
+      if (id == null || id.getFechaHora() == null) {
+        rechazados.put(i, new BatchItemResult(i, HttpStatus.BAD_REQUEST.value(), "Missing fechaHora"));
+      } else if (!doctores.contains(id.getIdProfesional())) {
+        rechazados.put(i, new BatchItemResult(i, HttpStatus.NOT_FOUND.value(), "Doctor not found with id: " + id.getIdProfesional()));
+      } else if (!pacientes.contains(id.getIdNumeroCedula())) {
+        rechazados.put(i, new BatchItemResult(i, HttpStatus.NOT_FOUND.value(), "Paciente not found with id: " + id.getIdNumeroCedula()));
+      } else if (isPendiente(id) || !ocupadas.add(new CitaSlot(id.getIdProfesional(), id.getFechaHora()))) {
+        rechazados.put(i, new BatchItemResult(i, HttpStatus.CONFLICT.value(), "Slot already booked for doctor: " + id.getIdProfesional()));
+      } else {
+        Cita cita = new Cita();
+        cita.setClave(id);
+        citas.set(i, cita);
+      }
+    }
+
+    return batchInserter.insertAll(citas, rechazados, cita -> {
+      cita.setDoctor(entityManager.getReference(Doctor.class, cita.getClave().getIdProfesional()));
+      cita.setPaciente(entityManager.getReference(Paciente.class, cita.getClave().getIdNumeroCedula()));
+      outboxWriter.registrar(OutboxEvent.CITA_CREADA, cita::getId, cita::getClave);
+      citaRollup.creada(cita.getClave());
+    }, (cita, ex) -> traducirViolacion(new DataIntegrityViolationException(ex.getMessage(), ex), cita.getClave()));
+  }
+
+  /**
+   * Agrega las citas de un flujo en bloques de {@code citas.importacion.tamano-bloque}, cada uno con
+   * {@link #addCitas(List)}. Las franjas ocupadas por un bloque anterior ya están confirmadas cuando se valida
+   * el siguiente.
+   *
+   * @param ids Identificadores de las citas a agregar.
+   * @return Resultado de cada elemento, en el orden de la petición.
+   * @throws BadRequestException Si el flujo supera el tamaño máximo permitido.
+   */
+  @Override
+  public BatchResult addCitas(Iterator<CitaId> ids) {
+    return batchInserter.importar(ids, this::addCitas);
   }
 
   /**
    * Modifica una cita existente.
+   * La cita se reprograma en su propia fila: dentro de una única transacción, con la nueva franja bloqueada,
+   * se cambia su clave natural y Hibernate emite un solo UPDATE filtrado por el identificador sustituto y
+   * la versión, en lugar de borrar la fila e insertar otra. Si otra transacción modificó la cita entretanto,
+   * el UPDATE no encuentra la versión leída y la operación falla en lugar de sobrescribir el cambio.
+   * El doctor y el paciente solo se cargan si cambian.
    *
    * @param id     Identificador único de la cita a modificar.
    * @param newCita Nueva información de la cita.
    * @return La cita modificada.
-   * @throws ResourceNotFoundException      Si no se encuentra la cita con el identificador dado.
-   * @throws DataIntegrityViolationException Si ya existe una cita con el nuevo identificador único.
+   * @throws ResourceNotFoundException      Si no se encuentra la cita, el doctor o el paciente con el identificador dado.
+   * @throws DataIntegrityViolationException Si el doctor ya tiene otra cita en la nueva fecha y hora.
+   * @throws ObjectOptimisticLockingFailureException Si la cita se modificó concurrentemente.
    */
   @Override
   public Cita modifyCita(CitaId id, CitaId newCita) {
-    Cita cita = citaRepository.findById(id)
-      .orElseThrow(() -> new ResourceNotFoundException("Cita not found with id: " + id));
+    return reprogramar(newCita, () -> citaRepository.findByClave(id)
+      .orElseThrow(() -> new ResourceNotFoundException("Cita not found with id: " + id)));
+  }
+
+  /**
+   * Modifica una cita existente, identificada por su identificador sustituto.
+   * Igual que {@link #modifyCita(CitaId, CitaId)}, pero la cita se lee por su clave primaria.
+   *
+   * @param id      Identificador sustituto de la cita a modificar.
+   * @param newCita Nueva información de la cita.
+   * @return La cita modificada.
+   * @throws ResourceNotFoundException      Si no se encuentra la cita, el doctor o el paciente con el identificador dado.
+   * @throws DataIntegrityViolationException Si el doctor ya tiene otra cita en la nueva fecha y hora.
+   * @throws ObjectOptimisticLockingFailureException Si la cita se modificó concurrentemente.
+   */
+  @Override
+  public Cita modifyCita(Long id, CitaId newCita) {
+    return reprogramar(newCita, () -> citaRepository.findById(id)
+      .orElseThrow(() -> new ResourceNotFoundException("Cita not found with id: " + id)));
+  }
 
-    Doctor doctor = doctorService.findById(newCita.getIdProfesional());
-    Paciente paciente = pacienteService.findById(newCita.getIdNumeroCedula());
-    Cita nuevaCita = new Cita();
+  private Cita reprogramar(CitaId newCita, Supplier<Cita> cargar) {
+    return slotLocks.withLock(newCita.getIdProfesional(), newCita.getFechaHora(), () -> transactionTemplate.execute(status -> {
+      Cita cita = cargar.get();
+      CitaId id = cita.getClave();
 
-    nuevaCita.setId(newCita);
-    nuevaCita.setDoctor(doctor);
-    nuevaCita.setPaciente(paciente);
+      boolean sameSlot = id.getIdProfesional() == newCita.getIdProfesional()
+        && id.getFechaHora().equals(newCita.getFechaHora());
 
-    citaRepository.delete(cita);
+      if (!sameSlot && (isPendiente(newCita)
+          || citaRepository.existsByClaveIdProfesionalAndClaveFechaHora(newCita.getIdProfesional(), newCita.getFechaHora()))) {
+        throw new DataIntegrityViolationException("Slot already booked for doctor: " + newCita.getIdProfesional());
+      }
 
-    return citaRepository.save(nuevaCita);
+      if (id.getIdProfesional() != newCita.getIdProfesional()) {
+        cita.setDoctor(doctorService.findById(newCita.getIdProfesional()));
+      }
+
+      if (id.getIdNumeroCedula() != newCita.getIdNumeroCedula()) {
+        cita.setPaciente(pacienteService.findById(newCita.getIdNumeroCedula()));
+      }
+
+      cita.setClave(newCita);
+      outboxWriter.registrar(OutboxEvent.CITA_MODIFICADA, cita::getId, cita::getClave);
+      citaRollup.reprogramada(id, newCita);
+
+      return cita;
+    }));
   }
 
   /**
-   * Elimina una cita por su identificador único.
+   * Indica si la franja tiene una cita aceptada por la escritura diferida que aún no se ha insertado.
+   */
+  private boolean isPendiente(CitaId id) {
+    return citaWriteBehind != null && citaWriteBehind.isPendiente(id.getIdProfesional(), id.getFechaHora());
+  }
+
+  /**
+   * Elimina una cita por su identificador único, con una sola sentencia y sin cargarla antes.
    *
    * @param id Identificador único de la cita a eliminar.
    * @throws ResourceNotFoundException Si no se encuentra la cita con el identificador dado.
    */
   @Override
   public void deleteCita(CitaId id) {
-    citaRepository.findById(id)
-      .orElseThrow(() -> new ResourceNotFoundException("Cita not found with id: " + id));
+    transactionTemplate.executeWithoutResult(status -> {
+      if (citaRepository.removeByClave(id) == 0) {
+        throw new ResourceNotFoundException("Cita not found with id: " + id);
+      }
+
+      outboxWriter.registrar(OutboxEvent.CITA_ELIMINADA, () -> null, () -> id);
+      citaRollup.eliminada(id);
+    });
+  }
+
+  /**
+   * Elimina una cita por su identificador sustituto, con una sola sentencia y sin cargarla antes en el contexto
+   * de persistencia; {@link CitaRollup} lee antes su doctor y su fecha para descontarla.
+   *
+   * @param id Identificador sustituto de la cita a eliminar.
+   * @throws ResourceNotFoundException Si no se encuentra la cita con el identificador dado.
+   */
+  @Override
+  public void deleteCita(Long id) {
+    transactionTemplate.executeWithoutResult(status -> {
+      citaRollup.eliminada(id);
+
+      if (citaRepository.removeById(id) == 0) {
+        throw new ResourceNotFoundException("Cita not found with id: " + id);
+      }
 
-    citaRepository.deleteById(id);
+      outboxWriter.registrar(OutboxEvent.CITA_ELIMINADA, () -> id, () -> null);
+    });
   }
 }
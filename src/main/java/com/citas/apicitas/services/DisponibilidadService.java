@@ -0,0 +1,33 @@
+package com.citas.apicitas.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.citas.apicitas.dto.Disponibilidad;
+import com.citas.apicitas.entities.Doctor;
+
+/**
+ * Interface que define los servicios de cálculo de horarios libres de los doctores.
+ */
+public interface DisponibilidadService {
+
+  /**
+   * Calcula los horarios libres de un doctor en un rango de fechas.
+   *
+   * @param idProfesional Identificador del doctor.
+   * @param desde         Primer día del rango.
+   * @param hasta         Último día del rango (inclusive).
+   * @return Horarios libres del doctor.
+   */
+  Disponibilidad findByDoctor(Long idProfesional, LocalDate desde, LocalDate hasta);
+
+  /**
+   * Calcula los horarios libres de todos los doctores de una especialidad en un rango de fechas.
+   *
+   * @param especialidad Especialidad de los doctores.
+   * @param desde        Primer día del rango.
+   * @param hasta        Último día del rango (inclusive).
+   * @return Horarios libres de cada doctor de la especialidad, ordenados por identificador.
+   */
+  List<Disponibilidad> findByEspecialidad(Doctor.Especialidad especialidad, LocalDate desde, LocalDate hasta);
+}
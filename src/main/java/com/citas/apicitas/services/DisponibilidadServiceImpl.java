@@ -0,0 +1,136 @@
+package com.citas.apicitas.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.citas.apicitas.dto.Disponibilidad;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.exception.BadRequestException;
+import com.citas.apicitas.projections.CitaSlot;
+import com.citas.apicitas.repositories.CitaRepository;
+
+/**
+ * Implementación de la interfaz {@link DisponibilidadService}.
+ * Lee los horarios ocupados del rango con una única consulta y los vuelca en un mapa de bits
+ * por doctor ({@link AgendaGrid}), de modo que el coste no depende del número de citas del historial.
+ */
+@Service
+public class DisponibilidadServiceImpl implements DisponibilidadService {
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorService doctorService;
+
+  @Value("${citas.disponibilidad.hora-inicio:08:00}")
+  private LocalTime horaInicio;
+
+  @Value("${citas.disponibilidad.hora-fin:17:00}")
+  private LocalTime horaFin;
+
+  @Value("${citas.disponibilidad.duracion-minutos:30}")
+  private int duracionMinutos;
+
+  @Value("${citas.disponibilidad.dias-laborales:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}")
+  private DayOfWeek[] diasLaborales;
+
+  @Value("${citas.disponibilidad.rango-maximo-dias:62}")
+  private int rangoMaximoDias;
+
+  /**
+   * Calcula los horarios libres de un doctor.
+   *
+   * @param idProfesional Identificador del doctor.
+   * @param desde         Primer día del rango.
+   * @param hasta         Último día del rango (inclusive).
+   * @return Horarios libres del doctor.
+   * @throws com.citas.apicitas.exception.ResourceNotFoundException Si no existe el doctor.
+   * @throws BadRequestException Si el rango de fechas no es válido.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Disponibilidad findByDoctor(Long idProfesional, LocalDate desde, LocalDate hasta) {
+    Doctor doctor = doctorService.findById(idProfesional);
+
+    return calcular(List.of(doctor.getIdProfesional()), desde, hasta).get(0);
+  }
+
+  /**
+   * Calcula los horarios libres de todos los doctores de una especialidad.
+   *
+   * @param especialidad Especialidad de los doctores.
+   * @param desde        Primer día del rango.
+   * @param hasta        Último día del rango (inclusive).
+   * @return Horarios libres de cada doctor, ordenados por identificador.
+   * @throws BadRequestException Si el rango de fechas no es válido.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<Disponibilidad> findByEspecialidad(Doctor.Especialidad especialidad, LocalDate desde, LocalDate hasta) {
+    List<Long> ids = doctorService.findAllByEspecialidad(especialidad).stream()
+      .map(Doctor::getIdProfesional)
+      .sorted()
+      .toList();
+
+    return calcular(ids, desde, hasta);
+  }
+
+  private List<Disponibilidad> calcular(List<Long> idsProfesionales, LocalDate desde, LocalDate hasta) {
+    if (desde == null || hasta == null || hasta.isBefore(desde)) {
+      throw new BadRequestException("Invalid date range: " + desde + " - " + hasta);
+    }
+
+    if (ChronoUnit.DAYS.between(desde, hasta) >= rangoMaximoDias) {
+      throw new BadRequestException("Date range exceeds " + rangoMaximoDias + " days");
+    }
+
+    if (idsProfesionales.isEmpty()) {
+      return List.of();
+    }
+
+    AgendaGrid grid = new AgendaGrid(desde, hasta, horaInicio, horaFin, duracionMinutos,
+        diasLaborales(), LocalDateTime.now());
+
+    Map<Long, BitSet> ocupados = new HashMap<>();
+
+    for (Long id : idsProfesionales) {
+      ocupados.put(id, grid.nuevaAgenda());
+    }
+
+    for (CitaSlot slot : citaRepository.findSlotsBetween(idsProfesionales, desde.atStartOfDay(),
+        hasta.plusDays(1).atStartOfDay())) {
+      grid.ocupar(ocupados.get(slot.idProfesional()), slot.fechaHora());
+    }
+
+    List<Disponibilidad> disponibilidades = new ArrayList<>(idsProfesionales.size());
+
+    for (Long id : idsProfesionales) {
+      disponibilidades.add(new Disponibilidad(id, grid.getDuracionMinutos(), grid.libres(ocupados.get(id))));
+    }
+
+    return disponibilidades;
+  }
+
+  private Set<DayOfWeek> diasLaborales() {
+    Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+    dias.addAll(List.of(diasLaborales));
+
+    return dias;
+  }
+}
@@ -4,9 +4,15 @@
  */
 package com.citas.apicitas.services;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.dto.SearchPage;
 import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.projections.DoctorSummary;
 
 public interface DoctorService {
 
@@ -17,6 +23,31 @@ public interface DoctorService {
    */
   Set<Doctor> findAll();
 
+  /**
+   * Retrieves a read-only summary of every Doctor.
+   *
+   * @return a list of DoctorSummary projections ordered by id
+   */
+  List<DoctorSummary> findAllSummaries();
+
+  /**
+   * Searches Doctor instances by a prefix of their name, surname or email.
+   *
+   * @param q            the search text
+   * @param especialidad the specialty to filter by, or {@code null}
+   * @param cursor       the id of the last Doctor of the previous page, or {@code null} for the first page
+   * @param size         the number of Doctor instances per page
+   * @return a page of DoctorSummary projections ordered by id
+   */
+  SearchPage<DoctorSummary> buscar(String q, Doctor.Especialidad especialidad, Long cursor, int size);
+
+  /**
+   * Reloads the Doctor search index from the database.
+   *
+   * @return the number of indexed Doctor instances
+   */
+  int reconstruirIndice();
+
   /**
    * Retrieves a Doctor instance by its unique identifier.
    *
@@ -41,6 +72,30 @@ public interface DoctorService {
    */
   Doctor addDoctor(Doctor doctor);
 
+  /**
+   * Adds many Doctor instances using JDBC batching.
+   *
+   * @param doctors the Doctor instances to be added
+   * @return the result of every item, in request order
+   */
+  BatchResult addDoctors(List<Doctor> doctors);
+
+  /**
+   * Adds the Doctor instances of a stream in chunks, reading each chunk once the previous one is stored.
+   *
+   * @param doctors the Doctor instances to be added
+   * @return the result of every item, in request order
+   */
+  BatchResult addDoctors(Iterator<Doctor> doctors);
+
+  /**
+   * Retrieves which of the given ids belong to existing Doctor instances.
+   *
+   * @param ids the candidate ids
+   * @return the subset of ids that exist
+   */
+  Set<Long> findExistingIds(Collection<Long> ids);
+
   /**
    * Modifies an existing Doctor instance.
    *
@@ -1,19 +1,51 @@
 package com.citas.apicitas.services;
 
-import java.util.Optional;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
+import org.hibernate.PersistentObjectException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.citas.apicitas.caching.ReferenceDataVersions;
+import com.citas.apicitas.dto.BatchItemResult;
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.dto.SearchPage;
 import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.exception.BadRequestException;
 import com.citas.apicitas.exception.ResourceNotFoundException;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.outbox.OutboxRelay;
+import com.citas.apicitas.outbox.OutboxWriter;
+import com.citas.apicitas.projections.DoctorSummary;
 import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.search.SearchIndex;
+import com.citas.apicitas.search.SearchIndexWriter;
+import com.citas.apicitas.writebehind.CitaWriteBehind;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Implementación de la interfaz {@link DoctorService}.
  * Proporciona servicios para gestionar entidades Doctor.
+ * Cada alta, modificación o eliminación registra su evento con {@link OutboxWriter} en la misma transacción
+ * y actualiza el índice de búsqueda al confirmarla.
  */
 @Service
 public class DoctorServiceImpl implements DoctorService {
@@ -21,6 +53,63 @@ public class DoctorServiceImpl implements DoctorService {
   @Autowired
   private DoctorRepository doctorRepository;
 
+  @Autowired
+  private BatchInserter batchInserter;
+
+  @Autowired
+  private ReferenceDataVersions referenceDataVersions;
+
+  @Autowired
+  private OutboxWriter outboxWriter;
+
+  @Autowired
+  private SearchIndex<DoctorSummary> searchIndex;
+
+  @Autowired
+  private OutboxRelay outboxRelay;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  /**
+   * Reservas con escritura diferida, si están activadas: sus citas pendientes también referencian al doctor.
+   */
+  @Autowired
+  private ObjectProvider<CitaWriteBehind> citaWriteBehind;
+
+  @Value("${citas.importacion.tamano-maximo:10000}")
+  private int maxBatchSize;
+
+  @Value("${citas.paginacion.tamano-maximo:500}")
+  private int maxPageSize;
+
+  /**
+   * Carga todos los doctores en el índice de búsqueda al arrancar la aplicación y lo mantiene al día con los
+   * eventos de doctores, que incluyen los cambios hechos en otras instancias.
+   */
+  @EventListener(ApplicationStartedEvent.class)
+  public void cargarIndice() {
+    outboxRelay.escuchar(this::aplicarEvento);
+    reconstruirIndice();
+  }
+
+  /**
+   * Vuelve a cargar el índice de búsqueda desde la base de datos sin dejar de atender búsquedas. Los eventos
+   * que llegan durante la carga se aplican y prevalecen sobre los datos cargados, de modo que un cambio
+   * confirmado mientras se lee no se pierde.
+   *
+   * @return Número de doctors indexados.
+   */
+  @Override
+  public int reconstruirIndice() {
+    searchIndex.reconstruir(carga -> doctorRepository.findAllSummaries().forEach(doctor -> indexar(carga, doctor)));
+
+    return searchIndex.size();
+  }
+
   /**
    * Recupera todos los doctores disponibles.
    *
@@ -31,6 +120,39 @@ public class DoctorServiceImpl implements DoctorService {
     return doctorRepository.findAll();
   }
 
+  /**
+   * Recupera un resumen de solo lectura de todos los doctores.
+   * La transacción de solo lectura deja el modo de flush de Hibernate en MANUAL.
+   *
+   * @return Lista de proyecciones {@link DoctorSummary} ordenada por identificador.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<DoctorSummary> findAllSummaries() {
+    return doctorRepository.findAllSummaries();
+  }
+
+  /**
+   * Busca doctores por prefijo de su nombre, apellido o correo en el índice en memoria, sin consultar
+   * la base de datos.
+   *
+   * @param q            Texto de la búsqueda; cada palabra debe ser prefijo de alguna palabra del doctor.
+   * @param especialidad Especialidad de los doctores, o {@code null} para no filtrar.
+   * @param cursor       Identificador del último doctor de la página anterior; se omite para la primera página.
+   * @param size         Número de doctores solicitado, acotado entre 1 y el tamaño máximo configurado.
+   * @return Página de resúmenes de doctores ordenada por identificador.
+   * @throws BadRequestException Si la búsqueda no contiene letras ni dígitos.
+   */
+  @Override
+  public SearchPage<DoctorSummary> buscar(String q, Doctor.Especialidad especialidad, Long cursor, int size) {
+    try {
+      return searchIndex.buscar(q, especialidad == null ? null : especialidad.name(), cursor,
+          Math.max(1, Math.min(size, maxPageSize)));
+    } catch (IllegalArgumentException ex) {
+      throw new BadRequestException(ex.getMessage());
+    }
+  }
+
   /**
    * Recupera un doctor por su identificador.
    *
@@ -48,6 +170,7 @@ public class DoctorServiceImpl implements DoctorService {
 
   /**
    * Agrega un nuevo doctor.
+   * Se inserta sin consultar antes si existe: la clave primaria de la tabla detecta el duplicado.
    *
    * @param doctor Objeto {@link Doctor} a agregar.
    * @return Objeto {@link Doctor} agregado.
@@ -55,17 +178,95 @@ public class DoctorServiceImpl implements DoctorService {
    */
   @Override
   public Doctor addDoctor(Doctor doctor) {
-    Optional<Doctor> doctorExist = doctorRepository.findById(doctor.getIdProfesional());
+    try {
+      Doctor saved = transactionTemplate.execute(status -> {
+        Doctor nuevo = doctorRepository.save(doctor);
+        outboxWriter.registrar(OutboxEvent.DOCTOR_CREADO, nuevo::getIdProfesional, () -> nuevo);
+        indexar(DoctorSummary.of(nuevo));
+        referenceDataVersions.modificada(ReferenceDataVersions.DOCTOR);
+        return nuevo;
+      });
+      return saved;
+    } catch (DataIntegrityViolationException ex) {
+      throw new DataIntegrityViolationException("Primary key already exists", ex);
+    } catch (InvalidDataAccessApiUsageException ex) {
+      // Si el doctor está en la caché de segundo nivel, Hibernate lo da por existente sin ir a la base de datos.
+      if (!(ex.getCause() instanceof PersistentObjectException)) {
+        throw ex;
+      }
+
+      throw new DataIntegrityViolationException("Primary key already exists", ex);
+    }
+  }
+
+  /**
+   * Agrega varios doctores con inserciones por lotes.
+   * Las claves existentes se comprueban con una única consulta {@code IN} en lugar de una por doctor.
+   *
+   * @param doctors Doctores a agregar.
+   * @return Resultado de cada elemento, en el orden de la petición.
+   * @throws BadRequestException Si el lote supera el tamaño máximo permitido.
+   */
+  @Override
+  public BatchResult addDoctors(List<Doctor> doctors) {
+    if (doctors.size() > maxBatchSize) {
+      throw new BadRequestException("Batch exceeds " + maxBatchSize + " items");
+    }
+
+    Set<Long> existentes = findExistingIds(doctors.stream()
+      .filter(Objects::nonNull)
+      .map(Doctor::getIdProfesional)
+      .toList());
+    Set<Long> vistos = new HashSet<>();
+    Map<Integer, BatchItemResult> rechazados = new HashMap<>();
+
+    for (int i = 0; i < doctors.size(); i++) {
+      Doctor doctor = doctors.get(i);
 
-    if (doctorExist.isPresent()) {
-      throw new DataIntegrityViolationException("Primary key already exists");
-    } else {
-      return doctorRepository.save(doctor);
+      if (doctor == null) {
+        rechazados.put(i, new BatchItemResult(i, HttpStatus.BAD_REQUEST.value(), "Empty item"));
+      } else if (existentes.contains(doctor.getIdProfesional()) || !vistos.add(doctor.getIdProfesional())) {
+        rechazados.put(i, new BatchItemResult(i, HttpStatus.CONFLICT.value(), "Primary key already exists"));
+      }
     }
+
+    try {
+      return batchInserter.insertAll(doctors, rechazados, doctor -> {
+        outboxWriter.registrar(OutboxEvent.DOCTOR_CREADO, doctor::getIdProfesional, () -> doctor);
+        indexar(DoctorSummary.of(doctor));
+      }, (doctor, ex) -> new DataIntegrityViolationException("Primary key already exists", ex));
+    } finally {
+      referenceDataVersions.modificada(ReferenceDataVersions.DOCTOR);
+    }
+  }
+
+  /**
+   * Agrega los doctores de un flujo en bloques de {@code citas.importacion.tamano-bloque}, cada uno con
+   * {@link #addDoctors(List)}.
+   *
+   * @param doctors Doctores a agregar.
+   * @return Resultado de cada elemento, en el orden de la petición.
+   * @throws BadRequestException Si el flujo supera el tamaño máximo permitido.
+   */
+  @Override
+  public BatchResult addDoctors(Iterator<Doctor> doctors) {
+    return batchInserter.importar(doctors, this::addDoctors);
+  }
+
+  /**
+   * Recupera cuáles de los identificadores indicados corresponden a doctores existentes.
+   *
+   * @param ids Identificadores candidatos.
+   * @return Subconjunto de identificadores que existen.
+   */
+  @Override
+  public Set<Long> findExistingIds(Collection<Long> ids) {
+    return ids.isEmpty() ? Set.of() : doctorRepository.findExistingIds(ids);
   }
 
   /**
    * Modifica un doctor existente.
+   * Los datos se copian sobre el doctor cargado, de modo que la modificación es un único UPDATE.
    *
    * @param id        Identificador del doctor a modificar.
    * @param newDoctor Objeto {@link Doctor} con las nuevas propiedades.
@@ -73,27 +274,47 @@ public class DoctorServiceImpl implements DoctorService {
    * @throws ResourceNotFoundException Si no se encuentra un doctor con el identificador especificado.
    */
   @Override
+  @Transactional
   public Doctor modifyDoctor(Long id, Doctor newDoctor) {
     Doctor doctor = doctorRepository.findById(id)
       .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
 
-    newDoctor.setIdProfesional(doctor.getIdProfesional());
+    doctor.setNombre(newDoctor.getNombre());
+    doctor.setApellido(newDoctor.getApellido());
+    doctor.setCorreo(newDoctor.getCorreo());
+    doctor.setEspecialidad(newDoctor.getEspecialidad());
+    outboxWriter.registrar(OutboxEvent.DOCTOR_MODIFICADO, doctor::getIdProfesional, () -> doctor);
+    indexar(DoctorSummary.of(doctor));
+    referenceDataVersions.modificada(ReferenceDataVersions.DOCTOR);
 
-    return doctorRepository.save(newDoctor);
+    return doctor;
   }
 
   /**
-   * Elimina un doctor por su identificador.
+   * Elimina un doctor por su identificador con una sola sentencia, sin cargarlo antes.
    *
    * @param id Identificador del doctor a eliminar.
    * @throws ResourceNotFoundException Si no se encuentra un doctor con el identificador especificado.
+   * @throws DataIntegrityViolationException Si el doctor tiene citas, insertadas o pendientes de la escritura diferida.
    */
   @Override
   public void deleteDoctor(Long id) {
-    doctorRepository.findById(id)
-      .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
+    transactionTemplate.executeWithoutResult(status -> {
+      if (doctorRepository.removeById(id) == 0) {
+        throw new ResourceNotFoundException("Doctor not found with id: " + id);
+      }
+
+      // Se comprueba tras el borrado, que bloquea la fila, para acotar la carrera con una reserva en curso.
+      CitaWriteBehind escrituraDiferida = citaWriteBehind.getIfAvailable();
+
+      if (escrituraDiferida != null && escrituraDiferida.isPendienteDoctor(id)) {
+        throw new DataIntegrityViolationException("Doctor has pending citas: " + id);
+      }
 
-    doctorRepository.deleteById(id);
+      outboxWriter.registrar(OutboxEvent.DOCTOR_ELIMINADO, () -> id, () -> null);
+      searchIndex.eliminar(id);
+      referenceDataVersions.modificada(ReferenceDataVersions.DOCTOR);
+    });
   }
 
   /**
@@ -106,4 +327,26 @@ public class DoctorServiceImpl implements DoctorService {
   public Set<Doctor> findAllByEspecialidad(Doctor.Especialidad especialidad) {
     return doctorRepository.findAllByEspecialidad(especialidad);
   }
+
+  private void aplicarEvento(OutboxEvent evento) {
+    try {
+      switch (evento.tipo()) {
+        case OutboxEvent.DOCTOR_CREADO, OutboxEvent.DOCTOR_MODIFICADO ->
+            indexar(objectMapper.readValue(evento.datos(), DoctorSummary.class));
+        case OutboxEvent.DOCTOR_ELIMINADO -> searchIndex.eliminar(Long.parseLong(evento.clave()));
+        default -> { }
+      }
+    } catch (JsonProcessingException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void indexar(DoctorSummary doctor) {
+    indexar(searchIndex, doctor);
+  }
+
+  private static void indexar(SearchIndexWriter<DoctorSummary> indice, DoctorSummary doctor) {
+    String especialidad = doctor.especialidad() == null ? null : doctor.especialidad().name();
+    indice.indexar(doctor.idProfesional(), doctor, especialidad, doctor.nombre(), doctor.apellido(), doctor.correo());
+  }
 }
@@ -0,0 +1,28 @@
+package com.citas.apicitas.services;
+
+import java.time.LocalDate;
+
+import com.citas.apicitas.dto.Estadisticas;
+
+/**
+ * Interface que define los servicios de estadísticas de citas.
+ */
+public interface EstadisticasService {
+
+  /**
+   * Cuenta las citas de un rango de fechas agrupadas según el criterio indicado.
+   *
+   * @param agrupacion Criterio de agrupación.
+   * @param desde      Primer día del rango.
+   * @param hasta      Último día del rango (inclusive).
+   * @return Número de citas de cada grupo y total del rango.
+   */
+  Estadisticas contar(Estadisticas.Agrupacion agrupacion, LocalDate desde, LocalDate hasta);
+
+  /**
+   * Recalcula los contadores de citas por día y doctor a partir de las citas almacenadas.
+   *
+   * @return Número de contadores resultantes.
+   */
+  int reconstruir();
+}
@@ -0,0 +1,113 @@
+package com.citas.apicitas.services;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.citas.apicitas.dto.Estadisticas;
+import com.citas.apicitas.exception.BadRequestException;
+import com.citas.apicitas.rollup.CitaRollup;
+
+/**
+ * Implementación de la interfaz {@link EstadisticasService}.
+ * Las estadísticas se leen de la tabla {@code cita_diaria}, que {@link CitaRollup} mantiene con cada cambio
+ * de una cita, de modo que el coste depende del número de días y doctores del rango y no del de citas.
+ */
+@Service
+public class EstadisticasServiceImpl implements EstadisticasService {
+
+  private static final String POR_DOCTOR = "select id_profesional, sum(total) from cita_diaria"
+      + " where fecha between ? and ? group by id_profesional having sum(total) > 0 order by id_profesional";
+
+  private static final String POR_ESPECIALIDAD = "select d.especialidad, sum(c.total) from cita_diaria c"
+      + " join doctor d on d.id_profesional = c.id_profesional"
+      + " where c.fecha between ? and ? group by d.especialidad having sum(c.total) > 0 order by d.especialidad";
+
+  private static final String POR_DIA = "select fecha, sum(total) from cita_diaria"
+      + " where fecha between ? and ? group by fecha having sum(total) > 0 order by fecha";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private CitaRollup citaRollup;
+
+  @Value("${citas.estadisticas.rango-maximo-dias:366}")
+  private int rangoMaximoDias;
+
+  /**
+   * Cuenta las citas de un rango de fechas agrupadas por doctor, especialidad, día o semana.
+   * Las semanas empiezan en lunes y se suman a partir de los días del rango.
+   *
+   * @param agrupacion Criterio de agrupación.
+   * @param desde      Primer día del rango.
+   * @param hasta      Último día del rango (inclusive).
+   * @return Número de citas de cada grupo con alguna cita y total del rango.
+   * @throws BadRequestException Si el rango de fechas no es válido.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Estadisticas contar(Estadisticas.Agrupacion agrupacion, LocalDate desde, LocalDate hasta) {
+    if (desde == null || hasta == null || hasta.isBefore(desde)) {
+      throw new BadRequestException("Invalid date range: " + desde + " - " + hasta);
+    }
+
+    if (ChronoUnit.DAYS.between(desde, hasta) >= rangoMaximoDias) {
+      throw new BadRequestException("Date range exceeds " + rangoMaximoDias + " days");
+    }
+
+    String sql = switch (agrupacion) {
+      case doctor -> POR_DOCTOR;
+      case especialidad -> POR_ESPECIALIDAD;
+      case dia, semana -> POR_DIA;
+    };
+
+    List<Estadisticas.Grupo> grupos = jdbcTemplate.query(sql,
+        (rs, fila) -> new Estadisticas.Grupo(rs.getString(1), rs.getLong(2)), Date.valueOf(desde), Date.valueOf(hasta));
+
+    if (agrupacion == Estadisticas.Agrupacion.semana) {
+      grupos = porSemana(grupos);
+    }
+
+    long total = grupos.stream().mapToLong(Estadisticas.Grupo::citas).sum();
+
+    return new Estadisticas(agrupacion, desde, hasta, total, grupos);
+  }
+
+  /**
+   * Recalcula los contadores de citas por día y doctor a partir de la tabla {@code cita}, en una sola transacción.
+   *
+   * @return Número de contadores resultantes.
+   */
+  @Override
+  @Transactional
+  public int reconstruir() {
+    return citaRollup.reconstruir();
+  }
+
+  private static List<Estadisticas.Grupo> porSemana(List<Estadisticas.Grupo> dias) {
+    Map<LocalDate, Long> semanas = new TreeMap<>();
+
+    for (Estadisticas.Grupo dia : dias) {
+      LocalDate lunes = LocalDate.parse(dia.clave()).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      semanas.merge(lunes, dia.citas(), Long::sum);
+    }
+
+    List<Estadisticas.Grupo> grupos = new ArrayList<>(semanas.size());
+    semanas.forEach((lunes, citas) -> grupos.add(new Estadisticas.Grupo(lunes.toString(), citas)));
+
+    return grupos;
+  }
+}
@@ -1,8 +1,14 @@
 package com.citas.apicitas.services;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
+import com.citas.apicitas.dto.BatchResult;
+import com.citas.apicitas.dto.SearchPage;
 import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.projections.PacienteSummary;
 
 /**
  * Interface que define los servicios relacionados con la gestión de pacientes.
@@ -16,6 +22,30 @@ public interface PacienteService {
      */
     Set<Paciente> findAll();
 
+    /**
+     * Recupera un resumen de solo lectura de todos los pacientes.
+     *
+     * @return Lista de proyecciones de pacientes ordenada por número de cédula.
+     */
+    List<PacienteSummary> findAllSummaries();
+
+    /**
+     * Busca pacientes por prefijo de su nombre, apellido o teléfono.
+     *
+     * @param q      Texto de la búsqueda.
+     * @param cursor Cédula del último paciente de la página anterior, o null para la primera página.
+     * @param size   Número de pacientes por página.
+     * @return Página de resúmenes de pacientes ordenada por número de cédula.
+     */
+    SearchPage<PacienteSummary> buscar(String q, Long cursor, int size);
+
+    /**
+     * Vuelve a cargar el índice de búsqueda de pacientes desde la base de datos.
+     *
+     * @return Número de pacientes indexados.
+     */
+    int reconstruirIndice();
+
     /**
      * Busca un paciente por su identificador único.
      *
@@ -32,6 +62,30 @@ public interface PacienteService {
      */
     Paciente addPaciente(Paciente paciente);
 
+    /**
+     * Agrega varios pacientes al sistema usando inserciones por lotes.
+     *
+     * @param pacientes Pacientes a agregar.
+     * @return Resultado de cada elemento, en el orden de la petición.
+     */
+    BatchResult addPacientes(List<Paciente> pacientes);
+
+    /**
+     * Agrega los pacientes de un flujo en bloques, leyendo cada bloque cuando se ha importado el anterior.
+     *
+     * @param pacientes Pacientes a agregar.
+     * @return Resultado de cada elemento, en el orden de la petición.
+     */
+    BatchResult addPacientes(Iterator<Paciente> pacientes);
+
+    /**
+     * Recupera cuáles de los identificadores indicados corresponden a pacientes existentes.
+     *
+     * @param ids Identificadores candidatos.
+     * @return Subconjunto de identificadores que existen.
+     */
+    Set<Long> findExistingIds(Collection<Long> ids);
+
     /**
      * Modifica la información de un paciente existente.
      *
@@ -1,6 +1,8 @@
 /**
  * PacienteServiceImpl es una implementación de la interfaz PacienteService que proporciona
  * métodos para realizar operaciones relacionadas con la entidad Paciente.
+ * Cada alta, modificación o eliminación registra su evento con OutboxWriter en la misma transacción
+ * y actualiza el índice de búsqueda al confirmarla.
  * Esta clase utiliza la anotación @Service de Spring para ser detectada automáticamente como un componente
  * de servicio durante la exploración de componentes.
  */
@@ -13,6 +15,72 @@ public class PacienteServiceImpl implements PacienteService {
   @Autowired
   private PacienteRepository pacienteRepository;
 
+  /**
+   * Componente que inserta pacientes nuevos usando el batching JDBC de Hibernate.
+   */
+  @Autowired
+  private BatchInserter batchInserter;
+
+  /**
+   * Registro de los eventos de cambio de pacientes en la tabla evento.
+   */
+  @Autowired
+  private OutboxWriter outboxWriter;
+
+  /**
+   * Índice en memoria de la búsqueda por nombre, apellido y teléfono.
+   */
+  @Autowired
+  private SearchIndex<PacienteSummary> searchIndex;
+
+  /**
+   * Lector de los eventos de cambio, con el que el índice sigue también los cambios de otras instancias.
+   */
+  @Autowired
+  private OutboxRelay outboxRelay;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  /**
+   * Reservas con escritura diferida, si están activadas: sus citas pendientes también referencian al paciente.
+   */
+  @Autowired
+  private ObjectProvider<CitaWriteBehind> citaWriteBehind;
+
+  @Value("${citas.importacion.tamano-maximo:10000}")
+  private int maxBatchSize;
+
+  @Value("${citas.paginacion.tamano-maximo:500}")
+  private int maxPageSize;
+
+  /**
+   * Carga todos los pacientes en el índice de búsqueda al arrancar la aplicación y lo mantiene al día con los
+   * eventos de pacientes, que incluyen los cambios hechos en otras instancias.
+   */
+  @EventListener(ApplicationStartedEvent.class)
+  public void cargarIndice() {
+    outboxRelay.escuchar(this::aplicarEvento);
+    reconstruirIndice();
+  }
+
+  /**
+   * Vuelve a cargar el índice de búsqueda desde la base de datos sin dejar de atender búsquedas. Los eventos
+   * que llegan durante la carga se aplican y prevalecen sobre los datos cargados, de modo que un cambio
+   * confirmado mientras se lee no se pierde.
+   *
+   * @return Número de pacientes indexados.
+   */
+  @Override
+  public int reconstruirIndice() {
+    searchIndex.reconstruir(carga -> pacienteRepository.findAllSummaries().forEach(paciente -> indexar(carga, paciente)));
+
+    return searchIndex.size();
+  }
+
   /**
    * Recupera todos los pacientes almacenados en la base de datos.
    *
@@ -23,6 +91,37 @@ public class PacienteServiceImpl implements PacienteService {
     return pacienteRepository.findAll();
   }
 
+  /**
+   * Recupera un resumen de solo lectura de todos los pacientes.
+   * La transacción de solo lectura deja el modo de flush de Hibernate en MANUAL.
+   *
+   * @return Una lista de proyecciones PacienteSummary ordenada por número de cédula.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<PacienteSummary> findAllSummaries() {
+    return pacienteRepository.findAllSummaries();
+  }
+
+  /**
+   * Busca pacientes por prefijo de su nombre, apellido o teléfono en el índice en memoria, sin consultar
+   * la base de datos.
+   *
+   * @param q      Texto de la búsqueda; cada palabra debe ser prefijo de alguna palabra del paciente.
+   * @param cursor Cédula del último paciente de la página anterior; se omite para la primera página.
+   * @param size   Número de pacientes solicitado, acotado entre 1 y el tamaño máximo configurado.
+   * @return Página de resúmenes de pacientes ordenada por número de cédula.
+   * @throws BadRequestException Si la búsqueda no contiene letras ni dígitos.
+   */
+  @Override
+  public SearchPage<PacienteSummary> buscar(String q, Long cursor, int size) {
+    try {
+      return searchIndex.buscar(q, null, cursor, Math.max(1, Math.min(size, maxPageSize)));
+    } catch (IllegalArgumentException ex) {
+      throw new BadRequestException(ex.getMessage());
+    }
+  }
+
   /**
    * Busca y recupera un paciente por su identificador único.
    *
@@ -40,6 +139,7 @@ public class PacienteServiceImpl implements PacienteService {
 
   /**
    * Agrega un nuevo paciente a la base de datos.
+   * Se inserta sin consultar antes si existe: la clave primaria de la tabla detecta el duplicado.
    *
    * @param paciente El objeto Paciente que se va a agregar.
    * @return El Paciente recién agregado.
@@ -47,17 +147,89 @@ public class PacienteServiceImpl implements PacienteService {
    */
   @Override
   public Paciente addPaciente(Paciente paciente) {
-    Optional<Paciente> pacienteExist = pacienteRepository.findById(paciente.getIdNumeroCedula());
+    try {
+      return transactionTemplate.execute(status -> {
+        Paciente nuevo = pacienteRepository.save(paciente);
+        outboxWriter.registrar(OutboxEvent.PACIENTE_CREADO, nuevo::getIdNumeroCedula, () -> nuevo);
+        indexar(PacienteSummary.of(nuevo));
+        return nuevo;
+      });
+    } catch (DataIntegrityViolationException ex) {
+      throw new DataIntegrityViolationException("Primary key already exists", ex);
+    } catch (InvalidDataAccessApiUsageException ex) {
+      // Si el paciente está en la caché de segundo nivel, Hibernate lo da por existente sin ir a la base de datos.
+      if (!(ex.getCause() instanceof PersistentObjectException)) {
+        throw ex;
+      }
 
-    if (pacienteExist.isPresent()) {
-      throw new DataIntegrityViolationException("Primary key already exists");
-    } else {
-      return pacienteRepository.save(paciente);
+      throw new DataIntegrityViolationException("Primary key already exists", ex);
     }
   }
 
+  /**
+   * Agrega varios pacientes a la base de datos con inserciones por lotes.
+   * Las claves existentes se comprueban con una única consulta IN en lugar de una por paciente.
+   *
+   * @param pacientes Los pacientes que se van a agregar.
+   * @return El resultado de cada elemento, en el orden de la petición.
+   * @throws BadRequestException Si el lote supera el tamaño máximo permitido.
+   */
+  @Override
+  public BatchResult addPacientes(List<Paciente> pacientes) {
+    if (pacientes.size() > maxBatchSize) {
+      throw new BadRequestException("Batch exceeds " + maxBatchSize + " items");
+    }
+
+    Set<Long> existentes = findExistingIds(pacientes.stream()
+        .filter(Objects::nonNull)
+        .map(Paciente::getIdNumeroCedula)
+        .toList());
+    Set<Long> vistos = new HashSet<>();
+    Map<Integer, BatchItemResult> rechazados = new HashMap<>();
+
+    for (int i = 0; i < pacientes.size(); i++) {
+      Paciente paciente = pacientes.get(i);
+
+      if (paciente == null) {
+        rechazados.put(i, new BatchItemResult(i, HttpStatus.BAD_REQUEST.value(), "Empty item"));
+      } else if (existentes.contains(paciente.getIdNumeroCedula()) || !vistos.add(paciente.getIdNumeroCedula())) {
+        rechazados.put(i, new BatchItemResult(i, HttpStatus.CONFLICT.value(), "Primary key already exists"));
+      }
+    }
+
+    return batchInserter.insertAll(pacientes, rechazados, paciente -> {
+      outboxWriter.registrar(OutboxEvent.PACIENTE_CREADO, paciente::getIdNumeroCedula, () -> paciente);
+      indexar(PacienteSummary.of(paciente));
+    }, (paciente, ex) -> new DataIntegrityViolationException("Primary key already exists", ex));
+  }
+
+  /**
+   * Agrega los pacientes de un flujo en bloques de {@code citas.importacion.tamano-bloque}, cada uno con
+   * {@link #addPacientes(List)}.
+   *
+   * @param pacientes Los pacientes que se van a agregar.
+   * @return El resultado de cada elemento, en el orden de la petición.
+   * @throws BadRequestException Si el flujo supera el tamaño máximo permitido.
+   */
+  @Override
+  public BatchResult addPacientes(Iterator<Paciente> pacientes) {
+    return batchInserter.importar(pacientes, this::addPacientes);
+  }
+
+  /**
+   * Recupera cuáles de los identificadores indicados corresponden a pacientes existentes.
+   *
+   * @param ids Identificadores candidatos.
+   * @return Subconjunto de identificadores que existen.
+   */
+  @Override
+  public Set<Long> findExistingIds(Collection<Long> ids) {
+    return ids.isEmpty() ? Set.of() : pacienteRepository.findExistingIds(ids);
+  }
+
   /**
    * Modifica la información de un paciente existente en la base de datos.
+   * Los datos se copian sobre el paciente cargado, de modo que la modificación es un único UPDATE.
    *
    * @param id          El identificador único del paciente que se va a modificar.
    * @param newPaciente El objeto Paciente con la nueva información.
@@ -65,26 +237,66 @@ public class PacienteServiceImpl implements PacienteService {
    * @throws ResourceNotFoundException Si no se encuentra ningún paciente con el identificador proporcionado.
    */
   @Override
+  @Transactional
   public Paciente modifyPaciente(Long id, Paciente newPaciente) {
     Paciente paciente = pacienteRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Paciente not found with id: " + id));
 
-    newPaciente.setIdNumeroCedula(paciente.getIdNumeroCedula());
+    paciente.setNombre(newPaciente.getNombre());
+    paciente.setApellido(newPaciente.getApellido());
+    paciente.setTelefono(newPaciente.getTelefono());
+    paciente.setFechaNacimiento(newPaciente.getFechaNacimiento());
+    outboxWriter.registrar(OutboxEvent.PACIENTE_MODIFICADO, paciente::getIdNumeroCedula, () -> paciente);
+    indexar(PacienteSummary.of(paciente));
 
-    return pacienteRepository.save(newPaciente);
+    return paciente;
   }
 
   /**
-   * Elimina un paciente de la base de datos por su identificador único.
+   * Elimina un paciente de la base de datos por su identificador único, con una sola sentencia y sin cargarlo antes.
    *
    * @param id El identificador único del paciente que se va a eliminar.
    * @throws ResourceNotFoundException Si no se encuentra ningún paciente con el identificador proporcionado.
+   * @throws DataIntegrityViolationException Si el paciente tiene citas, insertadas o pendientes de la escritura diferida.
    */
   @Override
   public void deletePaciente(Long id) {
-    pacienteRepository.findById(id)
-        .orElseThrow(() -> new ResourceNotFoundException("Paciente not found with id: " + id));
+    transactionTemplate.executeWithoutResult(status -> {
+      if (pacienteRepository.removeById(id) == 0) {
+        throw new ResourceNotFoundException("Paciente not found with id: " + id);
+      }
+
+      // Se comprueba tras el borrado, que bloquea la fila, para acotar la carrera con una reserva en curso.
+      CitaWriteBehind escrituraDiferida = citaWriteBehind.getIfAvailable();
+
+      if (escrituraDiferida != null && escrituraDiferida.isPendientePaciente(id)) {
+        throw new DataIntegrityViolationException("Paciente has pending citas: " + id);
+      }
+
+      outboxWriter.registrar(OutboxEvent.PACIENTE_ELIMINADO, () -> id, () -> null);
+      searchIndex.eliminar(id);
+    });
+  }
+
+  private void aplicarEvento(OutboxEvent evento) {
+    try {
+      switch (evento.tipo()) {
+        case OutboxEvent.PACIENTE_CREADO, OutboxEvent.PACIENTE_MODIFICADO ->
+            indexar(objectMapper.readValue(evento.datos(), PacienteSummary.class));
+        case OutboxEvent.PACIENTE_ELIMINADO -> searchIndex.eliminar(Long.parseLong(evento.clave()));
+        default -> { }
+      }
+    } catch (JsonProcessingException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void indexar(PacienteSummary paciente) {
+    indexar(searchIndex, paciente);
+  }
 
-    pacienteRepository.deleteById(id);
+  private static void indexar(SearchIndexWriter<PacienteSummary> indice, PacienteSummary paciente) {
+    indice.indexar(paciente.idNumeroCedula(), paciente, null, paciente.nombre(), paciente.apellido(),
+        paciente.telefono());
   }
 }
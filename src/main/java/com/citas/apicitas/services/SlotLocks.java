@@ -0,0 +1,66 @@
+package com.citas.apicitas.services;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bloqueos en memoria por franja horaria de un doctor, repartidos en un número fijo de bandas (lock striping).
+ * Dos reservas sobre el mismo (idProfesional, fechaHora) se serializan, mientras que las reservas de otros
+ * doctores u otros horarios caen, salvo colisión de hash, en bandas distintas y no compiten entre sí.
+ *
+ * <p>Estos bloqueos solo coordinan las peticiones de una misma instancia; entre instancias la restricción
+ * única de la tabla {@code cita} sobre (id_profesional, fecha_hora) sigue siendo la garantía final.</p>
+ */
+@Component
+public class SlotLocks {
+
+  private final ReentrantLock[] stripes;
+
+  private final int mask;
+
+  /**
+   * Crea el conjunto de bandas de bloqueo.
+   *
+   * @param stripes Número de bandas; se redondea a la siguiente potencia de dos.
+   */
+  public SlotLocks(@Value("${citas.reservas.bandas-bloqueo:1024}") int stripes) {
+    int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+
+    this.stripes = new ReentrantLock[size];
+    this.mask = size - 1;
+
+    for (int i = 0; i < size; i++) {
+      this.stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Ejecuta una acción con la franja horaria del doctor bloqueada.
+   *
+   * @param idProfesional Identificador del doctor.
+   * @param fechaHora     Fecha y hora de la franja.
+   * @param action        Acción a ejecutar mientras se mantiene el bloqueo.
+   * @param <T>           Tipo del resultado de la acción.
+   * @return El resultado de la acción.
+   */
+  public <T> T withLock(long idProfesional, LocalDateTime fechaHora, Supplier<T> action) {
+    ReentrantLock lock = stripes[index(idProfesional, fechaHora)];
+
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private int index(long idProfesional, LocalDateTime fechaHora) {
+    int h = 31 * Long.hashCode(idProfesional) + fechaHora.hashCode();
+
+    return (h ^ (h >>> 16)) & mask;
+  }
+}
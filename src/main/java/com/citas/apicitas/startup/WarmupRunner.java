@@ -0,0 +1,116 @@
+package com.citas.apicitas.startup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Calienta una instancia recién arrancada repitiendo peticiones GET a los endpoints más usados por el servidor
+ * embebido, de modo que las primeras peticiones de los clientes no pagan la compilación JIT de la ruta completa
+ * (Tomcat, Spring MVC, Hibernate, Jackson, gzip), la creación de los beans perezosos ni la apertura de las
+ * conexiones de Hikari: las peticiones se lanzan desde tantos hilos como conexiones tiene el pool.
+ *
+ * <p>Se ejecuta como {@link ApplicationRunner}, antes de que Spring Boot publique {@code ApplicationReadyEvent};
+ * hasta entonces el estado de disponibilidad es {@code REFUSING_TRAFFIC} y {@code /actuator/health/readiness}
+ * responde 503, así que el balanceador no envía tráfico a la instancia mientras se calienta. Las respuestas con
+ * error se cuentan pero no impiden el arranque.</p>
+ */
+public class WarmupRunner implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+  private final ApplicationContext context;
+
+  private final List<String> rutas;
+
+  private final int peticiones;
+
+  private final int concurrencia;
+
+  private final Duration tiempoMaximo;
+
+  /**
+   * Crea el calentamiento.
+   *
+   * @param context      Contexto de la aplicación, del que se obtiene el puerto del servidor embebido.
+   * @param rutas        Rutas, con su query string, a las que se envían las peticiones por turnos.
+   * @param peticiones   Número total de peticiones; con 0 no se calienta.
+   * @param concurrencia Número de peticiones simultáneas.
+   * @param tiempoMaximo Tiempo tras el cual se deja de enviar peticiones aunque no se hayan enviado todas.
+   */
+  public WarmupRunner(ApplicationContext context, List<String> rutas, int peticiones, int concurrencia,
+                      Duration tiempoMaximo) {
+    this.context = context;
+    this.rutas = List.copyOf(rutas);
+    this.peticiones = peticiones;
+    this.concurrencia = concurrencia;
+    this.tiempoMaximo = tiempoMaximo;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws InterruptedException {
+    if (peticiones == 0 || rutas.isEmpty() || !(context instanceof WebServerApplicationContext web)
+        || web.getWebServer() == null) {
+      return;
+    }
+
+    String base = "http://localhost:" + web.getWebServer().getPort();
+    HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+    long inicio = System.nanoTime();
+    long limite = inicio + tiempoMaximo.toNanos();
+    AtomicInteger enviadas = new AtomicInteger();
+    AtomicInteger fallidas = new AtomicInteger();
+
+    try (ExecutorService executor = Executors.newFixedThreadPool(concurrencia)) {
+      for (int i = 0; i < concurrencia; i++) {
+        executor.execute(() -> {
+          int n;
+
+          while (System.nanoTime() < limite && (n = enviadas.getAndIncrement()) < peticiones) {
+            if (!enviar(client, base + rutas.get(n % rutas.size()))) {
+              fallidas.incrementAndGet();
+            }
+          }
+        });
+      }
+    }
+
+    log.info("Warm-up sent {} requests to {} routes in {} ms ({} failed)", Math.min(enviadas.get(), peticiones),
+        rutas.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), fallidas.get());
+  }
+
+  private static boolean enviar(HttpClient client, String uri) {
+    HttpRequest peticion = HttpRequest.newBuilder(URI.create(uri))
+      .header("Accept", "application/json")
+      .header("Accept-Encoding", "gzip")
+      .timeout(Duration.ofSeconds(10))
+      .build();
+
+    try {
+      return client.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+    } catch (IOException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,371 @@
+package com.citas.apicitas.writebehind;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.exception.UnknownOutcomeException;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.outbox.OutboxWriter;
+import com.citas.apicitas.projections.CitaSlot;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.rollup.CitaRollup;
+import com.citas.apicitas.services.DoctorService;
+import com.citas.apicitas.services.PacienteService;
+import com.citas.apicitas.services.SlotLocks;
+import com.citas.apicitas.writebehind.WriteAheadLog.Entrada;
+import com.citas.apicitas.writebehind.WriteAheadLog.ResultadoDesconocidoException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Reserva de citas con escritura diferida.
+ *
+ * La franja se confirma en memoria y la cita se añade al {@link WriteAheadLog} antes de responder, de modo
+ * que una cita aceptada sobrevive a una caída del proceso. Un hilo de fondo inserta las citas registradas en
+ * MySQL en lotes de hasta {@code tamanoLote} filas, una transacción por lote, y avanza el checkpoint del
+ * registro. Al arrancar se vuelven a aplicar las entradas posteriores al último checkpoint.
+ *
+ * Mientras una cita no se ha insertado, su franja figura como pendiente y ninguna otra reserva de esta
+ * instancia puede ocuparla, y su doctor y su paciente no se pueden eliminar. Las lecturas y los borrados
+ * de citas solo ven la cita una vez insertada. Una cita aceptada que la base de datos rechaza al insertarla
+ * se descarta con un evento {@value OutboxEvent#CITA_DESCARTADA}, para que el cliente pueda enterarse.
+ */
+public class CitaWriteBehind {
+
+  private static final Logger log = LoggerFactory.getLogger(CitaWriteBehind.class);
+
+  private static final long ESPERA_REINTENTO_MS = 1000;
+
+  private final WriteAheadLog wal;
+
+  private final CitaRepository citaRepository;
+
+  private final DoctorService doctorService;
+
+  private final PacienteService pacienteService;
+
+  private final SlotLocks slotLocks;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final EntityManager entityManager;
+
+  private final OutboxWriter outboxWriter;
+
+  private final CitaRollup citaRollup;
+
+  private final int tamanoLote;
+
+  private final Counter descartadas;
+
+  /**
+   * Franjas aceptadas que aún no están en la base de datos.
+   */
+  private final Map<CitaSlot, CitaId> pendientes = new ConcurrentHashMap<>();
+
+  /**
+   * Entradas durables pendientes de insertar, en orden de secuencia.
+   */
+  private final BlockingQueue<Entrada> cola = new LinkedBlockingQueue<>();
+
+  private Thread escritor;
+
+  private volatile boolean aceptando;
+
+  private volatile boolean detenido;
+
+  public CitaWriteBehind(WriteAheadLog wal, CitaRepository citaRepository, DoctorService doctorService,
+                         PacienteService pacienteService, SlotLocks slotLocks, TransactionTemplate transactionTemplate,
+                         EntityManager entityManager, OutboxWriter outboxWriter, CitaRollup citaRollup,
+                         MeterRegistry registry, int tamanoLote) {
+    this.wal = wal;
+    this.citaRepository = citaRepository;
+    this.doctorService = doctorService;
+    this.pacienteService = pacienteService;
+    this.slotLocks = slotLocks;
+    this.transactionTemplate = transactionTemplate;
+    this.entityManager = entityManager;
+    this.outboxWriter = outboxWriter;
+    this.citaRollup = citaRollup;
+    this.tamanoLote = tamanoLote;
+    this.descartadas = Counter.builder("citas.escritura-diferida.descartadas")
+      .description("Citas registradas que la base de datos rechazó al insertarlas")
+      .register(registry);
+
+    Gauge.builder("citas.escritura-diferida.pendientes", pendientes, Map::size)
+      .description("Citas aceptadas pendientes de insertar")
+      .register(registry);
+  }
+
+  /**
+   * Recupera las citas registradas y no insertadas antes de la última parada, las inserta y arranca el
+   * hilo de escritura. Las que ya están en la base de datos (insertadas justo antes de una caída, sin
+   * checkpoint) se omiten; las que la base de datos rechaza, por ejemplo porque otra instancia ocupó la
+   * franja entretanto, se descartan con su evento, como en la escritura normal.
+   */
+  public void iniciar() {
+    List<Entrada> recuperadas = wal.abrir(cola::addAll);
+
+    if (!recuperadas.isEmpty()) {
+      List<Entrada> lote = new ArrayList<>(recuperadas.size());
+
+      for (Entrada entrada : recuperadas) {
+        CitaId clave = entrada.clave();
+
+        if (!citaRepository.existsByClave(clave)) {
+          pendientes.put(slot(clave), clave);
+          lote.add(entrada);
+        }
+      }
+
+      log.info("Recovered {} write-ahead log entries, {} not yet persisted", recuperadas.size(), lote.size());
+
+      long ultima = recuperadas.get(recuperadas.size() - 1).seq();
+      persistir(lote);
+      wal.checkpoint(ultima);
+    }
+
+    aceptando = true;
+    escritor = Thread.ofPlatform().name("citas-escritura-diferida").daemon().start(this::escribir);
+  }
+
+  /**
+   * Reserva una cita: comprueba el doctor, el paciente y la franja, la marca como pendiente y la añade
+   * al registro. Cuando vuelve, la cita es durable aunque todavía no esté en la base de datos. Si no se sabe
+   * si la entrada llegó a escribirse, la franja sigue pendiente hasta saberlo: si se escribió, la cita se
+   * inserta como cualquier otra.
+   *
+   * @param id Identificador de la cita.
+   * @return El identificador de la cita aceptada.
+   * @throws com.citas.apicitas.exception.ResourceNotFoundException Si no existe el doctor o el paciente.
+   * @throws DataIntegrityViolationException Si la franja ya está reservada o pendiente.
+   * @throws UnknownOutcomeException         Si no se sabe si la cita quedó aceptada.
+   * @throws IllegalStateException           Si la aplicación se está deteniendo.
+   */
+  public CitaId reservar(CitaId id) {
+    if (!aceptando) {
+      throw new IllegalStateException("Write-behind booking is not accepting appointments");
+    }
+
+    CitaSlot slot = slot(id);
+
+    slotLocks.withLock(id.getIdProfesional(), id.getFechaHora(), () -> {
+      if (pendientes.containsKey(slot)
+          || citaRepository.existsByClaveIdProfesionalAndClaveFechaHora(id.getIdProfesional(), id.getFechaHora())) {
+        throw new DataIntegrityViolationException("Slot already booked for doctor: " + id.getIdProfesional());
+      }
+
+      doctorService.findById(id.getIdProfesional());
+      pacienteService.findById(id.getIdNumeroCedula());
+
+      return pendientes.put(slot, id);
+    });
+
+    try {
+      wal.append(id);
+    } catch (ResultadoDesconocidoException ex) {
+      ex.getResultado().whenComplete((entrada, fallo) -> {
+        if (fallo != null && !(fallo instanceof ResultadoDesconocidoException)) {
+          pendientes.remove(slot, id);
+        }
+      });
+
+      throw new UnknownOutcomeException("Booking outcome unknown for doctor " + id.getIdProfesional() + " at "
+          + id.getFechaHora() + "; check the cita before retrying", ex);
+    } catch (RuntimeException ex) {
+      pendientes.remove(slot, id);
+      throw ex;
+    }
+
+    return id;
+  }
+
+  /**
+   * Indica si la franja tiene una cita aceptada que aún no se ha insertado.
+   *
+   * @param idProfesional Identificador del profesional.
+   * @param fechaHora     Fecha y hora de la franja.
+   * @return true si la franja está pendiente.
+   */
+  public boolean isPendiente(long idProfesional, LocalDateTime fechaHora) {
+    return pendientes.containsKey(new CitaSlot(idProfesional, fechaHora));
+  }
+
+  /**
+   * Indica si el doctor tiene citas aceptadas que aún no se han insertado.
+   *
+   * @param idProfesional Identificador del profesional.
+   * @return true si alguna cita pendiente es del doctor.
+   */
+  public boolean isPendienteDoctor(long idProfesional) {
+    return pendientes.values().stream().anyMatch(id -> id.getIdProfesional() == idProfesional);
+  }
+
+  /**
+   * Indica si el paciente tiene citas aceptadas que aún no se han insertado.
+   *
+   * @param idNumeroCedula Número de cédula del paciente.
+   * @return true si alguna cita pendiente es del paciente.
+   */
+  public boolean isPendientePaciente(long idNumeroCedula) {
+    return pendientes.values().stream().anyMatch(id -> id.getIdNumeroCedula() == idNumeroCedula);
+  }
+
+  /**
+   * Deja de aceptar reservas, espera a que las ya aceptadas se inserten y cierra el registro. Lo que no
+   * llegue a insertarse se recupera del registro en el siguiente arranque.
+   */
+  public void detener() {
+    aceptando = false;
+    wal.close();
+    detenido = true;
+
+    if (escritor == null) {
+      return;
+    }
+
+    try {
+      escritor.join(TimeUnit.SECONDS.toMillis(30));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    escritor.interrupt();
+  }
+
+  private void escribir() {
+    List<Entrada> lote = new ArrayList<>(tamanoLote);
+
+    while (!detenido || !cola.isEmpty()) {
+      try {
+        Entrada primera = cola.poll(100, TimeUnit.MILLISECONDS);
+
+        if (primera == null) {
+          continue;
+        }
+
+        lote.add(primera);
+        cola.drainTo(lote, tamanoLote - 1);
+
+        long ultima = lote.get(lote.size() - 1).seq();
+        persistir(lote);
+        wal.checkpoint(ultima);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException ex) {
+        log.error("Write-behind batch failed", ex);
+      } finally {
+        lote.clear();
+      }
+    }
+  }
+
+  /**
+   * Inserta un lote en una sola transacción. Si alguna cita viola una restricción (el doctor o el paciente
+   * se borró, o la franja se ocupó por otra vía), el lote se repite cita a cita y las rechazadas se descartan
+   * registrando su evento.
+   * Ante cualquier otro error, como una caída de la base de datos, se reintenta sin avanzar el checkpoint.
+   */
+  private void persistir(List<Entrada> lote) {
+    List<Entrada> restantes = new ArrayList<>(lote);
+    boolean porCita = false;
+
+    while (!restantes.isEmpty()) {
+      try {
+        if (porCita) {
+          insertar(restantes.get(0));
+          restantes.remove(0);
+        } else {
+          insertar(restantes);
+          restantes.forEach(entrada -> pendientes.remove(slot(entrada.clave())));
+          restantes.clear();
+        }
+      } catch (DataIntegrityViolationException ex) {
+        if (porCita) {
+          Entrada rechazada = restantes.remove(0);
+          descartar(rechazada, ex);
+        }
+
+        porCita = true;
+      } catch (RuntimeException ex) {
+        log.warn("Could not persist {} citas, retrying", restantes.size(), ex);
+
+        try {
+          Thread.sleep(ESPERA_REINTENTO_MS);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while persisting citas", interrupted);
+        }
+      }
+    }
+  }
+
+  /**
+   * Descarta una cita aceptada que la base de datos rechazó y registra el evento que lo comunica.
+   * Si el evento no se puede registrar, el descarte queda solo en el log y en la métrica.
+   */
+  private void descartar(Entrada rechazada, DataIntegrityViolationException causa) {
+    CitaId clave = rechazada.clave();
+
+    log.warn("Discarding accepted cita {} (seq {}): {}", clave, rechazada.seq(),
+        causa.getMostSpecificCause().getMessage());
+
+    try {
+      transactionTemplate.executeWithoutResult(status ->
+          outboxWriter.registrar(OutboxEvent.CITA_DESCARTADA, () -> null, () -> clave));
+    } catch (RuntimeException ex) {
+      log.error("Could not record the discard of accepted cita {} (seq {})", clave, rechazada.seq(), ex);
+    }
+
+    pendientes.remove(slot(clave));
+    descartadas.increment();
+  }
+
+  private void insertar(Entrada entrada) {
+    insertar(List.of(entrada));
+    pendientes.remove(slot(entrada.clave()));
+  }
+
+  private void insertar(List<Entrada> entradas) {
+    transactionTemplate.executeWithoutResult(status -> {
+      List<Cita> citas = new ArrayList<>(entradas.size());
+
+      for (Entrada entrada : entradas) {
+        CitaId clave = entrada.clave();
+        Cita cita = new Cita();
+
+        cita.setClave(clave);
+        cita.setDoctor(entityManager.getReference(Doctor.class, clave.getIdProfesional()));
+        cita.setPaciente(entityManager.getReference(Paciente.class, clave.getIdNumeroCedula()));
+        citas.add(cita);
+        outboxWriter.registrar(OutboxEvent.CITA_CREADA, cita::getId, cita::getClave);
+        citaRollup.creada(clave);
+      }
+
+      citaRepository.saveAll(citas);
+    });
+  }
+
+  private static CitaSlot slot(CitaId id) {
+    return new CitaSlot(id.getIdProfesional(), id.getFechaHora());
+  }
+}
@@ -0,0 +1,490 @@
+package com.citas.apicitas.writebehind;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.citas.apicitas.entities.CitaId;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Registro de escritura anticipada (WAL) de las citas aceptadas en modo de escritura diferida.
+ *
+ * Cada cita se añade como una línea JSON con un número de secuencia creciente. Un único hilo escribe las
+ * entradas de todas las peticiones que llegan a la vez y hace un solo {@code fsync} por grupo (group commit):
+ * {@link #append} vuelve cuando la entrada es durable, y las entradas confirmadas se entregan en orden de
+ * secuencia a quien las persiste. El registro se divide en segmentos ({@code citas-<secuencia>.wal}); el
+ * fichero {@code checkpoint} guarda la última secuencia ya persistida en la base de datos, y los segmentos
+ * anteriores a ella se borran.
+ *
+ * Al abrir el registro se devuelven las entradas posteriores al checkpoint para volver a aplicarlas. Una
+ * línea incompleta al final de un segmento (una escritura interrumpida, que nunca se confirmó) se ignora.
+ *
+ * Si la escritura de un grupo falla, el segmento se trunca a su tamaño anterior y sus números de secuencia se
+ * reutilizan. Cualquier otro error del hilo de escritura (no poder truncar o abrir un segmento, un fallo al
+ * entregar las entradas confirmadas) deja el registro inservible: fallan las entradas en cola y también las
+ * siguientes llamadas a {@link #append}. Una entrada que ya es durable, o que puede serlo, nunca se da por
+ * fallida: se confirma, o se informa con {@link ResultadoDesconocidoException} de que no se sabe si lo es.
+ */
+public class WriteAheadLog implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+  private static final String PREFIJO = "citas-";
+
+  private static final String EXTENSION = ".wal";
+
+  private static final String CHECKPOINT = "checkpoint";
+
+  private static final int MAX_GRUPO = 1000;
+
+  /**
+   * Entrada del registro.
+   *
+   * @param seq   Número de secuencia.
+   * @param clave Cita aceptada.
+   */
+  public record Entrada(long seq, CitaId clave) {
+  }
+
+  private record Pendiente(CitaId clave, CompletableFuture<Entrada> resultado) {
+  }
+
+  /**
+   * La entrada puede haberse escrito: se agotó la espera mientras se escribía, o falló su escritura y no se
+   * pudo deshacer. Si se escribió, se entregará y se recuperará como cualquier otra.
+   */
+  public static class ResultadoDesconocidoException extends IllegalStateException {
+
+    private final transient CompletableFuture<Entrada> resultado;
+
+    ResultadoDesconocidoException(String mensaje, CompletableFuture<Entrada> resultado, Throwable causa) {
+      super(mensaje, causa);
+      this.resultado = resultado;
+    }
+
+    /**
+     * Resultado de la escritura de la entrada: se completa cuando es durable, y falla si finalmente no se
+     * escribió o si sigue sin saberse (con otra {@code ResultadoDesconocidoException}).
+     *
+     * @return Resultado pendiente de la entrada.
+     */
+    public CompletableFuture<Entrada> getResultado() {
+      return resultado;
+    }
+  }
+
+  private final Path directorio;
+
+  private final ObjectMapper objectMapper;
+
+  private final long tamanoSegmento;
+
+  private final Duration espera;
+
+  private final BlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+
+  /**
+   * Primera secuencia de cada segmento, incluido el activo.
+   */
+  private final NavigableMap<Long, Path> segmentos = new ConcurrentSkipListMap<>();
+
+  private FileChannel segmento;
+
+  private long siguienteSeq = 1;
+
+  private Thread hilo;
+
+  private volatile boolean cerrado;
+
+  /**
+   * Error por el que el hilo de escritura terminó, o {@code null} mientras acepta entradas.
+   */
+  private volatile RuntimeException fallo;
+
+  /**
+   * Crea un registro sin abrir.
+   *
+   * @param directorio     Directorio de los segmentos y el checkpoint.
+   * @param objectMapper   Serializador de las entradas.
+   * @param tamanoSegmento Tamaño, en bytes, a partir del cual se empieza un segmento nuevo.
+   * @param espera         Tiempo máximo que {@link #append} espera a que la entrada sea durable.
+   */
+  public WriteAheadLog(Path directorio, ObjectMapper objectMapper, long tamanoSegmento, Duration espera) {
+    this.directorio = directorio;
+    this.objectMapper = objectMapper;
+    this.tamanoSegmento = tamanoSegmento;
+    this.espera = espera;
+  }
+
+  /**
+   * Lee el registro existente y empieza a aceptar entradas en un segmento nuevo.
+   *
+   * @param alConfirmar Recibe cada grupo de entradas, en orden de secuencia, en cuanto es durable.
+   * @return Las entradas posteriores al checkpoint, que aún no constan como persistidas.
+   * @throws UncheckedIOException Si el directorio no se puede leer o crear.
+   */
+  public synchronized List<Entrada> abrir(Consumer<List<Entrada>> alConfirmar) {
+    try {
+      Files.createDirectories(directorio);
+
+      long checkpoint = leerCheckpoint();
+      long ultima = checkpoint;
+      List<Entrada> pendientes = new ArrayList<>();
+
+      try (Stream<Path> ficheros = Files.list(directorio)) {
+        for (Path fichero : ficheros.filter(WriteAheadLog::esSegmento).sorted().toList()) {
+          segmentos.put(primeraSeq(fichero), fichero);
+
+          for (Entrada entrada : leer(fichero)) {
+            ultima = Math.max(ultima, entrada.seq());
+
+            if (entrada.seq() > checkpoint) {
+              pendientes.add(entrada);
+            }
+          }
+        }
+      }
+
+      siguienteSeq = ultima + 1;
+      abrirSegmento();
+
+      hilo = Thread.ofPlatform().name("citas-wal").daemon().start(() -> escribir(alConfirmar));
+
+      return pendientes;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Añade una cita al registro y espera a que sea durable.
+   *
+   * Si se agota la espera mientras la entrada aún está en cola, se retira y no se escribe. Si ya se estaba
+   * escribiendo, puede llegar a ser durable y se persiste como cualquier otra, así que no se da por fallida.
+   *
+   * @param clave Cita aceptada.
+   * @return La entrada escrita, con su número de secuencia.
+   * @throws UncheckedIOException           Si la entrada no se escribió.
+   * @throws ResultadoDesconocidoException Si no se sabe si la entrada se escribió.
+   * @throws IllegalStateException          Si el registro está cerrado o ha fallado, o si se agota la espera
+   *                                        antes de empezar a escribir la entrada.
+   */
+  public Entrada append(CitaId clave) {
+    if (fallo != null) {
+      throw new IllegalStateException("Write-ahead log is not accepting entries", fallo);
+    }
+
+    if (cerrado) {
+      throw new IllegalStateException("Write-ahead log is closed");
+    }
+
+    Pendiente pendiente = new Pendiente(clave, new CompletableFuture<>());
+    cola.add(pendiente);
+
+    // El hilo de escritura pudo terminar entre la comprobación anterior y la inserción en la cola.
+    RuntimeException terminado = fallo;
+
+    if (terminado != null && cola.remove(pendiente)) {
+      pendiente.resultado().completeExceptionally(terminado);
+    }
+
+    try {
+      return pendiente.resultado().get(espera.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while appending to the write-ahead log", ex);
+    } catch (TimeoutException ex) {
+      if (cola.remove(pendiente)) {
+        throw new IllegalStateException("Write-ahead log append timed out after " + espera.toMillis() + " ms", ex);
+      }
+
+      throw new ResultadoDesconocidoException("Write-ahead log append timed out after " + espera.toMillis()
+          + " ms while the entry was being written", pendiente.resultado(), ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof ResultadoDesconocidoException desconocido) {
+        throw new ResultadoDesconocidoException(desconocido.getMessage(), pendiente.resultado(), desconocido);
+      }
+
+      throw ex.getCause() instanceof IOException io ? new UncheckedIOException(io)
+          : new IllegalStateException(ex.getCause());
+    }
+  }
+
+  /**
+   * Registra que todas las entradas hasta {@code seq} están en la base de datos y borra los segmentos
+   * que solo contienen entradas anteriores.
+   *
+   * @param seq Última secuencia persistida.
+   * @throws UncheckedIOException Si el checkpoint no se puede escribir.
+   */
+  public void checkpoint(long seq) {
+    try {
+      Path temporal = directorio.resolve(CHECKPOINT + ".tmp");
+
+      try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING)) {
+        canal.write(ByteBuffer.wrap(Long.toString(seq).getBytes(StandardCharsets.US_ASCII)));
+        canal.force(true);
+      }
+
+      Files.move(temporal, directorio.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+
+      // Un segmento se puede borrar si el siguiente empieza después de seq + 1; el último es el activo.
+      for (Map.Entry<Long, Path> actual : segmentos.entrySet()) {
+        Long siguiente = segmentos.higherKey(actual.getKey());
+
+        if (siguiente == null || siguiente > seq + 1) {
+          break;
+        }
+
+        Files.deleteIfExists(actual.getValue());
+        segmentos.remove(actual.getKey());
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Deja de aceptar entradas, espera a que se escriban las que ya estaban en cola y cierra el segmento activo.
+   */
+  @Override
+  public void close() {
+    if (cerrado) {
+      return;
+    }
+
+    cerrado = true;
+
+    try {
+      if (hilo != null) {
+        hilo.join(TimeUnit.SECONDS.toMillis(30));
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (this) {
+      try {
+        if (segmento != null) {
+          segmento.close();
+        }
+      } catch (IOException ex) {
+        log.warn("Could not close write-ahead log segment", ex);
+      }
+    }
+  }
+
+  private void escribir(Consumer<List<Entrada>> alConfirmar) {
+    List<Pendiente> grupo = new ArrayList<>();
+
+    try {
+      while (!cerrado || !cola.isEmpty()) {
+        Pendiente primero = cola.poll(100, TimeUnit.MILLISECONDS);
+
+        if (primero == null) {
+          continue;
+        }
+
+        grupo.add(primero);
+        cola.drainTo(grupo, MAX_GRUPO - 1);
+        escribirGrupo(grupo, alConfirmar);
+        grupo.clear();
+      }
+
+      terminar(grupo, new IllegalStateException("Write-ahead log is closed"));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      terminar(grupo, new IllegalStateException("Write-ahead log writer was interrupted", ex));
+    } catch (RuntimeException ex) {
+      log.error("Write-ahead log writer failed, rejecting further appends", ex);
+      terminar(grupo, ex);
+    }
+  }
+
+  /**
+   * Deja de aceptar entradas y hace fallar las del grupo en curso y las que quedan en cola.
+   */
+  private void terminar(List<Pendiente> grupo, RuntimeException causa) {
+    fallo = causa;
+    grupo.forEach(pendiente -> pendiente.resultado().completeExceptionally(causa));
+
+    for (Pendiente pendiente = cola.poll(); pendiente != null; pendiente = cola.poll()) {
+      pendiente.resultado().completeExceptionally(causa);
+    }
+  }
+
+  private synchronized void escribirGrupo(List<Pendiente> grupo, Consumer<List<Entrada>> alConfirmar) {
+    List<Entrada> entradas = new ArrayList<>(grupo.size());
+    long primeraSeq = siguienteSeq;
+    long tamano = -1;
+
+    try {
+      tamano = segmento.size();
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(grupo.size() * 96);
+
+      for (Pendiente pendiente : grupo) {
+        Entrada entrada = new Entrada(siguienteSeq++, pendiente.clave());
+        buffer.write(objectMapper.writeValueAsBytes(entrada));
+        buffer.write('\n');
+        entradas.add(entrada);
+      }
+
+      ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+
+      while (bytes.hasRemaining()) {
+        segmento.write(bytes);
+      }
+
+      segmento.force(false);
+    } catch (IOException ex) {
+      log.error("Could not append {} entries to the write-ahead log", grupo.size(), ex);
+
+      try {
+        descartar(tamano, primeraSeq);
+      } catch (UncheckedIOException noDeshecho) {
+        ResultadoDesconocidoException desconocido = new ResultadoDesconocidoException(
+            "Write-ahead log entries could not be undone after a failed write", null, noDeshecho);
+        grupo.forEach(pendiente -> pendiente.resultado().completeExceptionally(desconocido));
+        throw noDeshecho;
+      }
+
+      grupo.forEach(pendiente -> pendiente.resultado().completeExceptionally(ex));
+      return;
+    }
+
+    // Se rota antes de confirmar: así el checkpoint de las entradas confirmadas ya puede borrar el segmento lleno.
+    // Las entradas ya son durables, de modo que se confirman aunque falle su entrega o la rotación.
+    try {
+      alConfirmar.accept(entradas);
+
+      if (segmento.size() >= tamanoSegmento) {
+        rotar();
+      }
+    } catch (IOException ex) {
+      rotar();
+    } finally {
+      for (int i = 0; i < grupo.size(); i++) {
+        grupo.get(i).resultado().complete(entradas.get(i));
+      }
+    }
+  }
+
+  /**
+   * Deshace un grupo que no se pudo escribir: trunca el segmento a su tamaño anterior, para que lo que se
+   * llegó a escribir no se recupere al arrancar, y reutiliza sus números de secuencia.
+   *
+   * @throws UncheckedIOException Si el segmento no se puede truncar.
+   */
+  private void descartar(long tamano, long primeraSeq) {
+    try {
+      if (tamano >= 0) {
+        segmento.truncate(tamano);
+        segmento.force(true);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Could not truncate the write-ahead log segment", ex);
+    }
+
+    siguienteSeq = primeraSeq;
+  }
+
+  /**
+   * Cierra el segmento activo y abre otro.
+   *
+   * @throws UncheckedIOException Si el segmento nuevo no se puede abrir.
+   */
+  private void rotar() {
+    try {
+      segmento.close();
+    } catch (IOException ex) {
+      log.warn("Could not close write-ahead log segment", ex);
+    }
+
+    try {
+      abrirSegmento();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void abrirSegmento() throws IOException {
+    Path fichero = directorio.resolve(String.format("%s%020d%s", PREFIJO, siguienteSeq, EXTENSION));
+
+    segmento = FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    segmentos.put(siguienteSeq, fichero);
+
+    // Si se reutiliza un segmento que terminaba en una línea incompleta, la siguiente entrada empieza en otra línea.
+    if (segmento.size() > 0) {
+      segmento.write(ByteBuffer.wrap(new byte[] {'\n'}));
+    }
+  }
+
+  private List<Entrada> leer(Path fichero) throws IOException {
+    List<Entrada> entradas = new ArrayList<>();
+    List<String> lineas = Files.readAllLines(fichero, StandardCharsets.UTF_8);
+
+    for (int i = 0; i < lineas.size(); i++) {
+      String linea = lineas.get(i);
+
+      if (linea.isBlank()) {
+        continue;
+      }
+
+      try {
+        entradas.add(objectMapper.readValue(linea, Entrada.class));
+      } catch (JsonProcessingException ex) {
+        log.warn("Ignoring incomplete write-ahead log entry at {}:{}", fichero.getFileName(), i + 1);
+      }
+    }
+
+    return entradas;
+  }
+
+  private long leerCheckpoint() throws IOException {
+    Path fichero = directorio.resolve(CHECKPOINT);
+
+    return Files.exists(fichero) ? Long.parseLong(Files.readString(fichero, StandardCharsets.US_ASCII).trim()) : 0;
+  }
+
+  private static boolean esSegmento(Path fichero) {
+    String nombre = fichero.getFileName().toString();
+
+    return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+  }
+
+  private static long primeraSeq(Path fichero) {
+    String nombre = fichero.getFileName().toString();
+
+    return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+  }
+}
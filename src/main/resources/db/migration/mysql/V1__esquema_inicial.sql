@@ -0,0 +1,29 @@
+-- Esquema inicial, tal como lo generaba Hibernate con ddl-auto=update antes de la restricción única de franjas
+-- (uk_cita_profesional_fecha_hora), que se añade en V2 tras resolver las franjas duplicadas.
+
+create table doctor (
+    id_profesional bigint not null,
+    apellido varchar(255),
+    correo varchar(255),
+    especialidad enum ('medicina_general', 'medicina_interna'),
+    nombre varchar(255),
+    primary key (id_profesional)
+) engine = InnoDB;
+
+create table paciente (
+    id_numero_cedula bigint not null,
+    fecha_nacimiento datetime(6),
+    apellido varchar(255),
+    nombre varchar(255),
+    telefono varchar(255),
+    primary key (id_numero_cedula)
+) engine = InnoDB;
+
+create table cita (
+    fecha_hora datetime(6) not null,
+    id_numero_cedula bigint not null,
+    id_profesional bigint not null,
+    primary key (fecha_hora, id_numero_cedula, id_profesional),
+    constraint FKjbx6rwju8n5en4bt2axbj8m06 foreign key (id_profesional) references doctor (id_profesional),
+    constraint FK2wjwx5l6hm7bldrrqtdv8jfb8 foreign key (id_numero_cedula) references paciente (id_numero_cedula)
+) engine = InnoDB;
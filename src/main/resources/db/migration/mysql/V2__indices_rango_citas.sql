@@ -0,0 +1,41 @@
+-- Restricción única de franjas (un doctor no puede tener dos citas a la misma fecha y hora) e índices para las
+-- consultas por rango: citas de un paciente y citas de un día.
+--
+-- Las bases de datos creadas con ddl-auto=update pueden tener franjas con varias citas. En cada franja se conserva
+-- la cita del paciente con menor cédula; las demás se mueven a cita_duplicada para revisarlas a mano. Si la
+-- restricción ya existe (ddl-auto=update la creaba en las tablas sin duplicados), no se vuelve a crear.
+
+create table cita_duplicada (
+    fecha_hora datetime(6) not null,
+    id_numero_cedula bigint not null,
+    id_profesional bigint not null,
+    detectada datetime(6) not null default current_timestamp(6),
+    primary key (fecha_hora, id_numero_cedula, id_profesional)
+) engine = InnoDB;
+
+insert into cita_duplicada (fecha_hora, id_numero_cedula, id_profesional)
+select fecha_hora, id_numero_cedula, id_profesional
+from (select fecha_hora, id_numero_cedula, id_profesional,
+             row_number() over (partition by id_profesional, fecha_hora order by id_numero_cedula) as orden
+      from cita) franjas
+where orden > 1;
+
+delete c from cita c
+    join cita_duplicada d
+      on d.fecha_hora = c.fecha_hora and d.id_numero_cedula = c.id_numero_cedula
+     and d.id_profesional = c.id_profesional;
+
+set @restriccion = (
+    select if(count(*) = 0,
+              'alter table cita add constraint uk_cita_profesional_fecha_hora unique (id_profesional, fecha_hora)',
+              'do 0')
+    from information_schema.statistics
+    where table_schema = database() and table_name = 'cita' and index_name = 'uk_cita_profesional_fecha_hora');
+
+prepare restriccion from @restriccion;
+execute restriccion;
+deallocate prepare restriccion;
+
+create index idx_cita_paciente_fecha_hora on cita (id_numero_cedula, fecha_hora);
+
+create index idx_cita_fecha_hora on cita (fecha_hora);
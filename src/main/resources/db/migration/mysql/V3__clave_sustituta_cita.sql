@@ -0,0 +1,29 @@
+-- Identificador sustituto y versión (bloqueo optimista) para las citas.
+-- La clave natural (id_profesional, id_numero_cedula, fecha_hora) deja de ser la clave primaria;
+-- la restricción única (id_profesional, fecha_hora) sigue impidiendo citas duplicadas.
+-- Las citas existentes se numeran por su clave primaria anterior completa, de modo que cada fila recibe un
+-- número distinto; V2 ya ha resuelto las franjas duplicadas. La tabla cita_seq (la secuencia de Hibernate
+-- en MySQL) continúa después de la última.
+
+alter table cita
+    add column id bigint first,
+    add column version bigint not null default 0;
+
+update cita c
+    join (select fecha_hora, id_numero_cedula, id_profesional,
+                 row_number() over (order by fecha_hora, id_numero_cedula, id_profesional) as fila
+          from cita) numeradas
+      on numeradas.fecha_hora = c.fecha_hora and numeradas.id_numero_cedula = c.id_numero_cedula
+     and numeradas.id_profesional = c.id_profesional
+set c.id = numeradas.fila;
+
+alter table cita
+    drop primary key,
+    modify column id bigint not null,
+    add primary key (id);
+
+create table cita_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into cita_seq select coalesce(max(id), 0) + 50 from cita;
@@ -0,0 +1,10 @@
+-- Versión y fecha de la última modificación de doctores y pacientes, de las que se derivan los ETag
+-- de las consultas por identificador. Las filas existentes toman la fecha de la migración.
+
+alter table doctor
+    add column version bigint not null default 0,
+    add column ultima_modificacion datetime(6) not null default current_timestamp(6);
+
+alter table paciente
+    add column version bigint not null default 0,
+    add column ultima_modificacion datetime(6) not null default current_timestamp(6);
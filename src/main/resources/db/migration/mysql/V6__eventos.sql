@@ -0,0 +1,13 @@
+-- Eventos de cambio de citas, doctores y pacientes (outbox transaccional). Cada servicio los inserta en la
+-- misma transacción que el cambio y se publican en GET /api/citas/eventos; el id es la posición del evento.
+
+create table evento (
+    id bigint not null auto_increment,
+    tipo varchar(40) not null,
+    clave varchar(255),
+    datos mediumtext,
+    fecha datetime(6) not null,
+    primary key (id)
+) engine = InnoDB;
+
+create index idx_evento_fecha on evento (fecha);
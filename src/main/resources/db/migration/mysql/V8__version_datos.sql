@@ -0,0 +1,10 @@
+-- Versión de los listados de datos de referencia, que forma su ETag. ReferenceDataVersions la incrementa en la
+-- misma transacción que cada escritura de la tabla, de modo que todas las instancias comparten el mismo ETag.
+
+create table version_datos (
+    tabla varchar(32) not null,
+    version bigint not null,
+    primary key (tabla)
+) engine = InnoDB;
+
+insert into version_datos (tabla, version) values ('doctor', 0), ('paciente', 0);
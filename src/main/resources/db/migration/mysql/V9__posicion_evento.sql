@@ -0,0 +1,17 @@
+-- Posición de publicación de los eventos. OutboxRelay la asigna a los eventos ya confirmados, en el orden en que
+-- los ve y con el contador de evento_posicion bloqueado, de modo que las posiciones no tienen huecos aunque las
+-- transacciones confirmen en otro orden que el de sus identificadores.
+
+alter table evento add column posicion bigint;
+
+update evento set posicion = id;
+
+create unique index uk_evento_posicion on evento (posicion);
+
+create table evento_posicion (
+    id int not null,
+    ultima bigint not null,
+    primary key (id)
+) engine = InnoDB;
+
+insert into evento_posicion (id, ultima) select 1, coalesce(max(id), 0) from evento;
@@ -0,0 +1,304 @@
+/**
+ * Prueba de carga de los endpoints de /api/citas: arranca la aplicación de Spring MVC + JPA en modo de hilos
+ * de plataforma y en modo de hilos virtuales, y la variante WebFlux + R2DBC (perfil "reactivo"); lanza la misma
+ * carga contra las tres y compara latencias (p50, p99, máxima) y concurrencia efectiva. Solo se ejecuta con
+ * el perfil de Maven "carga" (mvn test -Pcarga).
+ *
+ * Por defecto usa H2 en memoria; para medir contra MySQL basta con pasar -Dcarga.datasource.url,
+ * -Dcarga.datasource.username y -Dcarga.datasource.password, y para la variante reactiva además
+ * -Dcarga.r2dbc.url. Con H2 el controlador R2DBC ejecuta las sentencias en los hilos de Netty, de modo que
+ * la comparación representativa de la variante reactiva es contra MySQL.
+ */
+package com.citas.apicitas;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.reactive.ReactiveCitasApplication;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+
+@Tag("carga")
+class CitasLoadTests {
+
+  private static final Logger log = LoggerFactory.getLogger(CitasLoadTests.class);
+
+  private static final int CLIENTES = 200;
+
+  private static final int PETICIONES_POR_CLIENTE = 20;
+
+  private static final int HILOS_TOMCAT = 50;
+
+  private static final int POOL_CONEXIONES = 10;
+
+  private static final int DOCTORES = 20;
+
+  private static final int PACIENTES = 50;
+
+  private static final int CITAS_POR_DOCTOR = 25;
+
+  private static final int ESPERA_CONEXION_MS = 30_000;
+
+  private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+  @Test
+  void servletStackVersusReactiveStack() throws Exception {
+    Resultado plataforma = medir("plataforma");
+    Resultado virtuales = medir("virtuales");
+    Resultado reactivo = medir(ReactiveCitasApplication.PERFIL);
+
+    log.info("Load test results:\n{}\n{}\n{}\n{}", String.format("%-12s %10s %10s %10s %10s %12s %8s",
+        "modo", "p50 (ms)", "p99 (ms)", "max (ms)", "req/s", "concurrencia", "errores"), plataforma, virtuales, reactivo);
+
+    assertThat(plataforma.errores()).isZero();
+    assertThat(virtuales.errores()).isZero();
+    assertThat(reactivo.errores()).isZero();
+  }
+
+  private Resultado medir(String modo) throws Exception {
+    boolean reactiva = modo.equals(ReactiveCitasApplication.PERFIL);
+
+    try (ConfigurableApplicationContext context = reactiva ? arrancarReactiva() : arrancar(modo, modo.equals("virtuales"))) {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      String base = "http://localhost:" + port + "/api/citas";
+
+      if (reactiva) {
+        poblarReactiva(context, "http://localhost:" + port);
+      } else {
+        poblar(context);
+      }
+
+      List<HttpRequest> peticiones = List.of(
+          HttpRequest.newBuilder(URI.create(base + "?size=50")).GET().build(),
+          HttpRequest.newBuilder(URI.create(base)).header("Accept", "application/x-ndjson").GET().build());
+
+      // Calentamiento para que JIT y cachés no penalicen al primer modo medido.
+      ejecutar(peticiones, 50, 10);
+
+      return ejecutar(peticiones, CLIENTES, PETICIONES_POR_CLIENTE).conModo(modo);
+    }
+  }
+
+  private ConfigurableApplicationContext arrancar(String modo, boolean hilosVirtuales) {
+    return new SpringApplicationBuilder(ApiCitasApplication.class).run(
+        "--server.port=0",
+        "--server.tomcat.threads.max=" + HILOS_TOMCAT,
+        "--spring.datasource.url=" + System.getProperty("carga.datasource.url", "jdbc:h2:mem:carga-" + modo + ";DB_CLOSE_DELAY=-1"),
+        "--spring.datasource.username=" + System.getProperty("carga.datasource.username", "sa"),
+        "--spring.datasource.password=" + System.getProperty("carga.datasource.password", ""),
+        "--spring.datasource.driver-class-name=",
+        "--spring.datasource.hikari.maximum-pool-size=" + POOL_CONEXIONES,
+        "--spring.datasource.hikari.connection-timeout=" + ESPERA_CONEXION_MS,
+        "--citas.hilos-virtuales.habilitados=" + hilosVirtuales,
+        "--spring.jpa.properties.hibernate.generate_statistics=false");
+  }
+
+  /**
+   * Arranca la variante WebFlux + R2DBC con tantas conexiones como el pool de Hikari de las otras dos.
+   */
+  private ConfigurableApplicationContext arrancarReactiva() {
+    String datasource = System.getProperty("carga.datasource.url", "jdbc:h2:mem:carga-reactivo;DB_CLOSE_DELAY=-1");
+
+    return new SpringApplicationBuilder(ReactiveCitasApplication.class)
+      .profiles(ReactiveCitasApplication.PERFIL)
+      .run(
+        "--server.port=0",
+        "--spring.r2dbc.url=" + System.getProperty("carga.r2dbc.url", "r2dbc:h2:mem:///carga-reactivo;DB_CLOSE_DELAY=-1"),
+        "--spring.r2dbc.username=" + System.getProperty("carga.datasource.username", "sa"),
+        "--spring.r2dbc.password=" + System.getProperty("carga.datasource.password", ""),
+        "--spring.r2dbc.pool.max-size=" + POOL_CONEXIONES,
+        "--spring.r2dbc.pool.max-acquire-time=" + ESPERA_CONEXION_MS + "ms",
+        "--spring.flyway.url=" + datasource,
+        "--spring.flyway.user=" + System.getProperty("carga.datasource.username", "sa"),
+        "--spring.flyway.password=" + System.getProperty("carga.datasource.password", ""));
+  }
+
+  /**
+   * Carga los mismos datos que {@link #poblar} a través de la API, ya que la variante reactiva no tiene
+   * repositorios JPA.
+   */
+  private void poblarReactiva(ConfigurableApplicationContext context, String base) throws Exception {
+    DatabaseClient databaseClient = context.getBean(DatabaseClient.class);
+
+    databaseClient.sql("delete from cita").then()
+      .then(databaseClient.sql("delete from doctor").then())
+      .then(databaseClient.sql("delete from paciente").then())
+      .block();
+
+    try (HttpClient client = HttpClient.newHttpClient()) {
+      for (long d = 1; d <= DOCTORES; d++) {
+        crear(client, base + "/api/doctores", "{\"idProfesional\":" + d + ",\"nombre\":\"Doctor" + d
+            + "\",\"apellido\":\"Apellido" + d + "\",\"correo\":\"doctor" + d + "@eps.co\","
+            + "\"especialidad\":\"medicina_interna\"}");
+      }
+
+      for (long p = 1; p <= PACIENTES; p++) {
+        crear(client, base + "/api/pacientes", "{\"idNumeroCedula\":" + p + ",\"nombre\":\"Paciente" + p
+            + "\",\"apellido\":\"Apellido" + p + "\",\"telefono\":\"310000000" + p + "\","
+            + "\"fechaNacimiento\":\"" + INICIO.minusYears(40) + "\"}");
+      }
+
+      for (long d = 1; d <= DOCTORES; d++) {
+        for (int i = 0; i < CITAS_POR_DOCTOR; i++) {
+          crear(client, base + "/api/citas", "{\"idProfesional\":" + d + ",\"idNumeroCedula\":"
+              + (i % PACIENTES + 1) + ",\"fechaHora\":\"" + INICIO.plusMinutes(30L * i) + "\"}");
+        }
+      }
+    }
+  }
+
+  private static void crear(HttpClient client, String uri, String json) throws Exception {
+    HttpResponse<Void> respuesta = client.send(HttpRequest.newBuilder(URI.create(uri))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(json))
+        .build(), HttpResponse.BodyHandlers.discarding());
+
+    assertThat(respuesta.statusCode()).isEqualTo(201);
+  }
+
+  private void poblar(ConfigurableApplicationContext context) {
+    CitaRepository citaRepository = context.getBean(CitaRepository.class);
+    DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+    PacienteRepository pacienteRepository = context.getBean(PacienteRepository.class);
+
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+    pacienteRepository.deleteAll();
+
+    List<Doctor> doctores = new ArrayList<>();
+    List<Paciente> pacientes = new ArrayList<>();
+
+    for (long d = 1; d <= DOCTORES; d++) {
+      doctores.add(new Doctor(d, "Doctor" + d, "Apellido" + d, "doctor" + d + "@eps.co",
+          Doctor.Especialidad.medicina_interna, new HashSet<>()));
+    }
+
+    for (long p = 1; p <= PACIENTES; p++) {
+      pacientes.add(new Paciente(p, "Paciente" + p, "Apellido" + p, "310000000" + p,
+          INICIO.minusYears(40), new HashSet<>()));
+    }
+
+    doctorRepository.saveAll(doctores);
+    pacienteRepository.saveAll(pacientes);
+
+    List<Cita> citas = new ArrayList<>();
+
+    for (Doctor doctor : doctores) {
+      for (int i = 0; i < CITAS_POR_DOCTOR; i++) {
+        Paciente paciente = pacientes.get(i % PACIENTES);
+        CitaId id = new CitaId(doctor.getIdProfesional(), paciente.getIdNumeroCedula(), INICIO.plusMinutes(30L * i));
+        citas.add(new Cita(id, doctor, paciente));
+      }
+    }
+
+    citaRepository.saveAll(citas);
+  }
+
+  private Resultado ejecutar(List<HttpRequest> peticiones, int clientes, int porCliente) throws InterruptedException {
+    long[] latencias = new long[clientes * porCliente];
+    AtomicInteger errores = new AtomicInteger();
+    CountDownLatch salida = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(10))
+          .build()) {
+      long inicio;
+
+      for (int c = 0; c < clientes; c++) {
+        int cliente = c;
+
+        executor.submit(() -> {
+          salida.await();
+
+          for (int i = 0; i < porCliente; i++) {
+            HttpRequest peticion = peticiones.get((cliente + i) % peticiones.size());
+            long t0 = System.nanoTime();
+
+            try {
+              HttpResponse<Void> respuesta = client.send(peticion, HttpResponse.BodyHandlers.discarding());
+
+              if (respuesta.statusCode() != 200) {
+                errores.incrementAndGet();
+              }
+            } catch (Exception ex) {
+              errores.incrementAndGet();
+            }
+
+            latencias[cliente * porCliente + i] = System.nanoTime() - t0;
+          }
+
+          return null;
+        });
+      }
+
+      inicio = System.nanoTime();
+      salida.countDown();
+      executor.shutdown();
+      assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+
+      return Resultado.de(latencias, System.nanoTime() - inicio, errores.get());
+    }
+  }
+
+  private record Resultado(String modo, double p50, double p99, double max, double porSegundo,
+      double concurrencia, int errores) {
+
+    static Resultado de(long[] latencias, long duracionNanos, int errores) {
+      long[] ordenadas = latencias.clone();
+      Arrays.sort(ordenadas);
+
+      long total = Arrays.stream(ordenadas).sum();
+      double segundos = duracionNanos / 1e9;
+
+      // Concurrencia efectiva por la ley de Little: peticiones en curso = tiempo total en vuelo / duración.
+      return new Resultado(null, percentil(ordenadas, 0.50), percentil(ordenadas, 0.99),
+          ordenadas[ordenadas.length - 1] / 1e6, ordenadas.length / segundos, (double) total / duracionNanos,
+          errores);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+      return ordenadas[(int) Math.ceil(p * ordenadas.length) - 1] / 1e6;
+    }
+
+    Resultado conModo(String modo) {
+      return new Resultado(modo, p50, p99, max, porSegundo, concurrencia, errores);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%-12s %10.1f %10.1f %10.1f %10.0f %12.1f %8d", modo, p50, p99, max, porSegundo,
+          concurrencia, errores);
+    }
+  }
+}
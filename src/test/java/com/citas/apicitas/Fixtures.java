@@ -0,0 +1,77 @@
+/**
+ * Datos de prueba compartidos por las pruebas que arrancan la aplicación: la fecha de referencia, los doctores
+ * y pacientes de prueba, y el estado inicial de la base de datos con el doctor 1 y el paciente 1.
+ */
+package com.citas.apicitas;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+
+@Component
+public class Fixtures {
+
+  public static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  public static Doctor doctor(long id) {
+    return doctor(id, Doctor.Especialidad.medicina_general);
+  }
+
+  public static Doctor doctor(long id, Doctor.Especialidad especialidad) {
+    return new Doctor(id, "Doctor" + id, "Apellido" + id, "doctor" + id + "@eps.co", especialidad, new HashSet<>());
+  }
+
+  public static Paciente paciente(long id) {
+    return new Paciente(id, "Paciente" + id, "Apellido" + id, "310000000" + id, INICIO.minusYears(30),
+        new HashSet<>());
+  }
+
+  /**
+   * Borra las citas, los doctores y los pacientes.
+   */
+  public void vaciar() {
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+    pacienteRepository.deleteAll();
+  }
+
+  /**
+   * Deja en la base de datos solo el doctor 1 y el paciente 1, sin citas.
+   */
+  public void reiniciar() {
+    vaciar();
+
+    doctorRepository.save(doctor(1));
+    pacienteRepository.save(paciente(1));
+  }
+
+  /**
+   * Guarda una cita del doctor 1 con el paciente 1.
+   *
+   * @param fechaHora Fecha y hora de la cita.
+   * @return La cita guardada.
+   */
+  public Cita cita(LocalDateTime fechaHora) {
+    return citaRepository.save(new Cita(new CitaId(1, 1, fechaHora), doctorRepository.findById(1L).orElseThrow(),
+        pacienteRepository.findById(1L).orElseThrow()));
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * Pruebas de las agendas de pacientes y doctores: filtro por rango de fechas, paginación por cursor
+ * y errores de rango o recurso inexistente.
+ */
+package com.citas.apicitas.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class AgendaEndpointsTests {
+
+  private static final LocalDateTime LUNES = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  /**
+   * Dos doctores y dos pacientes con una cita diaria de cada par durante dos semanas.
+   */
+  @BeforeEach
+  void setUp() {
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+    pacienteRepository.deleteAll();
+
+    List<Paciente> pacientes = new ArrayList<>();
+
+    for (long p = 1; p <= 2; p++) {
+      pacientes.add(pacienteRepository.save(new Paciente(p, "Paciente" + p, "Apellido" + p, "310000000" + p,
+          LUNES.minusYears(30), new HashSet<>())));
+    }
+
+    List<Cita> citas = new ArrayList<>();
+
+    for (long d = 1; d <= 2; d++) {
+      Doctor doctor = doctorRepository.save(new Doctor(d, "Doctor" + d, "Apellido" + d, "doctor" + d + "@eps.co",
+          Doctor.Especialidad.medicina_general, new HashSet<>()));
+
+      for (Paciente paciente : pacientes) {
+        for (int dia = 0; dia < 14; dia++) {
+          LocalDateTime fechaHora = LUNES.plusDays(dia).plusMinutes(30 * (2 * d + paciente.getIdNumeroCedula()));
+          citas.add(new Cita(new CitaId(d, paciente.getIdNumeroCedula(), fechaHora), doctor, paciente));
+        }
+      }
+    }
+
+    citaRepository.saveAll(citas);
+  }
+
+  @Test
+  void pacienteAgendaReturnsOnlyTheRangeAcrossPages() throws Exception {
+    List<JsonNode> citas = fetchAll("/api/pacientes/1/citas", "2030-03-05", "2030-03-07", 4);
+
+    // Tres días, dos doctores por día.
+    assertThat(citas).hasSize(6);
+    assertThat(citas).allMatch(cita -> cita.get("idNumeroCedula").asLong() == 1);
+    assertThat(citas.stream().map(cita -> cita.get("fechaHora").asText()).toList())
+      .isSorted()
+      .allMatch(fecha -> fecha.compareTo("2030-03-05") >= 0 && fecha.compareTo("2030-03-08") < 0);
+  }
+
+  @Test
+  void doctorAgendaPagesDoNotRepeatOrSkip() throws Exception {
+    List<JsonNode> citas = fetchAll("/api/doctores/2/citas", "2030-03-04", "2030-03-17", 3);
+
+    assertThat(citas).hasSize(28);
+    assertThat(citas).allMatch(cita -> cita.get("idProfesional").asLong() == 2);
+    assertThat(citas.stream().map(cita -> cita.get("fechaHora").asText()).distinct()).hasSize(28);
+  }
+
+  @Test
+  void unknownPacienteIsNotFound() throws Exception {
+    mockMvc.perform(get("/api/pacientes/99/citas").param("desde", "2030-03-04").param("hasta", "2030-03-10"))
+      .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void knownDoctorWithoutCitasReturnsEmptyPage() throws Exception {
+    mockMvc.perform(get("/api/doctores/1/citas").param("desde", "2031-01-01").param("hasta", "2031-01-31"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.citas").isEmpty());
+  }
+
+  @Test
+  void invertedRangeIsBadRequest() throws Exception {
+    mockMvc.perform(get("/api/doctores/1/citas").param("desde", "2030-03-10").param("hasta", "2030-03-04"))
+      .andExpect(status().isBadRequest());
+  }
+
+  private List<JsonNode> fetchAll(String url, String desde, String hasta, int size) throws Exception {
+    List<JsonNode> citas = new ArrayList<>();
+    String cursor = null;
+
+    do {
+      var request = get(url).param("desde", desde).param("hasta", hasta).param("size", String.valueOf(size));
+
+      if (cursor != null) {
+        request.param("cursor", cursor);
+      }
+
+      JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString());
+
+      page.get("citas").forEach(citas::add);
+      cursor = page.get("siguiente").isNull() ? null : page.get("siguiente").asText();
+    } while (cursor != null);
+
+    return citas;
+  }
+}
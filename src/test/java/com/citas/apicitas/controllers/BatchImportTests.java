@@ -0,0 +1,199 @@
+/**
+ * Pruebas de los endpoints de importación masiva de doctores, pacientes y citas.
+ * Verifican el resultado por elemento en arreglos JSON y en flujos NDJSON, y que un bloque que falla por una
+ * escritura concurrente se reintenta elemento a elemento. Los flujos NDJSON se importan en bloques de dos
+ * elementos, hasta seis.
+ */
+package com.citas.apicitas.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+import com.citas.apicitas.services.BatchInserter;
+import com.citas.apicitas.services.DoctorService;
+
+@SpringBootTest(properties = {"citas.importacion.tamano-bloque=2", "citas.importacion.tamano-maximo=6"})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class BatchImportTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @SpyBean
+  private DoctorService doctorService;
+
+  @SpyBean
+  private BatchInserter batchInserter;
+
+  @BeforeEach
+  void setUp() {
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+    pacienteRepository.deleteAll();
+  }
+
+  @Test
+  void importsDoctorsPatientsAndCitasReportingEachItem() throws Exception {
+    mockMvc.perform(post("/api/doctores/batch").contentType(MediaType.APPLICATION_JSON).content("""
+        [{"idProfesional": 1, "nombre": "Ana", "especialidad": "medicina_general"},
+         {"idProfesional": 2, "nombre": "Luis", "especialidad": "medicina_interna"},
+         {"idProfesional": 1, "nombre": "Ana bis", "especialidad": "medicina_general"}]
+        """))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.creados").value(2))
+      .andExpect(jsonPath("$.resultados[2].statusCode").value(409));
+
+    mockMvc.perform(post("/api/pacientes/batch").contentType("application/x-ndjson").content("""
+        {"idNumeroCedula": 10, "nombre": "Marta"}
+        {"idNumeroCedula": 11, "nombre": "Pedro"}
+        """))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.creados").value(2));
+
+    mockMvc.perform(post("/api/citas/batch").contentType(MediaType.APPLICATION_JSON).content("""
+        [{"idProfesional": 1, "idNumeroCedula": 10, "fechaHora": "2030-01-07T08:00:00"},
+         {"idProfesional": 1, "idNumeroCedula": 11, "fechaHora": "2030-01-07T08:00:00"},
+         {"idProfesional": 2, "idNumeroCedula": 11, "fechaHora": "2030-01-07T08:00:00"},
+         {"idProfesional": 9, "idNumeroCedula": 11, "fechaHora": "2030-01-07T09:00:00"},
+         {"idProfesional": 2, "idNumeroCedula": 99, "fechaHora": "2030-01-07T09:00:00"},
+         {"idProfesional": 2, "idNumeroCedula": 10}]
+        """))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.creados").value(2))
+      .andExpect(jsonPath("$.rechazados").value(4))
+      .andExpect(jsonPath("$.resultados[0].statusCode").value(201))
+      .andExpect(jsonPath("$.resultados[1].statusCode").value(409))
+      .andExpect(jsonPath("$.resultados[2].statusCode").value(201))
+      .andExpect(jsonPath("$.resultados[3].statusCode").value(404))
+      .andExpect(jsonPath("$.resultados[4].statusCode").value(404))
+      .andExpect(jsonPath("$.resultados[5].statusCode").value(400));
+
+    assertThat(citaRepository.count()).isEqualTo(2);
+  }
+
+  @Test
+  void citaBookedConcurrentlyFailsOnlyItsOwnItem() throws Exception {
+    LocalDateTime fechaHora = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    doctorRepository.save(new Doctor(1, "Ana", "Apellido1", "ana@eps.co", Doctor.Especialidad.medicina_general,
+        new HashSet<>()));
+    doctorRepository.save(new Doctor(2, "Luis", "Apellido2", "luis@eps.co", Doctor.Especialidad.medicina_interna,
+        new HashSet<>()));
+    pacienteRepository.save(new Paciente(10, "Marta", "Apellido10", "3100000010", fechaHora.minusYears(30),
+        new HashSet<>()));
+    pacienteRepository.save(new Paciente(11, "Pedro", "Apellido11", "3100000011", fechaHora.minusYears(30),
+        new HashSet<>()));
+
+    // Otra petición reserva la franja del primer elemento después de la validación del lote.
+    doAnswer(invocation -> {
+      Object existentes = invocation.callRealMethod();
+      citaRepository.save(new Cita(new CitaId(1, 11, fechaHora), null, null));
+      return existentes;
+    }).when(doctorService).findExistingIds(any());
+
+    mockMvc.perform(post("/api/citas/batch").contentType(MediaType.APPLICATION_JSON).content("""
+        [{"idProfesional": 1, "idNumeroCedula": 10, "fechaHora": "2030-01-07T08:00:00"},
+         {"idProfesional": 2, "idNumeroCedula": 10, "fechaHora": "2030-01-07T08:00:00"},
+         {"idProfesional": 2, "idNumeroCedula": 11, "fechaHora": "2030-01-07T09:00:00"}]
+        """))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.creados").value(2))
+      .andExpect(jsonPath("$.resultados[0].statusCode").value(409))
+      .andExpect(jsonPath("$.resultados[0].message").value("Slot already booked for doctor: 1"))
+      .andExpect(jsonPath("$.resultados[1].statusCode").value(201))
+      .andExpect(jsonPath("$.resultados[2].statusCode").value(201));
+
+    assertThat(citaRepository.count()).isEqualTo(3);
+  }
+
+  @Test
+  void doctorCreatedConcurrentlyFailsOnlyItsOwnItem() throws Exception {
+    // Otra petición crea el segundo doctor entre la validación del lote y su inserción.
+    doAnswer(invocation -> {
+      doctorRepository.save(new Doctor(2, "Luis", "Apellido2", "luis@eps.co", Doctor.Especialidad.medicina_interna,
+          new HashSet<>()));
+      return invocation.callRealMethod();
+    }).when(batchInserter).insertAll(anyList(), anyMap(), any(), any());
+
+    mockMvc.perform(post("/api/doctores/batch").contentType(MediaType.APPLICATION_JSON).content("""
+        [{"idProfesional": 1, "nombre": "Ana", "especialidad": "medicina_general"},
+         {"idProfesional": 2, "nombre": "Luis bis", "especialidad": "medicina_interna"},
+         {"idProfesional": 3, "nombre": "Eva", "especialidad": "medicina_general"}]
+        """))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.creados").value(2))
+      .andExpect(jsonPath("$.resultados[0].statusCode").value(201))
+      .andExpect(jsonPath("$.resultados[1].statusCode").value(409))
+      .andExpect(jsonPath("$.resultados[1].message").value("Primary key already exists"))
+      .andExpect(jsonPath("$.resultados[2].statusCode").value(201));
+
+    assertThat(doctorRepository.findAll()).extracting(Doctor::getNombre).containsExactlyInAnyOrder("Ana", "Luis", "Eva");
+  }
+
+  @Test
+  void ndjsonIsImportedInChunksUpToTheMaximumSize() throws Exception {
+    mockMvc.perform(post("/api/doctores/batch").contentType("application/x-ndjson").content("""
+        {"idProfesional": 1, "nombre": "Ana", "especialidad": "medicina_general"}
+        {"idProfesional": 2, "nombre": "Luis", "especialidad": "medicina_interna"}
+        {"idProfesional": 3, "nombre": "Eva", "especialidad": "medicina_general"}
+        {"idProfesional": 1, "nombre": "Ana bis", "especialidad": "medicina_general"}
+        {"idProfesional": 4, "nombre": "Rosa", "especialidad": "medicina_interna"}
+        """))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.creados").value(4))
+      .andExpect(jsonPath("$.rechazados").value(1))
+      .andExpect(jsonPath("$.resultados[3].indice").value(3))
+      .andExpect(jsonPath("$.resultados[3].statusCode").value(409))
+      .andExpect(jsonPath("$.resultados[4].indice").value(4))
+      .andExpect(jsonPath("$.resultados[4].statusCode").value(201));
+
+    StringBuilder pacientes = new StringBuilder();
+
+    for (int i = 10; i < 17; i++) {
+      pacientes.append("{\"idNumeroCedula\": ").append(i).append(", \"nombre\": \"Paciente\"}\n");
+    }
+
+    mockMvc.perform(post("/api/pacientes/batch").contentType("application/x-ndjson").content(pacientes.toString()))
+      .andExpect(status().isBadRequest())
+      .andExpect(jsonPath("$.message").value("Batch exceeds 6 items"));
+
+    // Los bloques leídos antes de superar el límite ya se han confirmado.
+    assertThat(pacienteRepository.count()).isEqualTo(6);
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Pruebas de los endpoints de citas por identificador numérico: alta con cabecera Location,
+ * consulta, reprogramación y eliminación por id, y el id en los listados.
+ */
+package com.citas.apicitas.controllers;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.citas.apicitas.Fixtures;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class CitaIdEndpointsTests {
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    fixtures.reiniciar();
+  }
+
+  @Test
+  void citaCanBeReadRescheduledAndDeletedById() throws Exception {
+    String location = mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(INICIO)))
+      .andExpect(status().isCreated())
+      .andExpect(header().exists("Location"))
+      .andReturn()
+      .getResponse()
+      .getHeader("Location");
+
+    long id = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+
+    assertThat(location).endsWith("/api/citas/" + id);
+
+    mockMvc.perform(get("/api/citas/{id}", id))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.idCita").value(id))
+      .andExpect(jsonPath("$.id.fechaHora").value("2030-03-04T08:00:00"))
+      .andExpect(jsonPath("$.version").doesNotExist());
+
+    mockMvc.perform(get("/api/citas"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.citas[0].id").value(id));
+
+    mockMvc.perform(put("/api/citas/{id}", id)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(INICIO.plusHours(1))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.idCita").value(id))
+      .andExpect(jsonPath("$.id.fechaHora").value("2030-03-04T09:00:00"));
+
+    mockMvc.perform(delete("/api/citas/{id}", id))
+      .andExpect(status().isNoContent());
+
+    mockMvc.perform(get("/api/citas/{id}", id))
+      .andExpect(status().isNotFound());
+  }
+
+  private static String citaId(LocalDateTime fechaHora) {
+    return "{\"idProfesional\":1,\"idNumeroCedula\":1,\"fechaHora\":\"" + fechaHora + "\"}";
+  }
+}
@@ -0,0 +1,172 @@
+/**
+ * Pruebas de las peticiones condicionales sobre doctores y pacientes: ETag y Cache-Control en las respuestas,
+ * 304 sin cuerpo cuando If-None-Match coincide y un ETag nuevo después de cada escritura, también de las
+ * escrituras de otras instancias.
+ */
+package com.citas.apicitas.controllers;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.citas.apicitas.Fixtures;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    fixtures.reiniciar();
+  }
+
+  @Test
+  void doctorIsNotModifiedUntilItChanges() throws Exception {
+    String etag = etag("/api/doctores/1");
+
+    mockMvc.perform(get("/api/doctores/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+      .andExpect(status().isNotModified())
+      .andExpect(header().string(HttpHeaders.ETAG, etag))
+      .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate"))
+      .andExpect(content().string(""));
+
+    mockMvc.perform(put("/api/doctores/1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"nombre\":\"Otro\",\"apellido\":\"Apellido1\",\"correo\":\"doctor1@eps.co\","
+            + "\"especialidad\":\"medicina_general\"}"))
+      .andExpect(status().isOk());
+
+    String nuevo = mockMvc.perform(get("/api/doctores/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+      .andExpect(status().isOk())
+      .andReturn()
+      .getResponse()
+      .getHeader(HttpHeaders.ETAG);
+
+    assertThat(nuevo).isNotEqualTo(etag);
+  }
+
+  @Test
+  void recreatedDoctorDoesNotReuseTheOldEtag() throws Exception {
+    String etag = etag("/api/doctores/1");
+
+    mockMvc.perform(delete("/api/doctores/1"))
+      .andExpect(status().isNoContent());
+
+    Thread.sleep(5);
+
+    mockMvc.perform(post("/api/doctores")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"idProfesional\":1,\"nombre\":\"Otro\",\"apellido\":\"Otro\",\"correo\":\"otro@eps.co\","
+            + "\"especialidad\":\"medicina_interna\"}"))
+      .andExpect(status().isCreated());
+
+    mockMvc.perform(get("/api/doctores/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+      .andExpect(status().isOk());
+  }
+
+  @Test
+  void doctorListsAreRevalidatedWithoutQueries() throws Exception {
+    String lista = etag("/api/doctores");
+    String especialidad = etag("/api/doctores/especialidad/medicina_general");
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc.perform(get("/api/doctores").header(HttpHeaders.IF_NONE_MATCH, lista))
+      .andExpect(status().isNotModified());
+    mockMvc.perform(get("/api/doctores/especialidad/medicina_general").header(HttpHeaders.IF_NONE_MATCH, especialidad))
+      .andExpect(status().isNotModified());
+
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+
+    mockMvc.perform(post("/api/doctores")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"idProfesional\":2,\"nombre\":\"Doctor2\",\"apellido\":\"Apellido2\","
+            + "\"correo\":\"doctor2@eps.co\",\"especialidad\":\"medicina_general\"}"))
+      .andExpect(status().isCreated());
+
+    mockMvc.perform(get("/api/doctores").header(HttpHeaders.IF_NONE_MATCH, lista))
+      .andExpect(status().isOk());
+    mockMvc.perform(get("/api/doctores/especialidad/medicina_general").header(HttpHeaders.IF_NONE_MATCH, especialidad))
+      .andExpect(status().isOk());
+  }
+
+  @Test
+  void doctorListEtagChangesWithWritesFromOtherInstances() throws Exception {
+    String lista = etag("/api/doctores");
+
+    // Otra instancia da de alta un doctor: la versión del listado se incrementa en su transacción.
+    jdbcTemplate.update("insert into doctor (id_profesional, nombre, version, ultima_modificacion) "
+        + "values (3, 'Doctor3', 0, current_timestamp)");
+    jdbcTemplate.update("update version_datos set version = version + 1 where tabla = 'doctor'");
+
+    mockMvc.perform(get("/api/doctores").header(HttpHeaders.IF_NONE_MATCH, lista))
+      .andExpect(status().isOk())
+      .andExpect(header().string(HttpHeaders.ETAG, etag("/api/doctores")));
+  }
+
+  @Test
+  void pacienteIsNotModifiedUntilItChanges() throws Exception {
+    String etag = etag("/api/pacientes/1");
+
+    mockMvc.perform(get("/api/pacientes/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+      .andExpect(status().isNotModified())
+      .andExpect(content().string(""));
+
+    mockMvc.perform(put("/api/pacientes/1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"nombre\":\"Otro\",\"apellido\":\"Apellido1\",\"telefono\":\"3100000001\","
+            + "\"fechaNacimiento\":\"2000-03-04T08:00:00\"}"))
+      .andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/pacientes/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+      .andExpect(status().isOk());
+  }
+
+  private String etag(String url) throws Exception {
+    String etag = mockMvc.perform(get(url))
+      .andExpect(status().isOk())
+      .andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+      .andReturn()
+      .getResponse()
+      .getHeader(HttpHeaders.ETAG);
+
+    assertThat(etag).isNotNull();
+
+    return etag;
+  }
+}
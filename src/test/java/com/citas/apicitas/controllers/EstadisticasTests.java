@@ -0,0 +1,160 @@
+/**
+ * Pruebas de las estadísticas de citas: los contadores por día y doctor siguen las altas, reprogramaciones y
+ * eliminaciones de la API, y reconstruirlos desde la tabla de citas da el mismo resultado.
+ */
+package com.citas.apicitas.controllers;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.citas.apicitas.Fixtures;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class EstadisticasTests {
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    fixtures.reiniciar();
+    doctorRepository.save(Fixtures.doctor(2, Doctor.Especialidad.medicina_interna));
+
+    mockMvc.perform(post("/api/citas/estadisticas/reconstruir"))
+      .andExpect(status().isNoContent());
+  }
+
+  @Test
+  void countersFollowEveryWrite() throws Exception {
+    reservar(1, INICIO);
+    reservar(1, INICIO.plusHours(1));
+    reservar(2, INICIO.plusDays(1));
+    reservar(2, INICIO.plusDays(2));
+
+    mockMvc.perform(post("/api/citas/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[" + citaId(2, INICIO.plusDays(7)) + "," + citaId(1, INICIO.plusDays(8)) + "]"))
+      .andExpect(status().isOk());
+
+    // Reprograma una cita del doctor 1 al doctor 2, al día siguiente, y elimina otra por cada vía.
+    long id = citaRepository.findByClave(new CitaId(1, 1, INICIO.plusHours(1))).orElseThrow().getId();
+
+    mockMvc.perform(put("/api/citas/{id}", id)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(2, INICIO.plusDays(1).plusHours(1))))
+      .andExpect(status().isOk());
+
+    long eliminada = citaRepository.findByClave(new CitaId(2, 1, INICIO.plusDays(2))).orElseThrow().getId();
+
+    mockMvc.perform(delete("/api/citas/{id}", eliminada))
+      .andExpect(status().isNoContent());
+    mockMvc.perform(delete("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(1, INICIO.plusDays(8))))
+      .andExpect(status().isNoContent());
+
+    mockMvc.perform(get("/api/citas/estadisticas")
+        .param("agrupar", "doctor").param("desde", "2030-03-04").param("hasta", "2030-03-17"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.total").value(4))
+      .andExpect(jsonPath("$.grupos.length()").value(2))
+      .andExpect(jsonPath("$.grupos[0].clave").value("1"))
+      .andExpect(jsonPath("$.grupos[0].citas").value(1))
+      .andExpect(jsonPath("$.grupos[1].clave").value("2"))
+      .andExpect(jsonPath("$.grupos[1].citas").value(3));
+
+    mockMvc.perform(get("/api/citas/estadisticas")
+        .param("agrupar", "especialidad").param("desde", "2030-03-04").param("hasta", "2030-03-05"))
+      .andExpect(jsonPath("$.total").value(3))
+      .andExpect(jsonPath("$.grupos[0].clave").value("medicina_general"))
+      .andExpect(jsonPath("$.grupos[0].citas").value(1))
+      .andExpect(jsonPath("$.grupos[1].clave").value("medicina_interna"))
+      .andExpect(jsonPath("$.grupos[1].citas").value(2));
+
+    mockMvc.perform(get("/api/citas/estadisticas")
+        .param("agrupar", "dia").param("desde", "2030-03-04").param("hasta", "2030-03-17"))
+      .andExpect(jsonPath("$.grupos.length()").value(3))
+      .andExpect(jsonPath("$.grupos[1].clave").value("2030-03-05"))
+      .andExpect(jsonPath("$.grupos[1].citas").value(2));
+
+    String semanas = mockMvc.perform(get("/api/citas/estadisticas")
+        .param("agrupar", "semana").param("desde", "2030-03-04").param("hasta", "2030-03-17"))
+      .andExpect(jsonPath("$.grupos.length()").value(2))
+      .andExpect(jsonPath("$.grupos[0].clave").value("2030-03-04"))
+      .andExpect(jsonPath("$.grupos[0].citas").value(3))
+      .andExpect(jsonPath("$.grupos[1].clave").value("2030-03-11"))
+      .andExpect(jsonPath("$.grupos[1].citas").value(1))
+      .andReturn().getResponse().getContentAsString();
+
+    mockMvc.perform(post("/api/citas/estadisticas/reconstruir"))
+      .andExpect(status().isNoContent());
+
+    String reconstruidas = mockMvc.perform(get("/api/citas/estadisticas")
+        .param("agrupar", "semana").param("desde", "2030-03-04").param("hasta", "2030-03-17"))
+      .andReturn().getResponse().getContentAsString();
+
+    assertThat(reconstruidas).isEqualTo(semanas);
+  }
+
+  @Test
+  void rejectedWritesAreNotCounted() throws Exception {
+    reservar(1, INICIO);
+
+    mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(1, INICIO)))
+      .andExpect(status().isConflict());
+    mockMvc.perform(delete("/api/citas/{id}", 999_999))
+      .andExpect(status().isNotFound());
+
+    mockMvc.perform(get("/api/citas/estadisticas")
+        .param("agrupar", "doctor").param("desde", "2030-03-04").param("hasta", "2030-03-04"))
+      .andExpect(jsonPath("$.total").value(1));
+    mockMvc.perform(get("/api/citas/estadisticas")
+        .param("agrupar", "dia").param("desde", "2030-03-04").param("hasta", "2031-03-05"))
+      .andExpect(status().isBadRequest());
+  }
+
+  private void reservar(long idProfesional, LocalDateTime fechaHora) throws Exception {
+    mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(idProfesional, fechaHora)))
+      .andExpect(status().isCreated());
+  }
+
+  private static String citaId(long idProfesional, LocalDateTime fechaHora) {
+    return "{\"idProfesional\":" + idProfesional + ",\"idNumeroCedula\":1,\"fechaHora\":\"" + fechaHora + "\"}";
+  }
+}
@@ -0,0 +1,216 @@
+/**
+ * Pruebas de los eventos de cambio sobre el servidor embebido: cada escritura de los servicios deja su evento
+ * en la tabla evento, GET /api/citas/eventos los publica en orden y una suscripción se reanuda con Last-Event-ID.
+ * Una transacción lenta se publica cuando confirma, aunque su identificador sea anterior a otros ya publicados.
+ */
+package com.citas.apicitas.controllers;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.citas.apicitas.Fixtures;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.outbox.OutboxRelay;
+import com.citas.apicitas.services.CitaService;
+import com.citas.apicitas.services.DoctorService;
+import com.citas.apicitas.services.PacienteService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+class EventStreamTests {
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private CitaService citaService;
+
+  @Autowired
+  private DoctorService doctorService;
+
+  @Autowired
+  private PacienteService pacienteService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private OutboxRelay outboxRelay;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  /**
+   * Evento recibido: su posición, su tipo y su contenido.
+   */
+  private record Recibido(long id, String tipo, JsonNode evento) {
+  }
+
+  @Test
+  void changesAreStreamedInOrderAndSubscriptionsResume() throws Exception {
+    fixtures.vaciar();
+
+    long inicio = posicionActual();
+
+    doctorService.addDoctor(Fixtures.doctor(1));
+    pacienteService.addPaciente(Fixtures.paciente(1));
+
+    Cita cita = new Cita();
+    cita.setClave(new CitaId(1, 1, INICIO));
+    Cita creada = citaService.addCita(cita.getClave(), cita);
+
+    citaService.modifyCita(creada.getId(), new CitaId(1, 1, INICIO.plusHours(1)));
+    citaService.deleteCita(creada.getId());
+
+    List<Recibido> eventos = leer("?desde=" + inicio, null, 5);
+
+    assertThat(eventos).extracting(Recibido::tipo).containsExactly(OutboxEvent.DOCTOR_CREADO,
+        OutboxEvent.PACIENTE_CREADO, OutboxEvent.CITA_CREADA, OutboxEvent.CITA_MODIFICADA, OutboxEvent.CITA_ELIMINADA);
+    assertThat(eventos.get(0).evento().get("clave").asText()).isEqualTo("1");
+    assertThat(eventos.get(0).evento().get("datos").get("nombre").asText()).isEqualTo("Doctor1");
+    assertThat(eventos.get(2).evento().get("clave").asText()).isEqualTo(creada.getId().toString());
+    assertThat(eventos.get(3).evento().get("datos").get("fechaHora").asText()).isEqualTo("2030-03-04T09:00:00");
+    assertThat(eventos.get(4).evento().get("datos").isNull()).isTrue();
+
+    List<Recibido> reanudados = leer("", Long.toString(eventos.get(2).id()), 2);
+
+    assertThat(reanudados).extracting(Recibido::id).containsExactly(eventos.get(3).id(), eventos.get(4).id());
+  }
+
+  @Test
+  void slowTransactionsArePublishedWhenTheyCommit() throws Exception {
+    long inicio = posicionActual();
+    CountDownLatch insertado = new CountDownLatch(1);
+    CountDownLatch confirmar = new CountDownLatch(1);
+
+    CompletableFuture<Void> lenta = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(estado -> {
+      insertarEvento("prueba.lenta");
+      insertado.countDown();
+
+      try {
+        confirmar.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+
+    insertado.await();
+    insertarEvento("prueba.rapida");
+
+    List<Recibido> primeros = leer("?desde=" + inicio, null, 1);
+
+    assertThat(primeros).extracting(Recibido::tipo).containsExactly("prueba.rapida");
+
+    // Más de lo que el lector esperaba antes a un identificador que faltaba.
+    Thread.sleep(2500);
+    confirmar.countDown();
+    lenta.get(10, TimeUnit.SECONDS);
+    outboxRelay.notificar();
+
+    List<Recibido> siguientes = leer("", Long.toString(primeros.get(0).id()), 1);
+
+    assertThat(siguientes).extracting(Recibido::tipo).containsExactly("prueba.lenta");
+    assertThat(siguientes.get(0).id()).isEqualTo(primeros.get(0).id() + 1);
+  }
+
+  @Test
+  void rolledBackChangesLeaveNoEvents() {
+    long inicio = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from evento", Long.class);
+
+    try {
+      citaService.deleteCita(Long.MAX_VALUE);
+    } catch (RuntimeException ex) {
+      // Cita inexistente: la transacción se deshace.
+    }
+
+    assertThat(jdbcTemplate.queryForObject("select count(*) from evento where id > ?", Long.class, inicio)).isZero();
+  }
+
+  /**
+   * Última posición asignada, después de esperar a que el lector numere los eventos ya confirmados.
+   */
+  private long posicionActual() throws InterruptedException {
+    for (int i = 0; i < 100 && jdbcTemplate.queryForObject("select count(*) from evento where posicion is null",
+        Long.class) > 0; i++) {
+      Thread.sleep(50);
+    }
+
+    return jdbcTemplate.queryForObject("select coalesce(max(posicion), 0) from evento", Long.class);
+  }
+
+  private void insertarEvento(String tipo) {
+    jdbcTemplate.update("insert into evento (tipo, fecha) values (?, current_timestamp)", tipo);
+  }
+
+  private List<Recibido> leer(String consulta, String lastEventId, int cuantos) throws Exception {
+    HttpRequest.Builder peticion = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + port + "/api/citas/eventos" + consulta)).header("Accept", "text/event-stream");
+
+    if (lastEventId != null) {
+      peticion.header("Last-Event-ID", lastEventId);
+    }
+
+    HttpResponse<Stream<String>> respuesta = client.send(peticion.build(), HttpResponse.BodyHandlers.ofLines());
+
+    assertThat(respuesta.statusCode()).isEqualTo(200);
+
+    try (Stream<String> lineas = respuesta.body()) {
+      return CompletableFuture.supplyAsync(() -> {
+        List<Recibido> eventos = new ArrayList<>();
+        Iterator<String> it = lineas.iterator();
+        String id = null;
+        String tipo = null;
+
+        while (eventos.size() < cuantos && it.hasNext()) {
+          String linea = it.next();
+
+          if (linea.startsWith("id:")) {
+            id = linea.substring(3);
+          } else if (linea.startsWith("event:")) {
+            tipo = linea.substring(6);
+          } else if (linea.startsWith("data:")) {
+            try {
+              eventos.add(new Recibido(Long.parseLong(id), tipo, objectMapper.readTree(linea.substring(5))));
+            } catch (Exception ex) {
+              throw new IllegalStateException(ex);
+            }
+          }
+        }
+
+        return eventos;
+      }).get(10, TimeUnit.SECONDS);
+    }
+  }
+}
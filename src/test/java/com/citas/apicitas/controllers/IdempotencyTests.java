@@ -0,0 +1,175 @@
+/**
+ * Pruebas de la cabecera Idempotency-Key: los reintentos reciben la respuesta original sin ejecutar
+ * sentencias SQL, una clave reutilizada con otra petición se rechaza y el almacén JDBC reserva cada clave una vez.
+ */
+package com.citas.apicitas.controllers;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.citas.apicitas.Fixtures;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.idempotency.IdempotencyFilter;
+import com.citas.apicitas.idempotency.JdbcIdempotencyStore;
+import com.citas.apicitas.idempotency.StoredResponse;
+import com.citas.apicitas.repositories.CitaRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class IdempotencyTests {
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    fixtures.reiniciar();
+  }
+
+  @Test
+  void retriedPostIsReplayedWithoutTouchingTheDatabase() throws Exception {
+    String clave = "alta-" + System.nanoTime();
+
+    MvcResult original = mockMvc.perform(post("/api/citas")
+        .header(IdempotencyFilter.IDEMPOTENCY_KEY, clave)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(INICIO)))
+      .andExpect(status().isCreated())
+      .andReturn();
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc.perform(post("/api/citas")
+        .header(IdempotencyFilter.IDEMPOTENCY_KEY, clave)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(INICIO)))
+      .andExpect(status().isCreated())
+      .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"))
+      .andExpect(header().string("Location", original.getResponse().getHeader("Location")))
+      .andExpect(result -> assertThat(result.getResponse().getContentAsString())
+          .isEqualTo(original.getResponse().getContentAsString()));
+
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+    assertThat(citaRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void keyReusedForADifferentRequestIsRejected() throws Exception {
+    String clave = "alta-" + System.nanoTime();
+
+    mockMvc.perform(post("/api/citas")
+        .header(IdempotencyFilter.IDEMPOTENCY_KEY, clave)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(INICIO)))
+      .andExpect(status().isCreated());
+
+    mockMvc.perform(post("/api/citas")
+        .header(IdempotencyFilter.IDEMPOTENCY_KEY, clave)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(INICIO.plusHours(1))))
+      .andExpect(status().isUnprocessableEntity())
+      .andExpect(jsonPath("$.statusCode").value(422));
+
+    assertThat(citaRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void retriedRescheduleRunsOnce() throws Exception {
+    Cita cita = fixtures.cita(INICIO);
+    String clave = "cambio-" + System.nanoTime();
+
+    for (int intento = 0; intento < 2; intento++) {
+      mockMvc.perform(put("/api/citas/{id}", cita.getId())
+          .header(IdempotencyFilter.IDEMPOTENCY_KEY, clave)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(citaId(INICIO.plusHours(2))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id.fechaHora").value("2030-03-04T10:00:00"));
+    }
+
+    assertThat(citaRepository.findById(cita.getId())).get().extracting(Cita::getVersion).isEqualTo(cita.getVersion() + 1);
+  }
+
+  @Test
+  void jdbcStoreReservesEachKeyOnce() {
+    JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofMinutes(5), Duration.ofSeconds(30),
+        Clock.systemUTC());
+    String clave = "jdbc-" + System.nanoTime();
+
+    assertThat(store.reservar(clave, "huella")).isNull();
+    assertThat(store.reservar(clave, "huella").isEnCurso()).isTrue();
+
+    store.guardar(clave, new StoredResponse("huella", 201, "application/json", "/api/citas/7", "{}".getBytes()));
+
+    StoredResponse guardada = store.reservar(clave, "huella");
+    assertThat(guardada.status()).isEqualTo(201);
+    assertThat(guardada.location()).isEqualTo("/api/citas/7");
+    assertThat(guardada.body()).isEqualTo("{}".getBytes());
+
+    String liberada = "jdbc-liberada-" + System.nanoTime();
+    store.reservar(liberada, "huella");
+    store.liberar(liberada);
+
+    assertThat(store.reservar(liberada, "huella")).isNull();
+  }
+
+  @Test
+  void jdbcReservationWithoutResponseExpiresBeforeTheResponseTtl() {
+    JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofMinutes(5), Duration.ofSeconds(30),
+        Clock.systemUTC());
+    // Otro nodo, un minuto después: la reserva abandonada ha caducado, la respuesta guardada no.
+    JdbcIdempotencyStore despues = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofMinutes(5),
+        Duration.ofSeconds(30), Clock.offset(Clock.systemUTC(), Duration.ofMinutes(1)));
+    String abandonada = "jdbc-abandonada-" + System.nanoTime();
+    String respondida = "jdbc-respondida-" + System.nanoTime();
+
+    store.reservar(abandonada, "huella");
+    store.reservar(respondida, "huella");
+    store.guardar(respondida, new StoredResponse("huella", 201, "application/json", "/api/citas/7", "{}".getBytes()));
+
+    assertThat(despues.reservar(abandonada, "huella")).isNull();
+    assertThat(despues.reservar(respondida, "huella").status()).isEqualTo(201);
+  }
+
+  private static String citaId(LocalDateTime fechaHora) {
+    return "{\"idProfesional\":1,\"idNumeroCedula\":1,\"fechaHora\":\"" + fechaHora + "\"}";
+  }
+}
@@ -0,0 +1,166 @@
+/**
+ * Pruebas que cuentan las sentencias SQL ejecutadas por cada endpoint de listado.
+ * Fallan si alguno de ellos supera el presupuesto fijo de sentencias por petición,
+ * lo que detecta regresiones de tipo N+1 al cargar doctores y pacientes de las citas.
+ */
+package com.citas.apicitas.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class ListEndpointsStatementBudgetTests {
+
+  /**
+   * Número máximo de sentencias SQL que puede ejecutar un endpoint de listado por petición.
+   */
+  private static final long STATEMENT_BUDGET = 1;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  /**
+   * Carga varios doctores y pacientes distintos con citas cruzadas, de modo que una carga
+   * perezosa o ansiosa por asociación se traduzca en sentencias adicionales.
+   */
+  @BeforeEach
+  void setUp() {
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+    pacienteRepository.deleteAll();
+
+    LocalDateTime inicio = LocalDateTime.of(2024, 1, 8, 8, 0);
+    List<Paciente> pacientes = new ArrayList<>();
+
+    for (long p = 1; p <= 4; p++) {
+      pacientes.add(pacienteRepository.save(new Paciente(p, "Paciente" + p, "Apellido" + p,
+          "300000000" + p, inicio.minusYears(30), new HashSet<>())));
+    }
+
+    for (long d = 1; d <= 3; d++) {
+      Doctor doctor = doctorRepository.save(new Doctor(d, "Doctor" + d, "Apellido" + d, "doctor" + d + "@eps.co",
+          Doctor.Especialidad.medicina_general, new HashSet<>()));
+
+      for (Paciente paciente : pacientes) {
+        CitaId id = new CitaId(d, paciente.getIdNumeroCedula(), inicio.plusMinutes(30 * (d * 4 + paciente.getIdNumeroCedula())));
+        citaRepository.save(new Cita(id, doctor, paciente));
+      }
+    }
+  }
+
+  @Test
+  void citasFirstPageStaysWithinBudget() throws Exception {
+    assertWithinBudget(get("/api/citas").param("size", "5"));
+  }
+
+  @Test
+  void citasNextPageStaysWithinBudget() throws Exception {
+    MvcResult first = mockMvc.perform(get("/api/citas").param("size", "5")).andReturn();
+    JsonNode page = objectMapper.readTree(first.getResponse().getContentAsString());
+
+    assertWithinBudget(get("/api/citas").param("size", "5").param("cursor", page.get("siguiente").asText()));
+  }
+
+  @Test
+  void citasStreamStaysWithinBudget() throws Exception {
+    Statistics statistics = statistics();
+    statistics.clear();
+
+    MvcResult result = mockMvc.perform(get("/api/citas").accept("application/x-ndjson")).andReturn();
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+    assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(STATEMENT_BUDGET);
+  }
+
+  @Test
+  void doctoresStaysWithinBudget() throws Exception {
+    assertWithinBudget(get("/api/doctores"));
+  }
+
+  @Test
+  void doctoresByEspecialidadStaysWithinBudget() throws Exception {
+    assertWithinBudget(get("/api/doctores/especialidad/medicina_general"));
+  }
+
+  @Test
+  void pacientesStaysWithinBudget() throws Exception {
+    assertWithinBudget(get("/api/pacientes"));
+  }
+
+  @Test
+  void pacienteAgendaStaysWithinBudget() throws Exception {
+    assertWithinBudget(get("/api/pacientes/2/citas").param("desde", "2024-01-08").param("hasta", "2024-01-14"));
+  }
+
+  @Test
+  void doctorAgendaNextPageStaysWithinBudget() throws Exception {
+    MvcResult first = mockMvc.perform(get("/api/doctores/2/citas").param("desde", "2024-01-08")
+      .param("hasta", "2024-01-14").param("size", "2")).andReturn();
+    JsonNode page = objectMapper.readTree(first.getResponse().getContentAsString());
+
+    assertThat(page.get("citas")).hasSize(2);
+    assertWithinBudget(get("/api/doctores/2/citas").param("desde", "2024-01-08").param("hasta", "2024-01-14")
+      .param("size", "2").param("cursor", page.get("siguiente").asText()));
+  }
+
+  private void assertWithinBudget(MockHttpServletRequestBuilder request) throws Exception {
+    Statistics statistics = statistics();
+    statistics.clear();
+
+    mockMvc.perform(request).andExpect(status().isOk());
+
+    assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(STATEMENT_BUDGET);
+  }
+
+  private Statistics statistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+}
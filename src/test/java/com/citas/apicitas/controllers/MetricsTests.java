@@ -0,0 +1,108 @@
+/**
+ * Pruebas de la instrumentación: latencia por método de servicio, sentencias SQL por petición (una muestra
+ * también en las respuestas asíncronas) y publicación de todo ello en /actuator/prometheus.
+ */
+package com.citas.apicitas.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.HashSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry registry;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @BeforeEach
+  void setUp() {
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+
+    for (long d = 1; d <= 3; d++) {
+      doctorRepository.save(new Doctor(d, "Doctor" + d, "Apellido" + d, "doctor" + d + "@eps.co",
+          Doctor.Especialidad.medicina_interna, new HashSet<>()));
+    }
+  }
+
+  @Test
+  void recordsServiceLatencyAndStatementsPerRequest() throws Exception {
+    mockMvc.perform(get("/api/doctores")).andExpect(status().isOk());
+
+    assertThat(registry.get("citas.servicio")
+      .tag("class", "DoctorServiceImpl")
+      .tag("method", "findAllSummaries")
+      .timer()
+      .count()).isEqualTo(1);
+
+    assertThat(registry.get("citas.db.sentencias")
+      .tag("method", "GET")
+      .tag("uri", "/api/doctores")
+      .summary()
+      .totalAmount()).isEqualTo(1);
+  }
+
+  @Test
+  void recordsAsyncRequestsOnce() throws Exception {
+    MvcResult resultado = mockMvc.perform(get("/api/citas").accept("application/x-ndjson"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    mockMvc.perform(asyncDispatch(resultado)).andExpect(status().isOk());
+
+    assertThat(registry.get("citas.db.sentencias")
+      .tag("method", "GET")
+      .tag("uri", "/api/citas")
+      .summary()
+      .count()).isEqualTo(1);
+  }
+
+  @Test
+  void publishesHistogramsOnPrometheusEndpoint() throws Exception {
+    mockMvc.perform(get("/api/doctores")).andExpect(status().isOk());
+
+    String scrape = mockMvc.perform(get("/actuator/prometheus"))
+      .andExpect(status().isOk())
+      .andReturn()
+      .getResponse()
+      .getContentAsString();
+
+    assertThat(scrape)
+      .contains("citas_servicio_seconds_bucket{")
+      .contains("citas_db_sentencias_statements_bucket{")
+      .contains("http_server_requests_seconds_bucket{")
+      .contains("hibernate_query_executions_total");
+  }
+}
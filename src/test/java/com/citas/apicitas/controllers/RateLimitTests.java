@@ -0,0 +1,117 @@
+/**
+ * Pruebas del límite de peticiones por cliente: los listados se agotan antes que las reservas, cada clave de
+ * API configurada tiene su propio presupuesto, las desconocidas comparten el de la IP, el calentamiento local no se
+ * limita y el rechazo es un 429 con Retry-After y el cuerpo de error habitual.
+ */
+package com.citas.apicitas.controllers;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.citas.apicitas.Fixtures;
+
+@SpringBootTest(properties = {
+    "citas.limites.tasa.habilitada=true",
+    "citas.limites.tasa.claves=integracion-a,integracion-b,integracion-c",
+    "citas.limites.tasa.listados.capacidad=2",
+    "citas.limites.tasa.listados.por-segundo=0.01",
+    "citas.limites.tasa.reservas.capacidad=5",
+    "citas.limites.tasa.reservas.por-segundo=0.01"})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class RateLimitTests {
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ApplicationContext context;
+
+  @BeforeEach
+  void setUp() {
+    fixtures.reiniciar();
+  }
+
+  @Test
+  void listsAreLimitedPerClientBeforeBookings() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      mockMvc.perform(get("/api/citas").header("X-API-Key", "integracion-a"))
+        .andExpect(status().isOk());
+    }
+
+    mockMvc.perform(get("/api/citas").header("X-API-Key", "integracion-a"))
+      .andExpect(status().isTooManyRequests())
+      .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+      .andExpect(jsonPath("$.statusCode").value(429))
+      .andExpect(jsonPath("$.message").value("Rate limit exceeded for listados"));
+
+    mockMvc.perform(get("/api/citas").header("X-API-Key", "integracion-b"))
+      .andExpect(status().isOk());
+
+    mockMvc.perform(post("/api/citas")
+        .header("X-API-Key", "integracion-a")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"idProfesional\":1,\"idNumeroCedula\":1,\"fechaHora\":\"" + INICIO + "\"}"))
+      .andExpect(status().isCreated());
+  }
+
+  @Test
+  void unknownKeysShareTheClientAddressBudget() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      mockMvc.perform(get("/api/citas").header("X-API-Key", "desconocida-" + i))
+        .andExpect(status().isOk());
+    }
+
+    mockMvc.perform(get("/api/citas").header("X-API-Key", "desconocida-2"))
+      .andExpect(status().isTooManyRequests());
+
+    mockMvc.perform(get("/api/citas"))
+      .andExpect(status().isTooManyRequests());
+  }
+
+  @Test
+  void localRequestsAreNotLimitedBeforeTheInstanceIsReady() throws Exception {
+    AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+
+    try {
+      for (int i = 0; i < 5; i++) {
+        mockMvc.perform(get("/api/doctores").header("X-API-Key", "integracion-c"))
+          .andExpect(status().isOk());
+      }
+
+      mockMvc.perform(get("/api/doctores").header("X-API-Key", "integracion-c").with(peticion -> {
+        peticion.setRemoteAddr("203.0.113.7");
+        return peticion;
+      }))
+        .andExpect(status().isOk());
+    } finally {
+      AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    // Los cubos no se tocaron: la clave conserva su presupuesto completo menos la petición remota.
+    mockMvc.perform(get("/api/doctores").header("X-API-Key", "integracion-c"))
+      .andExpect(status().isOk());
+    mockMvc.perform(get("/api/doctores").header("X-API-Key", "integracion-c"))
+      .andExpect(status().isTooManyRequests());
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Pruebas de los formatos de respuesta de las páginas de citas sobre el servidor embebido: representación
+ * compacta, negociación de CBOR y compresión gzip.
+ */
+package com.citas.apicitas.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.citas.apicitas.dto.CompactCitaPage;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+class ResponseFormatTests {
+
+  private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+  private static final int CITAS = 40;
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @BeforeEach
+  void setUp() {
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+    pacienteRepository.deleteAll();
+
+    List<Doctor> doctores = new ArrayList<>();
+    List<Paciente> pacientes = new ArrayList<>();
+
+    for (long i = 1; i <= 2; i++) {
+      doctores.add(doctorRepository.save(new Doctor(i, "Doctor" + i, "Apellido" + i, "doctor" + i + "@eps.co",
+          Doctor.Especialidad.medicina_general, new HashSet<>())));
+      pacientes.add(pacienteRepository.save(new Paciente(i, "Paciente" + i, "Apellido" + i, "310000000" + i,
+          INICIO.minusYears(30), new HashSet<>())));
+    }
+
+    List<Cita> citas = new ArrayList<>();
+
+    for (int i = 0; i < CITAS; i++) {
+      Doctor doctor = doctores.get(i % 2);
+      Paciente paciente = pacientes.get(i / 2 % 2);
+      citas.add(new Cita(new CitaId(doctor.getIdProfesional(), paciente.getIdNumeroCedula(), INICIO.plusMinutes(30L * i)),
+          doctor, paciente));
+    }
+
+    citaRepository.saveAll(citas);
+  }
+
+  @Test
+  void compactPageListsEachDoctorAndPacienteOnce() throws Exception {
+    HttpResponse<byte[]> completa = get("application/json", null);
+    HttpResponse<byte[]> compacta = get(CompactCitaPage.MEDIA_TYPE, null);
+
+    assertThat(compacta.headers().firstValue("Content-Type")).hasValueSatisfying(
+        tipo -> assertThat(tipo).startsWith(CompactCitaPage.MEDIA_TYPE));
+
+    JsonNode pagina = objectMapper.readTree(compacta.body());
+
+    assertThat(pagina.get("citas")).hasSize(CITAS);
+    assertThat(pagina.get("doctores")).hasSize(2);
+    assertThat(pagina.get("pacientes")).hasSize(2);
+    assertThat(pagina.get("doctores").get("1").get("nombre").asText()).isEqualTo("Doctor1");
+    assertThat(compacta.body().length).isLessThan(completa.body().length);
+  }
+
+  @Test
+  void pageCanBeNegotiatedAsCbor() throws Exception {
+    HttpResponse<byte[]> json = get("application/json", null);
+    HttpResponse<byte[]> cbor = get("application/cbor", null);
+
+    assertThat(cbor.headers().firstValue("Content-Type")).hasValue("application/cbor");
+    assertThat(new CBORMapper().readTree(cbor.body())).isEqualTo(objectMapper.readTree(json.body()));
+    assertThat(cbor.body().length).isLessThan(json.body().length);
+  }
+
+  @Test
+  void largePagesAreGzipped() throws Exception {
+    HttpResponse<byte[]> plana = get("application/json", null);
+    HttpResponse<byte[]> gzip = get("application/json", "gzip");
+
+    assertThat(gzip.headers().firstValue("Content-Encoding")).hasValue("gzip");
+    assertThat(gzip.body().length).isLessThan(plana.body().length / 4);
+    assertThat(gunzip(gzip.body())).isEqualTo(plana.body());
+  }
+
+  private HttpResponse<byte[]> get(String accept, String acceptEncoding) throws IOException, InterruptedException {
+    HttpRequest.Builder peticion = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + port + "/api/citas?size=" + CITAS)).header("Accept", accept);
+
+    if (acceptEncoding != null) {
+      peticion.header("Accept-Encoding", acceptEncoding);
+    }
+
+    HttpResponse<byte[]> respuesta = client.send(peticion.build(), HttpResponse.BodyHandlers.ofByteArray());
+
+    assertThat(respuesta.statusCode()).isEqualTo(200);
+
+    return respuesta;
+  }
+
+  private static byte[] gunzip(byte[] comprimido) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(comprimido))) {
+      return in.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/**
+ * Pruebas de las búsquedas de pacientes y doctores: el índice sigue las altas, modificaciones y eliminaciones
+ * hechas por la API y por otras instancias, se puede reconstruir desde la base de datos, y las búsquedas no
+ * consultan la base de datos.
+ */
+package com.citas.apicitas.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.citas.apicitas.dto.SearchPage;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.outbox.OutboxRelay;
+import com.citas.apicitas.projections.DoctorSummary;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+import com.citas.apicitas.services.DoctorService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class SearchEndpointsTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private OutboxRelay outboxRelay;
+
+  @Autowired
+  private DoctorService doctorService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    citaRepository.deleteAll();
+
+    for (long id : new long[] {901, 902, 903}) {
+      if (pacienteRepository.existsById(id)) {
+        mockMvc.perform(delete("/api/pacientes/" + id));
+      }
+    }
+
+    for (long id : new long[] {901, 902}) {
+      if (doctorRepository.existsById(id)) {
+        mockMvc.perform(delete("/api/doctores/" + id));
+      }
+    }
+  }
+
+  @Test
+  void pacientesAreSearchedByNameAndPhone() throws Exception {
+    mockMvc.perform(post("/api/pacientes")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"idNumeroCedula\":901,\"nombre\":\"Ximena\",\"apellido\":\"Quiñones\","
+            + "\"telefono\":\"315 777 0901\",\"fechaNacimiento\":\"1990-01-01T00:00:00\"}"))
+      .andExpect(status().isCreated());
+    mockMvc.perform(post("/api/pacientes/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[{\"idNumeroCedula\":902,\"nombre\":\"Xiomara\",\"apellido\":\"Quintero\","
+            + "\"telefono\":\"3157770902\",\"fechaNacimiento\":\"1990-01-01T00:00:00\"},"
+            + "{\"idNumeroCedula\":903,\"nombre\":\"Xavier\",\"apellido\":\"Quiroga\","
+            + "\"telefono\":\"3157770903\",\"fechaNacimiento\":\"1990-01-01T00:00:00\"}]"))
+      .andExpect(status().isOk());
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc.perform(get("/api/pacientes/buscar").param("q", "xi qui").param("size", "1"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.resultados.length()").value(1))
+      .andExpect(jsonPath("$.resultados[0].idNumeroCedula").value(901))
+      .andExpect(jsonPath("$.siguiente").value(901));
+    mockMvc.perform(get("/api/pacientes/buscar").param("q", "xi qui").param("cursor", "901"))
+      .andExpect(jsonPath("$.resultados.length()").value(1))
+      .andExpect(jsonPath("$.resultados[0].nombre").value("Xiomara"))
+      .andExpect(jsonPath("$.siguiente").doesNotExist());
+    mockMvc.perform(get("/api/pacientes/buscar").param("q", "315777090"))
+      .andExpect(jsonPath("$.resultados.length()").value(3));
+
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+
+    mockMvc.perform(put("/api/pacientes/903")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"nombre\":\"Xavier\",\"apellido\":\"Zapata\",\"telefono\":\"3157770903\","
+            + "\"fechaNacimiento\":\"1990-01-01T00:00:00\"}"))
+      .andExpect(status().isOk());
+    mockMvc.perform(delete("/api/pacientes/901"))
+      .andExpect(status().isNoContent());
+
+    mockMvc.perform(get("/api/pacientes/buscar").param("q", "qui"))
+      .andExpect(jsonPath("$.resultados.length()").value(1))
+      .andExpect(jsonPath("$.resultados[0].idNumeroCedula").value(902));
+    mockMvc.perform(get("/api/pacientes/buscar").param("q", "zapata"))
+      .andExpect(jsonPath("$.resultados[0].idNumeroCedula").value(903));
+  }
+
+  @Test
+  void doctoresAreFilteredByEspecialidad() throws Exception {
+    mockMvc.perform(post("/api/doctores/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[{\"idProfesional\":901,\"nombre\":\"Yolanda\",\"apellido\":\"Yepes\","
+            + "\"correo\":\"yolanda.yepes@eps.co\",\"especialidad\":\"medicina_general\"},"
+            + "{\"idProfesional\":902,\"nombre\":\"Yesid\",\"apellido\":\"Yepes\","
+            + "\"correo\":\"yesid.yepes@eps.co\",\"especialidad\":\"medicina_interna\"}]"))
+      .andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/doctores/buscar").param("q", "yepes"))
+      .andExpect(jsonPath("$.resultados.length()").value(2));
+    mockMvc.perform(get("/api/doctores/buscar").param("q", "yepes").param("especialidad", "medicina_interna"))
+      .andExpect(jsonPath("$.resultados.length()").value(1))
+      .andExpect(jsonPath("$.resultados[0].correo").value("yesid.yepes@eps.co"));
+    mockMvc.perform(get("/api/doctores/buscar").param("q", "@"))
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void doctoresChangedByAnotherInstanceAreIndexed() throws Exception {
+    // Otra instancia da de alta un doctor y después lo elimina; esta solo ve sus eventos.
+    jdbcTemplate.update("insert into doctor (id_profesional, nombre, apellido, version, ultima_modificacion) "
+        + "values (901, 'Zacarías', 'Zuluaga', 0, current_timestamp)");
+    registrarEvento(OutboxEvent.DOCTOR_CREADO, "{\"idProfesional\":901,\"nombre\":\"Zacarías\","
+        + "\"apellido\":\"Zuluaga\",\"correo\":null,\"especialidad\":\"medicina_general\"}");
+
+    assertThat(esperarBusqueda("zulu", 1).getResultados()).extracting(DoctorSummary::idProfesional)
+        .containsExactly(901L);
+
+    jdbcTemplate.update("delete from doctor where id_profesional = 901");
+    registrarEvento(OutboxEvent.DOCTOR_ELIMINADO, null);
+
+    assertThat(esperarBusqueda("zulu", 0).getResultados()).isEmpty();
+  }
+
+  @Test
+  void rebuildPicksUpDoctoresWrittenOutsideTheApi() throws Exception {
+    // Carga directa en la base de datos, sin eventos.
+    jdbcTemplate.update("insert into doctor (id_profesional, nombre, apellido, version, ultima_modificacion) "
+        + "values (902, 'Wilmer', 'Walteros', 0, current_timestamp)");
+
+    assertThat(doctorService.buscar("walteros", null, null, 10).getResultados()).isEmpty();
+
+    mockMvc.perform(post("/api/doctores/buscar/reconstruir"))
+      .andExpect(status().isNoContent());
+
+    assertThat(doctorService.buscar("walteros", null, null, 10).getResultados()).extracting(DoctorSummary::idProfesional)
+        .containsExactly(902L);
+  }
+
+  private void registrarEvento(String tipo, String datos) {
+    jdbcTemplate.update("insert into evento (tipo, clave, datos, fecha) values (?, '901', ?, current_timestamp)",
+        tipo, datos);
+    outboxRelay.notificar();
+  }
+
+  private SearchPage<DoctorSummary> esperarBusqueda(String q, int esperados) throws InterruptedException {
+    SearchPage<DoctorSummary> pagina = doctorService.buscar(q, null, null, 10);
+
+    for (int i = 0; i < 100 && pagina.getResultados().size() != esperados; i++) {
+      Thread.sleep(50);
+      pagina = doctorService.buscar(q, null, null, 10);
+    }
+
+    return pagina;
+  }
+}
@@ -0,0 +1,204 @@
+/**
+ * Pruebas de la reserva con escritura diferida: POST /api/citas responde 202 en cuanto la cita está en el
+ * registro, la cita se inserta después y su franja no se puede volver a reservar mientras está pendiente.
+ * Una cita recuperada del registro cuya franja ya está ocupada se descarta con su evento.
+ */
+package com.citas.apicitas.controllers;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.citas.apicitas.Fixtures;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.outbox.OutboxEvent;
+import com.citas.apicitas.outbox.OutboxWriter;
+import com.citas.apicitas.repositories.PacienteRepository;
+import com.citas.apicitas.rollup.CitaRollup;
+import com.citas.apicitas.services.DoctorService;
+import com.citas.apicitas.services.PacienteService;
+import com.citas.apicitas.services.SlotLocks;
+import com.citas.apicitas.writebehind.CitaWriteBehind;
+import com.citas.apicitas.writebehind.WriteAheadLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@SpringBootTest(properties = "citas.escritura-diferida.habilitada=true")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class WriteBehindTests {
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @Autowired
+  private DoctorService doctorService;
+
+  @Autowired
+  private PacienteService pacienteService;
+
+  @Autowired
+  private SlotLocks slotLocks;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private OutboxWriter outboxWriter;
+
+  @Autowired
+  private CitaRollup citaRollup;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @DynamicPropertySource
+  static void directorio(DynamicPropertyRegistry registry) throws IOException {
+    String directorio = Files.createTempDirectory("citas-wal").toString();
+
+    registry.add("citas.escritura-diferida.directorio", () -> directorio);
+  }
+
+  @BeforeEach
+  void setUp() {
+    fixtures.reiniciar();
+  }
+
+  @Test
+  void acceptedCitaIsPersistedInTheBackground() throws Exception {
+    String location = mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(1, 1, INICIO)))
+      .andExpect(status().isAccepted())
+      .andExpect(jsonPath("$.idProfesional").value(1))
+      .andReturn()
+      .getResponse()
+      .getHeader("Location");
+
+    assertThat(location).contains("/api/citas/one-cita?idPaciente=1&idDoctor=1&fecha_hora=2030-03-04T08:00");
+
+    esperarCitas(1);
+
+    assertThat(citaRepository.findByClave(new CitaId(1, 1, INICIO))).isPresent();
+    mockMvc.perform(get(location))
+      .andExpect(status().isOk());
+  }
+
+  @Test
+  void bookedSlotIsRejectedWhetherPendingOrPersisted() throws Exception {
+    for (int intento = 0; intento < 2; intento++) {
+      mockMvc.perform(post("/api/citas")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(citaId(1, 1, INICIO.plusHours(1))))
+        .andExpect(status().is(intento == 0 ? 202 : 409));
+    }
+
+    esperarCitas(1);
+
+    mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(1, 1, INICIO.plusHours(1))))
+      .andExpect(status().isConflict());
+  }
+
+  @Test
+  void unknownDoctorIsRejectedBeforeAccepting() throws Exception {
+    mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(99, 1, INICIO)))
+      .andExpect(status().isNotFound())
+      .andExpect(header().doesNotExist("Location"));
+
+    Thread.sleep(300);
+
+    assertThat(citaRepository.count()).isZero();
+  }
+
+  @Test
+  void recoveredCitaForATakenSlotIsDiscardedWithItsEvent() throws Exception {
+    Paciente otro = pacienteRepository.save(Fixtures.paciente(2));
+    citaRepository.save(new Cita(new CitaId(1, 2, INICIO.plusHours(2)), doctorRepository.findById(1L).orElseThrow(),
+        otro));
+
+    // Registro de otra parada con una cita para la misma franja, que nunca llegó a insertarse.
+    Path directorio = Files.createTempDirectory("citas-wal-recuperado");
+    WriteAheadLog anterior = new WriteAheadLog(directorio, objectMapper, 1024 * 1024, Duration.ofSeconds(5));
+    anterior.abrir(entradas -> { });
+    anterior.append(new CitaId(1, 1, INICIO.plusHours(2)));
+    anterior.close();
+
+    Long ultimoEvento = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from evento", Long.class);
+
+    CitaWriteBehind recuperado = new CitaWriteBehind(
+        new WriteAheadLog(directorio, objectMapper, 1024 * 1024, Duration.ofSeconds(5)), citaRepository,
+        doctorService, pacienteService, slotLocks, transactionTemplate, entityManager, outboxWriter, citaRollup,
+        new SimpleMeterRegistry(), 10);
+    recuperado.iniciar();
+    recuperado.detener();
+
+    assertThat(citaRepository.count()).isEqualTo(1);
+    assertThat(jdbcTemplate.queryForObject("select count(*) from evento where id > ? and tipo = ?", Long.class,
+        ultimoEvento, OutboxEvent.CITA_DESCARTADA)).isEqualTo(1);
+  }
+
+  private void esperarCitas(long esperadas) throws InterruptedException {
+    for (int i = 0; i < 100 && citaRepository.count() < esperadas; i++) {
+      Thread.sleep(50);
+    }
+
+    assertThat(citaRepository.count()).isEqualTo(esperadas);
+  }
+
+  private static String citaId(long idProfesional, long idNumeroCedula, LocalDateTime fechaHora) {
+    return "{\"idProfesional\":" + idProfesional + ",\"idNumeroCedula\":" + idNumeroCedula
+        + ",\"fechaHora\":\"" + fechaHora + "\"}";
+  }
+}
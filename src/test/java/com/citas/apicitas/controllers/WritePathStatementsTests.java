@@ -0,0 +1,145 @@
+/**
+ * Pruebas de las rutas de escritura sin consultas previas: las altas y bajas se resuelven con una sola
+ * sentencia y las violaciones de clave primaria, clave foránea y restricción única se siguen devolviendo
+ * como 409 o 404.
+ */
+package com.citas.apicitas.controllers;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.citas.apicitas.Fixtures;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class WritePathStatementsTests {
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    fixtures.reiniciar();
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void doctorInsertIsOneStatementAndDuplicateIsConflict() throws Exception {
+    mockMvc.perform(post("/api/doctores")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(doctor(2)))
+      .andExpect(status().isCreated());
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+    mockMvc.perform(post("/api/doctores")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(doctor(2)))
+      .andExpect(status().isConflict())
+      .andExpect(jsonPath("$.message").value("Primary key already exists"));
+  }
+
+  @Test
+  void pacienteInsertIsOneStatementAndDuplicateIsConflict() throws Exception {
+    mockMvc.perform(post("/api/pacientes")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(paciente(2)))
+      .andExpect(status().isCreated());
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+    mockMvc.perform(post("/api/pacientes")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(paciente(2)))
+      .andExpect(status().isConflict())
+      .andExpect(jsonPath("$.message").value("Primary key already exists"));
+  }
+
+  @Test
+  void deletingMissingRowsIsOneStatementAndNotFound() throws Exception {
+    mockMvc.perform(delete("/api/doctores/{id}", 99))
+      .andExpect(status().isNotFound());
+    mockMvc.perform(delete("/api/pacientes/{id}", 99))
+      .andExpect(status().isNotFound());
+    mockMvc.perform(delete("/api/citas/{id}", 99))
+      .andExpect(status().isNotFound());
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+  }
+
+  @Test
+  void citaConstraintViolationsAreMappedToNotFoundAndConflict() throws Exception {
+    mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(1, 1, INICIO)))
+      .andExpect(status().isCreated());
+
+    // Secuencia del identificador sustituto e INSERT; ni el doctor ni el paciente se consultan.
+    assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+
+    mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(1, 1, INICIO)))
+      .andExpect(status().isConflict())
+      .andExpect(jsonPath("$.message").value("Slot already booked for doctor: 1"));
+
+    mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(99, 1, INICIO)))
+      .andExpect(status().isNotFound())
+      .andExpect(jsonPath("$.message").value("Doctor not found with id: 99"));
+
+    mockMvc.perform(post("/api/citas")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(citaId(1, 99, INICIO.plusHours(1))))
+      .andExpect(status().isNotFound())
+      .andExpect(jsonPath("$.message").value("Paciente not found with id: 99"));
+  }
+
+  private static String doctor(long id) {
+    return "{\"idProfesional\":" + id + ",\"nombre\":\"Doctor\",\"apellido\":\"Apellido\","
+        + "\"correo\":\"doctor" + id + "@eps.co\",\"especialidad\":\"medicina_general\"}";
+  }
+
+  private static String paciente(long id) {
+    return "{\"idNumeroCedula\":" + id + ",\"nombre\":\"Paciente\",\"apellido\":\"Apellido\","
+        + "\"telefono\":\"310000000" + id + "\",\"fechaNacimiento\":\"1990-01-01T00:00:00\"}";
+  }
+
+  private static String citaId(long idProfesional, long idNumeroCedula, LocalDateTime fechaHora) {
+    return "{\"idProfesional\":" + idProfesional + ",\"idNumeroCedula\":" + idNumeroCedula
+        + ",\"fechaHora\":\"" + fechaHora + "\"}";
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * Pruebas unitarias del límite adaptativo de concurrencia y del cubo de fichas.
+ */
+package com.citas.apicitas.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTests {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  void limitShrinksWhenLatencyRisesAndRecovers() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200, 2.0);
+
+    cargar(limiter, 200, 10 * MS);
+    int estable = limiter.getLimite();
+
+    assertThat(estable).isGreaterThanOrEqualTo(20);
+
+    cargar(limiter, 3, 100 * MS);
+    int congestionado = limiter.getLimite();
+
+    assertThat(congestionado).isLessThan(estable / 2);
+
+    cargar(limiter, 200, 10 * MS);
+
+    assertThat(limiter.getLimite()).isGreaterThan(congestionado);
+  }
+
+  @Test
+  void requestsBeyondTheLimitAreRejected() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0);
+
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isFalse();
+
+    limiter.release(-1);
+
+    assertThat(limiter.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void tokenBucketAllowsBurstThenRefills() {
+    long ahora = 0;
+    TokenBucket cubo = new TokenBucket(3, 10, ahora);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(cubo.tryAcquire(ahora)).isZero();
+    }
+
+    assertThat(cubo.tryAcquire(ahora)).isEqualTo(100 * MS);
+    assertThat(cubo.tryAcquire(ahora + 100 * MS)).isZero();
+    assertThat(cubo.tryAcquire(ahora + 100 * MS)).isPositive();
+  }
+
+  /**
+   * Simula peticiones con el limitador lleno, todas con la misma latencia.
+   */
+  private static void cargar(AdaptiveConcurrencyLimiter limiter, int peticiones, long latencia) {
+    for (int i = 0; i < peticiones; i++) {
+      int admitidas = 0;
+
+      while (limiter.tryAcquire()) {
+        admitidas++;
+      }
+
+      for (int j = 0; j < admitidas; j++) {
+        limiter.release(latencia);
+      }
+    }
+  }
+}
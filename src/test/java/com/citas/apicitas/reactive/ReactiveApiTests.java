@@ -0,0 +1,267 @@
+/**
+ * Pruebas de la variante WebFlux + R2DBC sobre H2: el mismo contrato que los controladores de Spring MVC
+ * (estados, cabecera Location, errores 404 y 409 traducidos de las restricciones), la paginación por clave
+ * frente al flujo NDJSON de todas las citas, y los eventos, contadores diarios y versiones de los listados que
+ * escriben también los servicios JPA.
+ */
+package com.citas.apicitas.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.citas.apicitas.dto.CitaPage;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.projections.CitaView;
+
+@SpringBootTest(classes = ReactiveCitasApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivo;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.flyway.url=jdbc:h2:mem:reactivo;DB_CLOSE_DELAY=-1",
+        "spring.flyway.user=sa"
+    })
+@ActiveProfiles(ReactiveCitasApplication.PERFIL)
+class ReactiveApiTests {
+
+  private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @BeforeEach
+  void setUp() {
+    databaseClient.sql("delete from cita").then()
+      .then(databaseClient.sql("delete from doctor").then())
+      .then(databaseClient.sql("delete from paciente").then())
+      .block();
+
+    for (long i = 1; i <= 2; i++) {
+      webTestClient.post().uri("/api/doctores")
+        .bodyValue(new Doctor(i, "Doctor" + i, "Apellido" + i, "doctor" + i + "@eps.co",
+            Doctor.Especialidad.medicina_general, new HashSet<>()))
+        .exchange()
+        .expectStatus().isCreated();
+      webTestClient.post().uri("/api/pacientes")
+        .bodyValue(new Paciente(i, "Paciente" + i, "Apellido" + i, "310000000" + i, INICIO.minusYears(30),
+            new HashSet<>()))
+        .exchange()
+        .expectStatus().isCreated();
+    }
+  }
+
+  @Test
+  void citaLifecycleKeepsTheServletContract() {
+    CitaId clave = new CitaId(1, 1, INICIO);
+
+    String location = webTestClient.post().uri("/api/citas")
+      .bodyValue(clave)
+      .exchange()
+      .expectStatus().isCreated()
+      .expectBody()
+      .jsonPath("$.idProfesional").isEqualTo(1)
+      .jsonPath("$.fechaHora").isEqualTo("2030-03-04T08:00:00")
+      .returnResult()
+      .getResponseHeaders()
+      .getFirst(HttpHeaders.LOCATION);
+
+    assertThat(location).matches(".*/api/citas/\\d+");
+
+    webTestClient.get().uri(location)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.id.idNumeroCedula").isEqualTo(1)
+      .jsonPath("$.version").doesNotExist()
+      .jsonPath("$.doctor.nombre").isEqualTo("Doctor1")
+      .jsonPath("$.paciente.nombre").isEqualTo("Paciente1");
+
+    webTestClient.post().uri("/api/citas")
+      .bodyValue(new CitaId(1, 2, INICIO))
+      .exchange()
+      .expectStatus().isEqualTo(409)
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Slot already booked for doctor: 1");
+
+    webTestClient.post().uri("/api/citas")
+      .bodyValue(new CitaId(9, 1, INICIO))
+      .exchange()
+      .expectStatus().isNotFound()
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Doctor not found with id: 9");
+
+    webTestClient.post().uri("/api/citas")
+      .bodyValue(new CitaId(2, 9, INICIO))
+      .exchange()
+      .expectStatus().isNotFound()
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Paciente not found with id: 9");
+
+    webTestClient.put().uri(location)
+      .bodyValue(new CitaId(2, 2, INICIO.plusHours(1)))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.id.idProfesional").isEqualTo(2)
+      .jsonPath("$.doctor.nombre").isEqualTo("Doctor2");
+
+    webTestClient.delete().uri(location)
+      .exchange()
+      .expectStatus().isNoContent();
+
+    webTestClient.delete().uri(location)
+      .exchange()
+      .expectStatus().isNotFound();
+  }
+
+  @Test
+  void doctorsAndPacientesKeepTheServletContract() {
+    webTestClient.post().uri("/api/doctores")
+      .bodyValue(new Doctor(1, "Otro", "Otro", "otro@eps.co", Doctor.Especialidad.medicina_interna, new HashSet<>()))
+      .exchange()
+      .expectStatus().isEqualTo(409)
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Primary key already exists");
+
+    webTestClient.put().uri("/api/doctores/2")
+      .bodyValue(new Doctor(2, "Otro", "Apellido2", "doctor2@eps.co", Doctor.Especialidad.medicina_interna,
+          new HashSet<>()))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.nombre").isEqualTo("Otro")
+      .jsonPath("$.version").doesNotExist();
+
+    webTestClient.get().uri("/api/doctores/especialidad/medicina_general")
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.length()").isEqualTo(1)
+      .jsonPath("$[0].idProfesional").isEqualTo(1);
+
+    webTestClient.get().uri("/api/pacientes")
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(String.class)
+      .value(cuerpo -> assertThat(cuerpo.lines()).hasSize(2));
+
+    webTestClient.delete().uri("/api/pacientes/3")
+      .exchange()
+      .expectStatus().isNotFound()
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Paciente not found with id: 3");
+  }
+
+  @Test
+  void writesRecordEventsCountersAndListVersions() {
+    long ultimoEvento = databaseClient.sql("select coalesce(max(id), 0) from evento")
+      .map(fila -> fila.get(0, Long.class))
+      .one()
+      .block();
+    long versionDoctores = versionDoctores();
+
+    String location = webTestClient.post().uri("/api/citas")
+      .bodyValue(new CitaId(1, 1, INICIO))
+      .exchange()
+      .expectStatus().isCreated()
+      .returnResult(CitaId.class)
+      .getResponseHeaders()
+      .getFirst(HttpHeaders.LOCATION);
+
+    webTestClient.put().uri(location)
+      .bodyValue(new CitaId(2, 1, INICIO.plusDays(1)))
+      .exchange()
+      .expectStatus().isOk();
+
+    webTestClient.put().uri("/api/doctores/1")
+      .bodyValue(new Doctor(1, "Otro", "Apellido1", "doctor1@eps.co", Doctor.Especialidad.medicina_general,
+          new HashSet<>()))
+      .exchange()
+      .expectStatus().isOk();
+
+    webTestClient.delete().uri(location)
+      .exchange()
+      .expectStatus().isNoContent();
+
+    assertThat(databaseClient.sql("select tipo from evento where id > :id order by id")
+        .bind("id", ultimoEvento)
+        .map(fila -> fila.get("tipo", String.class))
+        .all()
+        .collectList()
+        .block())
+      .containsExactly("cita.creada", "cita.modificada", "doctor.modificado", "cita.eliminada");
+    assertThat(databaseClient.sql("select total from cita_diaria where id_profesional in (1, 2)")
+        .map(fila -> fila.get("total", Integer.class))
+        .all()
+        .collectList()
+        .block())
+      .containsOnly(0);
+    assertThat(versionDoctores()).isEqualTo(versionDoctores + 1);
+  }
+
+  @Test
+  void pagesFollowTheStreamOrder() {
+    for (int i = 0; i < 7; i++) {
+      webTestClient.post().uri("/api/citas")
+        .bodyValue(new CitaId(i % 2 + 1, i / 2 % 2 + 1, INICIO.plusMinutes(30L * (i / 2))))
+        .exchange()
+        .expectStatus().isCreated();
+    }
+
+    List<CitaView> todas = webTestClient.get().uri("/api/citas")
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange()
+      .expectStatus().isOk()
+      .returnResult(CitaView.class)
+      .getResponseBody()
+      .collectList()
+      .block();
+
+    List<CitaView> paginadas = new ArrayList<>();
+    String cursor = null;
+
+    do {
+      String uri = cursor == null ? "/api/citas?size=3" : "/api/citas?size=3&cursor=" + cursor;
+      CitaPage pagina = webTestClient.get().uri(uri)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(CitaPage.class)
+        .returnResult()
+        .getResponseBody();
+
+      paginadas.addAll(pagina.getCitas());
+      cursor = pagina.getSiguiente();
+    } while (cursor != null);
+
+    assertThat(todas).hasSize(7);
+    assertThat(paginadas).isEqualTo(todas);
+    assertThat(todas.get(0).doctorNombre()).isEqualTo("Doctor1");
+  }
+
+  private long versionDoctores() {
+    return databaseClient.sql("select version from version_datos where tabla = 'doctor'")
+      .map(fila -> fila.get("version", Long.class))
+      .one()
+      .block();
+  }
+}
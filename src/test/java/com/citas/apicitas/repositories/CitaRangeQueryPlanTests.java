@@ -0,0 +1,123 @@
+/**
+ * Pruebas del plan de ejecución de las consultas por rango de citas.
+ * Capturan la sentencia SQL que genera cada método del repositorio (con las estadísticas de consultas de H2)
+ * y comprueban con EXPLAIN que se resuelve con un índice y no recorriendo toda la tabla.
+ */
+package com.citas.apicitas.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.projections.CitaView;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class CitaRangeQueryPlanTests {
+
+  private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 0, 0);
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  @BeforeEach
+  void setUp() {
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+    pacienteRepository.deleteAll();
+
+    List<Doctor> doctores = new ArrayList<>();
+    List<Paciente> pacientes = new ArrayList<>();
+
+    for (long d = 1; d <= 5; d++) {
+      doctores.add(doctorRepository.save(new Doctor(d, "Doctor" + d, "Apellido" + d, "doctor" + d + "@eps.co",
+          Doctor.Especialidad.medicina_general, new HashSet<>())));
+    }
+
+    for (long p = 1; p <= 20; p++) {
+      pacientes.add(pacienteRepository.save(new Paciente(p, "Paciente" + p, "Apellido" + p, "310000000" + p,
+          INICIO.minusYears(30), new HashSet<>())));
+    }
+
+    List<Cita> citas = new ArrayList<>();
+
+    for (int i = 0; i < 200; i++) {
+      Doctor doctor = doctores.get(i % doctores.size());
+      Paciente paciente = pacientes.get(i % pacientes.size());
+      citas.add(new Cita(new CitaId(doctor.getIdProfesional(), paciente.getIdNumeroCedula(), INICIO.plusHours(i)),
+          doctor, paciente));
+    }
+
+    citaRepository.saveAll(citas);
+    jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+  }
+
+  @Test
+  void patientRangeUsesPatientIndex() {
+    List<CitaView> citas = citaRepository.findByPacienteBetween(3, INICIO, INICIO.plusDays(7));
+
+    assertThat(citas).isNotEmpty().allMatch(cita -> cita.idNumeroCedula() == 3);
+    assertThat(explain(citaSelectFilteringBy("id_numero_cedula"),
+        3L, Timestamp.valueOf(INICIO), Timestamp.valueOf(INICIO.plusDays(7))))
+      .contains("IDX_CITA_PACIENTE_FECHA_HORA")
+      .doesNotContain("CITA.tableScan");
+  }
+
+  @Test
+  void dayRangeDoesNotScanCitas() {
+    List<CitaView> citas = citaRepository.findAllBetween(INICIO.plusDays(1), INICIO.plusDays(2));
+
+    assertThat(citas).hasSize(24);
+    assertThat(explain(citaSelectFilteringBy("fecha_hora>="),
+        Timestamp.valueOf(INICIO.plusDays(1)), Timestamp.valueOf(INICIO.plusDays(2))))
+      .doesNotContain("CITA.tableScan");
+  }
+
+  /**
+   * Devuelve la consulta sobre la tabla de citas cuya condición empieza por la columna indicada,
+   * según las estadísticas de consultas de H2.
+   */
+  private String citaSelectFilteringBy(String columna) {
+    List<String> sentencias = jdbcTemplate.queryForList(
+        "select SQL_STATEMENT from INFORMATION_SCHEMA.QUERY_STATISTICS where SQL_STATEMENT like ?",
+        String.class, "select%from cita %where %." + columna + "%");
+
+    assertThat(sentencias).hasSize(1);
+
+    return sentencias.get(0);
+  }
+
+  private String explain(String sql, Object... parametros) {
+    return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parametros));
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * Pruebas de las migraciones sobre una base de datos con el esquema de V1 y franjas con varias citas, como las
+ * que podía dejar ddl-auto=update: V2 mueve las duplicadas a cita_duplicada antes de crear la restricción única
+ * y V3 numera las citas que quedan.
+ */
+package com.citas.apicitas.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class SchemaMigrationTests {
+
+  @Test
+  void duplicateSlotsAreMovedAsideBeforeTheUniqueKey() {
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:migraciones;DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    flyway(dataSource).target("1").load().migrate();
+
+    jdbc.update("insert into doctor (id_profesional, nombre) values (1, 'Doctor1')");
+    jdbc.update("insert into paciente (id_numero_cedula, nombre) values (10, 'Paciente10'), (20, 'Paciente20')");
+    jdbc.update("insert into cita (fecha_hora, id_numero_cedula, id_profesional) values "
+        + "(timestamp '2030-03-04 08:00:00', 20, 1), (timestamp '2030-03-04 08:00:00', 10, 1), "
+        + "(timestamp '2030-03-04 08:30:00', 20, 1)");
+
+    flyway(dataSource).load().migrate();
+
+    assertThat(jdbc.queryForList("select id_numero_cedula from cita order by fecha_hora", Long.class))
+        .containsExactly(10L, 20L);
+    assertThat(jdbc.queryForList("select id from cita", Long.class)).doesNotContainNull().doesNotHaveDuplicates();
+    assertThat(jdbc.queryForList("select id_numero_cedula from cita_duplicada", Long.class)).containsExactly(20L);
+    assertThat(jdbc.queryForObject("select count(*) from information_schema.table_constraints "
+        + "where constraint_name = 'UK_CITA_PROFESIONAL_FECHA_HORA'", Integer.class)).isEqualTo(1);
+  }
+
+  private static FluentConfiguration flyway(DriverManagerDataSource dataSource) {
+    return Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2");
+  }
+}
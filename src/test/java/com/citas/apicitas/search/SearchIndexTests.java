@@ -0,0 +1,93 @@
+/**
+ * Pruebas unitarias del índice de búsqueda por prefijo: normalización, varios términos, paginación,
+ * actualización incremental y reconstrucción con cambios concurrentes.
+ */
+package com.citas.apicitas.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.citas.apicitas.dto.SearchPage;
+
+class SearchIndexTests {
+
+  private SearchIndex<String> index;
+
+  @BeforeEach
+  void setUp() {
+    index = new SearchIndex<>(3);
+
+    index.indexar(1, "maria", null, "María José", "Gómez Pérez", "310 555-0101");
+    index.indexar(2, "mario", null, "Mario", "Gonzalez", "3105550102");
+    index.indexar(3, "marta", "b", "Marta", "Gómez", "3205550103");
+    index.indexar(4, "jose", "b", "José", "Martínez", "3005550104");
+  }
+
+  @Test
+  void matchesPrefixesIgnoringCaseAndAccents() {
+    assertThat(index.buscar("MAR", null, null, 10).getResultados()).containsExactly("maria", "mario", "marta", "jose");
+    assertThat(index.buscar("gomez", null, null, 10).getResultados()).containsExactly("maria", "marta");
+    assertThat(index.buscar("gonz", null, null, 10).getResultados()).containsExactly("mario");
+    assertThat(index.buscar("3105550", null, null, 10).getResultados()).containsExactly("maria", "mario");
+  }
+
+  @Test
+  void everyTermMustMatchAndCategoryFilters() {
+    assertThat(index.buscar("jose gom", null, null, 10).getResultados()).containsExactly("maria");
+    assertThat(index.buscar("mar", "b", null, 10).getResultados()).containsExactly("marta", "jose");
+    assertThat(index.buscar("mario gomez", null, null, 10).getResultados()).isEmpty();
+  }
+
+  @Test
+  void pagesFollowTheCursor() {
+    SearchPage<String> primera = index.buscar("m", null, null, 2);
+
+    assertThat(primera.getResultados()).containsExactly("maria", "mario");
+    assertThat(primera.getSiguiente()).isEqualTo(2L);
+
+    SearchPage<String> segunda = index.buscar("m", null, primera.getSiguiente(), 2);
+
+    assertThat(segunda.getResultados()).containsExactly("marta", "jose");
+    assertThat(segunda.getSiguiente()).isNull();
+  }
+
+  @Test
+  void updatesAndDeletesAreReflected() {
+    index.indexar(2, "mario", null, "Mario", "Ruiz", "3105550102");
+    index.eliminar(3);
+
+    assertThat(index.buscar("gonzalez", null, null, 10).getResultados()).isEmpty();
+    assertThat(index.buscar("ruiz", null, null, 10).getResultados()).containsExactly("mario");
+    assertThat(index.buscar("marta", null, null, 10).getResultados()).isEmpty();
+    assertThat(index.buscar("mar", null, null, 10).getResultados()).containsExactly("maria", "mario", "jose");
+    assertThat(index.size()).isEqualTo(3);
+  }
+
+  @Test
+  void rebuildKeepsChangesMadeWhileLoading() {
+    index.reconstruir(carga -> {
+      // La carga leyó a Mario y a Marta antes de que se modificara el uno y se eliminara la otra.
+      index.indexar(2, "mario", null, "Mario", "Ruiz", "3105550102");
+      index.eliminar(3);
+
+      carga.indexar(2, "mario", null, "Mario", "Gonzalez", "3105550102");
+      carga.indexar(3, "marta", "b", "Marta", "Gómez", "3205550103");
+      carga.indexar(5, "ana", null, "Ana", "López", "3155550105");
+    });
+
+    assertThat(index.buscar("ruiz", null, null, 10).getResultados()).containsExactly("mario");
+    assertThat(index.buscar("gonzalez", null, null, 10).getResultados()).isEmpty();
+    assertThat(index.buscar("marta", null, null, 10).getResultados()).isEmpty();
+    assertThat(index.buscar("ana", null, null, 10).getResultados()).containsExactly("ana");
+    // María y José no estaban en la carga ni cambiaron: ya no existen.
+    assertThat(index.size()).isEqualTo(2);
+  }
+
+  @Test
+  void queriesWithoutTermsAreRejected() {
+    assertThatThrownBy(() -> index.buscar(" -@ ", null, null, 10)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Pruebas unitarias de la rejilla de horarios usada para calcular la disponibilidad de los doctores.
+ */
+package com.citas.apicitas.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class AgendaGridTests {
+
+  private static final Set<DayOfWeek> LABORALES = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+  /**
+   * Lunes 8 de enero de 2024.
+   */
+  private static final LocalDate LUNES = LocalDate.of(2024, 1, 8);
+
+  @Test
+  void excludesBookedSlotsAndNonWorkingDays() {
+    AgendaGrid grid = new AgendaGrid(LUNES, LUNES.plusDays(6), LocalTime.of(8, 0), LocalTime.of(10, 0), 30,
+        LABORALES, LUNES.minusDays(1).atStartOfDay());
+    BitSet ocupados = grid.nuevaAgenda();
+
+    grid.ocupar(ocupados, LUNES.atTime(8, 30));
+    grid.ocupar(ocupados, LUNES.atTime(9, 45));
+    grid.ocupar(ocupados, LUNES.atTime(18, 0));
+
+    List<LocalDateTime> libres = grid.libres(ocupados);
+
+    assertThat(libres).hasSize(5 * 4 - 2);
+    assertThat(libres).startsWith(LUNES.atTime(8, 0), LUNES.atTime(9, 0));
+    assertThat(libres).doesNotContain(LUNES.atTime(8, 30), LUNES.atTime(9, 30));
+    assertThat(libres).noneMatch(h -> h.getDayOfWeek() == DayOfWeek.SATURDAY || h.getDayOfWeek() == DayOfWeek.SUNDAY);
+  }
+
+  @Test
+  void excludesSlotsBeforeNow() {
+    AgendaGrid grid = new AgendaGrid(LUNES, LUNES, LocalTime.of(8, 0), LocalTime.of(10, 0), 30,
+        LABORALES, LUNES.atTime(8, 10));
+
+    assertThat(grid.libres(grid.nuevaAgenda()))
+      .containsExactly(LUNES.atTime(8, 30), LUNES.atTime(9, 0), LUNES.atTime(9, 30));
+  }
+}
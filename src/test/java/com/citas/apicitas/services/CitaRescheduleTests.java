@@ -0,0 +1,80 @@
+/**
+ * Pruebas de la reprogramación de citas: la cita conserva su fila e identificador sustituto,
+ * el cambio se escribe con un solo UPDATE y las modificaciones concurrentes se detectan por versión.
+ */
+package com.citas.apicitas.services;
+
+import static com.citas.apicitas.Fixtures.INICIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.citas.apicitas.Fixtures;
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.repositories.CitaRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class CitaRescheduleTests {
+
+  @Autowired
+  private Fixtures fixtures;
+
+  @Autowired
+  private CitaService citaService;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Cita cita;
+
+  @BeforeEach
+  void setUp() {
+    fixtures.reiniciar();
+
+    cita = fixtures.cita(INICIO);
+  }
+
+  @Test
+  void rescheduleUpdatesTheSameRowWithOneStatement() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    CitaId nuevaFranja = new CitaId(1, 1, INICIO.plusHours(2));
+    Cita modificada = citaService.modifyCita(cita.getClave(), nuevaFranja);
+
+    assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+    assertThat(statistics.getEntityInsertCount()).isZero();
+    assertThat(statistics.getEntityDeleteCount()).isZero();
+    // Lectura de la cita, comprobación de la franja nueva y el UPDATE.
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+    assertThat(modificada.getId()).isEqualTo(cita.getId());
+    assertThat(modificada.getVersion()).isEqualTo(cita.getVersion() + 1);
+    assertThat(citaRepository.findByClave(cita.getClave())).isEmpty();
+    assertThat(citaRepository.findByClave(nuevaFranja)).get().extracting(Cita::getId).isEqualTo(cita.getId());
+  }
+
+  @Test
+  void staleCopyCannotOverwriteAReschedule() {
+    citaService.modifyCita(cita.getClave(), new CitaId(1, 1, INICIO.plusHours(2)));
+
+    cita.setClave(new CitaId(1, 1, INICIO.plusHours(3)));
+
+    assertThatThrownBy(() -> citaRepository.save(cita)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Prueba de estrés de la reserva de citas: muchos hilos intentan reservar las mismas franjas
+ * de los mismos doctores con pacientes distintos y ninguna franja puede quedar reservada dos veces.
+ */
+package com.citas.apicitas.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.citas.apicitas.entities.Cita;
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.entities.Doctor;
+import com.citas.apicitas.entities.Paciente;
+import com.citas.apicitas.repositories.CitaRepository;
+import com.citas.apicitas.repositories.DoctorRepository;
+import com.citas.apicitas.repositories.PacienteRepository;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class CitaReservationStressTests {
+
+  private static final int DOCTORES = 4;
+
+  private static final int PACIENTES = 20;
+
+  private static final int FRANJAS = 10;
+
+  private static final int HILOS = 32;
+
+  private static final int INTENTOS_POR_HILO = 100;
+
+  private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+  @Autowired
+  private CitaService citaService;
+
+  @Autowired
+  private CitaRepository citaRepository;
+
+  @Autowired
+  private DoctorRepository doctorRepository;
+
+  @Autowired
+  private PacienteRepository pacienteRepository;
+
+  private final List<Doctor> doctores = new ArrayList<>();
+
+  private final List<Paciente> pacientes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    citaRepository.deleteAll();
+    doctorRepository.deleteAll();
+    pacienteRepository.deleteAll();
+    doctores.clear();
+    pacientes.clear();
+
+    for (long d = 1; d <= DOCTORES; d++) {
+      doctores.add(doctorRepository.save(new Doctor(d, "Doctor" + d, "Apellido" + d, "doctor" + d + "@eps.co",
+          Doctor.Especialidad.medicina_interna, new HashSet<>())));
+    }
+
+    for (long p = 1; p <= PACIENTES; p++) {
+      pacientes.add(pacienteRepository.save(new Paciente(p, "Paciente" + p, "Apellido" + p, "310000000" + p,
+          INICIO.minusYears(40), new HashSet<>())));
+    }
+  }
+
+  @Test
+  void concurrentBookingsNeverDoubleBookASlot() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+    CountDownLatch salida = new CountDownLatch(1);
+    Set<String> reservadas = ConcurrentHashMap.newKeySet();
+    AtomicInteger exitos = new AtomicInteger();
+    AtomicInteger conflictos = new AtomicInteger();
+    AtomicInteger errores = new AtomicInteger();
+
+    for (int h = 0; h < HILOS; h++) {
+      executor.submit(() -> {
+        salida.await();
+
+        for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          Doctor doctor = doctores.get(random.nextInt(DOCTORES));
+          Paciente paciente = pacientes.get(random.nextInt(PACIENTES));
+          CitaId id = new CitaId(doctor.getIdProfesional(), paciente.getIdNumeroCedula(),
+              INICIO.plusMinutes(30L * random.nextInt(FRANJAS)));
+
+          try {
+            citaService.addCita(id, new Cita(id, doctor, paciente));
+            exitos.incrementAndGet();
+            reservadas.add(id.getIdProfesional() + "@" + id.getFechaHora());
+          } catch (DataIntegrityViolationException ex) {
+            conflictos.incrementAndGet();
+          } catch (RuntimeException ex) {
+            errores.incrementAndGet();
+          }
+        }
+
+        return null;
+      });
+    }
+
+    salida.countDown();
+    executor.shutdown();
+    assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+    Set<Cita> citas = citaRepository.findAll();
+    Set<String> franjas = new HashSet<>();
+
+    for (Cita cita : citas) {
+      assertThat(franjas.add(cita.getClave().getIdProfesional() + "@" + cita.getClave().getFechaHora()))
+        .as("double booking for %s", cita.getClave())
+        .isTrue();
+    }
+
+    assertThat(errores.get()).isZero();
+    assertThat(exitos.get()).isEqualTo(citas.size()).isEqualTo(reservadas.size()).isEqualTo(DOCTORES * FRANJAS);
+    assertThat(exitos.get() + conflictos.get()).isEqualTo(HILOS * INTENTOS_POR_HILO);
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * Pruebas del calentamiento al arrancar: las peticiones se reparten entre las rutas configuradas y llegan
+ * mientras la aplicación todavía no acepta tráfico.
+ */
+package com.citas.apicitas.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "citas.arranque.calentamiento.habilitado=true",
+    "citas.arranque.calentamiento.rutas=/api/doctores,/api/pacientes",
+    "citas.arranque.calentamiento.peticiones=40",
+    "citas.arranque.calentamiento.concurrencia=4"
+})
+@AutoConfigureTestDatabase
+class WarmupRunnerTests {
+
+  @Autowired
+  private Peticiones peticiones;
+
+  @Autowired
+  private ApplicationAvailability availability;
+
+  @Test
+  void warmsUpConfiguredRoutesBeforeAcceptingTraffic() {
+    assertThat(peticiones.porRuta).containsOnlyKeys("/api/doctores", "/api/pacientes");
+    assertThat(peticiones.porRuta.get("/api/doctores")).hasValue(20);
+    assertThat(peticiones.porRuta.get("/api/pacientes")).hasValue(20);
+    assertThat(peticiones.estados).containsExactly(ReadinessState.REFUSING_TRAFFIC);
+    assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+  }
+
+  /**
+   * Peticiones recibidas por ruta y estado de disponibilidad de la aplicación al recibirlas.
+   */
+  static class Peticiones {
+
+    final Map<String, AtomicInteger> porRuta = new ConcurrentHashMap<>();
+
+    final Set<ReadinessState> estados = ConcurrentHashMap.newKeySet();
+  }
+
+  @TestConfiguration
+  static class Registro {
+
+    @Bean
+    Peticiones peticiones() {
+      return new Peticiones();
+    }
+
+    @Bean
+    Filter registroPeticiones(Peticiones peticiones, ApplicationAvailability availability) {
+      return (request, response, chain) -> {
+        peticiones.porRuta.computeIfAbsent(((HttpServletRequest) request).getRequestURI(), r -> new AtomicInteger())
+          .incrementAndGet();
+        peticiones.estados.add(availability.getReadinessState());
+        chain.doFilter(request, response);
+      };
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Pruebas unitarias del registro de escritura anticipada: recuperación de las entradas posteriores al
+ * checkpoint tras una parada sin vaciar, líneas incompletas al final de un segmento, borrado de segmentos,
+ * rechazo de las entradas cuando el hilo de escritura falla y resultado desconocido de las que se estaban
+ * escribiendo al agotarse la espera.
+ */
+package com.citas.apicitas.writebehind;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.citas.apicitas.entities.CitaId;
+import com.citas.apicitas.writebehind.WriteAheadLog.Entrada;
+import com.citas.apicitas.writebehind.WriteAheadLog.ResultadoDesconocidoException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+class WriteAheadLogTests {
+
+  private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+  private static final Duration ESPERA = Duration.ofSeconds(10);
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+  @TempDir
+  private Path directorio;
+
+  @Test
+  void recoversEntriesAfterCheckpointAndIgnoresTornTail() throws IOException {
+    List<Entrada> confirmadas = new CopyOnWriteArrayList<>();
+
+    WriteAheadLog wal = new WriteAheadLog(directorio, objectMapper, 1024 * 1024, ESPERA);
+    assertThat(wal.abrir(confirmadas::addAll)).isEmpty();
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(wal.append(cita(i)).seq()).isEqualTo(i + 1);
+    }
+
+    assertThat(confirmadas).extracting(Entrada::seq).containsExactly(1L, 2L, 3L, 4L, 5L);
+
+    wal.checkpoint(2);
+    wal.close();
+
+    // Una escritura interrumpida por la caída deja media línea al final del segmento.
+    Files.writeString(segmentos().get(0), "{\"seq\":6,\"clave\":{\"idProf", StandardCharsets.UTF_8,
+        StandardOpenOption.APPEND);
+
+    WriteAheadLog reabierto = new WriteAheadLog(directorio, objectMapper, 1024 * 1024, ESPERA);
+    List<Entrada> recuperadas = reabierto.abrir(entradas -> { });
+
+    assertThat(recuperadas).extracting(Entrada::seq).containsExactly(3L, 4L, 5L);
+    assertThat(recuperadas).extracting(Entrada::clave).containsExactly(cita(2), cita(3), cita(4));
+    assertThat(reabierto.append(cita(5)).seq()).isEqualTo(6);
+
+    reabierto.close();
+  }
+
+  @Test
+  void checkpointDeletesFullyPersistedSegments() throws IOException {
+    WriteAheadLog wal = new WriteAheadLog(directorio, objectMapper, 1, ESPERA);
+    wal.abrir(entradas -> { });
+
+    for (int i = 0; i < 3; i++) {
+      wal.append(cita(i));
+    }
+
+    assertThat(segmentos()).hasSize(4);
+
+    wal.checkpoint(2);
+    assertThat(segmentos()).hasSize(2);
+
+    wal.checkpoint(3);
+    assertThat(segmentos()).hasSize(1);
+
+    wal.close();
+
+    WriteAheadLog reabierto = new WriteAheadLog(directorio, objectMapper, 1, ESPERA);
+    assertThat(reabierto.abrir(entradas -> { })).isEmpty();
+    assertThat(reabierto.append(cita(3)).seq()).isEqualTo(4);
+
+    reabierto.close();
+  }
+
+  @Test
+  void writerFailureRejectsPendingAndLaterAppends() {
+    WriteAheadLog wal = new WriteAheadLog(directorio, objectMapper, 1024 * 1024, ESPERA);
+    wal.abrir(entradas -> {
+      throw new IllegalStateException("Persister queue is full");
+    });
+
+    // La entrada ya es durable aunque no se haya podido entregar: se confirma y se recuperará al reabrir.
+    assertThat(wal.append(cita(0)).seq()).isEqualTo(1);
+    assertThatThrownBy(() -> wal.append(cita(1)))
+      .isInstanceOf(IllegalStateException.class);
+
+    wal.close();
+
+    WriteAheadLog reabierto = new WriteAheadLog(directorio, objectMapper, 1024 * 1024, ESPERA);
+    assertThat(reabierto.abrir(entradas -> { })).extracting(Entrada::clave).containsExactly(cita(0));
+
+    reabierto.close();
+  }
+
+  @Test
+  void timeoutWhileWritingReportsAnUnknownOutcome() throws Exception {
+    CountDownLatch entregar = new CountDownLatch(1);
+
+    WriteAheadLog wal = new WriteAheadLog(directorio, objectMapper, 1024 * 1024, Duration.ofMillis(200));
+    wal.abrir(entradas -> {
+      try {
+        entregar.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    ResultadoDesconocidoException desconocido = catchThrowableOfType(() -> wal.append(cita(0)),
+        ResultadoDesconocidoException.class);
+
+    assertThat(desconocido).isNotNull();
+    assertThat(desconocido.getResultado()).isNotDone();
+
+    entregar.countDown();
+    assertThat(desconocido.getResultado().get(10, TimeUnit.SECONDS).clave()).isEqualTo(cita(0));
+
+    wal.close();
+  }
+
+  private List<Path> segmentos() throws IOException {
+    try (Stream<Path> ficheros = Files.list(directorio)) {
+      return ficheros.filter(f -> f.getFileName().toString().endsWith(".wal")).sorted().toList();
+    }
+  }
+
+  private static CitaId cita(int i) {
+    return new CitaId(1 + i % 2, 1, INICIO.plusMinutes(30L * i));
+  }
+}
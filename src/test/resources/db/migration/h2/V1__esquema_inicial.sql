@@ -0,0 +1,28 @@
+-- Esquema inicial para H2 (pruebas), equivalente al de MySQL con los tipos que genera Hibernate para H2.
+
+create table doctor (
+    id_profesional bigint not null,
+    apellido varchar(255),
+    correo varchar(255),
+    especialidad varchar(255) check (especialidad in ('medicina_general', 'medicina_interna')),
+    nombre varchar(255),
+    primary key (id_profesional)
+);
+
+create table paciente (
+    id_numero_cedula bigint not null,
+    fecha_nacimiento timestamp(6),
+    apellido varchar(255),
+    nombre varchar(255),
+    telefono varchar(255),
+    primary key (id_numero_cedula)
+);
+
+create table cita (
+    fecha_hora timestamp(6) not null,
+    id_numero_cedula bigint not null,
+    id_profesional bigint not null,
+    primary key (fecha_hora, id_numero_cedula, id_profesional),
+    constraint FKjbx6rwju8n5en4bt2axbj8m06 foreign key (id_profesional) references doctor (id_profesional),
+    constraint FK2wjwx5l6hm7bldrrqtdv8jfb8 foreign key (id_numero_cedula) references paciente (id_numero_cedula)
+);
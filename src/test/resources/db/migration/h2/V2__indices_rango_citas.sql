@@ -0,0 +1,28 @@
+-- Restricción única de franjas e índices para las consultas por rango, como en MySQL: en cada franja con varias
+-- citas se conserva la del paciente con menor cédula y las demás se mueven a cita_duplicada.
+
+create table cita_duplicada (
+    fecha_hora timestamp(6) not null,
+    id_numero_cedula bigint not null,
+    id_profesional bigint not null,
+    detectada timestamp(6) default current_timestamp(6) not null,
+    primary key (fecha_hora, id_numero_cedula, id_profesional)
+);
+
+insert into cita_duplicada (fecha_hora, id_numero_cedula, id_profesional)
+select fecha_hora, id_numero_cedula, id_profesional
+from (select fecha_hora, id_numero_cedula, id_profesional,
+             row_number() over (partition by id_profesional, fecha_hora order by id_numero_cedula) as orden
+      from cita) franjas
+where orden > 1;
+
+delete from cita c
+where exists (select 1 from cita_duplicada d
+              where d.fecha_hora = c.fecha_hora and d.id_numero_cedula = c.id_numero_cedula
+                and d.id_profesional = c.id_profesional);
+
+alter table cita add constraint if not exists uk_cita_profesional_fecha_hora unique (id_profesional, fecha_hora);
+
+create index idx_cita_paciente_fecha_hora on cita (id_numero_cedula, fecha_hora);
+
+create index idx_cita_fecha_hora on cita (fecha_hora);
@@ -0,0 +1,14 @@
+-- Identificador sustituto y versión (bloqueo optimista) para las citas.
+-- La clave natural (id_profesional, id_numero_cedula, fecha_hora) deja de ser la clave primaria;
+-- la restricción única (id_profesional, fecha_hora) sigue impidiendo citas duplicadas.
+
+create sequence cita_seq start with 1 increment by 50;
+
+alter table cita add column id bigint;
+alter table cita add column version bigint default 0 not null;
+
+update cita set id = next value for cita_seq;
+
+alter table cita drop primary key;
+alter table cita alter column id set not null;
+alter table cita add primary key (id);
@@ -0,0 +1,15 @@
+-- Respuestas de las peticiones con cabecera Idempotency-Key, compartidas por todos los nodos
+-- (citas.idempotencia.almacen=jdbc). Estado 0 = petición en curso.
+
+create table idempotencia (
+    clave varchar(255) not null,
+    huella char(64) not null,
+    estado int not null,
+    tipo_contenido varchar(255),
+    ubicacion varchar(2048),
+    cuerpo blob,
+    expira timestamp(6) not null,
+    primary key (clave)
+);
+
+create index idx_idempotencia_expira on idempotencia (expira);
@@ -0,0 +1,8 @@
+-- Versión y fecha de la última modificación de doctores y pacientes, de las que se derivan los ETag
+-- de las consultas por identificador. Las filas existentes toman la fecha de la migración.
+
+alter table doctor add column version bigint default 0 not null;
+alter table doctor add column ultima_modificacion timestamp(6) default current_timestamp not null;
+
+alter table paciente add column version bigint default 0 not null;
+alter table paciente add column ultima_modificacion timestamp(6) default current_timestamp not null;
@@ -0,0 +1,15 @@
+-- Número de citas por día y doctor, para GET /api/citas/estadisticas. CitaRollup lo actualiza en la misma
+-- transacción que cada alta, reprogramación o eliminación de una cita, y se puede reconstruir desde cita.
+-- No tiene clave foránea a doctor: las filas a cero de un doctor no deben impedir eliminarlo.
+
+create table cita_diaria (
+    fecha date not null,
+    id_profesional bigint not null,
+    total int not null,
+    primary key (fecha, id_profesional)
+);
+
+insert into cita_diaria (fecha, id_profesional, total)
+select cast(fecha_hora as date), id_profesional, count(*)
+from cita
+group by cast(fecha_hora as date), id_profesional;